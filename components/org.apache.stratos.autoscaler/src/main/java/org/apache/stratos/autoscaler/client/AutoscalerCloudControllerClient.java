@@ -19,6 +19,7 @@
 
 package org.apache.stratos.autoscaler.client;
 
+import org.apache.axis2.AxisFault;
 import org.apache.axis2.transport.http.HTTPConstants;
 import org.apache.commons.configuration.XMLConfiguration;
 import org.apache.commons.logging.Log;
@@ -42,6 +43,8 @@ import org.apache.stratos.common.partition.PartitionRef;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * This class will call cloud controller web service to take the action decided by Autoscaler
@@ -51,6 +54,7 @@ public class AutoscalerCloudControllerClient {
     private static final Log log = LogFactory.getLog(AutoscalerCloudControllerClient.class);
 
     private static CloudControllerServiceStub stub;
+    private static BlockingQueue<CloudControllerServiceStub> spawnStubPool;
 
     private AutoscalerCloudControllerClient() {
         try {
@@ -60,23 +64,39 @@ public class AutoscalerCloudControllerClient {
             String epr = "https://" + hostname + ":" + port + "/" + AutoscalerConstants.CLOUD_CONTROLLER_SERVICE_SFX;
             int cloudControllerClientTimeout = conf.getInt("autoscaler.cloudController.clientTimeout", 180000);
 
-            stub = new CloudControllerServiceStub(epr);
-            stub._getServiceClient().getOptions().setProperty(HTTPConstants.SO_TIMEOUT, cloudControllerClientTimeout);
-            stub._getServiceClient().getOptions().setProperty(HTTPConstants.CONNECTION_TIMEOUT,
-                    cloudControllerClientTimeout);
+            stub = createStub(epr, cloudControllerClientTimeout);
+
+            // Instances are spawned concurrently, hence each spawn request borrows a stub from the pool
+            int spawnStubPoolSize = Integer.getInteger(AutoscalerConstants.INSTANCE_SPAWNER_POOL_SIZE,
+                    AutoscalerConstants.DEFAULT_INSTANCE_SPAWNER_POOL_SIZE);
+            spawnStubPool = new ArrayBlockingQueue<CloudControllerServiceStub>(spawnStubPoolSize);
+            for (int i = 0; i < spawnStubPoolSize; i++) {
+                spawnStubPool.add(createStub(epr, cloudControllerClientTimeout));
+            }
         } catch (Exception e) {
             log.error("Could not initialize cloud controller client", e);
         }
     }
 
+    private static CloudControllerServiceStub createStub(String epr, int cloudControllerClientTimeout)
+            throws AxisFault {
+        CloudControllerServiceStub serviceStub = new CloudControllerServiceStub(epr);
+        serviceStub._getServiceClient().getOptions().setProperty(HTTPConstants.SO_TIMEOUT,
+                cloudControllerClientTimeout);
+        serviceStub._getServiceClient().getOptions().setProperty(HTTPConstants.CONNECTION_TIMEOUT,
+                cloudControllerClientTimeout);
+        return serviceStub;
+    }
+
     public static AutoscalerCloudControllerClient getInstance() {
         return InstanceHolder.INSTANCE;
     }
 
-    public synchronized MemberContext startInstance(PartitionRef partition,
-                                                    String clusterId, String clusterInstanceId,
-                                                    String networkPartitionId, int minMemberCount,
-                                                    String scalingDecisionId) throws SpawningException {
+    public MemberContext startInstance(PartitionRef partition,
+                                       String clusterId, String clusterInstanceId,
+                                       String networkPartitionId, int minMemberCount,
+                                       String scalingDecisionId) throws SpawningException {
+        CloudControllerServiceStub spawnStub = null;
         try {
             if (log.isInfoEnabled()) {
                 log.info(String.format("Trying to spawn an instance via cloud controller: " +
@@ -109,8 +129,9 @@ public class AutoscalerCloudControllerClient {
             memberContextProps.addProperty(scalingDecisionIdProp);
             instanceContext.setProperties(AutoscalerUtil.toStubProperties(memberContextProps));
 
+            spawnStub = spawnStubPool.take();
             long startTime = System.currentTimeMillis();
-            MemberContext memberContext = stub.startInstance(instanceContext);
+            MemberContext memberContext = spawnStub.startInstance(instanceContext);
 
             if (log.isDebugEnabled()) {
                 long endTime = System.currentTimeMillis();
@@ -132,6 +153,13 @@ public class AutoscalerCloudControllerClient {
             String message = e.getMessage();
             log.error(message, e);
             throw new SpawningException(message, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SpawningException("Interrupted while waiting for a cloud controller client", e);
+        } finally {
+            if (spawnStub != null) {
+                spawnStubPool.offer(spawnStub);
+            }
         }
     }
 
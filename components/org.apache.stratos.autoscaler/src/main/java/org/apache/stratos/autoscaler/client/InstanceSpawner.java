@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.client;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.autoscaler.context.member.MemberStatsContext;
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.apache.stratos.autoscaler.exception.cartridge.SpawningException;
+import org.apache.stratos.autoscaler.util.AutoscalerConstants;
+import org.apache.stratos.cloud.controller.stub.domain.MemberContext;
+import org.apache.stratos.common.threading.StratosThreadPool;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Spawns instances via the cloud controller without blocking the autoscaler rules. Spawn requests are
+ * queued per cluster and sent in the order they were made, one at a time per cluster, while requests of
+ * different clusters are sent concurrently. A cluster sends at most a batch of requests before giving
+ * way to other clusters. Queued requests are counted as non terminated members of the partition until
+ * the spawned member is added as a pending member, hence max instance limits are respected. The queue
+ * of a cluster is removed once all its requests have been sent.
+ */
+public class InstanceSpawner {
+
+    private static final Log log = LogFactory.getLog(InstanceSpawner.class);
+    private static volatile InstanceSpawner instance;
+
+    private final ExecutorService executorService;
+    private final int batchSize;
+    private final ConcurrentMap<String, ClusterSpawnQueue> clusterSpawnQueues;
+
+    /**
+     * @param executorService executor used for sending spawn requests
+     * @param batchSize       maximum number of requests of a cluster sent before giving way to other clusters
+     */
+    public InstanceSpawner(ExecutorService executorService, int batchSize) {
+        this.executorService = executorService;
+        this.batchSize = Math.max(1, batchSize);
+        this.clusterSpawnQueues = new ConcurrentHashMap<String, ClusterSpawnQueue>();
+    }
+
+    public static InstanceSpawner getInstance() {
+        if (instance == null) {
+            synchronized (InstanceSpawner.class) {
+                if (instance == null) {
+                    int poolSize = Integer.getInteger(AutoscalerConstants.INSTANCE_SPAWNER_POOL_SIZE,
+                            AutoscalerConstants.DEFAULT_INSTANCE_SPAWNER_POOL_SIZE);
+                    int batchSize = Integer.getInteger(AutoscalerConstants.INSTANCE_SPAWNER_BATCH_SIZE,
+                            AutoscalerConstants.DEFAULT_INSTANCE_SPAWNER_BATCH_SIZE);
+                    instance = new InstanceSpawner(StratosThreadPool.getExecutorService(
+                            AutoscalerConstants.INSTANCE_SPAWNER_THREAD_POOL_ID, poolSize), batchSize);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Queue a request to spawn an instance in the given partition.
+     *
+     * @param partitionContext  partition context to which the spawned member is added
+     * @param clusterId         cluster id
+     * @param clusterInstanceId cluster instance id
+     * @param minMemberCount    minimum member count of the network partition
+     * @param scalingDecisionId scaling decision id
+     */
+    public void spawn(ClusterLevelPartitionContext partitionContext, String clusterId, String clusterInstanceId,
+                      int minMemberCount, String scalingDecisionId) {
+        partitionContext.incrementSpawnRequestCount();
+
+        SpawnRequest request = new SpawnRequest(partitionContext, clusterId, clusterInstanceId, minMemberCount,
+                scalingDecisionId);
+        ClusterSpawnQueue clusterSpawnQueue;
+        do {
+            clusterSpawnQueue = clusterSpawnQueues.get(clusterId);
+            if (clusterSpawnQueue == null) {
+                ClusterSpawnQueue newClusterSpawnQueue = new ClusterSpawnQueue(clusterId);
+                clusterSpawnQueue = clusterSpawnQueues.putIfAbsent(clusterId, newClusterSpawnQueue);
+                if (clusterSpawnQueue == null) {
+                    clusterSpawnQueue = newClusterSpawnQueue;
+                }
+            }
+            // Queue removed after sending its last request is replaced by a new queue
+        } while (!clusterSpawnQueue.add(request));
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Spawn request queued: [cluster] %s [instance-id] %s [partition] %s " +
+                            "[queued requests] %d", clusterId, clusterInstanceId, partitionContext.getPartitionId(),
+                    clusterSpawnQueue.requests.size()));
+        }
+        schedule(clusterSpawnQueue);
+    }
+
+    private void schedule(ClusterSpawnQueue clusterSpawnQueue) {
+        if (!clusterSpawnQueue.scheduled.compareAndSet(false, true)) {
+            // Requests will be sent by the currently scheduled run
+            return;
+        }
+        try {
+            executorService.execute(clusterSpawnQueue);
+        } catch (RejectedExecutionException e) {
+            log.error(String.format("Could not send spawn requests: [cluster] %s", clusterSpawnQueue.clusterId), e);
+            SpawnRequest request;
+            while ((request = clusterSpawnQueue.requests.poll()) != null) {
+                request.partitionContext.decrementSpawnRequestCount();
+            }
+            clusterSpawnQueue.scheduled.set(false);
+            clusterSpawnQueue.removeIfIdle();
+        }
+    }
+
+    /**
+     * @return number of clusters having a spawn request queue
+     */
+    int getClusterSpawnQueueCount() {
+        return clusterSpawnQueues.size();
+    }
+
+    private void sendSpawnRequest(SpawnRequest request) {
+        ClusterLevelPartitionContext partitionContext = request.partitionContext;
+        try {
+            MemberContext memberContext = startInstance(partitionContext, request.clusterId,
+                    request.clusterInstanceId, request.minMemberCount, request.scalingDecisionId);
+            if (memberContext != null) {
+                partitionContext.addPendingMember(memberContext);
+                partitionContext.addMemberStatsContext(new MemberStatsContext(memberContext.getMemberId()));
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Pending member added, [member] %s [partition] %s",
+                            memberContext.getMemberId(), memberContext.getPartition().getId()));
+                }
+            } else {
+                log.error("Member context returned from cloud controller is null");
+            }
+        } catch (Exception e) {
+            log.error(String.format("Could not start instance: [cluster-id] %s [instance-id] %s",
+                    request.clusterId, request.clusterInstanceId), e);
+        } finally {
+            partitionContext.decrementSpawnRequestCount();
+        }
+    }
+
+    /**
+     * Start an instance in the given partition via the cloud controller.
+     */
+    MemberContext startInstance(ClusterLevelPartitionContext partitionContext, String clusterId,
+                                String clusterInstanceId, int minMemberCount, String scalingDecisionId)
+            throws SpawningException {
+        return AutoscalerCloudControllerClient.getInstance().startInstance(partitionContext.getPartition(),
+                clusterId, clusterInstanceId, partitionContext.getNetworkPartitionId(), minMemberCount,
+                scalingDecisionId);
+    }
+
+    /**
+     * Spawn requests of a cluster, sent by at most one thread at a time.
+     */
+    private class ClusterSpawnQueue implements Runnable {
+
+        private final String clusterId;
+        private final Queue<SpawnRequest> requests = new ConcurrentLinkedQueue<SpawnRequest>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        private boolean removed;
+
+        private ClusterSpawnQueue(String clusterId) {
+            this.clusterId = clusterId;
+        }
+
+        /**
+         * Add the request to the queue unless the queue has been removed.
+         */
+        private synchronized boolean add(SpawnRequest request) {
+            if (removed) {
+                return false;
+            }
+            requests.add(request);
+            return true;
+        }
+
+        /**
+         * Remove the queue of the cluster if no request is queued or being sent.
+         */
+        private synchronized void removeIfIdle() {
+            if (requests.isEmpty() && !scheduled.get()) {
+                removed = true;
+                clusterSpawnQueues.remove(clusterId, this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < batchSize; i++) {
+                    SpawnRequest request = requests.poll();
+                    if (request == null) {
+                        break;
+                    }
+                    sendSpawnRequest(request);
+                }
+            } finally {
+                scheduled.set(false);
+                // Requests queued while sending the batch are sent in a new run
+                if (!requests.isEmpty()) {
+                    schedule(this);
+                } else {
+                    removeIfIdle();
+                }
+            }
+        }
+    }
+
+    private static class SpawnRequest {
+
+        private final ClusterLevelPartitionContext partitionContext;
+        private final String clusterId;
+        private final String clusterInstanceId;
+        private final int minMemberCount;
+        private final String scalingDecisionId;
+
+        private SpawnRequest(ClusterLevelPartitionContext partitionContext, String clusterId,
+                             String clusterInstanceId, int minMemberCount, String scalingDecisionId) {
+            this.partitionContext = partitionContext;
+            this.clusterId = clusterId;
+            this.clusterInstanceId = clusterInstanceId;
+            this.minMemberCount = minMemberCount;
+            this.scalingDecisionId = scalingDecisionId;
+        }
+    }
+}
@@ -45,6 +45,8 @@ public class ClusterInstanceContext extends InstanceContext {
     private final String partitionAlgorithm;
     // Map<PartitionId, Partition Context>
     protected Map<String, ClusterLevelPartitionContext> partitionCtxts;
+    // Statistics and their reset flags are updated by health stat event listeners, which may run on
+    // multiple receiver threads, and reset by monitors, hence they are accessed while holding the lock
     //boolean values to keep whether the requests in flight parameters are reset or not
     private boolean rifReset, averageRifReset, gradientRifReset, secondDerivativeRifRest;
     //boolean values to keep whether the memory consumption parameters are reset or not
@@ -73,18 +75,23 @@ public class ClusterInstanceContext extends InstanceContext {
 
     private boolean hasScalingDependants;
     private boolean groupScalingEnabledSubtree;
+    // Knowledge sessions are created when first used, they are not used by the java scaling evaluator
     private StatefulKnowledgeSession minCheckKnowledgeSession;
     private StatefulKnowledgeSession maxCheckKnowledgeSession;
     private StatefulKnowledgeSession obsoleteCheckKnowledgeSession;
     private StatefulKnowledgeSession scaleCheckKnowledgeSession;
     private StatefulKnowledgeSession dependentScaleCheckKnowledgeSession;
-    private AutoscalerRuleEvaluator autoscalerRuleEvaluator;
     private FactHandle minCheckFactHandle;
     private FactHandle maxCheckFactHandle;
     private FactHandle obsoleteCheckFactHandle;
     private FactHandle scaleCheckFactHandle;
     private FactHandle dependentScaleCheckFactHandle;
 
+    // Predicted member statistics, valid while the member statistics version remains the same
+    private long predictedMemberStatsVersion = -1;
+    private double predictedLoadAverage;
+    private double predictedMemoryConsumption;
+
     public ClusterInstanceContext(String clusterInstanceId, String partitionAlgo,
                                   int min, int max, String networkPartitionId, String clusterId,
                                   boolean hasScalingDependants, boolean groupScalingEnabledSubtree) {
@@ -103,19 +110,6 @@ public class ClusterInstanceContext extends InstanceContext {
         requiredInstanceCountBasedOnDependencies = minInstanceCount;
         this.hasScalingDependants = hasScalingDependants;
         this.groupScalingEnabledSubtree = groupScalingEnabledSubtree;
-
-        autoscalerRuleEvaluator = AutoscalerRuleEvaluator.getInstance();
-
-        this.obsoleteCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
-                StratosConstants.OBSOLETE_CHECK_DROOL_FILE);
-        this.scaleCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
-                StratosConstants.SCALE_CHECK_DROOL_FILE);
-        this.minCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
-                StratosConstants.MIN_CHECK_DROOL_FILE);
-        this.maxCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
-                StratosConstants.MAX_CHECK_DROOL_FILE);
-        this.dependentScaleCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
-                StratosConstants.DEPENDENT_SCALE_CHECK_DROOL_FILE);
     }
 
     public List<ClusterLevelPartitionContext> getPartitionCtxts() {
@@ -124,6 +118,7 @@ public class ClusterInstanceContext extends InstanceContext {
 
     public void setPartitionCtxt(Map<String, ClusterLevelPartitionContext> partitionCtxt) {
         this.partitionCtxts = partitionCtxt;
+        invalidatePredictedMemberStats();
     }
 
 //    public ClusterLevelPartitionContext getNetworkPartitionCtxt(String PartitionId) {
@@ -140,11 +135,13 @@ public class ClusterInstanceContext extends InstanceContext {
 
     public void addPartitionCtxt(ClusterLevelPartitionContext ctxt) {
         this.partitionCtxts.put(ctxt.getPartitionId(), ctxt);
+        invalidatePredictedMemberStats();
     }
 
     public void removePartitionCtxt(String partitionId) {
         if (partitionCtxts.containsKey(partitionId)) {
             partitionCtxts.remove(partitionId);
+            invalidatePredictedMemberStats();
         }
     }
 
@@ -242,7 +239,7 @@ public class ClusterInstanceContext extends InstanceContext {
         return requestsInFlight.getAverage();
     }
 
-    public void setAverageRequestsInFlight(float averageRequestsInFlight) {
+    public synchronized void setAverageRequestsInFlight(float averageRequestsInFlight) {
         requestsInFlight.setAverage(averageRequestsInFlight);
         averageRifReset = true;
         if (secondDerivativeRifRest && gradientRifReset) {
@@ -258,7 +255,7 @@ public class ClusterInstanceContext extends InstanceContext {
         return requestsInFlight.getSecondDerivative();
     }
 
-    public void setRequestsInFlightSecondDerivative(float requestsInFlightSecondDerivative) {
+    public synchronized void setRequestsInFlightSecondDerivative(float requestsInFlightSecondDerivative) {
         requestsInFlight.setSecondDerivative(requestsInFlightSecondDerivative);
         secondDerivativeRifRest = true;
         if (averageRifReset && gradientRifReset) {
@@ -274,7 +271,7 @@ public class ClusterInstanceContext extends InstanceContext {
         return requestsInFlight.getGradient();
     }
 
-    public void setRequestsInFlightGradient(float requestsInFlightGradient) {
+    public synchronized void setRequestsInFlightGradient(float requestsInFlightGradient) {
         requestsInFlight.setGradient(requestsInFlightGradient);
         gradientRifReset = true;
         if (secondDerivativeRifRest && averageRifReset) {
@@ -286,11 +283,11 @@ public class ClusterInstanceContext extends InstanceContext {
         }
     }
 
-    public boolean isRifReset() {
+    public synchronized boolean isRifReset() {
         return rifReset;
     }
 
-    public void setRifReset(boolean rifReset) {
+    public synchronized void setRifReset(boolean rifReset) {
         this.rifReset = rifReset;
         this.averageRifReset = rifReset;
         this.gradientRifReset = rifReset;
@@ -302,7 +299,7 @@ public class ClusterInstanceContext extends InstanceContext {
         return memoryConsumption.getAverage();
     }
 
-    public void setAverageMemoryConsumption(float averageMemoryConsumption) {
+    public synchronized void setAverageMemoryConsumption(float averageMemoryConsumption) {
         memoryConsumption.setAverage(averageMemoryConsumption);
         averageMemoryConsumptionReset = true;
         if (secondDerivativeMemoryConsumptionRest && gradientMemoryConsumptionReset) {
@@ -318,7 +315,7 @@ public class ClusterInstanceContext extends InstanceContext {
         return memoryConsumption.getSecondDerivative();
     }
 
-    public void setMemoryConsumptionSecondDerivative(float memoryConsumptionSecondDerivative) {
+    public synchronized void setMemoryConsumptionSecondDerivative(float memoryConsumptionSecondDerivative) {
         memoryConsumption.setSecondDerivative(memoryConsumptionSecondDerivative);
         secondDerivativeMemoryConsumptionRest = true;
         if (averageMemoryConsumptionReset && gradientMemoryConsumptionReset) {
@@ -334,7 +331,7 @@ public class ClusterInstanceContext extends InstanceContext {
         return memoryConsumption.getGradient();
     }
 
-    public void setMemoryConsumptionGradient(float memoryConsumptionGradient) {
+    public synchronized void setMemoryConsumptionGradient(float memoryConsumptionGradient) {
         memoryConsumption.setGradient(memoryConsumptionGradient);
         gradientMemoryConsumptionReset = true;
         if (secondDerivativeMemoryConsumptionRest && averageMemoryConsumptionReset) {
@@ -346,11 +343,11 @@ public class ClusterInstanceContext extends InstanceContext {
         }
     }
 
-    public boolean isMemoryConsumptionReset() {
+    public synchronized boolean isMemoryConsumptionReset() {
         return memoryConsumptionReset;
     }
 
-    public void setMemoryConsumptionReset(boolean memoryConsumptionReset) {
+    public synchronized void setMemoryConsumptionReset(boolean memoryConsumptionReset) {
         this.memoryConsumptionReset = memoryConsumptionReset;
         this.averageMemoryConsumptionReset = memoryConsumptionReset;
         this.gradientMemoryConsumptionReset = memoryConsumptionReset;
@@ -362,7 +359,7 @@ public class ClusterInstanceContext extends InstanceContext {
         return loadAverage.getAverage();
     }
 
-    public void setAverageLoadAverage(float averageLoadAverage) {
+    public synchronized void setAverageLoadAverage(float averageLoadAverage) {
         loadAverage.setAverage(averageLoadAverage);
         averageLoadAverageReset = true;
         if (secondDerivativeLoadAverageRest && gradientLoadAverageReset) {
@@ -378,7 +375,7 @@ public class ClusterInstanceContext extends InstanceContext {
         return loadAverage.getSecondDerivative();
     }
 
-    public void setLoadAverageSecondDerivative(float loadAverageSecondDerivative) {
+    public synchronized void setLoadAverageSecondDerivative(float loadAverageSecondDerivative) {
         loadAverage.setSecondDerivative(loadAverageSecondDerivative);
         secondDerivativeLoadAverageRest = true;
         if (averageLoadAverageReset && gradientLoadAverageReset) {
@@ -394,7 +391,7 @@ public class ClusterInstanceContext extends InstanceContext {
         return loadAverage.getGradient();
     }
 
-    public void setLoadAverageGradient(float loadAverageGradient) {
+    public synchronized void setLoadAverageGradient(float loadAverageGradient) {
         loadAverage.setGradient(loadAverageGradient);
         gradientLoadAverageReset = true;
         if (secondDerivativeLoadAverageRest && averageLoadAverageReset) {
@@ -406,11 +403,11 @@ public class ClusterInstanceContext extends InstanceContext {
         }
     }
 
-    public boolean isLoadAverageReset() {
+    public synchronized boolean isLoadAverageReset() {
         return loadAverageReset;
     }
 
-    public void setLoadAverageReset(boolean loadAverageReset) {
+    public synchronized void setLoadAverageReset(boolean loadAverageReset) {
         this.loadAverageReset = loadAverageReset;
         this.averageLoadAverageReset = loadAverageReset;
         this.gradientLoadAverageReset = loadAverageReset;
@@ -503,42 +500,68 @@ public class ClusterInstanceContext extends InstanceContext {
         return groupScalingEnabledSubtree;
     }
 
-    public StatefulKnowledgeSession getMinCheckKnowledgeSession() {
+    public synchronized StatefulKnowledgeSession getMinCheckKnowledgeSession() {
+        if (minCheckKnowledgeSession == null) {
+            minCheckKnowledgeSession = AutoscalerRuleEvaluator.getInstance().getStatefulSession(
+                    StratosConstants.MIN_CHECK_DROOL_FILE);
+        }
         return minCheckKnowledgeSession;
     }
 
-    public void setMinCheckKnowledgeSession(
+    public synchronized void setMinCheckKnowledgeSession(
             StatefulKnowledgeSession minCheckKnowledgeSession) {
         this.minCheckKnowledgeSession = minCheckKnowledgeSession;
     }
 
-    public StatefulKnowledgeSession getMaxCheckKnowledgeSession() {
+    public synchronized StatefulKnowledgeSession getMaxCheckKnowledgeSession() {
+        if (maxCheckKnowledgeSession == null) {
+            maxCheckKnowledgeSession = AutoscalerRuleEvaluator.getInstance().getStatefulSession(
+                    StratosConstants.MAX_CHECK_DROOL_FILE);
+        }
         return maxCheckKnowledgeSession;
     }
 
-    public StatefulKnowledgeSession getObsoleteCheckKnowledgeSession() {
+    public synchronized void setMaxCheckKnowledgeSession(
+            StatefulKnowledgeSession maxCheckKnowledgeSession) {
+        this.maxCheckKnowledgeSession = maxCheckKnowledgeSession;
+    }
+
+    public synchronized StatefulKnowledgeSession getObsoleteCheckKnowledgeSession() {
+        if (obsoleteCheckKnowledgeSession == null) {
+            obsoleteCheckKnowledgeSession = AutoscalerRuleEvaluator.getInstance().getStatefulSession(
+                    StratosConstants.OBSOLETE_CHECK_DROOL_FILE);
+        }
         return obsoleteCheckKnowledgeSession;
     }
 
-    public void setObsoleteCheckKnowledgeSession(
+    public synchronized void setObsoleteCheckKnowledgeSession(
             StatefulKnowledgeSession obsoleteCheckKnowledgeSession) {
         this.obsoleteCheckKnowledgeSession = obsoleteCheckKnowledgeSession;
     }
 
-    public StatefulKnowledgeSession getScaleCheckKnowledgeSession() {
+    public synchronized StatefulKnowledgeSession getScaleCheckKnowledgeSession() {
+        if (scaleCheckKnowledgeSession == null) {
+            scaleCheckKnowledgeSession = AutoscalerRuleEvaluator.getInstance().getStatefulSession(
+                    StratosConstants.SCALE_CHECK_DROOL_FILE);
+        }
         return scaleCheckKnowledgeSession;
     }
 
-    public void setScaleCheckKnowledgeSession(
+    public synchronized void setScaleCheckKnowledgeSession(
             StatefulKnowledgeSession scaleCheckKnowledgeSession) {
         this.scaleCheckKnowledgeSession = scaleCheckKnowledgeSession;
     }
 
-    public StatefulKnowledgeSession getDependentScaleCheckKnowledgeSession() {
+    public synchronized StatefulKnowledgeSession getDependentScaleCheckKnowledgeSession() {
+        if (dependentScaleCheckKnowledgeSession == null) {
+            dependentScaleCheckKnowledgeSession = AutoscalerRuleEvaluator.getInstance().getStatefulSession(
+                    StratosConstants.DEPENDENT_SCALE_CHECK_DROOL_FILE);
+        }
         return dependentScaleCheckKnowledgeSession;
     }
 
-    public void setDependentScaleCheckKnowledgeSession(StatefulKnowledgeSession dependentScaleCheckKnowledgeSession) {
+    public synchronized void setDependentScaleCheckKnowledgeSession(
+            StatefulKnowledgeSession dependentScaleCheckKnowledgeSession) {
         this.dependentScaleCheckKnowledgeSession = dependentScaleCheckKnowledgeSession;
     }
 
@@ -581,4 +604,39 @@ public class ClusterInstanceContext extends InstanceContext {
     public void setDependentScaleCheckFactHandle(FactHandle dependentScaleCheckFactHandle) {
         this.dependentScaleCheckFactHandle = dependentScaleCheckFactHandle;
     }
+
+    /**
+     * Version of the member statistics of all partitions, changes whenever member statistics
+     * of this cluster instance are added, removed or updated.
+     */
+    public long getMemberStatsVersion() {
+        long memberStatsVersion = 0;
+        for (ClusterLevelPartitionContext partitionContext : partitionCtxts.values()) {
+            memberStatsVersion += partitionContext.getMemberStatsVersion();
+        }
+        return memberStatsVersion;
+    }
+
+    public synchronized long getPredictedMemberStatsVersion() {
+        return predictedMemberStatsVersion;
+    }
+
+    public synchronized double getPredictedLoadAverage() {
+        return predictedLoadAverage;
+    }
+
+    public synchronized double getPredictedMemoryConsumption() {
+        return predictedMemoryConsumption;
+    }
+
+    public synchronized void setPredictedMemberStats(long memberStatsVersion, double predictedLoadAverage,
+                                                     double predictedMemoryConsumption) {
+        this.predictedMemberStatsVersion = memberStatsVersion;
+        this.predictedLoadAverage = predictedLoadAverage;
+        this.predictedMemoryConsumption = predictedMemoryConsumption;
+    }
+
+    private synchronized void invalidatePredictedMemberStats() {
+        predictedMemberStatsVersion = -1;
+    }
 }
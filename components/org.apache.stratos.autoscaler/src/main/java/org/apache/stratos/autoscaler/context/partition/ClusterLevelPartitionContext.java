@@ -37,6 +37,9 @@ import java.io.Serializable;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This is an object that inserted to the rules engine.
@@ -58,8 +61,8 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
     private long pendingMemberExpiryTime = 900000;
     //
     private boolean spinTerminateParallel;
-    // pending members
-    private List<MemberContext> pendingMembers;
+    // pending members, keyed by member id, added by instance spawner threads
+    private ConcurrentMap<String, MemberContext> pendingMembers;
 
     // 1 day as default
     private long obsoltedMemberExpiryTime = 1 * 24 * 60 * 60 * 1000;
@@ -70,11 +73,11 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
     // members to be terminated
     private Map<String, MemberContext> obsoletedMembers;
 
-    // active members
-    private List<MemberContext> activeMembers;
+    // active members, keyed by member id
+    private Map<String, MemberContext> activeMembers;
 
     // termination pending members, member is added to this when Autoscaler send grace fully shut down event
-    private List<MemberContext> terminationPendingMembers;
+    private Map<String, MemberContext> terminationPendingMembers;
 
 
     //member id: time that member is moved to termination pending status
@@ -83,24 +86,33 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
     //Keep statistics come from CEP
     private Map<String, MemberStatsContext> memberStatsContexts;
 
+    // Instances requested from the cloud controller which are not yet added as pending members
+    private final AtomicInteger spawnRequestCount = new AtomicInteger();
+
+    // Incremented whenever member statistics are added, removed or updated
+    private final AtomicLong memberStatsVersion = new AtomicLong();
+
     // for the use of tests
     public ClusterLevelPartitionContext(long memberExpiryTime) {
         super(memberExpiryTime);
-        this.activeMembers = new ArrayList<MemberContext>();
-        this.terminationPendingMembers = new ArrayList<MemberContext>();
-        this.pendingMembers = new ArrayList<MemberContext>();
+        this.activeMembers = new ConcurrentHashMap<String, MemberContext>();
+        this.terminationPendingMembers = new ConcurrentHashMap<String, MemberContext>();
+        this.pendingMembers = new ConcurrentHashMap<String, MemberContext>();
+        this.obsoletedMembers = new ConcurrentHashMap<String, MemberContext>();
+        this.memberStatsContexts = new ConcurrentHashMap<String, MemberStatsContext>();
+        this.terminationPendingStartedTime = new ConcurrentHashMap<String, Long>();
     }
 
     public ClusterLevelPartitionContext(PartitionRef partition, String networkPartitionId, String deploymentPolicyId) {
 
         super(partition, networkPartitionId, deploymentPolicyId);
-        this.pendingMembers = new ArrayList<MemberContext>();
-        this.activeMembers = new ArrayList<MemberContext>();
-        this.terminationPendingMembers = new ArrayList<MemberContext>();
+        this.pendingMembers = new ConcurrentHashMap<String, MemberContext>();
+        this.activeMembers = new ConcurrentHashMap<String, MemberContext>();
+        this.terminationPendingMembers = new ConcurrentHashMap<String, MemberContext>();
         this.obsoletedMembers = new ConcurrentHashMap<String, MemberContext>();
         memberStatsContexts = new ConcurrentHashMap<String, MemberStatsContext>();
 
-        terminationPendingStartedTime = new HashMap<String, Long>();
+        terminationPendingStartedTime = new ConcurrentHashMap<String, Long>();
         // check if a different value has been set for expiryTime
         XMLConfiguration conf = ConfUtil.getInstance(null).getConfiguration();
         pendingMemberExpiryTime = conf.getLong(StratosConstants.PENDING_MEMBER_EXPIRY_TIMEOUT, 900000);
@@ -124,21 +136,21 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
     public void terminateAllRemainingInstances() {
 
         // Forcefully deleting remaining active members
-        for (Iterator<MemberContext> iterator = activeMembers.iterator(); iterator.hasNext(); ) {
+        for (Iterator<MemberContext> iterator = activeMembers.values().iterator(); iterator.hasNext(); ) {
             MemberContext member = iterator.next();
             iterator.remove();
             terminateForcefully(member.getMemberId());
         }
 
         // Forcefully deleting remaining pending members
-        for (Iterator<MemberContext> iterator = pendingMembers.iterator(); iterator.hasNext(); ) {
+        for (Iterator<MemberContext> iterator = pendingMembers.values().iterator(); iterator.hasNext(); ) {
             MemberContext member = iterator.next();
             iterator.remove();
             terminateForcefully(member.getMemberId());
         }
 
         /// Forcefully deleting remaining termination pending members
-        for (Iterator<MemberContext> iterator = terminationPendingMembers.iterator(); iterator.hasNext(); ) {
+        for (Iterator<MemberContext> iterator = terminationPendingMembers.values().iterator(); iterator.hasNext(); ) {
             MemberContext member = iterator.next();
             // Remove the current element from the iterator and the list.
             iterator.remove();
@@ -169,12 +181,12 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
         return terminationPendingStartedTime.get(memberId);
     }
 
-    public List<MemberContext> getPendingMembers() {
-        return pendingMembers;
+    public Collection<MemberContext> getPendingMembers() {
+        return pendingMembers.values();
     }
 
-    public void setPendingMembers(List<MemberContext> pendingMembers) {
-        this.pendingMembers = pendingMembers;
+    public void setPendingMembers(Collection<MemberContext> pendingMembers) {
+        this.pendingMembers = toMemberMap(pendingMembers);
     }
 
     public int getActiveMemberCount() {
@@ -190,106 +202,74 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
     }
 
     public void addPendingMember(MemberContext ctxt) {
-        this.pendingMembers.add(ctxt);
+        this.pendingMembers.put(ctxt.getMemberId(), ctxt);
+    }
+
+    public int getSpawnRequestCount() {
+        return spawnRequestCount.get();
+    }
+
+    public void incrementSpawnRequestCount() {
+        spawnRequestCount.incrementAndGet();
+    }
+
+    public void decrementSpawnRequestCount() {
+        spawnRequestCount.decrementAndGet();
     }
 
     public void addTerminationPendingMember(MemberContext ctxt) {
-        this.terminationPendingMembers.add(ctxt);
+        this.terminationPendingMembers.put(ctxt.getMemberId(), ctxt);
     }
 
     public boolean removePendingMember(String id) {
         if (id == null) {
             return false;
         }
-        synchronized (pendingMembers) {
-            for (Iterator<MemberContext> iterator = pendingMembers.iterator(); iterator.hasNext(); ) {
-                MemberContext pendingMember = iterator.next();
-                if (id.equals(pendingMember.getMemberId())) {
-                    iterator.remove();
-                    if (memberStatsContexts.get(pendingMember.getMemberId()) != null) {
-                        memberStatsContexts.remove(pendingMember.getMemberId());
-                    }
-                    return true;
-                }
-
-            }
+        if (pendingMembers.remove(id) == null) {
+            return false;
+        }
+        if (memberStatsContexts.get(id) != null) {
+            removeMemberStatsContext(id);
         }
-        return false;
+        return true;
     }
 
     public void movePendingMemberToActiveMembers(String memberId) {
         if (memberId == null) {
             return;
         }
-        synchronized (pendingMembers) {
-            Iterator<MemberContext> iterator = pendingMembers.listIterator();
-            while (iterator.hasNext()) {
-                MemberContext pendingMember = iterator.next();
-                if (pendingMember == null) {
-                    iterator.remove();
-                    continue;
-                }
-                if (memberId.equals(pendingMember.getMemberId())) {
-                    // member is activated
-                    // remove from pending list
-                    iterator.remove();
-                    // add to the activated list
-                    this.activeMembers.add(pendingMember);
-                    pendingMembersFailureCount = 0;
-                    if (log.isDebugEnabled()) {
-                        log.debug(String.format("Pending member is removed and added to the " +
-                                "activated member list. [Member Id] %s", memberId));
-                    }
-                    break;
-                }
+        MemberContext pendingMember = pendingMembers.remove(memberId);
+        if (pendingMember != null) {
+            // member is activated, add to the activated members
+            this.activeMembers.put(memberId, pendingMember);
+            pendingMembersFailureCount = 0;
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Pending member is removed and added to the " +
+                        "activated member list. [Member Id] %s", memberId));
             }
         }
     }
 
     public boolean activeMemberAvailable(String memberId) {
-        for (MemberContext activeMember : activeMembers) {
-            if (memberId.equals(activeMember.getMemberId())) {
-                return true;
-            }
-        }
-        return false;
+        return activeMembers.containsKey(memberId);
     }
 
     public boolean pendingMemberAvailable(String memberId) {
-
-        for (MemberContext pendingMember : pendingMembers) {
-            if (memberId.equals(pendingMember.getMemberId())) {
-                return true;
-            }
-        }
-        return false;
+        return pendingMembers.containsKey(memberId);
     }
 
     public void moveActiveMemberToTerminationPendingMembers(String memberId) {
         if (memberId == null) {
             return;
         }
-        synchronized (activeMembers) {
-            Iterator<MemberContext> iterator = activeMembers.listIterator();
-            while (iterator.hasNext()) {
-                MemberContext activeMember = iterator.next();
-                if (activeMember == null) {
-                    iterator.remove();
-                    continue;
-                }
-                if (memberId.equals(activeMember.getMemberId())) {
-                    // member is activated
-                    // remove from pending list
-                    iterator.remove();
-                    // add to the activated list
-                    this.terminationPendingMembers.add(activeMember);
-                    terminationPendingStartedTime.put(memberId, System.currentTimeMillis());
-                    if (log.isDebugEnabled()) {
-                        log.debug(String.format("Active member is removed and added to the " +
-                                "termination pending member list. [Member Id] %s", memberId));
-                    }
-                    break;
-                }
+        MemberContext activeMember = activeMembers.remove(memberId);
+        if (activeMember != null) {
+            // start time is recorded before the termination pending member watcher could see the member
+            terminationPendingStartedTime.put(memberId, System.currentTimeMillis());
+            this.terminationPendingMembers.put(memberId, activeMember);
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Active member is removed and added to the " +
+                        "termination pending member list. [Member Id] %s", memberId));
             }
         }
     }
@@ -304,9 +284,8 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
             return;
         }
 
-        // check active member list
-        Iterator<MemberContext> activeMemberIterator = activeMembers.listIterator();
-        MemberContext removedMember = this.removeMemberFrom(activeMemberIterator, memberId);
+        // check active members
+        MemberContext removedMember = activeMembers.remove(memberId);
         if (removedMember != null) {
             this.addObsoleteMember(removedMember);
             removedMember.setObsoleteInitTime(System.currentTimeMillis());
@@ -318,9 +297,8 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
             return;
         }
 
-        // check pending member list
-        Iterator<MemberContext> pendingMemberIterator = pendingMembers.listIterator();
-        removedMember = this.removeMemberFrom(pendingMemberIterator, memberId);
+        // check pending members
+        removedMember = pendingMembers.remove(memberId);
         if (removedMember != null) {
             this.addObsoleteMember(removedMember);
             removedMember.setObsoleteInitTime(System.currentTimeMillis());
@@ -332,9 +310,8 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
             return;
         }
 
-        // check termination pending member list
-        Iterator<MemberContext> terminationPendingMembersIterator = terminationPendingMembers.listIterator();
-        removedMember = this.removeMemberFrom(terminationPendingMembersIterator, memberId);
+        // check termination pending members
+        removedMember = terminationPendingMembers.remove(memberId);
         if (removedMember != null) {
             this.addObsoleteMember(removedMember);
             removedMember.setObsoleteInitTime(System.currentTimeMillis());
@@ -345,53 +322,16 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
         }
     }
 
-    /**
-     * Removes the {@link org.apache.stratos.cloud.controller.stub.domain.MemberContext} object mapping
-     * to the specified member id from the specified MemberContext collection
-     *
-     * @param iterator The {@link java.util.Iterator} for the collection containing {@link org.apache.stratos.cloud.controller.stub.domain.MemberContext}
-     *                 objects
-     * @param memberId Member Id {@link String} for the {@link org.apache.stratos.cloud.controller.stub.domain.MemberContext}
-     *                 to be removed
-     * @return {@link org.apache.stratos.cloud.controller.stub.domain.MemberContext} object if
-     * object found and removed, null if otherwise.
-     */
-    private MemberContext removeMemberFrom(Iterator<MemberContext> iterator, String memberId) {
-        while (iterator.hasNext()) {
-            MemberContext activeMember = iterator.next();
-            if (activeMember == null) {
-                iterator.remove();
-                continue;
-            }
-            if (memberId.equals(activeMember.getMemberId())) {
-                iterator.remove();
-                return activeMember;
-            }
-        }
-
-        return null;
-    }
-
     public void addActiveMember(MemberContext ctxt) {
-        this.activeMembers.add(ctxt);
+        this.activeMembers.put(ctxt.getMemberId(), ctxt);
     }
 
     public void removeActiveMember(MemberContext ctxt) {
-        this.activeMembers.remove(ctxt);
+        this.activeMembers.remove(ctxt.getMemberId());
     }
 
     public boolean removeTerminationPendingMember(String memberId) {
-        boolean terminationPendingMemberAvailable = false;
-        synchronized (terminationPendingMembers) {
-            for (MemberContext memberContext : terminationPendingMembers) {
-                if (memberContext.getMemberId().equals(memberId)) {
-                    terminationPendingMemberAvailable = true;
-                    terminationPendingMembers.remove(memberContext);
-                    break;
-                }
-            }
-        }
-        return terminationPendingMemberAvailable;
+        return terminationPendingMembers.remove(memberId) != null;
     }
 
     public long getObsoltedMemberExpiryTime() {
@@ -444,10 +384,23 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
 
     public void addMemberStatsContext(MemberStatsContext ctxt) {
         this.memberStatsContexts.put(ctxt.getMemberId(), ctxt);
+        memberStatsVersion.incrementAndGet();
     }
 
     public void removeMemberStatsContext(String memberId) {
         this.memberStatsContexts.remove(memberId);
+        memberStatsVersion.incrementAndGet();
+    }
+
+    /**
+     * Notify that statistics of a member in this partition have been updated.
+     */
+    public void memberStatsUpdated() {
+        memberStatsVersion.incrementAndGet();
+    }
+
+    public long getMemberStatsVersion() {
+        return memberStatsVersion.get();
     }
 
     public MemberStatsContext getPartitionCtxt(String id) {
@@ -474,12 +427,12 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
         this.serviceName = serviceName;
     }
 
-    public List<MemberContext> getTerminationPendingMembers() {
-        return terminationPendingMembers;
+    public Collection<MemberContext> getTerminationPendingMembers() {
+        return terminationPendingMembers.values();
     }
 
-    public void setTerminationPendingMembers(List<MemberContext> terminationPendingMembers) {
-        this.terminationPendingMembers = terminationPendingMembers;
+    public void setTerminationPendingMembers(Collection<MemberContext> terminationPendingMembers) {
+        this.terminationPendingMembers = toMemberMap(terminationPendingMembers);
     }
 
     public int getTotalMemberCount() {
@@ -488,52 +441,34 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
     }
 
     public int getNonTerminatedMemberCount() {
-        int nonTerminatedMemberCount = 0;
+        // Requested instances are counted to respect max instance limits until they become pending members
+        int nonTerminatedMemberCount = spawnRequestCount.get();
         if (spinTerminateParallel) {
             // Returning all the pending members as there shouldn't be a spawning
             // before complete termination.
             // Will be applicable only when having min1*max1 situation
-            nonTerminatedMemberCount = activeMembers.size() + pendingMembers.size() +
+            nonTerminatedMemberCount += activeMembers.size() + pendingMembers.size() +
                     terminationPendingMembers.size() + obsoletedMembers.size();
         } else {
-            nonTerminatedMemberCount = activeMembers.size() + pendingMembers.size();
+            nonTerminatedMemberCount += activeMembers.size() + pendingMembers.size();
         }
         return nonTerminatedMemberCount;
     }
 
-    public List<MemberContext> getActiveMembers() {
-        return activeMembers;
+    public Collection<MemberContext> getActiveMembers() {
+        return activeMembers.values();
     }
 
-    public void setActiveMembers(List<MemberContext> activeMembers) {
-        this.activeMembers = activeMembers;
+    public void setActiveMembers(Collection<MemberContext> activeMembers) {
+        this.activeMembers = toMemberMap(activeMembers);
     }
 
     public boolean removeActiveMemberById(String memberId) {
-        boolean removeActiveMember = false;
-        synchronized (activeMembers) {
-            Iterator<MemberContext> iterator = activeMembers.listIterator();
-            while (iterator.hasNext()) {
-                MemberContext memberContext = iterator.next();
-                if (memberId.equals(memberContext.getMemberId())) {
-                    iterator.remove();
-                    removeActiveMember = true;
-
-                    break;
-                }
-            }
-        }
-        return removeActiveMember;
+        return activeMembers.remove(memberId) != null;
     }
 
     public boolean activeMemberExist(String memberId) {
-
-        for (MemberContext memberContext : activeMembers) {
-            if (memberId.equals(memberContext.getMemberId())) {
-                return true;
-            }
-        }
-        return false;
+        return activeMembers.containsKey(memberId);
     }
 
     public int getAllMemberForTerminationCount() {
@@ -544,30 +479,16 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
         return count;
     }
 
-    // Map<String, MemberStatsContext> getMemberStatsContexts().keySet()
     public Set<String> getAllMemberForTermination() {
-
-        List<MemberContext> merged = new ArrayList<MemberContext>();
-
-
-        merged.addAll(activeMembers);
-        merged.addAll(pendingMembers);
-        merged.addAll(terminationPendingMembers);
-
-        Set<String> results = new HashSet<String>(merged.size());
-
-        for (MemberContext ctx : merged) {
-            results.add(ctx.getMemberId());
-        }
-
+        Set<String> results = new HashSet<String>(activeMembers.size() + pendingMembers.size() +
+                terminationPendingMembers.size());
+        results.addAll(activeMembers.keySet());
+        results.addAll(pendingMembers.keySet());
+        results.addAll(terminationPendingMembers.keySet());
 
         if (log.isDebugEnabled()) {
             log.debug("PartitionContext:getAllMemberForTermination:size:" + results.size());
         }
-
-        //MemberContext x = new MemberContext();
-        //x.getMemberId()
-
         return results;
     }
 
@@ -577,49 +498,25 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
         if (memberId == null) {
             return;
         }
-        Iterator<MemberContext> iterator = terminationPendingMembers.listIterator();
-        while (iterator.hasNext()) {
-            MemberContext terminationPendingMember = iterator.next();
-            if (terminationPendingMember == null) {
-                iterator.remove();
-                continue;
-            }
-            if (memberId.equals(terminationPendingMember.getMemberId())) {
-
-                log.info("Found termination pending member and trying to move [member] " + memberId + " to obsolete list");
-                // member is pending termination
-                // remove from pending termination list
-                iterator.remove();
-
-                // add to the obsolete list
-                this.obsoletedMembers.put(memberId, terminationPendingMember);
-
+        MemberContext terminationPendingMember = terminationPendingMembers.remove(memberId);
+        if (terminationPendingMember != null) {
+            log.info("Found termination pending member and moving [member] " + memberId + " to obsolete list");
+            // add to the obsolete list
+            this.obsoletedMembers.put(memberId, terminationPendingMember);
 
-                if (log.isDebugEnabled()) {
-                    log.debug(String.format("Termination pending member is removed and added to the " +
-                            "obsolete member list. [Member Id] %s", memberId));
-                }
-                break;
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Termination pending member is removed and added to the " +
+                        "obsolete member list. [Member Id] %s", memberId));
             }
         }
     }
 
     public MemberContext getPendingTerminationMember(String memberId) {
-        for (MemberContext memberContext : terminationPendingMembers) {
-            if (memberId.equals(memberContext.getMemberId())) {
-                return memberContext;
-            }
-        }
-        return null;
+        return terminationPendingMembers.get(memberId);
     }
 
     public MemberContext getObsoleteMember(String memberId) {
-        for (MemberContext memberContext : obsoletedMembers.values()) {
-            if (memberId.equals(memberContext.getMemberId())) {
-                return memberContext;
-            }
-        }
-        return null;
+        return obsoletedMembers.get(memberId);
     }
 
     public long getTerminationPendingMemberExpiryTime() {
@@ -630,27 +527,23 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
         if (memberId == null) {
             return;
         }
-        Iterator<MemberContext> iterator = pendingMembers.listIterator();
-        while (iterator.hasNext()) {
-            MemberContext pendingMember = iterator.next();
-            if (pendingMember == null) {
-                iterator.remove();
-                continue;
-            }
-            if (memberId.equals(pendingMember.getMemberId())) {
-
-                // remove from pending list
-                iterator.remove();
-                // add to the obsolete list
-                this.obsoletedMembers.put(memberId, pendingMember);
-                if (log.isDebugEnabled()) {
-                    log.debug(String.format("Pending member is removed and added to the " +
-                            "obsolete member list. [Member Id] %s", memberId));
-                }
-                break;
+        MemberContext pendingMember = pendingMembers.remove(memberId);
+        if (pendingMember != null) {
+            // add to the obsolete list
+            this.obsoletedMembers.put(memberId, pendingMember);
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Pending member is removed and added to the " +
+                        "obsolete member list. [Member Id] %s", memberId));
             }
         }
+    }
 
+    private static ConcurrentMap<String, MemberContext> toMemberMap(Collection<MemberContext> members) {
+        ConcurrentMap<String, MemberContext> memberMap = new ConcurrentHashMap<String, MemberContext>();
+        for (MemberContext member : members) {
+            memberMap.put(member.getMemberId(), member);
+        }
+        return memberMap;
     }
 
     private class PendingMemberWatcher implements Runnable {
@@ -667,50 +560,46 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
             while (true) {
 
                 long expiryTime = ctxt.getPendingMemberExpiryTime();
-                List<MemberContext> pendingMembers = ctxt.getPendingMembers();
-
-                synchronized (pendingMembers) {
-                    Iterator<MemberContext> iterator = pendingMembers.listIterator();
-                    while (iterator.hasNext()) {
-                        MemberContext pendingMember = iterator.next();
-                        String clusterInstanceId = pendingMember.getClusterInstanceId();
-                        String clusterId = pendingMember.getClusterId();
-                        String serviceName = pendingMember.getCartridgeType();
-                        Service service = TopologyManager.getTopology().
-                                getService(serviceName);
-
-                        ClusterStatus status = ClusterStatus.Terminated;
-                        if (service != null) {
-                            Cluster cluster = service.getCluster(clusterId);
-                            if (cluster != null) {
-                                ClusterInstance instance = cluster.
-                                        getInstanceContexts(clusterInstanceId);
-                                if (instance != null) {
-                                    status = instance.getStatus();
-                                }
+                Iterator<MemberContext> iterator = ctxt.getPendingMembers().iterator();
+                while (iterator.hasNext()) {
+                    MemberContext pendingMember = iterator.next();
+                    String clusterInstanceId = pendingMember.getClusterInstanceId();
+                    String clusterId = pendingMember.getClusterId();
+                    String serviceName = pendingMember.getCartridgeType();
+                    Service service = TopologyManager.getTopology().
+                            getService(serviceName);
+
+                    ClusterStatus status = ClusterStatus.Terminated;
+                    if (service != null) {
+                        Cluster cluster = service.getCluster(clusterId);
+                        if (cluster != null) {
+                            ClusterInstance instance = cluster.
+                                    getInstanceContexts(clusterInstanceId);
+                            if (instance != null) {
+                                status = instance.getStatus();
                             }
                         }
+                    }
 
-                        if (pendingMember == null) {
-                            continue;
-                        }
+                    if (pendingMember == null) {
+                        continue;
+                    }
 
-                        long pendingTime = System.currentTimeMillis() - pendingMember.getInitTime();
-                        if (pendingTime >= expiryTime || status.equals(ClusterStatus.Terminating)) {
-
-                            log.info(String.format("Pending state of member expired, member will be moved to obsolete list. " +
-                                            "[pending member] %s [expiry time] %s [cluster] %s " + "[cluster instance] %s",
-                                    pendingMember.getMemberId(), expiryTime, pendingMember.getClusterId(),
-                                    pendingMember.getClusterInstanceId()));
-                            iterator.remove();
-                            // member should be terminated
-                            ctxt.addObsoleteMember(pendingMember);
-                            pendingMembersFailureCount++;
-                            if (pendingMembersFailureCount > PENDING_MEMBER_FAILURE_THRESHOLD) {
-                                setPendingMemberExpiryTime(expiryTime * 2);//Doubles the expiry time after the threshold
-                                // of failure exceeded
-                                //TODO Implement an alerting system: STRATOS-369
-                            }
+                    long pendingTime = System.currentTimeMillis() - pendingMember.getInitTime();
+                    if (pendingTime >= expiryTime || status.equals(ClusterStatus.Terminating)) {
+
+                        log.info(String.format("Pending state of member expired, member will be moved to obsolete list. " +
+                                        "[pending member] %s [expiry time] %s [cluster] %s " + "[cluster instance] %s",
+                                pendingMember.getMemberId(), expiryTime, pendingMember.getClusterId(),
+                                pendingMember.getClusterInstanceId()));
+                        iterator.remove();
+                        // member should be terminated
+                        ctxt.addObsoleteMember(pendingMember);
+                        pendingMembersFailureCount++;
+                        if (pendingMembersFailureCount > PENDING_MEMBER_FAILURE_THRESHOLD) {
+                            setPendingMemberExpiryTime(expiryTime * 2);//Doubles the expiry time after the threshold
+                            // of failure exceeded
+                            //TODO Implement an alerting system: STRATOS-369
                         }
                     }
                 }
@@ -769,7 +658,7 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
 
                         iterator.remove();
                         if (ctxt.getMemberStatsContexts().containsKey(obsoleteMemberId)) {
-                            ctxt.getMemberStatsContexts().remove(obsoleteMemberId);
+                            ctxt.removeMemberStatsContext(obsoleteMemberId);
                         }
                         log.info(String.format("Obsolete member is removed from autoscaler and cloud controller " +
                                         "[obsolete member] %s [cluster] %s " +
@@ -806,7 +695,7 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
             while (true) {
                 long terminationPendingMemberExpiryTime = ctxt.getTerminationPendingMemberExpiryTime();
 
-                Iterator<MemberContext> iterator = ctxt.getTerminationPendingMembers().listIterator();
+                Iterator<MemberContext> iterator = ctxt.getTerminationPendingMembers().iterator();
                 while (iterator.hasNext()) {
 
                     MemberContext terminationPendingMember = iterator.next();
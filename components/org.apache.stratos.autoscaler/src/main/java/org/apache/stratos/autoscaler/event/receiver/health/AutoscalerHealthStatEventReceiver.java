@@ -59,6 +59,9 @@ public class AutoscalerHealthStatEventReceiver {
     }
 
     private void addEventListeners() {
+        // Listeners may be notified concurrently if health stat receiver sharding is enabled. Events of a
+        // cluster instance are notified by the same shard, except requests in flight events published
+        // without a cluster instance id, hence cluster instance contexts synchronize statistics updates.
         // Listen to health stat events that affect clusters
         healthStatEventReceiver.addEventListener(new AverageLoadAverageEventListener() {
             @Override
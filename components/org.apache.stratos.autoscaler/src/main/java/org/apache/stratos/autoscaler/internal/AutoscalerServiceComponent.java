@@ -270,8 +270,12 @@ public class AutoscalerServiceComponent {
         // Shutdown application monitor executor service
         shutdownExecutorService(AutoscalerConstants.MONITOR_THREAD_POOL_ID);
 
-        // Shutdown cluster monitor scheduler executor service
-        shutdownScheduledExecutorService(AutoscalerConstants.CLUSTER_MONITOR_SCHEDULER_ID);
+        // Shutdown monitor scheduler ticker and worker pool
+        shutdownScheduledExecutorService(AutoscalerConstants.MONITOR_SCHEDULER_TICKER_ID);
+        shutdownExecutorService(AutoscalerConstants.MONITOR_SCHEDULER_WORKER_POOL_ID);
+
+        // Shutdown instance spawner executor service
+        shutdownExecutorService(AutoscalerConstants.INSTANCE_SPAWNER_THREAD_POOL_ID);
     }
 
     private void shutdownExecutorService(String executorServiceId) {
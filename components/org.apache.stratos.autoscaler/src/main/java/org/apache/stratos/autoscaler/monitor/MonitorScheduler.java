@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.autoscaler.monitor;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.autoscaler.util.AutoscalerConstants;
+import org.apache.stratos.common.threading.StratosThreadPool;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Central scheduler for running monitors periodically. Monitors are kept in a hashed timer wheel advanced by
+ * a single ticker thread, due monitors are dispatched to a bounded worker pool. The first run of a monitor
+ * is delayed by a random jitter to spread the load of monitors started together, and a run is skipped if
+ * the previous run of the same monitor has not completed yet.
+ */
+public class MonitorScheduler {
+
+    private static final Log log = LogFactory.getLog(MonitorScheduler.class);
+    private static volatile MonitorScheduler instance;
+
+    private final ScheduledExecutorService tickerExecutor;
+    private final ExecutorService workerExecutor;
+    private final long tickDuration;
+    private final double jitterFactor;
+    private final List<MonitorTask>[] wheel;
+    private final int wheelMask;
+    private final Set<MonitorTask> monitorTasks =
+            Collections.newSetFromMap(new ConcurrentHashMap<MonitorTask, Boolean>());
+    private final Random random = new Random();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final long startTime;
+    private long currentTick;
+
+    /**
+     * @param tickerExecutor single threaded executor used for advancing the wheel
+     * @param workerExecutor executor used for running monitors
+     * @param tickDuration   duration of a tick in milliseconds
+     * @param wheelSize      number of buckets in the wheel, rounded up to a power of two
+     * @param jitterFactor   maximum delay of the first run as a fraction of the monitor interval
+     */
+    @SuppressWarnings("unchecked")
+    public MonitorScheduler(ScheduledExecutorService tickerExecutor, ExecutorService workerExecutor,
+                            long tickDuration, int wheelSize, double jitterFactor) {
+        this.tickerExecutor = tickerExecutor;
+        this.workerExecutor = workerExecutor;
+        this.tickDuration = Math.max(1, tickDuration);
+        this.jitterFactor = Math.max(0, jitterFactor);
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.wheel = new List[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ArrayList<MonitorTask>();
+        }
+        this.wheelMask = size - 1;
+        this.startTime = System.currentTimeMillis();
+    }
+
+    public static MonitorScheduler getInstance() {
+        if (instance == null) {
+            synchronized (MonitorScheduler.class) {
+                if (instance == null) {
+                    int workerPoolSize = Integer.getInteger(AutoscalerConstants.MONITOR_SCHEDULER_WORKER_POOL_SIZE,
+                            AutoscalerConstants.DEFAULT_MONITOR_SCHEDULER_WORKER_POOL_SIZE);
+                    long tickDuration = Long.getLong(AutoscalerConstants.MONITOR_SCHEDULER_TICK_DURATION,
+                            AutoscalerConstants.DEFAULT_MONITOR_SCHEDULER_TICK_DURATION);
+                    MonitorScheduler monitorScheduler = new MonitorScheduler(
+                            StratosThreadPool.getScheduledExecutorService(
+                                    AutoscalerConstants.MONITOR_SCHEDULER_TICKER_ID, 1),
+                            StratosThreadPool.getExecutorService(
+                                    AutoscalerConstants.MONITOR_SCHEDULER_WORKER_POOL_ID, workerPoolSize),
+                            tickDuration, AutoscalerConstants.MONITOR_SCHEDULER_WHEEL_SIZE,
+                            AutoscalerConstants.MONITOR_SCHEDULER_JITTER_FACTOR);
+                    monitorScheduler.start();
+                    instance = monitorScheduler;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Start advancing the wheel.
+     */
+    public void start() {
+        if (started.compareAndSet(false, true)) {
+            tickerExecutor.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        tick();
+                    } catch (Exception e) {
+                        log.error("Could not advance monitor scheduler", e);
+                    }
+                }
+            }, tickDuration, tickDuration, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Schedule a monitor to run periodically.
+     *
+     * @param monitorId Identifier of the monitor used in logs
+     * @param monitor   Monitor to be run
+     * @param interval  Interval between runs in milliseconds
+     * @return monitor task for cancelling the schedule and reading metrics
+     */
+    public MonitorTask schedule(String monitorId, Runnable monitor, long interval) {
+        MonitorTask monitorTask = new MonitorTask(monitorId, monitor, Math.max(tickDuration, interval));
+        long jitter;
+        synchronized (random) {
+            jitter = (long) (random.nextDouble() * jitterFactor * monitorTask.interval);
+        }
+        monitorTasks.add(monitorTask);
+        addToWheel(monitorTask, System.currentTimeMillis() + jitter);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Monitor scheduled: [monitor] %s [interval] %d ms [first-run] %d ms",
+                    monitorId, monitorTask.interval, jitter));
+        }
+        return monitorTask;
+    }
+
+    private synchronized void addToWheel(MonitorTask monitorTask, long deadline) {
+        monitorTask.deadline = deadline;
+        // Ticks are counted from the start time, a task is due on the first tick at or after its deadline
+        long deadlineTick = (long) Math.ceil((double) (deadline - startTime) / tickDuration);
+        monitorTask.deadlineTick = Math.max(currentTick + 1, deadlineTick);
+        wheel[(int) (monitorTask.deadlineTick & wheelMask)].add(monitorTask);
+    }
+
+    /**
+     * Advance the wheel up to the current time and dispatch due monitors. Ticks missed due to a delayed
+     * ticker thread are processed together.
+     */
+    void tick() {
+        List<MonitorTask> dueTasks = new ArrayList<MonitorTask>();
+        synchronized (this) {
+            long targetTick = (System.currentTimeMillis() - startTime) / tickDuration;
+            if (targetTick - currentTick >= wheel.length) {
+                currentTick = targetTick;
+                for (List<MonitorTask> bucket : wheel) {
+                    collectDueTasks(bucket, dueTasks);
+                }
+            } else {
+                while (currentTick < targetTick) {
+                    currentTick++;
+                    collectDueTasks(wheel[(int) (currentTick & wheelMask)], dueTasks);
+                }
+            }
+        }
+        for (MonitorTask monitorTask : dueTasks) {
+            dispatch(monitorTask);
+        }
+    }
+
+    private void collectDueTasks(List<MonitorTask> bucket, List<MonitorTask> dueTasks) {
+        Iterator<MonitorTask> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            MonitorTask monitorTask = iterator.next();
+            if (monitorTask.cancelled) {
+                iterator.remove();
+            } else if (monitorTask.deadlineTick <= currentTick) {
+                iterator.remove();
+                dueTasks.add(monitorTask);
+            }
+        }
+    }
+
+    private void dispatch(final MonitorTask monitorTask) {
+        if (monitorTask.cancelled) {
+            return;
+        }
+        final long deadline = monitorTask.deadline;
+        long now = System.currentTimeMillis();
+        // Schedule the next run at a fixed rate, runs missed while overloaded are not caught up
+        long nextDeadline = deadline + monitorTask.interval;
+        addToWheel(monitorTask, (nextDeadline > now) ? nextDeadline : now + monitorTask.interval);
+
+        if (!monitorTask.running.compareAndSet(false, true)) {
+            monitorTask.skippedRunCount++;
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Monitor is still running, skipped run: [monitor] %s", monitorTask.monitorId));
+            }
+            return;
+        }
+        try {
+            workerExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    monitorTask.run(deadline);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            monitorTask.running.set(false);
+            log.error(String.format("Could not dispatch monitor: [monitor] %s", monitorTask.monitorId), e);
+        }
+    }
+
+    /**
+     * Returns scheduled monitor tasks for reading metrics.
+     */
+    public Collection<MonitorTask> getMonitorTasks() {
+        return Collections.unmodifiableSet(monitorTasks);
+    }
+
+    /**
+     * A monitor scheduled periodically with its run metrics.
+     */
+    public class MonitorTask {
+        private final String monitorId;
+        private final Runnable monitor;
+        private final long interval;
+        private final AtomicBoolean running = new AtomicBoolean(false);
+        private volatile boolean cancelled;
+        // Guarded by the scheduler
+        private long deadline;
+        private long deadlineTick;
+        private volatile long runCount;
+        private volatile long skippedRunCount;
+        private volatile long lastLag;
+        private volatile long maxLag;
+        private volatile long lastRunTime;
+        private volatile long maxRunTime;
+
+        private MonitorTask(String monitorId, Runnable monitor, long interval) {
+            this.monitorId = monitorId;
+            this.monitor = monitor;
+            this.interval = interval;
+        }
+
+        private void run(long deadline) {
+            long startTime = System.currentTimeMillis();
+            lastLag = Math.max(0, startTime - deadline);
+            maxLag = Math.max(maxLag, lastLag);
+            try {
+                if (!cancelled) {
+                    monitor.run();
+                }
+            } catch (Exception e) {
+                log.error(String.format("Monitor failed: [monitor] %s", monitorId), e);
+            } finally {
+                lastRunTime = System.currentTimeMillis() - startTime;
+                maxRunTime = Math.max(maxRunTime, lastRunTime);
+                runCount++;
+                running.set(false);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Monitor run completed: [monitor] %s [lag] %d ms [run-time] %d ms",
+                        monitorId, lastLag, lastRunTime));
+            }
+        }
+
+        /**
+         * Stop scheduling the monitor, a run in progress is not interrupted.
+         */
+        public void cancel() {
+            cancelled = true;
+            monitorTasks.remove(this);
+        }
+
+        public String getMonitorId() {
+            return monitorId;
+        }
+
+        public long getInterval() {
+            return interval;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isRunning() {
+            return running.get();
+        }
+
+        public long getRunCount() {
+            return runCount;
+        }
+
+        public long getSkippedRunCount() {
+            return skippedRunCount;
+        }
+
+        /**
+         * Returns the delay between the scheduled time and the start time of the last run in milliseconds.
+         */
+        public long getLastLag() {
+            return lastLag;
+        }
+
+        public long getMaxLag() {
+            return maxLag;
+        }
+
+        /**
+         * Returns the time taken by the last run in milliseconds.
+         */
+        public long getLastRunTime() {
+            return lastRunTime;
+        }
+
+        public long getMaxRunTime() {
+            return maxRunTime;
+        }
+    }
+}
@@ -36,11 +36,15 @@ import org.apache.stratos.autoscaler.exception.InvalidArgumentException;
 import org.apache.stratos.autoscaler.exception.partition.PartitionValidationException;
 import org.apache.stratos.autoscaler.exception.policy.PolicyValidationException;
 import org.apache.stratos.autoscaler.monitor.Monitor;
+import org.apache.stratos.autoscaler.monitor.MonitorScheduler;
 import org.apache.stratos.autoscaler.monitor.events.MonitorStatusEvent;
 import org.apache.stratos.autoscaler.monitor.events.ScalingEvent;
 import org.apache.stratos.autoscaler.monitor.events.ScalingUpBeyondMaxEvent;
 import org.apache.stratos.autoscaler.monitor.events.builder.MonitorStatusEventBuilder;
+import org.apache.stratos.autoscaler.rule.DroolsScalingEvaluator;
+import org.apache.stratos.autoscaler.rule.JavaScalingEvaluator;
 import org.apache.stratos.autoscaler.rule.RuleTasksDelegator;
+import org.apache.stratos.autoscaler.rule.ScalingEvaluator;
 import org.apache.stratos.autoscaler.statistics.publisher.AutoscalerPublisherFactory;
 import org.apache.stratos.autoscaler.statistics.publisher.ScalingDecisionPublisher;
 import org.apache.stratos.autoscaler.status.processor.cluster.ClusterStatusActiveProcessor;
@@ -70,8 +74,6 @@ import org.apache.stratos.messaging.event.topology.MemberMaintenanceModeEvent;
 import org.apache.stratos.messaging.event.topology.MemberReadyToShutdownEvent;
 import org.apache.stratos.messaging.event.topology.MemberTerminatedEvent;
 import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
-import org.drools.runtime.StatefulKnowledgeSession;
-import org.drools.runtime.rule.FactHandle;
 
 import java.rmi.RemoteException;
 import java.util.*;
@@ -86,14 +88,13 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class ClusterMonitor extends Monitor {
 
     private static final Log log = LogFactory.getLog(ClusterMonitor.class);
-    private final ScheduledExecutorService scheduler;
     private final ExecutorService executorService;
     protected boolean hasFaultyMember = false;
     protected ClusterContext clusterContext;
     protected String serviceType;
     protected String clusterId;
-    // future to cancel it when destroying monitors
-    private ScheduledFuture<?> schedulerFuture;
+    // scheduled task to cancel it when destroying monitors
+    private volatile MonitorScheduler.MonitorTask monitorTask;
     private AtomicBoolean monitoringStarted;
     private Cluster cluster;
     private int monitoringIntervalMilliseconds;
@@ -103,11 +104,11 @@ public class ClusterMonitor extends Monitor {
     private String deploymentPolicyId;
     private ScalingDecisionPublisher scalingDecisionPublisher =
             AutoscalerPublisherFactory.createScalingDecisionPublisher(StatisticsPublisherType.WSO2DAS);
+    private ScalingEvaluator scalingEvaluator;
 
     public ClusterMonitor(Cluster cluster, boolean hasScalingDependents, boolean groupScalingEnabledSubtree,
                           String deploymentPolicyId) {
 
-        scheduler = StratosThreadPool.getScheduledExecutorService(AutoscalerConstants.CLUSTER_MONITOR_SCHEDULER_ID, 50);
         int threadPoolSize = Integer.getInteger(AutoscalerConstants.MONITOR_THREAD_POOL_SIZE, 100);
         executorService = StratosThreadPool.getExecutorService(
                 AutoscalerConstants.MONITOR_THREAD_POOL_ID, threadPoolSize);
@@ -148,8 +149,13 @@ public class ClusterMonitor extends Monitor {
     }
 
     public void startScheduler() {
-        schedulerFuture = scheduler.scheduleAtFixedRate(this, 0,
-                getMonitorIntervalMilliseconds(), TimeUnit.MILLISECONDS);
+        if (monitorTask != null) {
+            monitorTask.cancel();
+        }
+        // Cluster monitors used to sleep for a monitor interval at the end of each run scheduled at the
+        // monitor interval, hence they ran every two monitor intervals. Keep that cadence, the scaling
+        // rules count consecutive scale down requests over monitor runs.
+        monitorTask = MonitorScheduler.getInstance().schedule(clusterId, this, getMonitorRunIntervalMilliseconds());
     }
 
     @Override
@@ -220,6 +226,13 @@ public class ClusterMonitor extends Monitor {
         return monitoringIntervalMilliseconds;
     }
 
+    /**
+     * @return interval between two runs of the monitor, twice the monitor interval
+     */
+    public long getMonitorRunIntervalMilliseconds() {
+        return 2L * monitoringIntervalMilliseconds;
+    }
+
     public void setMonitorIntervalMilliseconds(int monitorIntervalMilliseconds) {
         this.monitoringIntervalMilliseconds = monitorIntervalMilliseconds;
     }
@@ -302,10 +315,6 @@ public class ClusterMonitor extends Monitor {
         } catch (Exception e) {
             log.error("Cluster monitor: Monitor failed." + this.toString(), e);
         }
-        try {
-            Thread.sleep(getMonitorIntervalMilliseconds());
-        } catch (InterruptedException ignore) {
-        }
     }
 
     public synchronized void monitor() {
@@ -334,35 +343,20 @@ public class ClusterMonitor extends Monitor {
                                             "%s [cluster-id]: %s", getAppId(), getClusterId()));
                                 }
 
-                                instanceContext.getMinCheckKnowledgeSession().setGlobal("clusterId", getClusterId());
-                                //FIXME when parent chosen the partition
-                                String paritionAlgo = instanceContext.getPartitionAlgorithm();
-
-                                instanceContext.getMinCheckKnowledgeSession().setGlobal("algorithmName",
-                                        paritionAlgo);
-
-                                instanceContext.getMinCheckKnowledgeSession().setGlobal("scalingDecisionPublisher",
-                                        scalingDecisionPublisher);
-
+                                RuleTasksDelegator delegator = new RuleTasksDelegator();
                                 if (log.isDebugEnabled()) {
                                     log.debug(String.format("Running minimum check for [cluster instance] %s, " +
                                                     "[cluster id] %s",
                                             instanceContext.getId(), clusterId));
                                 }
-
-                                instanceContext.setMinCheckFactHandle(evaluate(instanceContext.
-                                                getMinCheckKnowledgeSession(),
-                                        instanceContext.getMinCheckFactHandle(), instanceContext));
-                                instanceContext.getMaxCheckKnowledgeSession().setGlobal("clusterId", getClusterId());
+                                scalingEvaluator.evaluateMinCheck(instanceContext, getClusterId(),
+                                        scalingDecisionPublisher, delegator);
 
                                 if (log.isDebugEnabled()) {
                                     log.debug(String.format("Running maximum check for [cluster instance] %s, " +
                                             "[cluster id] %s", instanceContext.getId(), clusterId));
                                 }
-                                instanceContext.setMaxCheckFactHandle(evaluate(instanceContext.
-                                                getMaxCheckKnowledgeSession(),
-                                        instanceContext.getMaxCheckFactHandle(), instanceContext));
-
+                                scalingEvaluator.evaluateMaxCheck(instanceContext, getClusterId(), delegator);
 
                                 //checking the status of the cluster
                                 boolean rifReset = instanceContext.isRifReset();
@@ -373,18 +367,6 @@ public class ClusterMonitor extends Monitor {
 
                                 if (rifReset || memoryConsumptionReset || loadAverageReset) {
                                     ClusterContext clusterContext = ClusterMonitor.this.clusterContext;
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("applicationId", getAppId());
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("clusterId", getClusterId());
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("rifReset", rifReset);
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("mcReset", memoryConsumptionReset);
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("laReset", loadAverageReset);
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("algorithmName", paritionAlgo);
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("autoscalePolicy",
-                                            clusterContext.getAutoscalePolicy());
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("arspiReset",
-                                            averageRequestServedPerInstanceReset);
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("scalingDecisionPublisher",
-                                            scalingDecisionPublisher);
                                     if (log.isDebugEnabled()) {
                                         log.debug("Running scale check, [Is rif Reset] " + rifReset + ", " +
                                                 "[Is memoryConsumption Reset] " + memoryConsumptionReset + ", " +
@@ -392,9 +374,11 @@ public class ClusterMonitor extends Monitor {
                                                 "[cluster] " + clusterId + ", " +
                                                 "[cluster instance] " + instanceContext.getId());
                                     }
-                                    instanceContext.setScaleCheckFactHandle(evaluate(
-                                            instanceContext.getScaleCheckKnowledgeSession()
-                                            , instanceContext.getScaleCheckFactHandle(), instanceContext));
+                                    scalingEvaluator.evaluateScaleCheck(instanceContext, getAppId(),
+                                            getClusterId(), clusterContext.getAutoscalePolicy(), rifReset,
+                                            memoryConsumptionReset, loadAverageReset,
+                                            averageRequestServedPerInstanceReset, scalingDecisionPublisher,
+                                            delegator);
 
                                     instanceContext.setRifReset(false);
                                     instanceContext.setMemoryConsumptionReset(false);
@@ -433,17 +417,14 @@ public class ClusterMonitor extends Monitor {
                         Runnable monitoringRunnable = new Runnable() {
                             @Override
                             public void run() {
-                                instanceContext.getObsoleteCheckKnowledgeSession().setGlobal("clusterId", clusterId);
-
                                 if (log.isDebugEnabled()) {
                                     log.debug(String.format("Running obsolete check for [partition id] %s, " +
                                                     "[cluster instance] %s, [cluster id] %s",
                                             partitionContext.getPartitionId(), instanceContext.getId(), clusterId));
                                 }
 
-                                instanceContext.setObsoleteCheckFactHandle(evaluate(
-                                        instanceContext.getObsoleteCheckKnowledgeSession(),
-                                        instanceContext.getObsoleteCheckFactHandle(), partitionContext));
+                                scalingEvaluator.evaluateObsoleteCheck(instanceContext, partitionContext,
+                                        clusterId, new RuleTasksDelegator());
 
                                 if (partitionContext.isObsoletePartition()
                                         && partitionContext.getTerminationPendingMembers().size() == 0
@@ -462,36 +443,29 @@ public class ClusterMonitor extends Monitor {
         }
     }
 
-    private FactHandle evaluate(StatefulKnowledgeSession ksession, FactHandle handle, Object obj) {
-        if (handle == null) {
-            ksession.setGlobal("delegator", new RuleTasksDelegator());
-            handle = ksession.insert(obj);
-        } else {
-            ksession.update(handle, obj);
-        }
-        ksession.fireAllRules();
-        if (log.isDebugEnabled()) {
-            log.debug(String.format("Rule executed for: %s ", obj));
-        }
-        return handle;
-    }
-
     private void readConfigurations() {
         XMLConfiguration conf = ConfUtil.getInstance(null).getConfiguration();
         int monitorInterval = conf.getInt(AutoscalerConstants.Cluster_MONITOR_INTERVAL, 90000);
         setMonitorIntervalMilliseconds(monitorInterval);
+        String scalingEvaluatorName = conf.getString(AutoscalerConstants.SCALING_EVALUATOR,
+                AutoscalerConstants.DROOLS_SCALING_EVALUATOR);
+        if (AutoscalerConstants.JAVA_SCALING_EVALUATOR.equals(scalingEvaluatorName)) {
+            scalingEvaluator = new JavaScalingEvaluator();
+        } else {
+            scalingEvaluator = new DroolsScalingEvaluator();
+        }
         if (log.isDebugEnabled()) {
             log.debug("ClusterMonitor task interval set to : [application-id] " + appId +
                     " [cluster] " + clusterId + " [monitor-interval] " +
-                    getMonitorIntervalMilliseconds());
+                    getMonitorIntervalMilliseconds() + " [scaling-evaluator] " + scalingEvaluatorName);
         }
     }
 
     @Override
     public void destroy() {
-        //shutting down the scheduler
-        if (schedulerFuture != null) {
-            schedulerFuture.cancel(true);
+        //stop scheduling the monitor
+        if (monitorTask != null) {
+            monitorTask.cancel();
         }
 
         if (log.isDebugEnabled()) {
@@ -574,9 +548,10 @@ public class ClusterMonitor extends Monitor {
                     clusterInstanceContext.getId(), clusterId));
         }
 
-        clusterInstanceContext.setDependentScaleCheckFactHandle(evaluate(
+        clusterInstanceContext.setDependentScaleCheckFactHandle(DroolsScalingEvaluator.evaluate(
                 clusterInstanceContext.getDependentScaleCheckKnowledgeSession()
-                , clusterInstanceContext.getDependentScaleCheckFactHandle(), clusterInstanceContext));
+                , clusterInstanceContext.getDependentScaleCheckFactHandle(), clusterInstanceContext,
+                new RuleTasksDelegator()));
 
     }
 
@@ -924,6 +899,7 @@ public class ClusterMonitor extends Monitor {
         }
         float value = memberAverageMemoryConsumptionEvent.getValue();
         memberStatsContext.setAverageMemoryConsumption(value);
+        partitionCtxt.memberStatsUpdated();
     }
 
     public void handleMemberGradientOfMemoryConsumptionEvent(
@@ -946,6 +922,7 @@ public class ClusterMonitor extends Monitor {
         }
         float value = memberGradientOfMemoryConsumptionEvent.getValue();
         memberStatsContext.setGradientOfMemoryConsumption(value);
+        partitionCtxt.memberStatsUpdated();
     }
 
     public void handleMemberAverageLoadAverageEvent(
@@ -968,6 +945,7 @@ public class ClusterMonitor extends Monitor {
         }
         float value = memberAverageLoadAverageEvent.getValue();
         memberStatsContext.setAverageLoadAverage(value);
+        partitionCtxt.memberStatsUpdated();
     }
 
     public void handleMemberGradientOfLoadAverageEvent(
@@ -990,6 +968,7 @@ public class ClusterMonitor extends Monitor {
         }
         float value = memberGradientOfLoadAverageEvent.getValue();
         memberStatsContext.setGradientOfLoadAverage(value);
+        partitionCtxt.memberStatsUpdated();
     }
 
     public void handleMemberSecondDerivativeOfLoadAverageEvent(
@@ -1013,6 +992,7 @@ public class ClusterMonitor extends Monitor {
         }
         float value = memberSecondDerivativeOfLoadAverageEvent.getValue();
         memberStatsContext.setSecondDerivativeOfLoadAverage(value);
+        partitionCtxt.memberStatsUpdated();
     }
 
     public void handleMemberFaultEvent(MemberFaultEvent memberFaultEvent) {
@@ -1271,7 +1251,7 @@ public class ClusterMonitor extends Monitor {
                         InstanceNotificationPublisher.getInstance().sendInstanceCleanupEventForMember(memberId);
                     }
 
-                    Iterator<MemberContext> pendingIterator = partitionContext.getPendingMembers().listIterator();
+                    Iterator<MemberContext> pendingIterator = partitionContext.getPendingMembers().iterator();
                     List<String> pendingMemberIdList = new ArrayList<String>();
                     while (pendingIterator.hasNext()) {
                         MemberContext activeMemberCtxt = pendingIterator.next();
@@ -1331,7 +1311,7 @@ public class ClusterMonitor extends Monitor {
                             partitionContext.terminateAllRemainingInstances();
                         }
                         //Need to terminate pending members
-                        Iterator<MemberContext> pendingIterator = partitionContext.getPendingMembers().listIterator();
+                        Iterator<MemberContext> pendingIterator = partitionContext.getPendingMembers().iterator();
                         List<String> pendingMemberIdList = new ArrayList<String>();
                         while (pendingIterator.hasNext()) {
                             MemberContext pendingMemberContext = pendingIterator.next();
@@ -1383,7 +1363,7 @@ public class ClusterMonitor extends Monitor {
                         }
 
                         //Need to terminate pending members
-                        Iterator<MemberContext> activeIterator = partitionContext.getActiveMembers().listIterator();
+                        Iterator<MemberContext> activeIterator = partitionContext.getActiveMembers().iterator();
                         List<String> activeMemberIdList = new ArrayList<String>();
                         while (activeIterator.hasNext()) {
                             MemberContext activeMemberContext = activeIterator.next();
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.autoscaler.context.cluster.ClusterInstanceContext;
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.AutoscalePolicy;
+import org.apache.stratos.autoscaler.statistics.publisher.ScalingDecisionPublisher;
+import org.drools.runtime.StatefulKnowledgeSession;
+import org.drools.runtime.rule.FactHandle;
+
+/**
+ * Scaling evaluator running the drools files of the checks on the knowledge sessions of the cluster
+ * instance, hence the rules could be customized by editing the drools files.
+ */
+public class DroolsScalingEvaluator implements ScalingEvaluator {
+
+    private static final Log log = LogFactory.getLog(DroolsScalingEvaluator.class);
+
+    @Override
+    public void evaluateMinCheck(ClusterInstanceContext instanceContext, String clusterId,
+                                 ScalingDecisionPublisher scalingDecisionPublisher, RuleTasksDelegator delegator) {
+        StatefulKnowledgeSession ksession = instanceContext.getMinCheckKnowledgeSession();
+        ksession.setGlobal("clusterId", clusterId);
+        //FIXME when parent chosen the partition
+        ksession.setGlobal("algorithmName", instanceContext.getPartitionAlgorithm());
+        ksession.setGlobal("scalingDecisionPublisher", scalingDecisionPublisher);
+        instanceContext.setMinCheckFactHandle(evaluate(ksession, instanceContext.getMinCheckFactHandle(),
+                instanceContext, delegator));
+    }
+
+    @Override
+    public void evaluateMaxCheck(ClusterInstanceContext instanceContext, String clusterId,
+                                 RuleTasksDelegator delegator) {
+        StatefulKnowledgeSession ksession = instanceContext.getMaxCheckKnowledgeSession();
+        ksession.setGlobal("clusterId", clusterId);
+        instanceContext.setMaxCheckFactHandle(evaluate(ksession, instanceContext.getMaxCheckFactHandle(),
+                instanceContext, delegator));
+    }
+
+    @Override
+    public void evaluateScaleCheck(ClusterInstanceContext instanceContext, String applicationId, String clusterId,
+                                   AutoscalePolicy autoscalePolicy, boolean rifReset, boolean mcReset,
+                                   boolean laReset, boolean arspiReset,
+                                   ScalingDecisionPublisher scalingDecisionPublisher, RuleTasksDelegator delegator) {
+        StatefulKnowledgeSession ksession = instanceContext.getScaleCheckKnowledgeSession();
+        ksession.setGlobal("applicationId", applicationId);
+        ksession.setGlobal("clusterId", clusterId);
+        ksession.setGlobal("rifReset", rifReset);
+        ksession.setGlobal("mcReset", mcReset);
+        ksession.setGlobal("laReset", laReset);
+        ksession.setGlobal("algorithmName", instanceContext.getPartitionAlgorithm());
+        ksession.setGlobal("autoscalePolicy", autoscalePolicy);
+        ksession.setGlobal("arspiReset", arspiReset);
+        ksession.setGlobal("scalingDecisionPublisher", scalingDecisionPublisher);
+        instanceContext.setScaleCheckFactHandle(evaluate(ksession, instanceContext.getScaleCheckFactHandle(),
+                instanceContext, delegator));
+    }
+
+    @Override
+    public void evaluateObsoleteCheck(ClusterInstanceContext instanceContext,
+                                      ClusterLevelPartitionContext partitionContext, String clusterId,
+                                      RuleTasksDelegator delegator) {
+        StatefulKnowledgeSession ksession = instanceContext.getObsoleteCheckKnowledgeSession();
+        ksession.setGlobal("clusterId", clusterId);
+        instanceContext.setObsoleteCheckFactHandle(evaluate(ksession, instanceContext.getObsoleteCheckFactHandle(),
+                partitionContext, delegator));
+    }
+
+    /**
+     * Insert or update the given fact and fire the rules.
+     *
+     * @return fact handle of the given fact
+     */
+    public static FactHandle evaluate(StatefulKnowledgeSession ksession, FactHandle handle, Object obj,
+                                      RuleTasksDelegator delegator) {
+        if (handle == null) {
+            ksession.setGlobal("delegator", delegator);
+            handle = ksession.insert(obj);
+        } else {
+            ksession.update(handle, obj);
+        }
+        ksession.fireAllRules();
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Rule executed for: %s ", obj));
+        }
+        return handle;
+    }
+}
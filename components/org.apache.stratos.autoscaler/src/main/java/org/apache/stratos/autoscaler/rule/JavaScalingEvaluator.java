@@ -0,0 +1,316 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.autoscaler.algorithms.PartitionAlgorithm;
+import org.apache.stratos.autoscaler.context.cluster.ClusterInstanceContext;
+import org.apache.stratos.autoscaler.context.member.MemberStatsContext;
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.AutoscalePolicy;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.LoadAverage;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.LoadThresholds;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.MemoryConsumption;
+import org.apache.stratos.autoscaler.statistics.publisher.ScalingDecisionPublisher;
+import org.apache.stratos.cloud.controller.stub.domain.MemberContext;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+/**
+ * Scaling evaluator implementing the logic of the default mincheck, maxcheck, scaling and obsoletecheck
+ * drools files in Java. Decisions are the same as the default drools files, without the cost of rule
+ * evaluation and knowledge sessions per cluster instance.
+ */
+public class JavaScalingEvaluator implements ScalingEvaluator {
+
+    private static final Log log = LogFactory.getLog(JavaScalingEvaluator.class);
+    private static final int SCALE_DOWN_REQUESTS_THRESHOLD = 2;
+
+    @Override
+    public void evaluateMinCheck(ClusterInstanceContext instanceContext, String clusterId,
+                                 ScalingDecisionPublisher scalingDecisionPublisher, RuleTasksDelegator delegator) {
+        PartitionAlgorithm partitionAlgorithm = delegator.getPartitionAlgorithm(
+                instanceContext.getPartitionAlgorithm());
+        if (partitionAlgorithm == null) {
+            return;
+        }
+        int nonTerminatedMembers = instanceContext.getNonTerminatedMemberCount();
+        int minInstanceCount = instanceContext.getMinInstanceCount();
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("[min-check] [network-partition] %s [cluster-instance] %s [cluster] %s " +
+                            "[non terminated member count] %d [minimum member count] %d",
+                    instanceContext.getNetworkPartitionId(), instanceContext.getId(), clusterId,
+                    nonTerminatedMembers, minInstanceCount));
+        }
+        if (nonTerminatedMembers >= minInstanceCount) {
+            return;
+        }
+
+        int additionalInstances = minInstanceCount - nonTerminatedMembers;
+        String scalingDecisionId = clusterId + "-" + UUID.randomUUID().toString();
+        if ((scalingDecisionPublisher != null) && scalingDecisionPublisher.isEnabled()) {
+            scalingDecisionPublisher.publish(System.currentTimeMillis(), scalingDecisionId, clusterId,
+                    minInstanceCount, instanceContext.getMaxInstanceCount(), 0, 0, 0, 0, 0, 0, 0, 0, 0,
+                    minInstanceCount, 0, additionalInstances, "MIN");
+        }
+
+        for (int count = 0; count < additionalInstances; count++) {
+            ClusterLevelPartitionContext partitionContext = (ClusterLevelPartitionContext)
+                    partitionAlgorithm.getNextScaleUpPartitionContext(instanceContext.getPartitionCtxtsAsAnArray());
+            if (partitionContext == null) {
+                log.warn("[min-check] Partition is not available to fulfil minimum count! [cluster] " + clusterId);
+                break;
+            }
+            log.info("[min-check] Partition available, hence trying to spawn an instance to fulfil minimum count! " +
+                    "[cluster] " + clusterId);
+            delegator.delegateSpawn(partitionContext, clusterId, instanceContext.getId(), scalingDecisionId);
+        }
+    }
+
+    @Override
+    public void evaluateMaxCheck(ClusterInstanceContext instanceContext, String clusterId,
+                                 RuleTasksDelegator delegator) {
+        for (ClusterLevelPartitionContext partitionContext : instanceContext.getPartitionCtxtsAsAnArray()) {
+            if (partitionContext.isObsoletePartition()) {
+                continue;
+            }
+            int membersToTerminate = partitionContext.getActiveInstanceCount() - partitionContext.getMax();
+            while (membersToTerminate > 0) {
+                MemberStatsContext selectedMemberStatsContext = null;
+                for (MemberStatsContext memberStatsContext : partitionContext.getMemberStatsContexts().values()) {
+                    selectedMemberStatsContext = memberStatsContext;
+                }
+                if (selectedMemberStatsContext == null) {
+                    break;
+                }
+                log.info("[max-check] Trying to terminating an instance to keep to max!");
+                membersToTerminate--;
+                delegator.delegateTerminate(partitionContext, selectedMemberStatsContext.getMemberId());
+            }
+        }
+    }
+
+    @Override
+    public void evaluateScaleCheck(ClusterInstanceContext instanceContext, String applicationId, String clusterId,
+                                   AutoscalePolicy autoscalePolicy, boolean rifReset, boolean mcReset,
+                                   boolean laReset, boolean arspiReset,
+                                   ScalingDecisionPublisher scalingDecisionPublisher, RuleTasksDelegator delegator) {
+        LoadThresholds loadThresholds = autoscalePolicy.getLoadThresholds();
+        PartitionAlgorithm partitionAlgorithm = delegator.getPartitionAlgorithm(
+                instanceContext.getPartitionAlgorithm());
+        if ((loadThresholds == null) || (partitionAlgorithm == null)) {
+            return;
+        }
+
+        float rifThreshold = loadThresholds.getRequestsInFlightThreshold();
+        double rifPredictedValue = delegator.getPredictedValueForNextMinute(
+                instanceContext.getAverageRequestsInFlight(), instanceContext.getRequestsInFlightGradient(),
+                instanceContext.getRequestsInFlightSecondDerivative(), 1);
+        float mcThreshold = loadThresholds.getMemoryConsumptionThreshold();
+        double mcPredictedValue = delegator.getMemoryConsumptionPredictedValue(instanceContext);
+        float laThreshold = loadThresholds.getLoadAverageThreshold();
+        double laPredictedValue = delegator.getLoadAveragePredictedValue(instanceContext);
+
+        int activeInstancesCount = instanceContext.getActiveMemberCount();
+        int maxInstancesCount = instanceContext.getMaxInstanceCount();
+        int minInstancesCount = instanceContext.getMinInstanceCount();
+
+        int numberOfInstancesRequiredBasedOnRif = delegator.getNumberOfInstancesRequiredBasedOnRif(
+                (float) rifPredictedValue, rifThreshold);
+        int numberOfInstancesRequiredBasedOnMemoryConsumption =
+                delegator.getNumberOfInstancesRequiredBasedOnMemoryConsumption(mcThreshold, mcPredictedValue,
+                        minInstancesCount, maxInstancesCount);
+        int numberOfInstancesRequiredBasedOnLoadAverage = delegator.getNumberOfInstancesRequiredBasedOnLoadAverage(
+                laThreshold, laPredictedValue, minInstancesCount);
+        int numberOfRequiredInstances = delegator.getMaxNumberOfInstancesRequired(
+                numberOfInstancesRequiredBasedOnRif, numberOfInstancesRequiredBasedOnMemoryConsumption, mcReset,
+                numberOfInstancesRequiredBasedOnLoadAverage, laReset);
+
+        boolean scaleUp = activeInstancesCount < numberOfRequiredInstances;
+        boolean scaleDown = (activeInstancesCount > numberOfRequiredInstances) ||
+                ((numberOfRequiredInstances == 1) && (activeInstancesCount == 1));
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("[scaling] [cluster] %s [instance id] %s [rif reset] %s " +
+                            "[rif predicted] %s [rif threshold] %s [mc predicted] %s [mc threshold] %s " +
+                            "[la predicted] %s [la threshold] %s [required instances] %d [active instances] %d " +
+                            "[scale-up] %s [scale-down] %s", clusterId, instanceContext.getId(), rifReset,
+                    rifPredictedValue, rifThreshold, mcPredictedValue, mcThreshold, laPredictedValue, laThreshold,
+                    numberOfRequiredInstances, activeInstancesCount, scaleUp, scaleDown));
+        }
+
+        int nonTerminatedMembers = instanceContext.getNonTerminatedMemberCount();
+        if (scaleUp) {
+            if (nonTerminatedMembers >= maxInstancesCount) {
+                log.info(String.format("[scale-up] Trying to scale up over max, hence not scaling up cluster " +
+                                "itself and notifying to parent for possible group scaling or app bursting. " +
+                                "[cluster] %s [instance id] %s [max] %d", clusterId, instanceContext.getId(),
+                        maxInstancesCount));
+                delegator.delegateScalingOverMaxNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                        instanceContext.getId());
+                return;
+            }
+
+            int additionalInstances;
+            if (maxInstancesCount < numberOfRequiredInstances) {
+                additionalInstances = maxInstancesCount - nonTerminatedMembers;
+                log.info(String.format("[scale-up] Required member count based on stat based scaling is higher " +
+                                "than max, hence notifying to parent for possible group scaling or app bursting. " +
+                                "[cluster] %s [instance id] %s [max] %d [number of required instances] %d " +
+                                "[additional instances to be created] %d", clusterId, instanceContext.getId(),
+                        maxInstancesCount, numberOfRequiredInstances, additionalInstances));
+                delegator.delegateScalingOverMaxNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                        instanceContext.getId());
+            } else {
+                additionalInstances = numberOfRequiredInstances - nonTerminatedMembers;
+            }
+
+            instanceContext.resetScaleDownRequestsCount();
+
+            if (instanceContext.hasScalingDependants()) {
+                delegator.delegateScalingDependencyNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                        instanceContext.getId(), numberOfRequiredInstances, minInstancesCount);
+                return;
+            }
+
+            String scalingReason = (numberOfRequiredInstances == numberOfInstancesRequiredBasedOnRif) ? "RIF" :
+                    (numberOfRequiredInstances == numberOfInstancesRequiredBasedOnMemoryConsumption) ? "MC" : "LA";
+            String scalingDecisionId = clusterId + "-" + UUID.randomUUID().toString();
+            if ((scalingDecisionPublisher != null) && scalingDecisionPublisher.isEnabled()) {
+                scalingDecisionPublisher.publish(System.currentTimeMillis(), scalingDecisionId, clusterId,
+                        minInstancesCount, maxInstancesCount,
+                        (int) rifPredictedValue, (int) rifThreshold, numberOfInstancesRequiredBasedOnRif,
+                        (int) mcPredictedValue, (int) mcThreshold, numberOfInstancesRequiredBasedOnMemoryConsumption,
+                        (int) laPredictedValue, (int) laThreshold, numberOfInstancesRequiredBasedOnLoadAverage,
+                        numberOfRequiredInstances, activeInstancesCount, additionalInstances, scalingReason);
+            }
+
+            // The count is compared for equality as done by the drools file, a negative count spawns until
+            // partitions are exhausted
+            int count = 0;
+            while (count != additionalInstances) {
+                ClusterLevelPartitionContext partitionContext = (ClusterLevelPartitionContext)
+                        partitionAlgorithm.getNextScaleUpPartitionContext(
+                                instanceContext.getPartitionCtxtsAsAnArray());
+                if (partitionContext == null) {
+                    log.warn("[scale-up] No more partition available even though cartridge-max is not reached!, " +
+                            "[cluster] " + clusterId + " Please update deployment-policy with new partitions or " +
+                            "with higher partition-max");
+                    break;
+                }
+                log.info(String.format("[scale-up] Partition available, hence trying to spawn an instance to " +
+                                "scale up! [application id] %s [cluster] %s [instance id] %s " +
+                                "[network-partition] %s [partition] %s [reason] %s", applicationId, clusterId,
+                        instanceContext.getId(), instanceContext.getNetworkPartitionId(),
+                        partitionContext.getPartitionId(), scalingReason));
+                delegator.delegateSpawn(partitionContext, clusterId, instanceContext.getId(), scalingDecisionId);
+                count++;
+            }
+        } else if (scaleDown) {
+            if (nonTerminatedMembers <= minInstancesCount) {
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("[scale-down] Min is reached, hence not scaling down [cluster] %s " +
+                            "[instance id] %s", clusterId, instanceContext.getId()));
+                }
+                delegator.delegateScalingDownBeyondMinNotification(clusterId,
+                        instanceContext.getNetworkPartitionId(), instanceContext.getId());
+                return;
+            }
+
+            if (instanceContext.getScaleDownRequestsCount() <= SCALE_DOWN_REQUESTS_THRESHOLD) {
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("[scale-down] Not reached scale down requests threshold. [cluster] %s " +
+                            "[count] %d", clusterId, instanceContext.getScaleDownRequestsCount()));
+                }
+                instanceContext.increaseScaleDownRequestsCount();
+                return;
+            }
+
+            if (instanceContext.hasScalingDependants()) {
+                delegator.delegateScalingDependencyNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                        instanceContext.getId(), numberOfRequiredInstances, minInstancesCount);
+                return;
+            }
+
+            ClusterLevelPartitionContext partitionContext = (ClusterLevelPartitionContext)
+                    partitionAlgorithm.getNextScaleDownPartitionContext(instanceContext.getPartitionCtxtsAsAnArray());
+            if (partitionContext == null) {
+                return;
+            }
+            log.info(String.format("[scale-down] Partition available to scale down [application id] %s " +
+                            "[cluster] %s [instance id] %s [network-partition] %s [partition] %s", applicationId,
+                    clusterId, instanceContext.getId(), instanceContext.getNetworkPartitionId(),
+                    partitionContext.getPartitionId()));
+
+            MemberStatsContext selectedMemberStatsContext = null;
+            double lowestOverallLoad = 0.0;
+            for (MemberStatsContext memberStatsContext : partitionContext.getMemberStatsContexts().values()) {
+                LoadAverage loadAverage = memberStatsContext.getLoadAverage();
+                MemoryConsumption memoryConsumption = memberStatsContext.getMemoryConsumption();
+                double predictedCpu = delegator.getPredictedValueForNextMinute(loadAverage.getAverage(),
+                        loadAverage.getGradient(), loadAverage.getSecondDerivative(), 1);
+                double predictedMemoryConsumption = delegator.getPredictedValueForNextMinute(
+                        memoryConsumption.getAverage(), memoryConsumption.getGradient(),
+                        memoryConsumption.getSecondDerivative(), 1);
+                double overallLoad = (predictedCpu + predictedMemoryConsumption) / 2;
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("[scale-down] [partition] %s [cluster] %s [member] %s " +
+                                    "[predicted cpu] %s [predicted memory consumption] %s [overall load] %s",
+                            partitionContext.getPartitionId(), clusterId, memberStatsContext.getMemberId(),
+                            predictedCpu, predictedMemoryConsumption, overallLoad));
+                }
+                if ((selectedMemberStatsContext == null) || (overallLoad < lowestOverallLoad)) {
+                    selectedMemberStatsContext = memberStatsContext;
+                    lowestOverallLoad = overallLoad;
+                }
+            }
+            if (selectedMemberStatsContext != null) {
+                log.info(String.format("[scale-down] Trying to terminating an instance to scale down! " +
+                                "[partition] %s [cluster] %s [member] %s", partitionContext.getPartitionId(),
+                        clusterId, selectedMemberStatsContext.getMemberId()));
+                delegator.delegateTerminate(partitionContext, selectedMemberStatsContext.getMemberId());
+            }
+        } else if (log.isDebugEnabled()) {
+            log.debug(String.format("[scaling] No decision made to either scale up or scale down ... [cluster] %s " +
+                    "[instance id] %s", clusterId, instanceContext.getId()));
+        }
+    }
+
+    @Override
+    public void evaluateObsoleteCheck(ClusterInstanceContext instanceContext,
+                                      ClusterLevelPartitionContext partitionContext, String clusterId,
+                                      RuleTasksDelegator delegator) {
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("[obsolete-check] [network-partition] %s [partition] %s [cluster] %s " +
+                            "[obsolete member count] %d [pending termination member count] %d",
+                    partitionContext.getNetworkPartitionId(), partitionContext.getPartitionId(), clusterId,
+                    partitionContext.getObsoletedMembers().size(),
+                    partitionContext.getTerminationPendingMembers().size()));
+        }
+        for (String memberId : new ArrayList<String>(partitionContext.getObsoletedMembers().keySet())) {
+            delegator.terminateObsoleteInstance(memberId);
+        }
+        for (MemberContext memberContext : partitionContext.getTerminationPendingMembers()) {
+            delegator.delegateInstanceCleanup(memberContext.getMemberId());
+        }
+    }
+}
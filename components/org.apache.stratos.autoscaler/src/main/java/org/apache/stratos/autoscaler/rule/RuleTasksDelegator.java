@@ -27,6 +27,7 @@ import org.apache.stratos.autoscaler.algorithms.PartitionAlgorithm;
 import org.apache.stratos.autoscaler.algorithms.partition.OneAfterAnother;
 import org.apache.stratos.autoscaler.algorithms.partition.RoundRobin;
 import org.apache.stratos.autoscaler.client.AutoscalerCloudControllerClient;
+import org.apache.stratos.autoscaler.client.InstanceSpawner;
 import org.apache.stratos.autoscaler.context.AutoscalerContext;
 import org.apache.stratos.autoscaler.context.cluster.ClusterContext;
 import org.apache.stratos.autoscaler.context.cluster.ClusterInstanceContext;
@@ -35,7 +36,8 @@ import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionCont
 import org.apache.stratos.autoscaler.context.partition.network.NetworkPartitionContext;
 import org.apache.stratos.autoscaler.event.publisher.InstanceNotificationPublisher;
 import org.apache.stratos.autoscaler.monitor.cluster.ClusterMonitor;
-import org.apache.stratos.cloud.controller.stub.domain.MemberContext;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.LoadAverage;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.MemoryConsumption;
 import org.apache.stratos.common.constants.StratosConstants;
 
 /**
@@ -166,7 +168,8 @@ public class RuleTasksDelegator {
     }
 
     /**
-     * Invoked from drools to start an instance.
+     * Invoked from drools to start an instance. The instance is spawned asynchronously, the spawned member
+     * is added to the partition context as a pending member.
      *
      * @param clusterMonitorPartitionContext Cluster monitor partition context
      * @param clusterId                      Cluster id
@@ -190,27 +193,10 @@ public class RuleTasksDelegator {
                             getInstanceContext(clusterInstanceId);
             minimumCountOfNetworkPartition = clusterInstanceContext.getMinInstanceCount();
 
-            MemberContext memberContext =
-                    AutoscalerCloudControllerClient.getInstance()
-                            .startInstance(clusterMonitorPartitionContext.getPartition(),
-                                    clusterId,
-                                    clusterInstanceId, clusterMonitorPartitionContext.getNetworkPartitionId(),
-                                    minimumCountOfNetworkPartition, scalingDecisionId);
-            if (memberContext != null) {
-                ClusterLevelPartitionContext partitionContext = clusterInstanceContext.
-                        getPartitionCtxt(clusterMonitorPartitionContext.getPartitionId());
-                partitionContext.addPendingMember(memberContext);
-                partitionContext.addMemberStatsContext(new MemberStatsContext(memberContext.getMemberId()));
-                if (log.isDebugEnabled()) {
-                    log.debug(String.format("Pending member added, [member] %s [partition] %s", memberContext.getMemberId(),
-                            memberContext.getPartition().getId()));
-                }
-
-            } else {
-                if (log.isErrorEnabled()) {
-                    log.error("Member context returned from cloud controller is null");
-                }
-            }
+            ClusterLevelPartitionContext partitionContext = clusterInstanceContext.
+                    getPartitionCtxt(clusterMonitorPartitionContext.getPartitionId());
+            InstanceSpawner.getInstance().spawn(partitionContext, clusterId, clusterInstanceId,
+                    minimumCountOfNetworkPartition, scalingDecisionId);
         } catch (Exception e) {
             String message = String.format("Could not start instance: [cluster-id] %s [instance-id] %s",
                     clusterId, clusterInstanceId);
@@ -322,65 +308,67 @@ public class RuleTasksDelegator {
     }
 
     public double getLoadAveragePredictedValue(ClusterInstanceContext clusterInstanceContext) {
-        double loadAveragePredicted = 0.0d;
-        int totalMemberCount = 0;
-        for (ClusterLevelPartitionContext partitionContext : clusterInstanceContext.getPartitionCtxts()) {
-            for (MemberStatsContext memberStatsContext : partitionContext.getMemberStatsContexts().values()) {
-
-                float memberAverageLoadAverage = memberStatsContext.getLoadAverage().getAverage();
-                float memberGredientLoadAverage = memberStatsContext.getLoadAverage().getGradient();
-                float memberSecondDerivativeLoadAverage = memberStatsContext.getLoadAverage().getSecondDerivative();
-
-                double memberPredictedLoadAverage = getPredictedValueForNextMinute(memberAverageLoadAverage,
-                        memberGredientLoadAverage, memberSecondDerivativeLoadAverage, 1);
-
-                if (log.isDebugEnabled()) {
-                    log.debug(String.format("[cluster-instance-id] %s [member-id] %s " +
-                            "[predicted load average] %s "
-                            , clusterInstanceContext.getId(), memberStatsContext.getMemberId()
-                            , memberPredictedLoadAverage));
-                }
-                loadAveragePredicted += memberPredictedLoadAverage;
-                ++totalMemberCount;
-            }
+        synchronized (clusterInstanceContext) {
+            updatePredictedMemberStats(clusterInstanceContext);
+            return clusterInstanceContext.getPredictedLoadAverage();
         }
+    }
 
-        if (totalMemberCount > 0) {
-            log.debug("Predicted load average : " + loadAveragePredicted / totalMemberCount);
-            return loadAveragePredicted / totalMemberCount;
-        } else {
-            return 0;
+    public double getMemoryConsumptionPredictedValue(ClusterInstanceContext clusterInstanceContext) {
+        synchronized (clusterInstanceContext) {
+            updatePredictedMemberStats(clusterInstanceContext);
+            return clusterInstanceContext.getPredictedMemoryConsumption();
         }
     }
 
-    public double getMemoryConsumptionPredictedValue(ClusterInstanceContext clusterInstanceContext) {
+    /**
+     * Predict load average and memory consumption of the cluster instance in a single pass over the
+     * member statistics. Predictions are kept in the cluster instance context and calculated again only
+     * if member statistics have changed since.
+     */
+    private void updatePredictedMemberStats(ClusterInstanceContext clusterInstanceContext) {
+        long memberStatsVersion = clusterInstanceContext.getMemberStatsVersion();
+        if (memberStatsVersion == clusterInstanceContext.getPredictedMemberStatsVersion()) {
+            return;
+        }
+
+        double loadAveragePredicted = 0.0d;
         double memoryConsumptionPredicted = 0.0d;
         int totalMemberCount = 0;
         for (ClusterLevelPartitionContext partitionContext : clusterInstanceContext.getPartitionCtxts()) {
             for (MemberStatsContext memberStatsContext : partitionContext.getMemberStatsContexts().values()) {
 
-                float memberMemoryConsumptionAverage = memberStatsContext.getMemoryConsumption().getAverage();
-                float memberMemoryConsumptionGredient = memberStatsContext.getMemoryConsumption().getGradient();
-                float memberMemoryConsumptionSecondDerivative = memberStatsContext.getMemoryConsumption().getSecondDerivative();
+                LoadAverage loadAverage = memberStatsContext.getLoadAverage();
+                double memberPredictedLoadAverage = getPredictedValueForNextMinute(loadAverage.getAverage(),
+                        loadAverage.getGradient(), loadAverage.getSecondDerivative(), 1);
 
-                double memberPredictedMemoryConsumption = getPredictedValueForNextMinute(memberMemoryConsumptionAverage,
-                        memberMemoryConsumptionGredient, memberMemoryConsumptionSecondDerivative, 1);
+                MemoryConsumption memoryConsumption = memberStatsContext.getMemoryConsumption();
+                double memberPredictedMemoryConsumption = getPredictedValueForNextMinute(
+                        memoryConsumption.getAverage(), memoryConsumption.getGradient(),
+                        memoryConsumption.getSecondDerivative(), 1);
 
                 if (log.isDebugEnabled()) {
-                    log.debug(String.format("[member-id] %s [predicted memory consumption] %s ",
-                            memberStatsContext.getMemberId()
-                            , memberPredictedMemoryConsumption));
+                    log.debug(String.format("[cluster-instance-id] %s [member-id] %s " +
+                                    "[predicted load average] %s [predicted memory consumption] %s "
+                            , clusterInstanceContext.getId(), memberStatsContext.getMemberId()
+                            , memberPredictedLoadAverage, memberPredictedMemoryConsumption));
                 }
+                loadAveragePredicted += memberPredictedLoadAverage;
                 memoryConsumptionPredicted += memberPredictedMemoryConsumption;
                 ++totalMemberCount;
             }
         }
 
         if (totalMemberCount > 0) {
-            log.debug("Predicted memory consumption : " + memoryConsumptionPredicted / totalMemberCount);
-            return memoryConsumptionPredicted / totalMemberCount;
-        } else {
-            return 0;
+            loadAveragePredicted = loadAveragePredicted / totalMemberCount;
+            memoryConsumptionPredicted = memoryConsumptionPredicted / totalMemberCount;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("[cluster-instance-id] %s [predicted load average] %s " +
+                            "[predicted memory consumption] %s", clusterInstanceContext.getId(),
+                    loadAveragePredicted, memoryConsumptionPredicted));
         }
+        clusterInstanceContext.setPredictedMemberStats(memberStatsVersion, loadAveragePredicted,
+                memoryConsumptionPredicted);
     }
 }
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.apache.stratos.autoscaler.context.cluster.ClusterInstanceContext;
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.AutoscalePolicy;
+import org.apache.stratos.autoscaler.statistics.publisher.ScalingDecisionPublisher;
+
+/**
+ * Evaluates the checks run by a cluster monitor on each cluster instance in every monitoring cycle.
+ * Scaling actions are taken via the given rule tasks delegator.
+ */
+public interface ScalingEvaluator {
+
+    /**
+     * Spawn instances if the cluster instance has less non terminated members than the minimum.
+     */
+    void evaluateMinCheck(ClusterInstanceContext instanceContext, String clusterId,
+                          ScalingDecisionPublisher scalingDecisionPublisher, RuleTasksDelegator delegator);
+
+    /**
+     * Terminate members of partitions having more active members than the partition maximum.
+     */
+    void evaluateMaxCheck(ClusterInstanceContext instanceContext, String clusterId, RuleTasksDelegator delegator);
+
+    /**
+     * Scale the cluster instance up or down based on the statistics received.
+     */
+    void evaluateScaleCheck(ClusterInstanceContext instanceContext, String applicationId, String clusterId,
+                            AutoscalePolicy autoscalePolicy, boolean rifReset, boolean mcReset, boolean laReset,
+                            boolean arspiReset, ScalingDecisionPublisher scalingDecisionPublisher,
+                            RuleTasksDelegator delegator);
+
+    /**
+     * Terminate obsoleted members and clean up members pending termination in the given partition.
+     */
+    void evaluateObsoleteCheck(ClusterInstanceContext instanceContext, ClusterLevelPartitionContext partitionContext,
+                               String clusterId, RuleTasksDelegator delegator);
+}
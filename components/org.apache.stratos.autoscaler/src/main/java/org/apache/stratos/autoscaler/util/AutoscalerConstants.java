@@ -57,6 +57,9 @@ public final class AutoscalerConstants {
      * Cluster monitoring  interval
      */
     public static final String Cluster_MONITOR_INTERVAL = "autoscaler.cluster.monitorInterval";
+    public static final String SCALING_EVALUATOR = "autoscaler.cluster.scalingEvaluator";
+    public static final String DROOLS_SCALING_EVALUATOR = "drools";
+    public static final String JAVA_SCALING_EVALUATOR = "java";
 
     public static final String SERVICE_GROUP = "/groups";
 
@@ -74,7 +77,20 @@ public final class AutoscalerConstants {
     public static final String MONITOR_THREAD_POOL_ID = "monitor.thread.pool";
     public static final String STATS_PUBLISHER_THREAD_POOL_ID = "autoscaler.stats.publisher.thread.pool";
     public static final String MONITOR_THREAD_POOL_SIZE = "monitor.thread.pool.size";
-    public static final String CLUSTER_MONITOR_SCHEDULER_ID = "cluster.monitor.scheduler";
+    public static final String MONITOR_SCHEDULER_TICKER_ID = "autoscaler.monitor.scheduler.ticker";
+    public static final String MONITOR_SCHEDULER_WORKER_POOL_ID = "autoscaler.monitor.scheduler.worker.pool";
+    public static final String MONITOR_SCHEDULER_WORKER_POOL_SIZE = "monitor.scheduler.worker.pool.size";
+    public static final int DEFAULT_MONITOR_SCHEDULER_WORKER_POOL_SIZE = 20;
+    public static final String MONITOR_SCHEDULER_TICK_DURATION = "monitor.scheduler.tick.duration";
+    public static final long DEFAULT_MONITOR_SCHEDULER_TICK_DURATION = 100;
+    public static final int MONITOR_SCHEDULER_WHEEL_SIZE = 512;
+    public static final double MONITOR_SCHEDULER_JITTER_FACTOR = 0.1;
+    public static final int PARENT_COMPONENT_MONITOR_INTERVAL = 60000;
+    public static final String INSTANCE_SPAWNER_THREAD_POOL_ID = "autoscaler.instance.spawner.thread.pool";
+    public static final String INSTANCE_SPAWNER_POOL_SIZE = "instance.spawner.pool.size";
+    public static final int DEFAULT_INSTANCE_SPAWNER_POOL_SIZE = 10;
+    public static final String INSTANCE_SPAWNER_BATCH_SIZE = "instance.spawner.batch.size";
+    public static final int DEFAULT_INSTANCE_SPAWNER_BATCH_SIZE = 5;
     public static final String MEMBER_FAULT_EVENT_NAME = "member_fault";
     //scheduler
     public static final int SCHEDULE_DEFAULT_INITIAL_DELAY = 30;
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.autoscaler.context.member.MemberStatsContext;
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.apache.stratos.cloud.controller.stub.domain.MemberContext;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test member state transitions of a partition context.
+ */
+public class ClusterLevelPartitionContextTest {
+
+    private static final Log log = LogFactory.getLog(ClusterLevelPartitionContextTest.class);
+    private static final int BENCHMARK_MEMBER_COUNT = 5000;
+    private static final int BENCHMARK_STATS_EVENTS_PER_MEMBER = 10;
+
+    @Test
+    public void testMemberStateTransitions() {
+        ClusterLevelPartitionContext partitionContext = new ClusterLevelPartitionContext(0);
+        partitionContext.addPendingMember(createMember("member-1"));
+        partitionContext.addPendingMember(createMember("member-2"));
+        partitionContext.addPendingMember(createMember("member-3"));
+        assertEquals(3, partitionContext.getNonTerminatedMemberCount());
+
+        partitionContext.movePendingMemberToActiveMembers("member-1");
+        partitionContext.movePendingMemberToActiveMembers("member-2");
+        assertTrue(partitionContext.activeMemberExist("member-1"));
+        assertFalse(partitionContext.pendingMemberAvailable("member-1"));
+        assertEquals(2, partitionContext.getActiveMemberCount());
+        assertEquals(1, partitionContext.getPendingMembers().size());
+
+        partitionContext.moveActiveMemberToTerminationPendingMembers("member-1");
+        assertNotNull(partitionContext.getPendingTerminationMember("member-1"));
+        assertEquals(1, partitionContext.getActiveMemberCount());
+
+        partitionContext.movePendingTerminationMemberToObsoleteMembers("member-1");
+        partitionContext.moveMemberToObsoleteList("member-2");
+        partitionContext.movePendingMemberToObsoleteMembers("member-3");
+        assertNull(partitionContext.getPendingTerminationMember("member-1"));
+        assertNotNull(partitionContext.getObsoleteMember("member-1"));
+        assertNotNull(partitionContext.getObsoleteMember("member-2"));
+        assertNotNull(partitionContext.getObsoleteMember("member-3"));
+        assertEquals(0, partitionContext.getTotalMemberCount());
+
+        // moving an unknown member leaves the partition unchanged
+        partitionContext.movePendingMemberToActiveMembers("member-4");
+        assertEquals(0, partitionContext.getActiveMemberCount());
+    }
+
+    /**
+     * Measure the time taken to handle the member events of a partition having many members.
+     */
+    @Test
+    public void testMemberEventHandlingCost() {
+        ClusterLevelPartitionContext partitionContext = new ClusterLevelPartitionContext(0);
+        long startTime = System.nanoTime();
+
+        for (int i = 0; i < BENCHMARK_MEMBER_COUNT; i++) {
+            partitionContext.addPendingMember(createMember("member-" + i));
+        }
+        for (int i = 0; i < BENCHMARK_MEMBER_COUNT; i++) {
+            String memberId = "member-" + i;
+            partitionContext.movePendingMemberToActiveMembers(memberId);
+            partitionContext.addMemberStatsContext(new MemberStatsContext(memberId));
+        }
+        assertEquals(BENCHMARK_MEMBER_COUNT, partitionContext.getActiveMemberCount());
+
+        for (int event = 0; event < BENCHMARK_STATS_EVENTS_PER_MEMBER; event++) {
+            for (int i = 0; i < BENCHMARK_MEMBER_COUNT; i++) {
+                MemberStatsContext memberStatsContext = partitionContext.getMemberStatsContext("member-" + i);
+                memberStatsContext.setAverageLoadAverage(event);
+                memberStatsContext.setAverageMemoryConsumption(event);
+                partitionContext.memberStatsUpdated();
+            }
+        }
+
+        for (int i = 0; i < BENCHMARK_MEMBER_COUNT; i++) {
+            String memberId = "member-" + i;
+            partitionContext.moveActiveMemberToTerminationPendingMembers(memberId);
+            partitionContext.removeMemberStatsContext(memberId);
+        }
+        assertEquals(BENCHMARK_MEMBER_COUNT, partitionContext.getTerminationPendingMembers().size());
+
+        for (int i = 0; i < BENCHMARK_MEMBER_COUNT; i++) {
+            partitionContext.movePendingTerminationMemberToObsoleteMembers("member-" + i);
+        }
+        assertEquals(0, partitionContext.getTotalMemberCount());
+        assertEquals(BENCHMARK_MEMBER_COUNT, partitionContext.getObsoletedMembers().size());
+
+        long duration = (System.nanoTime() - startTime) / 1000000;
+        log.info(String.format("Member event handling: [members] %d [stats events per member] %d [time] %d ms",
+                BENCHMARK_MEMBER_COUNT, BENCHMARK_STATS_EVENTS_PER_MEMBER, duration));
+    }
+
+    private MemberContext createMember(String memberId) {
+        MemberContext memberContext = new MemberContext();
+        memberContext.setMemberId(memberId);
+        return memberContext;
+    }
+}
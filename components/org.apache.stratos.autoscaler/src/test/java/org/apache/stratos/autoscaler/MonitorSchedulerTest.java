@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler;
+
+import org.apache.stratos.autoscaler.monitor.MonitorScheduler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Monitor scheduler test.
+ */
+public class MonitorSchedulerTest {
+
+    private ScheduledExecutorService tickerExecutor;
+    private ExecutorService workerExecutor;
+
+    @Before
+    public void setUp() {
+        tickerExecutor = Executors.newSingleThreadScheduledExecutor();
+        workerExecutor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        tickerExecutor.shutdownNow();
+        workerExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testPeriodicRuns() throws InterruptedException {
+        MonitorScheduler scheduler = new MonitorScheduler(tickerExecutor, workerExecutor, 10, 8, 0);
+        scheduler.start();
+        final AtomicInteger runCount = new AtomicInteger();
+        MonitorScheduler.MonitorTask monitorTask = scheduler.schedule("monitor-1", new Runnable() {
+            @Override
+            public void run() {
+                runCount.incrementAndGet();
+            }
+        }, 50);
+
+        Thread.sleep(520);
+        monitorTask.cancel();
+        int count = runCount.get();
+        assertTrue("Unexpected run count: " + count, count >= 8 && count <= 12);
+        assertEquals(count, monitorTask.getRunCount());
+        assertFalse(scheduler.getMonitorTasks().contains(monitorTask));
+
+        Thread.sleep(150);
+        assertEquals("Monitor run after cancellation", count, runCount.get());
+    }
+
+    @Test
+    public void testSkipRunningMonitor() throws InterruptedException {
+        MonitorScheduler scheduler = new MonitorScheduler(tickerExecutor, workerExecutor, 10, 64, 0);
+        scheduler.start();
+        final AtomicInteger concurrentRuns = new AtomicInteger();
+        final AtomicInteger maxConcurrentRuns = new AtomicInteger();
+        MonitorScheduler.MonitorTask monitorTask = scheduler.schedule("slow-monitor", new Runnable() {
+            @Override
+            public void run() {
+                int runs = concurrentRuns.incrementAndGet();
+                maxConcurrentRuns.set(Math.max(maxConcurrentRuns.get(), runs));
+                try {
+                    Thread.sleep(120);
+                } catch (InterruptedException ignore) {
+                }
+                concurrentRuns.decrementAndGet();
+            }
+        }, 50);
+
+        Thread.sleep(600);
+        monitorTask.cancel();
+        assertEquals("Monitor run concurrently", 1, maxConcurrentRuns.get());
+        assertTrue("Runs not skipped", monitorTask.getSkippedRunCount() > 0);
+        assertTrue("Run time not recorded", monitorTask.getMaxRunTime() >= 100);
+    }
+
+    @Test
+    public void testJitteredMonitors() throws InterruptedException {
+        MonitorScheduler scheduler = new MonitorScheduler(tickerExecutor, workerExecutor, 10, 16, 0.5);
+        scheduler.start();
+        final AtomicInteger runCount = new AtomicInteger();
+        List<MonitorScheduler.MonitorTask> monitorTasks = new ArrayList<MonitorScheduler.MonitorTask>();
+        for (int i = 0; i < 200; i++) {
+            monitorTasks.add(scheduler.schedule("monitor-" + i, new Runnable() {
+                @Override
+                public void run() {
+                    runCount.incrementAndGet();
+                }
+            }, 400));
+        }
+
+        // Monitors start within the first 200 ms, each runs once before the second run is due
+        Thread.sleep(300);
+        assertEquals(200, runCount.get());
+        for (MonitorScheduler.MonitorTask monitorTask : monitorTasks) {
+            assertEquals(1, monitorTask.getRunCount());
+            assertTrue("Monitor lag too high: " + monitorTask.getMaxLag(), monitorTask.getMaxLag() < 100);
+            monitorTask.cancel();
+        }
+        assertTrue(scheduler.getMonitorTasks().isEmpty());
+    }
+}
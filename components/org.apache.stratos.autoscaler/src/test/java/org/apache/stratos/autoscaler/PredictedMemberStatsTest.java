@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler;
+
+import org.apache.stratos.autoscaler.context.cluster.ClusterInstanceContext;
+import org.apache.stratos.autoscaler.context.member.MemberStatsContext;
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.apache.stratos.autoscaler.rule.RuleTasksDelegator;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test predicted load average and memory consumption of a cluster instance.
+ */
+public class PredictedMemberStatsTest {
+
+    private static final double DELTA = 0.0001;
+
+    private RuleTasksDelegator delegator;
+    private ClusterInstanceContext instanceContext;
+    private ClusterLevelPartitionContext partitionContext;
+
+    @Before
+    public void setUp() {
+        delegator = new RuleTasksDelegator();
+        instanceContext = new ClusterInstanceContext("instance-1", "round-robin", 1, 5, "network-partition-1",
+                "cluster-1", false, false);
+        partitionContext = new ClusterLevelPartitionContext(0);
+        partitionContext.setPartitionId("partition-1");
+        instanceContext.addPartitionCtxt(partitionContext);
+    }
+
+    @Test
+    public void testPredictionsWithoutMembers() {
+        assertEquals(0, delegator.getLoadAveragePredictedValue(instanceContext), DELTA);
+        assertEquals(0, delegator.getMemoryConsumptionPredictedValue(instanceContext), DELTA);
+    }
+
+    @Test
+    public void testPredictionsAreAveragedOverMembers() {
+        partitionContext.addMemberStatsContext(createMemberStats("member-1", 20, 40));
+        partitionContext.addMemberStatsContext(createMemberStats("member-2", 40, 60));
+
+        assertEquals(30, delegator.getLoadAveragePredictedValue(instanceContext), DELTA);
+        assertEquals(50, delegator.getMemoryConsumptionPredictedValue(instanceContext), DELTA);
+    }
+
+    @Test
+    public void testPredictionsFollowMemberStatsUpdates() {
+        MemberStatsContext memberStatsContext = createMemberStats("member-1", 20, 40);
+        partitionContext.addMemberStatsContext(memberStatsContext);
+        assertEquals(20, delegator.getLoadAveragePredictedValue(instanceContext), DELTA);
+
+        memberStatsContext.setAverageLoadAverage(50);
+        partitionContext.memberStatsUpdated();
+        assertEquals(50, delegator.getLoadAveragePredictedValue(instanceContext), DELTA);
+
+        partitionContext.addMemberStatsContext(createMemberStats("member-2", 10, 20));
+        assertEquals(30, delegator.getLoadAveragePredictedValue(instanceContext), DELTA);
+        assertEquals(30, delegator.getMemoryConsumptionPredictedValue(instanceContext), DELTA);
+
+        partitionContext.removeMemberStatsContext("member-2");
+        assertEquals(50, delegator.getLoadAveragePredictedValue(instanceContext), DELTA);
+
+        instanceContext.removePartitionCtxt("partition-1");
+        assertEquals(0, delegator.getLoadAveragePredictedValue(instanceContext), DELTA);
+    }
+
+    private MemberStatsContext createMemberStats(String memberId, float loadAverage, float memoryConsumption) {
+        MemberStatsContext memberStatsContext = new MemberStatsContext(memberId);
+        memberStatsContext.setAverageLoadAverage(loadAverage);
+        memberStatsContext.setAverageMemoryConsumption(memoryConsumption);
+        return memberStatsContext;
+    }
+}
@@ -0,0 +1,440 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.autoscaler.context.cluster.ClusterInstanceContext;
+import org.apache.stratos.autoscaler.context.member.MemberStatsContext;
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.AutoscalePolicy;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.LoadThresholds;
+import org.apache.stratos.autoscaler.rule.DroolsScalingEvaluator;
+import org.apache.stratos.autoscaler.rule.JavaScalingEvaluator;
+import org.apache.stratos.autoscaler.rule.RuleLog;
+import org.apache.stratos.autoscaler.rule.RuleTasksDelegator;
+import org.apache.stratos.autoscaler.rule.ScalingEvaluator;
+import org.apache.stratos.autoscaler.statistics.publisher.ScalingDecisionPublisher;
+import org.apache.stratos.cloud.controller.stub.domain.MemberContext;
+import org.apache.stratos.common.constants.StratosConstants;
+import org.apache.stratos.common.statistics.publisher.ThriftClientConfig;
+import org.drools.KnowledgeBase;
+import org.drools.KnowledgeBaseFactory;
+import org.drools.builder.KnowledgeBuilder;
+import org.drools.builder.KnowledgeBuilderFactory;
+import org.drools.builder.ResourceType;
+import org.drools.io.ResourceFactory;
+import org.drools.runtime.StatefulKnowledgeSession;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Checks the java scaling evaluator takes the same decisions as the default drools files and compares
+ * the cost of both evaluators.
+ */
+public class ScalingEvaluatorTest {
+
+    private static final Log log = LogFactory.getLog(ScalingEvaluatorTest.class);
+    // Default drools files of the distribution are copied to the test classpath by the pom
+    private static final String DROOLS_DIR = "/drools/";
+    private static final int SCENARIO_COUNT = 500;
+    private static final int BENCHMARK_INSTANCE_COUNT = 1000;
+    private static final int BENCHMARK_ROUNDS = 10;
+
+    private static KnowledgeBase minCheckKnowledgeBase;
+    private static KnowledgeBase scaleCheckKnowledgeBase;
+    private static KnowledgeBase obsoleteCheckKnowledgeBase;
+    private static String thriftClientConfigFilePath;
+
+    @BeforeClass
+    public static void setUp() {
+        thriftClientConfigFilePath = System.getProperty(ThriftClientConfig.THRIFT_CLIENT_CONFIG_FILE_PATH);
+        System.setProperty(ThriftClientConfig.THRIFT_CLIENT_CONFIG_FILE_PATH,
+                ScalingEvaluatorTest.class.getResource("/thrift-client-config.xml").getPath());
+        minCheckKnowledgeBase = readKnowledgeBase(StratosConstants.MIN_CHECK_DROOL_FILE);
+        scaleCheckKnowledgeBase = readKnowledgeBase(StratosConstants.SCALE_CHECK_DROOL_FILE);
+        obsoleteCheckKnowledgeBase = readKnowledgeBase(StratosConstants.OBSOLETE_CHECK_DROOL_FILE);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (thriftClientConfigFilePath == null) {
+            System.clearProperty(ThriftClientConfig.THRIFT_CLIENT_CONFIG_FILE_PATH);
+        } else {
+            System.setProperty(ThriftClientConfig.THRIFT_CLIENT_CONFIG_FILE_PATH, thriftClientConfigFilePath);
+        }
+    }
+
+    /**
+     * Evaluate random cluster instances with both evaluators and compare the decisions taken.
+     */
+    @Test
+    public void testDecisionsMatchDroolsFiles() {
+        Random random = new Random(7);
+        for (int i = 0; i < SCENARIO_COUNT; i++) {
+            long seed = random.nextLong();
+            List<List<String>> droolsDecisions = evaluate(new DroolsScalingEvaluator(), seed);
+            List<List<String>> javaDecisions = evaluate(new JavaScalingEvaluator(), seed);
+            Assert.assertEquals("Min check decisions differ for scenario " + seed,
+                    droolsDecisions.get(0), javaDecisions.get(0));
+            Assert.assertEquals("Scale check decisions differ for scenario " + seed,
+                    droolsDecisions.get(1), javaDecisions.get(1));
+            Assert.assertEquals("Obsolete check decisions differ for scenario " + seed,
+                    droolsDecisions.get(2), javaDecisions.get(2));
+        }
+    }
+
+    /**
+     * The java max check terminates members of partitions having more active members than the partition max.
+     * The default maxcheck.drl does not terminate members since the primaryMembers global is not set, hence
+     * it is not compared with the java evaluator.
+     */
+    @Test
+    public void testMaxCheckTerminatesMembersOverPartitionMax() {
+        String clusterId = "cluster-max-check";
+        ClusterInstanceContext instanceContext = new ClusterInstanceContext("instance-1",
+                StratosConstants.PARTITION_ROUND_ROBIN_ALGORITHM_ID, 1, 10, "network-partition-1", clusterId,
+                false, false);
+        TestPartitionContext overMaxPartition = createPartition("partition-0", 2, 5, clusterId);
+        TestPartitionContext obsoletePartition = createPartition("partition-1", 2, 4, clusterId);
+        obsoletePartition.setIsObsoletePartition(true);
+        TestPartitionContext underMaxPartition = createPartition("partition-2", 3, 2, clusterId);
+        instanceContext.addPartitionCtxt(overMaxPartition);
+        instanceContext.addPartitionCtxt(obsoletePartition);
+        instanceContext.addPartitionCtxt(underMaxPartition);
+
+        RecordingDelegator delegator = new RecordingDelegator();
+        new JavaScalingEvaluator().evaluateMaxCheck(instanceContext, clusterId, delegator);
+
+        List<String> decisions = delegator.takeDecisions();
+        Assert.assertEquals("Members over the partition max were not terminated: " + decisions, 3, decisions.size());
+        Set<String> terminatedMemberIds = new HashSet<String>();
+        for (String decision : decisions) {
+            Assert.assertTrue("Member of another partition terminated: " + decision,
+                    decision.startsWith("[terminate, partition-0, "));
+            terminatedMemberIds.add(decision);
+        }
+        Assert.assertEquals("Same member terminated more than once: " + decisions, 3, terminatedMemberIds.size());
+        Assert.assertEquals(2, overMaxPartition.getMemberStatsContexts().size());
+        Assert.assertEquals(4, obsoletePartition.getMemberStatsContexts().size());
+    }
+
+    /**
+     * Compare the time taken to run the checks of a monitoring cycle on many cluster instances.
+     */
+    @Test
+    public void testEvaluationCost() {
+        long droolsTime = runBenchmark(new DroolsScalingEvaluator());
+        long javaTime = runBenchmark(new JavaScalingEvaluator());
+        log.info(String.format("Scaling evaluation: [cluster instances] %d [rounds] %d [drools] %d ms [java] %d ms",
+                BENCHMARK_INSTANCE_COUNT, BENCHMARK_ROUNDS, droolsTime, javaTime));
+        Assert.assertTrue(String.format("Java evaluator is slower than the drools evaluator: [drools] %d ms " +
+                "[java] %d ms", droolsTime, javaTime), javaTime <= droolsTime);
+    }
+
+    private static TestPartitionContext createPartition(String partitionId, int max, int activeMemberCount,
+                                                        String clusterId) {
+        TestPartitionContext partitionContext = new TestPartitionContext(partitionId, max);
+        for (int i = 0; i < activeMemberCount; i++) {
+            MemberContext memberContext = new MemberContext();
+            memberContext.setMemberId(clusterId + "-" + partitionId + "-member-" + i);
+            partitionContext.addActiveMember(memberContext);
+            partitionContext.addMemberStatsContext(new MemberStatsContext(memberContext.getMemberId()));
+        }
+        return partitionContext;
+    }
+
+    private long runBenchmark(ScalingEvaluator scalingEvaluator) {
+        Random random = new Random(11);
+        List<Scenario> scenarios = new ArrayList<Scenario>();
+        for (int i = 0; i < BENCHMARK_INSTANCE_COUNT; i++) {
+            scenarios.add(new Scenario(random.nextLong()));
+        }
+
+        long startTime = System.currentTimeMillis();
+        for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+            for (Scenario scenario : scenarios) {
+                scenario.evaluate(scalingEvaluator);
+            }
+        }
+        return System.currentTimeMillis() - startTime;
+    }
+
+    private List<List<String>> evaluate(ScalingEvaluator scalingEvaluator, long seed) {
+        Scenario scenario = new Scenario(seed);
+        List<List<String>> decisions = new ArrayList<List<String>>();
+        RecordingDelegator delegator = scenario.delegator;
+
+        scalingEvaluator.evaluateMinCheck(scenario.instanceContext, scenario.clusterId, scenario.publisher,
+                delegator);
+        decisions.add(delegator.takeDecisions());
+
+        scalingEvaluator.evaluateScaleCheck(scenario.instanceContext, "app", scenario.clusterId,
+                scenario.autoscalePolicy, scenario.rifReset, scenario.mcReset, scenario.laReset, false,
+                scenario.publisher, delegator);
+        decisions.add(delegator.takeDecisions());
+
+        for (ClusterLevelPartitionContext partitionContext : scenario.instanceContext.getPartitionCtxts()) {
+            scalingEvaluator.evaluateObsoleteCheck(scenario.instanceContext, partitionContext, scenario.clusterId,
+                    delegator);
+        }
+        // Rules of the obsolete check are fired in the order chosen by the rules engine
+        List<String> obsoleteCheckDecisions = delegator.takeDecisions();
+        Collections.sort(obsoleteCheckDecisions);
+        decisions.add(obsoleteCheckDecisions);
+        return decisions;
+    }
+
+    private static KnowledgeBase readKnowledgeBase(String drlFileName) {
+        KnowledgeBuilder kbuilder = KnowledgeBuilderFactory.newKnowledgeBuilder();
+        URL drlFileUrl = ScalingEvaluatorTest.class.getResource(DROOLS_DIR + drlFileName);
+        if (drlFileUrl == null) {
+            throw new IllegalArgumentException(String.format("Drools file not found in test resources: %s",
+                    drlFileName));
+        }
+        kbuilder.add(ResourceFactory.newUrlResource(drlFileUrl), ResourceType.DRL);
+        if (kbuilder.getErrors().size() > 0) {
+            throw new IllegalArgumentException(String.format("Could not parse drools file: %s [errors] %s",
+                    drlFileName, kbuilder.getErrors()));
+        }
+        KnowledgeBase kbase = KnowledgeBaseFactory.newKnowledgeBase();
+        kbase.addKnowledgePackages(kbuilder.getKnowledgePackages());
+        return kbase;
+    }
+
+    private static StatefulKnowledgeSession newSession(KnowledgeBase kbase) {
+        StatefulKnowledgeSession ksession = kbase.newStatefulKnowledgeSession();
+        ksession.setGlobal("log", RuleLog.getInstance());
+        return ksession;
+    }
+
+    /**
+     * A cluster instance with random members, statistics and thresholds.
+     */
+    private static class Scenario {
+
+        private final String clusterId;
+        private final ClusterInstanceContext instanceContext;
+        private final AutoscalePolicy autoscalePolicy;
+        private final boolean rifReset;
+        private final boolean mcReset;
+        private final boolean laReset;
+        private final RecordingDelegator delegator = new RecordingDelegator();
+        private final RecordingPublisher publisher = new RecordingPublisher(delegator);
+
+        private Scenario(long seed) {
+            Random random = new Random(seed);
+            clusterId = "cluster-" + seed;
+            int min = 1 + random.nextInt(3);
+            int max = min + random.nextInt(8);
+            String algorithm = random.nextBoolean() ? StratosConstants.PARTITION_ROUND_ROBIN_ALGORITHM_ID :
+                    StratosConstants.PARTITION_ONE_AFTER_ANOTHER_ALGORITHM_ID;
+            instanceContext = new ClusterInstanceContext("instance-1", algorithm, min, max, "network-partition-1",
+                    clusterId, random.nextInt(5) == 0, false);
+            instanceContext.setMinCheckKnowledgeSession(newSession(minCheckKnowledgeBase));
+            instanceContext.setScaleCheckKnowledgeSession(newSession(scaleCheckKnowledgeBase));
+            instanceContext.setObsoleteCheckKnowledgeSession(newSession(obsoleteCheckKnowledgeBase));
+
+            int partitionCount = 1 + random.nextInt(3);
+            int memberIndex = 0;
+            for (int i = 0; i < partitionCount; i++) {
+                TestPartitionContext partitionContext = new TestPartitionContext("partition-" + i,
+                        2 + random.nextInt(5));
+                int activeMembers = random.nextInt(partitionContext.getMax() + 1);
+                for (int j = 0; j < activeMembers; j++) {
+                    MemberContext memberContext = createMember(memberIndex++);
+                    partitionContext.addActiveMember(memberContext);
+                    MemberStatsContext memberStatsContext = new MemberStatsContext(memberContext.getMemberId());
+                    memberStatsContext.setAverageLoadAverage(random.nextFloat() * 100);
+                    memberStatsContext.setGradientOfLoadAverage(random.nextFloat() * 10 - 5);
+                    memberStatsContext.setSecondDerivativeOfLoadAverage(random.nextFloat() * 2 - 1);
+                    memberStatsContext.setAverageMemoryConsumption(random.nextFloat() * 100);
+                    memberStatsContext.setGradientOfMemoryConsumption(random.nextFloat() * 10 - 5);
+                    memberStatsContext.setSecondDerivativeOfMemoryConsumption(random.nextFloat() * 2 - 1);
+                    partitionContext.addMemberStatsContext(memberStatsContext);
+                }
+                for (int j = random.nextInt(3); j > 0; j--) {
+                    partitionContext.addPendingMember(createMember(memberIndex++));
+                }
+                for (int j = random.nextInt(3); j > 0; j--) {
+                    partitionContext.addObsoleteMember(createMember(memberIndex++));
+                }
+                for (int j = random.nextInt(3); j > 0; j--) {
+                    partitionContext.addTerminationPendingMember(createMember(memberIndex++));
+                }
+                instanceContext.addPartitionCtxt(partitionContext);
+            }
+
+            instanceContext.setAverageRequestsInFlight(random.nextFloat() * 200);
+            instanceContext.setRequestsInFlightGradient(random.nextFloat() * 20 - 10);
+            instanceContext.setRequestsInFlightSecondDerivative(random.nextFloat() * 4 - 2);
+            for (int i = random.nextInt(5); i > 0; i--) {
+                instanceContext.increaseScaleDownRequestsCount();
+            }
+
+            LoadThresholds loadThresholds = new LoadThresholds();
+            loadThresholds.setRequestsInFlightThreshold(20 + random.nextInt(80));
+            loadThresholds.setMemoryConsumptionThreshold(40 + random.nextInt(50));
+            loadThresholds.setLoadAverageThreshold(40 + random.nextInt(50));
+            autoscalePolicy = new AutoscalePolicy();
+            autoscalePolicy.setLoadThresholds(loadThresholds);
+
+            boolean rifReset = random.nextBoolean();
+            mcReset = random.nextBoolean();
+            laReset = random.nextBoolean();
+            // Scale check is run only if at least one of the statistics is reset
+            this.rifReset = rifReset || !(mcReset || laReset);
+        }
+
+        private void evaluate(ScalingEvaluator scalingEvaluator) {
+            scalingEvaluator.evaluateMinCheck(instanceContext, clusterId, publisher, delegator);
+            scalingEvaluator.evaluateScaleCheck(instanceContext, "app", clusterId, autoscalePolicy, rifReset,
+                    mcReset, laReset, false, publisher, delegator);
+            for (ClusterLevelPartitionContext partitionContext : instanceContext.getPartitionCtxts()) {
+                scalingEvaluator.evaluateObsoleteCheck(instanceContext, partitionContext, clusterId, delegator);
+            }
+            delegator.takeDecisions();
+        }
+
+        private MemberContext createMember(int index) {
+            MemberContext memberContext = new MemberContext();
+            memberContext.setMemberId(clusterId + "-member-" + index);
+            return memberContext;
+        }
+    }
+
+    /**
+     * Partition context with a fixed partition max.
+     */
+    private static class TestPartitionContext extends ClusterLevelPartitionContext {
+
+        private final int max;
+
+        private TestPartitionContext(String partitionId, int max) {
+            super(0);
+            setPartitionId(partitionId);
+            setNetworkPartitionId("network-partition-1");
+            this.max = max;
+        }
+
+        @Override
+        public int getMax() {
+            return max;
+        }
+    }
+
+    /**
+     * Records the decisions taken instead of acting on them. Spawned instances are counted by the partition
+     * context, so partition selection proceeds as it would with the cloud controller.
+     */
+    private static class RecordingDelegator extends RuleTasksDelegator {
+
+        private List<String> decisions = new ArrayList<String>();
+
+        private List<String> takeDecisions() {
+            List<String> taken = decisions;
+            decisions = new ArrayList<String>();
+            return taken;
+        }
+
+        private void record(String... values) {
+            decisions.add(Arrays.toString(values));
+        }
+
+        @Override
+        public void delegateSpawn(ClusterLevelPartitionContext clusterMonitorPartitionContext, String clusterId,
+                                  String clusterInstanceId, String scalingDecisionId) {
+            record("spawn", clusterMonitorPartitionContext.getPartitionId());
+            clusterMonitorPartitionContext.incrementSpawnRequestCount();
+        }
+
+        @Override
+        public void delegateTerminate(ClusterLevelPartitionContext clusterMonitorPartitionContext, String memberId) {
+            record("terminate", clusterMonitorPartitionContext.getPartitionId(), memberId);
+            clusterMonitorPartitionContext.removeMemberStatsContext(memberId);
+        }
+
+        @Override
+        public void delegateScalingDependencyNotification(String clusterId, String networkPartitionId,
+                                                          String instanceId, int requiredInstanceCount,
+                                                          int minimumInstanceCount) {
+            record("scaling-dependency", String.valueOf(requiredInstanceCount), String.valueOf(minimumInstanceCount));
+        }
+
+        @Override
+        public void delegateScalingOverMaxNotification(String clusterId, String networkPartitionId,
+                                                       String instanceId) {
+            record("scaling-over-max");
+        }
+
+        @Override
+        public void delegateScalingDownBeyondMinNotification(String clusterId, String networkPartitionId,
+                                                             String instanceId) {
+            record("scaling-down-beyond-min");
+        }
+
+        @Override
+        public void terminateObsoleteInstance(String memberId) {
+            record("terminate-obsolete", memberId);
+        }
+
+        @Override
+        public void delegateInstanceCleanup(String memberId) {
+            record("cleanup", memberId);
+        }
+    }
+
+    /**
+     * Records the published scaling decisions, excluding the time and the generated decision id.
+     */
+    private static class RecordingPublisher extends ScalingDecisionPublisher {
+
+        private final RecordingDelegator delegator;
+
+        private RecordingPublisher(RecordingDelegator delegator) {
+            super(null, "das");
+            this.delegator = delegator;
+            setEnabled(true);
+        }
+
+        @Override
+        public void publish(Long timestamp, String scalingDecisionId, String clusterId, int minInstanceCount,
+                            int maxInstanceCount, int rifPredicted, int rifThreshold, int rifRequiredInstances,
+                            int mcPredicted, int mcThreshold, int mcRequiredInstances, int laPredicted,
+                            int laThreshold, int laRequiredInstance, int requiredInstanceCount,
+                            int activeInstanceCount, int additionalInstanceCount, String scalingReason) {
+            delegator.record("publish", Arrays.toString(new int[]{minInstanceCount, maxInstanceCount, rifPredicted,
+                    rifThreshold, rifRequiredInstances, mcPredicted, mcThreshold, mcRequiredInstances, laPredicted,
+                    laThreshold, laRequiredInstance, requiredInstanceCount, activeInstanceCount,
+                    additionalInstanceCount}), scalingReason);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.autoscaler.client;
+
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.apache.stratos.autoscaler.exception.cartridge.SpawningException;
+import org.apache.stratos.cloud.controller.stub.domain.MemberContext;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test ordering, batching and member counting of spawn requests sent by the instance spawner.
+ */
+public class InstanceSpawnerTest {
+
+    @Test
+    public void testRequestsOfClusterAreSentInOrder() {
+        TestExecutorService executorService = new TestExecutorService();
+        TestInstanceSpawner instanceSpawner = new TestInstanceSpawner(executorService, 10);
+        ClusterLevelPartitionContext partitionContext = new ClusterLevelPartitionContext(0);
+
+        for (int i = 0; i < 5; i++) {
+            instanceSpawner.spawn(partitionContext, "cluster-1", "cluster-instance-1", 1, "cluster-1/" + i);
+        }
+        // Requests of a cluster are sent by a single run at a time
+        assertEquals(1, executorService.getTaskCount());
+
+        executorService.runTasks();
+        assertEquals(Arrays.asList("cluster-1/0", "cluster-1/1", "cluster-1/2", "cluster-1/3", "cluster-1/4"),
+                instanceSpawner.getScalingDecisionIds());
+    }
+
+    @Test
+    public void testBatchGivesWayToOtherClusters() {
+        TestExecutorService executorService = new TestExecutorService();
+        TestInstanceSpawner instanceSpawner = new TestInstanceSpawner(executorService, 2);
+        ClusterLevelPartitionContext partitionContext1 = new ClusterLevelPartitionContext(0);
+        ClusterLevelPartitionContext partitionContext2 = new ClusterLevelPartitionContext(0);
+
+        for (int i = 0; i < 5; i++) {
+            instanceSpawner.spawn(partitionContext1, "cluster-1", "cluster-instance-1", 1, "cluster-1/" + i);
+        }
+        instanceSpawner.spawn(partitionContext2, "cluster-2", "cluster-instance-2", 1, "cluster-2/0");
+        assertEquals(2, executorService.getTaskCount());
+
+        executorService.runTasks();
+        assertEquals(Arrays.asList("cluster-1/0", "cluster-1/1", "cluster-2/0", "cluster-1/2", "cluster-1/3",
+                "cluster-1/4"), instanceSpawner.getScalingDecisionIds());
+        assertEquals(5, partitionContext1.getPendingMembers().size());
+        assertEquals(1, partitionContext2.getPendingMembers().size());
+    }
+
+    @Test
+    public void testSpawnRequestsAreCountedUntilMembersArePending() {
+        TestExecutorService executorService = new TestExecutorService();
+        final ClusterLevelPartitionContext partitionContext = new ClusterLevelPartitionContext(0);
+        final List<Integer> nonTerminatedMemberCounts = new ArrayList<Integer>();
+        TestInstanceSpawner instanceSpawner = new TestInstanceSpawner(executorService, 10) {
+            @Override
+            MemberContext startInstance(ClusterLevelPartitionContext partitionContext, String clusterId,
+                                        String clusterInstanceId, int minMemberCount, String scalingDecisionId)
+                    throws SpawningException {
+                nonTerminatedMemberCounts.add(partitionContext.getNonTerminatedMemberCount());
+                return super.startInstance(partitionContext, clusterId, clusterInstanceId, minMemberCount,
+                        scalingDecisionId);
+            }
+        };
+        instanceSpawner.fail("cluster-1/1");
+
+        for (int i = 0; i < 3; i++) {
+            instanceSpawner.spawn(partitionContext, "cluster-1", "cluster-instance-1", 1, "cluster-1/" + i);
+        }
+        // Queued requests count towards the max instance limit before the cloud controller is invoked
+        assertEquals(3, partitionContext.getSpawnRequestCount());
+        assertEquals(3, partitionContext.getNonTerminatedMemberCount());
+        assertEquals(0, partitionContext.getPendingMembers().size());
+
+        executorService.runTasks();
+        // Each request is counted either as a spawn request or as a pending member, never as both
+        assertEquals(Arrays.asList(3, 3, 2), nonTerminatedMemberCounts);
+        assertEquals(0, partitionContext.getSpawnRequestCount());
+        assertEquals(2, partitionContext.getPendingMembers().size());
+        assertEquals(2, partitionContext.getNonTerminatedMemberCount());
+    }
+
+    @Test
+    public void testIdleQueuesAreRemoved() {
+        TestExecutorService executorService = new TestExecutorService();
+        final ClusterLevelPartitionContext partitionContext = new ClusterLevelPartitionContext(0);
+        TestInstanceSpawner instanceSpawner = new TestInstanceSpawner(executorService, 10) {
+            @Override
+            MemberContext startInstance(ClusterLevelPartitionContext partitionContext, String clusterId,
+                                        String clusterInstanceId, int minMemberCount, String scalingDecisionId)
+                    throws SpawningException {
+                if (scalingDecisionId.equals("cluster-1/0")) {
+                    // Request queued while the queue is being drained
+                    spawn(partitionContext, "cluster-1", "cluster-instance-1", 1, "cluster-1/1");
+                }
+                return super.startInstance(partitionContext, clusterId, clusterInstanceId, minMemberCount,
+                        scalingDecisionId);
+            }
+        };
+
+        instanceSpawner.spawn(partitionContext, "cluster-1", "cluster-instance-1", 1, "cluster-1/0");
+        instanceSpawner.spawn(partitionContext, "cluster-2", "cluster-instance-2", 1, "cluster-2/0");
+        assertEquals(2, instanceSpawner.getClusterSpawnQueueCount());
+
+        executorService.runTasks();
+        assertEquals(Arrays.asList("cluster-1/0", "cluster-1/1", "cluster-2/0"),
+                instanceSpawner.getScalingDecisionIds());
+        assertEquals(0, instanceSpawner.getClusterSpawnQueueCount());
+
+        // A new queue is created for requests made after the queue of the cluster was removed
+        instanceSpawner.spawn(partitionContext, "cluster-1", "cluster-instance-1", 1, "cluster-1/2");
+        assertEquals(1, instanceSpawner.getClusterSpawnQueueCount());
+        executorService.runTasks();
+        assertEquals("cluster-1/2", instanceSpawner.getScalingDecisionIds().get(3));
+        assertEquals(0, instanceSpawner.getClusterSpawnQueueCount());
+        assertEquals(0, partitionContext.getSpawnRequestCount());
+    }
+
+    @Test
+    public void testRejectedRequestsAreRemoved() {
+        TestExecutorService executorService = new TestExecutorService();
+        TestInstanceSpawner instanceSpawner = new TestInstanceSpawner(executorService, 10);
+        ClusterLevelPartitionContext partitionContext = new ClusterLevelPartitionContext(0);
+
+        executorService.shutdown();
+        instanceSpawner.spawn(partitionContext, "cluster-1", "cluster-instance-1", 1, "cluster-1/0");
+        assertEquals(0, partitionContext.getSpawnRequestCount());
+        assertEquals(0, partitionContext.getNonTerminatedMemberCount());
+        assertEquals(0, executorService.getTaskCount());
+        assertEquals(0, instanceSpawner.getClusterSpawnQueueCount());
+
+        // Requests of the cluster are sent again once the executor accepts tasks
+        executorService.start();
+        instanceSpawner.spawn(partitionContext, "cluster-1", "cluster-instance-1", 1, "cluster-1/1");
+        executorService.runTasks();
+        assertEquals(Arrays.asList("cluster-1/1"), instanceSpawner.getScalingDecisionIds());
+        assertEquals(1, partitionContext.getPendingMembers().size());
+    }
+
+    /**
+     * Instance spawner recording the spawn requests instead of sending them to the cloud controller.
+     */
+    private static class TestInstanceSpawner extends InstanceSpawner {
+
+        private final List<String> scalingDecisionIds = new ArrayList<String>();
+        private final Set<String> failingScalingDecisionIds = new HashSet<String>();
+
+        private TestInstanceSpawner(TestExecutorService executorService, int batchSize) {
+            super(executorService, batchSize);
+        }
+
+        private void fail(String scalingDecisionId) {
+            failingScalingDecisionIds.add(scalingDecisionId);
+        }
+
+        private List<String> getScalingDecisionIds() {
+            return scalingDecisionIds;
+        }
+
+        @Override
+        MemberContext startInstance(ClusterLevelPartitionContext partitionContext, String clusterId,
+                                    String clusterInstanceId, int minMemberCount, String scalingDecisionId)
+                throws SpawningException {
+            if (failingScalingDecisionIds.contains(scalingDecisionId)) {
+                throw new SpawningException("Could not start instance: " + scalingDecisionId,
+                        new Exception("Cloud controller not available"));
+            }
+            scalingDecisionIds.add(scalingDecisionId);
+            MemberContext memberContext = new MemberContext();
+            memberContext.setMemberId("member-" + scalingDecisionId);
+            return memberContext;
+        }
+    }
+
+    /**
+     * Executor service running the submitted tasks in the calling thread when requested.
+     */
+    private static class TestExecutorService extends AbstractExecutorService {
+
+        private final Queue<Runnable> tasks = new LinkedList<Runnable>();
+        private boolean shutdown;
+
+        private int getTaskCount() {
+            return tasks.size();
+        }
+
+        private void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+            assertTrue(tasks.isEmpty());
+        }
+
+        private void start() {
+            shutdown = false;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Executor service is shut down");
+            }
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            List<Runnable> remainingTasks = new ArrayList<Runnable>(tasks);
+            tasks.clear();
+            return remainingTasks;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && tasks.isEmpty();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return isTerminated();
+        }
+    }
+}
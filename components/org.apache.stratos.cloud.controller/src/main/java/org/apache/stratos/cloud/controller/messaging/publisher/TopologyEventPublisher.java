@@ -327,6 +327,19 @@ public class TopologyEventPublisher {
         }
     }
 
+    /**
+     * Publish topology diff event, the caller is expected to hold the topology read lock.
+     *
+     * @param topologyDiffEvent topology diff event
+     */
+    public static void sendTopologyDiffEvent(TopologyDiffEvent topologyDiffEvent) {
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Publishing topology diff event: [base-version] %d [version] %d",
+                    topologyDiffEvent.getBaseVersion(), topologyDiffEvent.getVersion()));
+        }
+        publishEvent(topologyDiffEvent);
+    }
+
     public static void sendClusterTerminatingEvent(ClusterInstanceTerminatingEvent clusterTerminatingEvent) {
 
         if (log.isInfoEnabled()) {
@@ -18,19 +18,34 @@
  */
 package org.apache.stratos.cloud.controller.messaging.publisher;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.cloud.controller.config.CloudControllerConfig;
 import org.apache.stratos.cloud.controller.context.CloudControllerContext;
+import org.apache.stratos.cloud.controller.domain.TopologyConfig;
+import org.apache.stratos.cloud.controller.messaging.topology.TopologyDiffCalculator;
 import org.apache.stratos.cloud.controller.messaging.topology.TopologyHolder;
+import org.apache.stratos.cloud.controller.util.CloudControllerConstants;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.event.topology.CompleteTopologyEvent;
+import org.apache.stratos.messaging.event.topology.TopologyDiffEvent;
 
 /**
  * Topology event synchronizer publishes complete topology event periodically.
+ * <p/>
+ * If the deltaSyncEnabled topology sync property is set to true, the complete topology is
+ * published only on the first run and then once every fullSyncInterval runs, if it is greater
+ * than zero. On other runs a topology diff event is published with the services and clusters
+ * that have changed since the previous run.
  */
 public class TopologyEventSynchronizer implements Runnable {
 
     private static final Log log = LogFactory.getLog(TopologyEventSynchronizer.class);
 
+    private final TopologyDiffCalculator topologyDiffCalculator = new TopologyDiffCalculator();
+    private int runsSinceFullSync;
+
     @Override
     public void run() {
         if (log.isDebugEnabled()) {
@@ -52,11 +67,59 @@ public class TopologyEventSynchronizer implements Runnable {
         }
 
         try {
-            // Publish complete topology event
             CloudControllerContext.getInstance().setTopologySyncRunning(true);
-            TopologyEventPublisher.sendCompleteTopologyEvent(TopologyHolder.getTopology());
+            if (isDeltaSyncEnabled()) {
+                synchronizeTopology();
+            } else {
+                // Publish complete topology event
+                TopologyEventPublisher.sendCompleteTopologyEvent(TopologyHolder.getTopology());
+            }
         } finally {
             CloudControllerContext.getInstance().setTopologySyncRunning(false);
         }
     }
+
+    private void synchronizeTopology() {
+        int fullSyncInterval = getFullSyncInterval();
+        TopologyHolder.acquireReadLock();
+        try {
+            Topology topology = TopologyHolder.getTopology();
+            if (!topologyDiffCalculator.isInitialized() ||
+                    ((fullSyncInterval > 0) && (runsSinceFullSync >= fullSyncInterval))) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Publishing complete topology event...");
+                }
+                TopologyEventPublisher.publishEvent(new CompleteTopologyEvent(topology));
+                topologyDiffCalculator.reset(topology);
+                runsSinceFullSync = 0;
+            } else {
+                TopologyDiffEvent topologyDiffEvent = topologyDiffCalculator.calculateDiff(topology);
+                TopologyEventPublisher.sendTopologyDiffEvent(topologyDiffEvent);
+                runsSinceFullSync++;
+            }
+        } finally {
+            TopologyHolder.releaseReadLock();
+        }
+    }
+
+    private boolean isDeltaSyncEnabled() {
+        TopologyConfig topologyConfig = CloudControllerConfig.getInstance().getTopologyConfig();
+        return (topologyConfig != null) && Boolean.parseBoolean(
+                topologyConfig.getProperty(CloudControllerConstants.TOPOLOGY_SYNC_DELTA_ENABLED));
+    }
+
+    private int getFullSyncInterval() {
+        TopologyConfig topologyConfig = CloudControllerConfig.getInstance().getTopologyConfig();
+        String value = (topologyConfig != null) ?
+                topologyConfig.getProperty(CloudControllerConstants.TOPOLOGY_SYNC_FULL_SYNC_INTERVAL) : null;
+        if (StringUtils.isBlank(value)) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid topology full sync interval: " + value);
+            return 0;
+        }
+    }
 }
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.cloud.controller.messaging.topology;
+
+import com.google.gson.Gson;
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.Service;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.event.topology.TopologyDiffEvent;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Calculates the difference between the topology last synchronized with subscribers and the
+ * current topology. Clusters are compared using a digest of their JSON representation,
+ * services are compared using a digest of their type, ports and properties.
+ * <p/>
+ * Methods of this class should be invoked while holding the topology read lock.
+ */
+public class TopologyDiffCalculator {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
+    private final Gson gson = new Gson();
+
+    private boolean initialized;
+    private long version;
+    // Key: service name
+    private Map<String, String> serviceDigestMap = new HashMap<String, String>();
+    // Key: cluster id
+    private Map<String, String> clusterDigestMap = new HashMap<String, String>();
+    // Key: cluster id, value: service name
+    private Map<String, String> clusterServiceMap = new HashMap<String, String>();
+
+    /**
+     * @return true if a topology snapshot has been taken
+     */
+    public synchronized boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * Take a snapshot of the given topology, subsequent diffs are calculated against it.
+     *
+     * @param topology topology synchronized with subscribers
+     */
+    public synchronized void reset(Topology topology) {
+        serviceDigestMap = new HashMap<String, String>();
+        clusterDigestMap = new HashMap<String, String>();
+        clusterServiceMap = new HashMap<String, String>();
+        for (Service service : topology.getServices()) {
+            serviceDigestMap.put(service.getServiceName(), digestService(service));
+            for (Cluster cluster : service.getClusters()) {
+                clusterDigestMap.put(cluster.getClusterId(), digest(gson.toJson(cluster)));
+                clusterServiceMap.put(cluster.getClusterId(), service.getServiceName());
+            }
+        }
+        version = topology.getVersion();
+        initialized = true;
+    }
+
+    /**
+     * Calculate the difference between the last snapshot and the given topology and take a
+     * snapshot of the given topology. If the topology version has not changed since the last
+     * snapshot an empty diff is returned without comparing the topology.
+     *
+     * @param topology current topology
+     * @return topology diff event
+     */
+    public synchronized TopologyDiffEvent calculateDiff(Topology topology) {
+        if (!initialized) {
+            throw new IllegalStateException("Topology diff calculator has not been initialized");
+        }
+
+        TopologyDiffEvent diffEvent = new TopologyDiffEvent(version, topology.getVersion());
+        if (topology.getVersion() == version) {
+            // Topology version is incremented on every update, nothing has changed
+            return diffEvent;
+        }
+
+        Map<String, String> newServiceDigestMap = new HashMap<String, String>();
+        Map<String, String> newClusterDigestMap = new HashMap<String, String>();
+        Map<String, String> newClusterServiceMap = new HashMap<String, String>();
+
+        for (Service service : topology.getServices()) {
+            String serviceName = service.getServiceName();
+            String serviceDigest = digestService(service);
+            newServiceDigestMap.put(serviceName, serviceDigest);
+            // Services added or updated are sent with all of their clusters
+            boolean serviceUpdated = !serviceDigest.equals(serviceDigestMap.get(serviceName));
+            if (serviceUpdated) {
+                diffEvent.addUpdatedService(service);
+            }
+
+            for (Cluster cluster : service.getClusters()) {
+                String clusterId = cluster.getClusterId();
+                String clusterDigest = digest(gson.toJson(cluster));
+                newClusterDigestMap.put(clusterId, clusterDigest);
+                newClusterServiceMap.put(clusterId, serviceName);
+                if (!serviceUpdated && !clusterDigest.equals(clusterDigestMap.get(clusterId))) {
+                    diffEvent.addUpdatedCluster(cluster);
+                }
+            }
+        }
+
+        for (String serviceName : serviceDigestMap.keySet()) {
+            if (!newServiceDigestMap.containsKey(serviceName)) {
+                diffEvent.addRemovedService(serviceName);
+            }
+        }
+
+        for (Map.Entry<String, String> entry : clusterServiceMap.entrySet()) {
+            String clusterId = entry.getKey();
+            String serviceName = entry.getValue();
+            if (!newClusterDigestMap.containsKey(clusterId)
+                    && newServiceDigestMap.containsKey(serviceName)
+                    && newServiceDigestMap.get(serviceName).equals(serviceDigestMap.get(serviceName))) {
+                // Clusters of removed and updated services are not listed
+                diffEvent.addRemovedCluster(serviceName, clusterId);
+            }
+        }
+
+        serviceDigestMap = newServiceDigestMap;
+        clusterDigestMap = newClusterDigestMap;
+        clusterServiceMap = newClusterServiceMap;
+        version = topology.getVersion();
+        return diffEvent;
+    }
+
+    private String digestService(Service service) {
+        return digest(gson.toJson(new Object[]{service.getServiceType(), service.getPorts(),
+                service.getProperties()}));
+    }
+
+    private String digest(String value) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+            byte[] bytes = messageDigest.digest(value.getBytes(UTF_8));
+            char[] chars = new char[bytes.length * 2];
+            for (int i = 0; i < bytes.length; i++) {
+                chars[i * 2] = HEX_CHARS[(bytes[i] >> 4) & 0x0f];
+                chars[i * 2 + 1] = HEX_CHARS[bytes[i] & 0x0f];
+            }
+            return new String(chars);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Could not calculate topology digest", e);
+        }
+    }
+}
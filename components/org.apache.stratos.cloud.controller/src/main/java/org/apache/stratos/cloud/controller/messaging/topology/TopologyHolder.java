@@ -92,7 +92,8 @@ public class TopologyHolder {
     }
 
     /**
-     * Update in-memory topology and persist it in registry.
+     * Update in-memory topology and persist it in registry. The topology version is
+     * incremented on each update for subscribers to detect missed updates.
      *
      * @param updatedTopology
      */
@@ -101,6 +102,7 @@ public class TopologyHolder {
             if (log.isDebugEnabled()) {
                 log.debug("Updating topology");
             }
+            updatedTopology.incrementVersion();
             topology = updatedTopology;
             RegistryManager.getInstance().persist(CloudControllerConstants.TOPOLOGY_RESOURCE, topology);
             if (log.isDebugEnabled()) {
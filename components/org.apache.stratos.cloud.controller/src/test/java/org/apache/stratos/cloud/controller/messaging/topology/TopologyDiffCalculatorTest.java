@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.cloud.controller.messaging.topology;
+
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.Member;
+import org.apache.stratos.messaging.domain.topology.Service;
+import org.apache.stratos.messaging.domain.topology.ServiceType;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.event.topology.TopologyDiffEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test calculating topology diffs published between complete topology synchronizations.
+ */
+public class TopologyDiffCalculatorTest {
+
+    private Topology topology;
+    private TopologyDiffCalculator diffCalculator;
+
+    @Before
+    public void setUp() {
+        topology = new Topology();
+        Service service1 = new Service("service-1", ServiceType.SingleTenant);
+        service1.addCluster(createCluster("service-1", "cluster-1"));
+        service1.addCluster(createCluster("service-1", "cluster-2"));
+        topology.addService(service1);
+        Service service2 = new Service("service-2", ServiceType.SingleTenant);
+        service2.addCluster(createCluster("service-2", "cluster-3"));
+        topology.addService(service2);
+        topology.setVersion(10);
+
+        diffCalculator = new TopologyDiffCalculator();
+        assertFalse(diffCalculator.isInitialized());
+        diffCalculator.reset(topology);
+        assertTrue(diffCalculator.isInitialized());
+    }
+
+    @Test
+    public void testUnchangedTopologyVersionGivesEmptyDiff() {
+        TopologyDiffEvent diffEvent = diffCalculator.calculateDiff(topology);
+
+        assertTrue(diffEvent.isEmpty());
+        assertEquals(10, diffEvent.getBaseVersion());
+        assertEquals(10, diffEvent.getVersion());
+    }
+
+    @Test
+    public void testDiffOfAddedChangedAndRemovedServicesAndClusters() {
+        Service service1 = topology.getService("service-1");
+        service1.getCluster("cluster-1").addMember(new Member("service-1", "cluster-1", "member-1",
+                "cluster-instance-1", "network-partition-1", "partition-1", null, 0));
+        service1.removeCluster("cluster-2");
+        topology.removeService("service-2");
+        Service service3 = new Service("service-3", ServiceType.MultiTenant);
+        service3.addCluster(createCluster("service-3", "cluster-4"));
+        topology.addService(service3);
+        topology.incrementVersion();
+
+        TopologyDiffEvent diffEvent = diffCalculator.calculateDiff(topology);
+
+        assertEquals(10, diffEvent.getBaseVersion());
+        assertEquals(11, diffEvent.getVersion());
+        assertEquals(1, diffEvent.getUpdatedServices().size());
+        assertEquals("service-3", diffEvent.getUpdatedServices().get(0).getServiceName());
+        assertEquals(1, diffEvent.getUpdatedClusters().size());
+        assertEquals("cluster-1", diffEvent.getUpdatedClusters().get(0).getClusterId());
+        assertEquals(Arrays.asList("service-2"), diffEvent.getRemovedServices());
+        assertEquals(Collections.singletonMap("cluster-2", "service-1"), diffEvent.getRemovedClusters());
+
+        // Next diff is calculated against the topology the previous diff was calculated for
+        topology.incrementVersion();
+        diffEvent = diffCalculator.calculateDiff(topology);
+
+        assertEquals(11, diffEvent.getBaseVersion());
+        assertEquals(12, diffEvent.getVersion());
+        assertTrue(diffEvent.isEmpty());
+    }
+
+    @Test
+    public void testChangedServiceIsSentWithItsClusters() {
+        Service service1 = topology.getService("service-1");
+        Properties properties = new Properties();
+        properties.setProperty("key", "value");
+        service1.setProperties(properties);
+        service1.getCluster("cluster-1").addMember(new Member("service-1", "cluster-1", "member-1",
+                "cluster-instance-1", "network-partition-1", "partition-1", null, 0));
+        service1.removeCluster("cluster-2");
+        topology.incrementVersion();
+
+        TopologyDiffEvent diffEvent = diffCalculator.calculateDiff(topology);
+
+        assertEquals(1, diffEvent.getUpdatedServices().size());
+        assertEquals("service-1", diffEvent.getUpdatedServices().get(0).getServiceName());
+        // Clusters of the changed service are not listed separately
+        assertTrue(diffEvent.getUpdatedClusters().isEmpty());
+        assertTrue(diffEvent.getRemovedClusters().isEmpty());
+        assertTrue(diffEvent.getRemovedServices().isEmpty());
+    }
+
+    private static Cluster createCluster(String serviceName, String clusterId) {
+        return new Cluster(serviceName, clusterId, "deployment-policy-1", "autoscaling-policy-1", "application-1");
+    }
+}
@@ -21,6 +21,8 @@ package org.apache.stratos.common.statistics.publisher;
 
 import org.wso2.carbon.databridge.commons.StreamDefinition;
 
+import java.util.Map;
+
 /**
  * In-flight request publisher interface.
  */
@@ -40,4 +42,14 @@ public abstract class InFlightRequestPublisher extends ThriftStatisticsPublisher
      */
     public abstract void publish(String clusterId, String clusterInstanceId, String networkPartitionId,
                                  int inFlightRequestCount);
+
+    /**
+     * Publish in-flight request counts of a set of clusters together.
+     *
+     * @param clusterInstanceId         Cluster instance id
+     * @param networkPartitionId        Network partition id of the clusters
+     * @param clusterInFlightRequestMap In-flight request counts against cluster ids
+     */
+    public abstract void publish(String clusterInstanceId, String networkPartitionId,
+                                 Map<String, Integer> clusterInFlightRequestMap);
 }
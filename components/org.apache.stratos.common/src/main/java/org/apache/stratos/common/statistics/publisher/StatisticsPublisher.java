@@ -19,6 +19,8 @@
 
 package org.apache.stratos.common.statistics.publisher;
 
+import java.util.List;
+
 /**
  * Statistics publisher interface.
  */
@@ -42,4 +44,11 @@ public interface StatisticsPublisher {
      * @param payload An array of parameter values.
      */
     void publish(Object[] payload);
+
+    /**
+     * Payloads to be published together.
+     *
+     * @param payloads A list of parameter value arrays, one per event.
+     */
+    void publish(List<Object[]> payloads);
 }
@@ -148,4 +148,41 @@ public class ThriftStatisticsPublisher implements StatisticsPublisher {
             }
         }
     }
+
+    @Override
+    public void publish(List<Object[]> payloads) {
+        if (!isEnabled()) {
+            throw new RuntimeException("Statistics publisher is not enabled");
+        }
+        if (payloads.isEmpty()) {
+            return;
+        }
+
+        List<Event> events = new ArrayList<Event>(payloads.size());
+        for (Object[] payload : payloads) {
+            Event event = new Event();
+            event.setPayloadData(payload);
+            event.setArbitraryDataMap(new HashMap<String, String>());
+            events.add(event);
+        }
+
+        int publishedEventCount = 0;
+        try {
+            // Events are queued by the data publisher and sent to the receivers in bundles
+            for (Event event : events) {
+                loadBalancingDataPublisher.publish(streamDefinition.getName(), streamDefinition.getVersion(), event);
+                publishedEventCount++;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Successfully Published thrift events: [stream] %s [version] %s [events] %d",
+                        streamDefinition.getName(), streamDefinition.getVersion(), publishedEventCount));
+            }
+        } catch (AgentException e) {
+            if (log.isErrorEnabled()) {
+                log.error(String.format("Could not publish thrift events: [stream] %s [version] %s [events] %d " +
+                                "[published] %d", streamDefinition.getName(), streamDefinition.getVersion(),
+                        events.size(), publishedEventCount), e);
+            }
+        }
+    }
 }
@@ -28,6 +28,7 @@ import org.wso2.carbon.databridge.commons.StreamDefinition;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * WSO2 CEP in flight request count publisher.
@@ -103,4 +104,27 @@ public class WSO2CEPInFlightRequestPublisher extends InFlightRequestPublisher {
 
         publish(payload.toArray());
     }
+
+    /**
+     * Publish in-flight request counts of a set of clusters together.
+     *
+     * @param clusterInstanceId         Cluster instance id
+     * @param networkPartitionId        Cluster's network partition id
+     * @param clusterInFlightRequestMap In-flight request counts against cluster ids
+     */
+    @Override
+    public void publish(String clusterInstanceId, String networkPartitionId,
+                        Map<String, Integer> clusterInFlightRequestMap) {
+        List<Object[]> payloads = new ArrayList<Object[]>(clusterInFlightRequestMap.size());
+        for (Map.Entry<String, Integer> entry : clusterInFlightRequestMap.entrySet()) {
+            payloads.add(new Object[]{entry.getKey(), clusterInstanceId, networkPartitionId,
+                    (double) entry.getValue()});
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Publishing in-flight request counts: [cluster-instance] %s " +
+                    "[network-partition] %s [clusters] %d", clusterInstanceId, networkPartitionId, payloads.size()));
+        }
+        publish(payloads);
+    }
 }
@@ -38,6 +38,8 @@ public class Cluster {
     private Set<String> hostNames;
     private String tenantRange;
     private Map<String, Member> memberMap;
+    // Immutable copy of the member map values, replaced whenever members are added or removed
+    private volatile Member[] memberArray;
     private Map<String, String> hostNameToContextPathMap;
     private String loadBalanceAlgorithmName;
     private Properties properties;
@@ -46,7 +48,8 @@ public class Cluster {
         this.serviceName = serviceName;
         this.clusterId = clusterId;
         this.hostNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
-        this.memberMap = new HashMap<String, Member>();
+        this.memberMap = new ConcurrentHashMap<String, Member>();
+        this.memberArray = new Member[0];
         this.hostNameToContextPathMap = new ConcurrentHashMap<String, String>();
     }
 
@@ -71,11 +74,12 @@ public class Cluster {
         hostNameToContextPathMap.put(hostName, contextPath);
     }
 
-    public void addMember(Member member) {
+    public synchronized void addMember(Member member) {
         memberMap.put(member.getMemberId(), member);
+        updateMemberArray();
     }
 
-    public void removeMember(String memberId) {
+    public synchronized void removeMember(String memberId) {
         Member member = memberMap.get(memberId);
         if (member == null) {
             if (log.isWarnEnabled()) {
@@ -85,6 +89,11 @@ public class Cluster {
         }
 
         memberMap.remove(memberId);
+        updateMemberArray();
+    }
+
+    private void updateMemberArray() {
+        memberArray = memberMap.values().toArray(new Member[0]);
     }
 
     public Member getMember(String memberId) {
@@ -95,6 +104,16 @@ public class Cluster {
         return memberMap.values();
     }
 
+    /**
+     * Returns the members of the cluster without copying them. The returned array is replaced on every
+     * member update and must not be modified.
+     *
+     * @return members of the cluster
+     */
+    public Member[] getMemberArray() {
+        return memberArray;
+    }
+
     public String getTenantRange() {
         return tenantRange;
     }
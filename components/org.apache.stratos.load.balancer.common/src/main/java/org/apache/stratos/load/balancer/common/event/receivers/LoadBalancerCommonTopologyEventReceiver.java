@@ -69,10 +69,14 @@ public class LoadBalancerCommonTopologyEventReceiver extends TopologyEventReceiv
             return;
         }
 
+        // Topology snapshots can be read without locking the topology
+        boolean lockRequired = !TopologyManager.isTopologySnapshotEnabled();
         try {
             boolean membersFound = false;
-            TopologyManager.acquireReadLock();
-            for (Service service : TopologyManager.getTopology().getServices()) {
+            if (lockRequired) {
+                TopologyManager.acquireReadLock();
+            }
+            for (Service service : TopologyManager.getTopologySnapshot().getServices()) {
                 for (Cluster cluster : service.getClusters()) {
                     for (Member member : cluster.getMembers()) {
                         if (member.getStatus() == MemberStatus.Active) {
@@ -103,7 +107,9 @@ public class LoadBalancerCommonTopologyEventReceiver extends TopologyEventReceiv
         } catch (Exception e) {
             log.error("Error processing complete topology event", e);
         } finally {
-            TopologyManager.releaseReadLock();
+            if (lockRequired) {
+                TopologyManager.releaseReadLock();
+            }
         }
     }
 
@@ -302,7 +308,7 @@ public class LoadBalancerCommonTopologyEventReceiver extends TopologyEventReceiv
      * @param memberId
      */
     protected void addMember(String serviceName, String clusterId, String memberId) {
-        Service service = TopologyManager.getTopology().getService(serviceName);
+        Service service = TopologyManager.getTopologySnapshot().getService(serviceName);
         if (service == null) {
             if (log.isWarnEnabled()) {
                 log.warn(String.format("Service not found in topology: [service] %s",
@@ -360,7 +366,7 @@ public class LoadBalancerCommonTopologyEventReceiver extends TopologyEventReceiv
      * @param memberId
      */
     protected void removeMember(String serviceName, String clusterId, String memberId) {
-        Service service = TopologyManager.getTopology().getService(serviceName);
+        Service service = TopologyManager.getTopologySnapshot().getService(serviceName);
         if (service == null) {
             if (log.isWarnEnabled()) {
                 log.warn(String.format("Service not found in topology: [service] %s",
@@ -419,6 +425,7 @@ public class LoadBalancerCommonTopologyEventReceiver extends TopologyEventReceiv
                 new org.apache.stratos.load.balancer.common.domain.Cluster(messagingCluster.getServiceName(),
                         messagingCluster.getClusterId());
         cluster.setTenantRange(messagingCluster.getTenantRange());
+        cluster.setLoadBalanceAlgorithmName(messagingCluster.getLoadBalanceAlgorithmName());
         if (messagingCluster.getHostNames() != null) {
             for (String hostName : messagingCluster.getHostNames()) {
                 cluster.addHostName(hostName);
@@ -16,7 +16,6 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-
 package org.apache.stratos.load.balancer.common.statistics.notifier;
 
 import org.apache.commons.lang3.StringUtils;
@@ -25,36 +24,61 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.common.statistics.publisher.InFlightRequestPublisher;
 import org.apache.stratos.common.statistics.publisher.InFlightRequestPublisherFactory;
 import org.apache.stratos.common.statistics.publisher.StatisticsPublisherType;
+import org.apache.stratos.common.threading.StratosThreadPool;
 import org.apache.stratos.load.balancer.common.domain.Cluster;
 import org.apache.stratos.load.balancer.common.domain.Service;
 import org.apache.stratos.load.balancer.common.statistics.LoadBalancerStatisticsReader;
 import org.apache.stratos.load.balancer.common.topology.TopologyProvider;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
 /**
- * Load balancer statistics notifier thread for publishing statistics periodically to CEP.
+ * Load balancer statistics notifier for publishing statistics periodically to CEP. In-flight request counts
+ * of all clusters are published together once per interval. Counts which have not changed since they were
+ * last published are only published again once the heartbeat interval has elapsed. The heartbeat interval
+ * defaults to twice the notifier interval and needs to be shorter than the time batch window of the CEP
+ * execution plans (1 minute) so that every window receives the count of every cluster.
  */
 public class LoadBalancerStatisticsNotifier implements Runnable {
     private static final Log log = LogFactory.getLog(LoadBalancerStatisticsNotifier.class);
 
+    private static final String STATS_NOTIFIER_INTERVAL = "stats.notifier.interval";
+    private static final String STATS_NOTIFIER_HEARTBEAT_INTERVAL = "stats.notifier.heartbeat.interval";
+    private static final String STATS_NOTIFIER_THREAD_POOL_ID = "load.balancer.statistics.notifier";
+
     private final LoadBalancerStatisticsReader statsReader;
     private final TopologyProvider topologyProvider;
     private final InFlightRequestPublisher inFlightRequestPublisher;
     private long statsPublisherInterval = 15000;
+    private long heartbeatInterval;
     private String networkPartitionId;
-    private boolean terminated;
+    // Last published in-flight request count and publish time against cluster id
+    private final Map<String, PublishedValue> publishedValues = new HashMap<String, PublishedValue>();
+    private ScheduledFuture<?> scheduledFuture;
 
     public LoadBalancerStatisticsNotifier(LoadBalancerStatisticsReader statsReader, TopologyProvider topologyProvider) {
+        this(statsReader, topologyProvider, InFlightRequestPublisherFactory.createInFlightRequestPublisher(
+                StatisticsPublisherType.WSO2CEP));
+    }
+
+    LoadBalancerStatisticsNotifier(LoadBalancerStatisticsReader statsReader, TopologyProvider topologyProvider,
+                                   InFlightRequestPublisher inFlightRequestPublisher) {
         this.statsReader = statsReader;
         this.topologyProvider = topologyProvider;
-        this.inFlightRequestPublisher = InFlightRequestPublisherFactory.createInFlightRequestPublisher(
-                StatisticsPublisherType.WSO2CEP);
+        this.inFlightRequestPublisher = inFlightRequestPublisher;
 
-        String interval = System.getProperty("stats.notifier.interval");
-        if (interval != null) {
-            statsPublisherInterval = Long.getLong(interval);
-        }
+        statsPublisherInterval = Long.getLong(STATS_NOTIFIER_INTERVAL, statsPublisherInterval);
+        // Unchanged values are published at least once per heartbeat interval, which has to be shorter than
+        // the CEP time batch window
+        heartbeatInterval = Math.max(statsPublisherInterval,
+                Long.getLong(STATS_NOTIFIER_HEARTBEAT_INTERVAL, 2 * statsPublisherInterval));
         if (log.isDebugEnabled()) {
-            log.debug(String.format("stats.notifier.interval: %dms", statsPublisherInterval));
+            log.debug(String.format("%s: %dms", STATS_NOTIFIER_INTERVAL, statsPublisherInterval));
+            log.debug(String.format("%s: %dms", STATS_NOTIFIER_HEARTBEAT_INTERVAL, heartbeatInterval));
         }
 
         networkPartitionId = System.getProperty("network.partition.id");
@@ -63,49 +87,102 @@ public class LoadBalancerStatisticsNotifier implements Runnable {
         }
     }
 
+    /**
+     * Start publishing statistics periodically.
+     */
+    public synchronized void start() {
+        if (scheduledFuture != null) {
+            return;
+        }
+        ScheduledExecutorService scheduledExecutorService = StratosThreadPool.getScheduledExecutorService(
+                STATS_NOTIFIER_THREAD_POOL_ID, 1);
+        scheduledFuture = scheduledExecutorService.scheduleWithFixedDelay(this, statsPublisherInterval,
+                statsPublisherInterval, TimeUnit.MILLISECONDS);
+    }
+
     @Override
     public void run() {
-        while (!terminated) {
-            try {
-                try {
-                    Thread.sleep(statsPublisherInterval);
-                } catch (InterruptedException ignore) {
-                }
+        try {
+            if (log.isDebugEnabled()) {
+                log.debug("Publishing load balancer statistics");
+            }
+            if (inFlightRequestPublisher.isEnabled()) {
+                publishInFlightRequestCounts(System.currentTimeMillis());
+            } else if (log.isWarnEnabled()) {
+                log.warn("In-flight request count publisher is disabled");
+            }
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) {
+                log.error("Could not publish load balancer statistics", e);
+            }
+        }
+    }
 
-                if (log.isDebugEnabled()) {
-                    log.debug("Publishing load balancer statistics");
-                }
-                if (inFlightRequestPublisher.isEnabled()) {
-                    String clusterInstanceId = statsReader.getClusterInstanceId();
-                    for (Service service : topologyProvider.getTopology().getServices()) {
-                        for (Cluster cluster : service.getClusters()) {
-                            // Publish in-flight request count of load balancer's network partition
-                            int requestCount = statsReader.getInFlightRequestCount(cluster.getClusterId());
-                            inFlightRequestPublisher.publish(cluster.getClusterId(), clusterInstanceId,
-                                    networkPartitionId, requestCount);
-
-                            if (log.isDebugEnabled()) {
-                                log.debug(String.format("In-flight request count published to cep: [cluster-id] %s " +
-                                                "[cluster-instance-id] %s [network-partition] %s [value] %d ",
-                                        cluster.getClusterId(), clusterInstanceId, networkPartitionId, requestCount));
-                            }
-                        }
-                    }
-                } else if (log.isWarnEnabled()) {
-                    log.warn("In-flight request count publisher is disabled");
-                }
-            } catch (Exception e) {
-                if (log.isErrorEnabled()) {
-                    log.error("Could not publish load balancer statistics", e);
+    /**
+     * Publish the in-flight request counts which changed or have not been published within the heartbeat interval.
+     *
+     * @param now current time in milliseconds
+     */
+    void publishInFlightRequestCounts(long now) {
+        String clusterInstanceId = statsReader.getClusterInstanceId();
+        Map<String, Integer> clusterInFlightRequestMap = new HashMap<String, Integer>();
+        Map<String, PublishedValue> currentValues = new HashMap<String, PublishedValue>();
+
+        for (Service service : topologyProvider.getTopology().getServices()) {
+            for (Cluster cluster : service.getClusters()) {
+                // Publish in-flight request count of load balancer's network partition
+                String clusterId = cluster.getClusterId();
+                int requestCount = statsReader.getInFlightRequestCount(clusterId);
+                PublishedValue publishedValue = publishedValues.get(clusterId);
+                if ((publishedValue == null) || (publishedValue.value != requestCount)
+                        || (now - publishedValue.publishedTime >= heartbeatInterval)) {
+                    clusterInFlightRequestMap.put(clusterId, requestCount);
+                    publishedValue = new PublishedValue(requestCount, now);
                 }
+                currentValues.put(clusterId, publishedValue);
             }
         }
+
+        if (!clusterInFlightRequestMap.isEmpty()) {
+            publish(clusterInstanceId, networkPartitionId, clusterInFlightRequestMap);
+        }
+        // Forget clusters which are no longer in the topology
+        publishedValues.clear();
+        publishedValues.putAll(currentValues);
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("In-flight request counts published to cep: [cluster-instance-id] %s " +
+                            "[network-partition] %s [published] %s [unchanged] %d", clusterInstanceId,
+                    networkPartitionId, clusterInFlightRequestMap,
+                    currentValues.size() - clusterInFlightRequestMap.size()));
+        }
+    }
+
+    void publish(String clusterInstanceId, String networkPartitionId, Map<String, Integer> clusterInFlightRequestMap) {
+        inFlightRequestPublisher.publish(clusterInstanceId, networkPartitionId, clusterInFlightRequestMap);
+    }
+
+    long getHeartbeatInterval() {
+        return heartbeatInterval;
     }
 
     /**
-     * Terminate load balancer statistics notifier thread.
+     * Terminate load balancer statistics notifier.
      */
-    public void terminate() {
-        terminated = true;
+    public synchronized void terminate() {
+        if (scheduledFuture != null) {
+            scheduledFuture.cancel(false);
+            scheduledFuture = null;
+        }
+    }
+
+    private static class PublishedValue {
+        private final int value;
+        private final long publishedTime;
+
+        private PublishedValue(int value, long publishedTime) {
+            this.value = value;
+            this.publishedTime = publishedTime;
+        }
     }
 }
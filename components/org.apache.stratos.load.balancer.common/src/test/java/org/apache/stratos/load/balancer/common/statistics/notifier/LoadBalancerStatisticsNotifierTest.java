@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.load.balancer.common.statistics.notifier;
+
+import org.apache.stratos.load.balancer.common.domain.Cluster;
+import org.apache.stratos.load.balancer.common.domain.Service;
+import org.apache.stratos.load.balancer.common.statistics.LoadBalancerStatisticsReader;
+import org.apache.stratos.load.balancer.common.topology.TopologyProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test publishing changed in-flight request counts and heartbeats of the load balancer statistics notifier.
+ */
+public class LoadBalancerStatisticsNotifierTest {
+
+    private static final String NETWORK_PARTITION_ID = "network-partition-1";
+    private static final long INTERVAL = 15000;
+
+    private TestStatisticsReader statsReader;
+    private TopologyProvider topologyProvider;
+    private TestStatisticsNotifier statsNotifier;
+
+    @Before
+    public void setUp() {
+        System.setProperty("network.partition.id", NETWORK_PARTITION_ID);
+        System.setProperty("stats.notifier.interval", String.valueOf(INTERVAL));
+        System.clearProperty("stats.notifier.heartbeat.interval");
+
+        statsReader = new TestStatisticsReader();
+        topologyProvider = new TopologyProvider();
+        Service service = new Service("service-1");
+        service.addCluster(new Cluster("service-1", "cluster-1"));
+        service.addCluster(new Cluster("service-1", "cluster-2"));
+        topologyProvider.addService(service);
+        statsNotifier = new TestStatisticsNotifier(statsReader, topologyProvider);
+    }
+
+    @Test
+    public void testHeartbeatIntervalDefaultsToTwiceTheInterval() {
+        // Shorter than the one minute time batch window of the CEP execution plans
+        assertEquals(2 * INTERVAL, statsNotifier.getHeartbeatInterval());
+
+        System.setProperty("stats.notifier.heartbeat.interval", "1000");
+        assertEquals(INTERVAL, new TestStatisticsNotifier(statsReader, topologyProvider).getHeartbeatInterval());
+        System.clearProperty("stats.notifier.heartbeat.interval");
+    }
+
+    @Test
+    public void testOnlyChangedCountsArePublishedUntilHeartbeat() {
+        statsReader.setInFlightRequestCount("cluster-1", 5);
+        statsReader.setInFlightRequestCount("cluster-2", 3);
+        long now = 100000;
+
+        statsNotifier.publishInFlightRequestCounts(now);
+        assertEquals(counts("cluster-1", 5, "cluster-2", 3), statsNotifier.getLastPublished());
+
+        // Only the changed count is published
+        statsReader.setInFlightRequestCount("cluster-1", 6);
+        statsNotifier.publishInFlightRequestCounts(now + INTERVAL);
+        assertEquals(counts("cluster-1", 6), statsNotifier.getLastPublished());
+
+        // Nothing changed, nothing is published
+        statsNotifier.publishInFlightRequestCounts(now + INTERVAL + 1);
+        assertEquals(2, statsNotifier.getPublishCount());
+
+        // Unchanged count is published again once the heartbeat interval has elapsed since it was published
+        statsNotifier.publishInFlightRequestCounts(now + 2 * INTERVAL);
+        assertEquals(counts("cluster-2", 3), statsNotifier.getLastPublished());
+        statsNotifier.publishInFlightRequestCounts(now + 3 * INTERVAL);
+        assertEquals(counts("cluster-1", 6), statsNotifier.getLastPublished());
+        assertEquals(4, statsNotifier.getPublishCount());
+    }
+
+    @Test
+    public void testRemovedClustersAreForgotten() {
+        statsReader.setInFlightRequestCount("cluster-1", 5);
+        statsReader.setInFlightRequestCount("cluster-2", 3);
+        long now = 100000;
+        statsNotifier.publishInFlightRequestCounts(now);
+
+        Service service = topologyProvider.getTopology().getService("service-1");
+        Cluster cluster = service.getCluster("cluster-2");
+        service.removeCluster("cluster-2");
+        statsNotifier.publishInFlightRequestCounts(now + 1);
+        assertEquals(1, statsNotifier.getPublishCount());
+
+        // Cluster added again is published although its count did not change
+        service.addCluster(cluster);
+        statsNotifier.publishInFlightRequestCounts(now + 2);
+        assertEquals(counts("cluster-2", 3), statsNotifier.getLastPublished());
+        assertEquals(2, statsNotifier.getPublishCount());
+    }
+
+    private static Map<String, Integer> counts(Object... clusterIdsAndCounts) {
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        for (int i = 0; i < clusterIdsAndCounts.length; i += 2) {
+            counts.put((String) clusterIdsAndCounts[i], (Integer) clusterIdsAndCounts[i + 1]);
+        }
+        return counts;
+    }
+
+    /**
+     * Statistics reader returning the in-flight request counts set.
+     */
+    private static class TestStatisticsReader implements LoadBalancerStatisticsReader {
+
+        private final Map<String, Integer> inFlightRequestCounts = new HashMap<String, Integer>();
+
+        private void setInFlightRequestCount(String clusterId, int count) {
+            inFlightRequestCounts.put(clusterId, count);
+        }
+
+        @Override
+        public String getClusterInstanceId() {
+            return "cluster-instance-1";
+        }
+
+        @Override
+        public int getInFlightRequestCount(String clusterId) {
+            Integer count = inFlightRequestCounts.get(clusterId);
+            return (count == null) ? 0 : count;
+        }
+    }
+
+    /**
+     * Statistics notifier recording the in-flight request counts instead of publishing them to CEP.
+     */
+    private static class TestStatisticsNotifier extends LoadBalancerStatisticsNotifier {
+
+        private final List<Map<String, Integer>> published = new ArrayList<Map<String, Integer>>();
+
+        private TestStatisticsNotifier(LoadBalancerStatisticsReader statsReader, TopologyProvider topologyProvider) {
+            super(statsReader, topologyProvider, null);
+        }
+
+        private int getPublishCount() {
+            return published.size();
+        }
+
+        private Map<String, Integer> getLastPublished() {
+            assertTrue("No in-flight request counts published", !published.isEmpty());
+            return published.get(published.size() - 1);
+        }
+
+        @Override
+        void publish(String clusterInstanceId, String networkPartitionId,
+                     Map<String, Integer> clusterInFlightRequestMap) {
+            assertEquals(NETWORK_PARTITION_ID, networkPartitionId);
+            published.add(Collections.unmodifiableMap(new HashMap<String, Integer>(clusterInFlightRequestMap)));
+        }
+    }
+}
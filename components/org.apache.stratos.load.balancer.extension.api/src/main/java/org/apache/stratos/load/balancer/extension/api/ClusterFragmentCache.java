@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.extension.api;
+
+import org.apache.stratos.load.balancer.common.domain.Cluster;
+import org.apache.stratos.load.balancer.common.domain.Member;
+import org.apache.stratos.load.balancer.common.domain.Port;
+import org.apache.stratos.load.balancer.common.domain.Service;
+import org.apache.stratos.load.balancer.common.domain.Topology;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Cache of configuration fragments rendered per cluster. A fragment is only rendered again if the
+ * signature of the cluster, built from its hostnames, members and ports, has changed since the
+ * fragment was rendered.
+ *
+ * @param <T> configuration fragment type
+ */
+public abstract class ClusterFragmentCache<T> {
+
+    private Map<String, Fragment<T>> fragments = new HashMap<String, Fragment<T>>();
+    private int renderedFragmentCount;
+
+    /**
+     * Render the configuration fragment of the given cluster.
+     *
+     * @param cluster  cluster to be rendered
+     * @param previous fragment previously rendered for the cluster, null if there is none
+     * @return configuration fragment, null if the cluster does not contribute to the configuration
+     */
+    protected abstract T render(Cluster cluster, T previous);
+
+    /**
+     * Invoked when a cluster with a rendered fragment is no longer found in the topology.
+     *
+     * @param clusterId cluster id
+     * @param previous  fragment previously rendered for the cluster
+     */
+    protected void remove(String clusterId, T previous) {
+    }
+
+    /**
+     * Update fragments according to the given topology.
+     *
+     * @param topology latest topology
+     * @return fragments of all clusters in topology order
+     */
+    public synchronized List<T> update(Topology topology) {
+        Map<String, Fragment<T>> updatedFragments = new HashMap<String, Fragment<T>>();
+        List<T> result = new ArrayList<T>();
+        renderedFragmentCount = 0;
+        for (Service service : topology.getServices()) {
+            for (Cluster cluster : service.getClusters()) {
+                String signature = getSignature(cluster);
+                Fragment<T> fragment = fragments.get(cluster.getClusterId());
+                if ((fragment == null) || !fragment.signature.equals(signature)) {
+                    T content = render(cluster, (fragment == null) ? null : fragment.content);
+                    fragment = new Fragment<T>(signature, content);
+                    renderedFragmentCount++;
+                }
+                updatedFragments.put(cluster.getClusterId(), fragment);
+                if (fragment.content != null) {
+                    result.add(fragment.content);
+                }
+            }
+        }
+
+        for (Map.Entry<String, Fragment<T>> entry : fragments.entrySet()) {
+            if (!updatedFragments.containsKey(entry.getKey()) && (entry.getValue().content != null)) {
+                remove(entry.getKey(), entry.getValue().content);
+            }
+        }
+        fragments = updatedFragments;
+        return result;
+    }
+
+    /**
+     * Get the number of fragments rendered by the last update.
+     */
+    public synchronized int getRenderedFragmentCount() {
+        return renderedFragmentCount;
+    }
+
+    /**
+     * Build a signature of the cluster properties rendered into load balancer configurations.
+     * Hostnames, members and ports are sorted so that the signature does not depend on iteration order.
+     */
+    public static String getSignature(Cluster cluster) {
+        StringBuilder signature = new StringBuilder();
+        signature.append(cluster.getServiceName()).append('|').append(cluster.getClusterId()).append('|')
+                .append(new TreeSet<String>(cluster.getHostNames()));
+        TreeSet<String> members = new TreeSet<String>();
+        for (Member member : cluster.getMembers()) {
+            TreeSet<String> ports = new TreeSet<String>();
+            for (Object port : member.getPorts()) {
+                ports.add(((Port) port).getProtocol() + "/" + ((Port) port).getValue() + "/" + ((Port) port).getProxy());
+            }
+            members.add(member.getMemberId() + "@" + member.getHostName() + ports);
+        }
+        signature.append('|').append(members);
+        return signature.toString();
+    }
+
+    private static class Fragment<T> {
+        private final String signature;
+        private final T content;
+
+        private Fragment(String signature, T content) {
+            this.signature = signature;
+            this.content = content;
+        }
+    }
+}
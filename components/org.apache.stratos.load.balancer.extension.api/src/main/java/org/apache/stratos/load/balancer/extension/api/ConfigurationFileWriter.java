@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.extension.api;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+
+/**
+ * Writes load balancer configuration files atomically, a file is only written if its content changed.
+ */
+public class ConfigurationFileWriter {
+
+    private static final Log log = LogFactory.getLog(ConfigurationFileWriter.class);
+
+    private final Path filePath;
+    private String content;
+
+    public ConfigurationFileWriter(String filePath) {
+        this.filePath = Paths.get(filePath).toAbsolutePath();
+    }
+
+    /**
+     * Write the given content to a temporary file and rename it to the configuration file, so that
+     * the load balancer never reads a partially written file. The temporary file is created with
+     * owner only permissions, therefore the permissions of the existing configuration file are copied
+     * to it before it replaces the configuration file.
+     *
+     * @param newContent configuration file content
+     * @return true if the file was written, false if the content has not changed
+     * @throws IOException if the file could not be written
+     */
+    public synchronized boolean write(String newContent) throws IOException {
+        if (newContent.equals(content) && Files.exists(filePath)) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Configuration not changed: %s", filePath));
+            }
+            return false;
+        }
+
+        Path tempFilePath = Files.createTempFile(filePath.getParent(), filePath.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tempFilePath, newContent.getBytes(Charset.forName("UTF-8")));
+            if (Files.exists(filePath) &&
+                    (Files.getFileAttributeView(filePath, PosixFileAttributeView.class) != null)) {
+                Files.setPosixFilePermissions(tempFilePath, Files.getPosixFilePermissions(filePath));
+            }
+            Files.move(tempFilePath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFilePath);
+        }
+        content = newContent;
+        return true;
+    }
+}
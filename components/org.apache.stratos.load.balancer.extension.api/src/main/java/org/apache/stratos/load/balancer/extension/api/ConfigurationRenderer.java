@@ -7,7 +7,7 @@
  * "License"); you may not use this file except in compliance
  * with the License.  You may obtain a copy of the License at
  *
- *  http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing,
  * software distributed under the License is distributed on an
@@ -16,23 +16,19 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-package org.apache.stratos.load.balancer.statistics;
 
-import java.util.concurrent.Callable;
+package org.apache.stratos.load.balancer.extension.api;
 
 /**
- * In-flight request decrement callable definition.
+ * Load balancers which render a configuration in configure() may implement this interface to
+ * let the load balancer extension skip reloads when the rendered configuration has not changed.
  */
-public class InFlightRequestDecrementCallable implements Callable<Object> {
-    private String clusterId;
+public interface ConfigurationRenderer {
 
-    public InFlightRequestDecrementCallable(String clusterId) {
-        this.clusterId = clusterId;
-    }
-
-    @Override
-    public Object call() throws Exception {
-        LoadBalancerStatisticsCollector.getInstance().decrementInFlightRequestCount(clusterId);
-        return null;
-    }
+    /**
+     * Get the configuration rendered by the last configure() invocation.
+     *
+     * @return rendered configuration, null if no configuration has been rendered
+     */
+    String getRenderedConfiguration();
 }
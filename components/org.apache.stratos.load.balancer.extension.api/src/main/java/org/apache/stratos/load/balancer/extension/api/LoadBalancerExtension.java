@@ -21,6 +21,7 @@ package org.apache.stratos.load.balancer.extension.api;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.threading.StratosThreadPool;
 import org.apache.stratos.load.balancer.common.domain.Cluster;
 import org.apache.stratos.load.balancer.common.domain.Service;
 import org.apache.stratos.load.balancer.common.domain.Topology;
@@ -39,6 +40,7 @@ import org.apache.stratos.messaging.message.filter.topology.TopologyClusterFilte
 import org.apache.stratos.messaging.message.filter.topology.TopologyMemberFilter;
 import org.apache.stratos.messaging.message.filter.topology.TopologyServiceFilter;
 import org.apache.stratos.messaging.message.receiver.application.ApplicationsEventReceiver;
+import org.apache.stratos.messaging.util.MessagingUtil;
 
 import java.util.concurrent.ExecutorService;
 
@@ -49,10 +51,12 @@ import java.util.concurrent.ExecutorService;
 public class LoadBalancerExtension {
 
     private static final Log log = LogFactory.getLog(LoadBalancerExtension.class);
+    private static final String RELOAD_SCHEDULER_THREAD_POOL_ID = "load.balancer.extension.reload.scheduler";
 
     private LoadBalancer loadBalancer;
     private LoadBalancerStatisticsReader statsReader;
-    private boolean loadBalancerStarted;
+    private volatile boolean loadBalancerStarted;
+    private LoadBalancerReloadScheduler reloadScheduler;
     private LoadBalancerStatisticsNotifier statisticsNotifier;
     private ExecutorService executorService;
 
@@ -74,6 +78,12 @@ public class LoadBalancerExtension {
         this.loadBalancer = loadBalancer;
         this.statsReader = statsReader;
         this.topologyProvider = topologyProvider;
+        this.reloadScheduler = new LoadBalancerReloadScheduler(loadBalancer, topologyProvider,
+                StratosThreadPool.getScheduledExecutorService(RELOAD_SCHEDULER_THREAD_POOL_ID, 1),
+                MessagingUtil.getNumericSystemProperty(LoadBalancerReloadScheduler.DEFAULT_COALESCING_WINDOW,
+                        LoadBalancerReloadScheduler.COALESCING_WINDOW),
+                MessagingUtil.getNumericSystemProperty(LoadBalancerReloadScheduler.DEFAULT_MIN_RELOAD_INTERVAL,
+                        LoadBalancerReloadScheduler.MIN_RELOAD_INTERVAL));
     }
 
 
@@ -93,10 +103,9 @@ public class LoadBalancerExtension {
             startDomainMappingEventReceiver(executorService, topologyProvider);
 
             if (statsReader != null) {
-                // Start stats notifier thread
+                // Start stats notifier
                 statisticsNotifier = new LoadBalancerStatisticsNotifier(statsReader, topologyProvider);
-                Thread statsNotifierThread = new Thread(statisticsNotifier);
-                statsNotifierThread.start();
+                statisticsNotifier.start();
             } else {
                 if (log.isWarnEnabled()) {
                     log.warn("Load balancer statistics reader not found");
@@ -284,23 +293,11 @@ public class LoadBalancerExtension {
         if (topologyPopulated(topology) && loadBalancer.configure(topology)) {
             // Start load balancer
             loadBalancer.start();
+            reloadScheduler.loadBalancerStarted();
             loadBalancerStarted = true;
         }
     }
 
-    /**
-     * Configure and reload the load balancer
-     *
-     * @throws LoadBalancerExtensionException if the configuration or reload process fails
-     */
-    private void configureAndReload() throws LoadBalancerExtensionException {
-        // Configure load balancer
-        if (loadBalancer.configure(topologyProvider.getTopology())) {
-            // Reload the load balancer
-            loadBalancer.reload();
-        }
-    }
-
     /**
      * Returns true if topology has populated with at least one member.
      *
@@ -319,15 +316,15 @@ public class LoadBalancerExtension {
     }
 
     /**
-     * Configure and reload load balancer configuration.
+     * Start the load balancer if it has not been started, else request a reload from the reload
+     * scheduler. Reload requests are coalesced and rate limited by the reload scheduler.
      */
     private void reloadConfiguration() {
         try {
             if (!loadBalancerStarted) {
                 configureAndStart();
             } else {
-                configureAndReload();
-
+                reloadScheduler.requestReload();
             }
         } catch (Exception e) {
             if (log.isErrorEnabled()) {
@@ -340,6 +337,8 @@ public class LoadBalancerExtension {
      * Stop load balancer instance.
      */
     public void stop() {
+        reloadScheduler.terminate();
+
         try {
             if (topologyEventReceiver != null) {
                 topologyEventReceiver.terminate();
@@ -360,6 +359,15 @@ public class LoadBalancerExtension {
         }
     }
 
+    /**
+     * Get the load balancer reload scheduler for reading reload counters.
+     *
+     * @return reload scheduler
+     */
+    public LoadBalancerReloadScheduler getReloadScheduler() {
+        return reloadScheduler;
+    }
+
     /**
      * Get executor service of the load balancer extension.
      *
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.extension.api;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.load.balancer.common.topology.TopologyProvider;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load balancer reload scheduler. Reload requests received within the coalescing window are
+ * served by a single configure and reload, reloads are skipped if the rendered configuration
+ * has not changed and consecutive reloads are separated by the minimum reload interval.
+ */
+public class LoadBalancerReloadScheduler {
+
+    private static final Log log = LogFactory.getLog(LoadBalancerReloadScheduler.class);
+
+    public static final String COALESCING_WINDOW = "load.balancer.reload.coalescing.window";
+    public static final String MIN_RELOAD_INTERVAL = "load.balancer.reload.min.interval";
+    public static final int DEFAULT_COALESCING_WINDOW = 1000;
+    public static final int DEFAULT_MIN_RELOAD_INTERVAL = 5000;
+
+    private final LoadBalancer loadBalancer;
+    private final TopologyProvider topologyProvider;
+    private final ScheduledExecutorService scheduler;
+    private final long coalescingWindow;
+    private final long minReloadInterval;
+
+    private final AtomicBoolean reloadPending = new AtomicBoolean();
+    private final AtomicLong reloadsRequested = new AtomicLong();
+    private final AtomicLong reloadsCoalesced = new AtomicLong();
+    private final AtomicLong reloadsSkipped = new AtomicLong();
+    private final AtomicLong reloadsPerformed = new AtomicLong();
+    private volatile ScheduledFuture<?> reloadFuture;
+    private volatile long lastReloadTime;
+    private volatile boolean terminated;
+    private byte[] configurationHash;
+
+    /**
+     * @param loadBalancer      load balancer to be configured and reloaded
+     * @param topologyProvider  topology provider instance
+     * @param scheduler         executor service for running reloads, reloads should not run concurrently
+     * @param coalescingWindow  time in milliseconds to wait for further reload requests
+     * @param minReloadInterval minimum time in milliseconds between two reloads
+     */
+    public LoadBalancerReloadScheduler(LoadBalancer loadBalancer, TopologyProvider topologyProvider,
+                                       ScheduledExecutorService scheduler, long coalescingWindow,
+                                       long minReloadInterval) {
+        this.loadBalancer = loadBalancer;
+        this.topologyProvider = topologyProvider;
+        this.scheduler = scheduler;
+        this.coalescingWindow = coalescingWindow;
+        this.minReloadInterval = minReloadInterval;
+    }
+
+    /**
+     * Request a load balancer reload. The request is merged into the pending reload if there is one.
+     */
+    public void requestReload() {
+        reloadsRequested.incrementAndGet();
+        if (terminated) {
+            return;
+        }
+        if (!reloadPending.compareAndSet(false, true)) {
+            reloadsCoalesced.incrementAndGet();
+            return;
+        }
+
+        long delay = Math.max(coalescingWindow, lastReloadTime + minReloadInterval - System.currentTimeMillis());
+        reloadFuture = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                configureAndReload();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Load balancer reload scheduled: [delay] %d ms", delay));
+        }
+    }
+
+    /**
+     * Record the configuration the load balancer was started with, a reload is not needed
+     * until the rendered configuration changes.
+     */
+    public void loadBalancerStarted() {
+        setConfigurationHash(getConfigurationHash());
+        lastReloadTime = System.currentTimeMillis();
+    }
+
+    private void configureAndReload() {
+        // Requests received from here on need another reload since the topology is read below
+        reloadPending.set(false);
+        try {
+            if (loadBalancer.configure(topologyProvider.getTopology())) {
+                byte[] hash = getConfigurationHash();
+                if (configurationChanged(hash)) {
+                    loadBalancer.reload();
+                    // Configuration is recorded once it is applied, a failed reload is retried on the next request
+                    setConfigurationHash(hash);
+                    lastReloadTime = System.currentTimeMillis();
+                    reloadsPerformed.incrementAndGet();
+                } else {
+                    reloadsSkipped.incrementAndGet();
+                    if (log.isDebugEnabled()) {
+                        log.debug("Load balancer configuration not changed, reload skipped");
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Could not reload load balancer configuration", e);
+        }
+    }
+
+    /**
+     * Compute the hash of the rendered configuration.
+     *
+     * @return configuration hash or null if the load balancer does not expose its configuration
+     */
+    private byte[] getConfigurationHash() {
+        if (!(loadBalancer instanceof ConfigurationRenderer)) {
+            return null;
+        }
+        String configuration = ((ConfigurationRenderer) loadBalancer).getRenderedConfiguration();
+        if (configuration == null) {
+            return null;
+        }
+        return computeHash(configuration);
+    }
+
+    /**
+     * Compare the given configuration hash with the hash of the configuration last applied.
+     *
+     * @param hash configuration hash
+     * @return true if the configuration changed or if the configuration hash is not known
+     */
+    private synchronized boolean configurationChanged(byte[] hash) {
+        return (hash == null) || !Arrays.equals(hash, configurationHash);
+    }
+
+    private synchronized void setConfigurationHash(byte[] hash) {
+        configurationHash = hash;
+    }
+
+    private static byte[] computeHash(String configuration) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(configuration.getBytes(Charset.forName("UTF-8")));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Could not compute load balancer configuration hash", e);
+        }
+    }
+
+    /**
+     * Cancel the pending reload and stop accepting reload requests.
+     */
+    public void terminate() {
+        terminated = true;
+        ScheduledFuture<?> future = reloadFuture;
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    public long getReloadsRequested() {
+        return reloadsRequested.get();
+    }
+
+    public long getReloadsCoalesced() {
+        return reloadsCoalesced.get();
+    }
+
+    public long getReloadsSkipped() {
+        return reloadsSkipped.get();
+    }
+
+    public long getReloadsPerformed() {
+        return reloadsPerformed.get();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.extension.api.test;
+
+import org.apache.stratos.load.balancer.common.domain.Cluster;
+import org.apache.stratos.load.balancer.common.domain.Member;
+import org.apache.stratos.load.balancer.common.domain.Port;
+import org.apache.stratos.load.balancer.common.domain.Service;
+import org.apache.stratos.load.balancer.common.domain.Topology;
+import org.apache.stratos.load.balancer.extension.api.ClusterFragmentCache;
+import org.apache.stratos.load.balancer.extension.api.ConfigurationFileWriter;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cluster fragment cache and configuration file writer tests.
+ */
+@RunWith(JUnit4.class)
+public class ClusterFragmentCacheTest {
+
+    /**
+     * Test only changed clusters are rendered again and removed clusters are reported.
+     */
+    @Test
+    public void testChangedClustersRendered() {
+        final List<String> removedClusterIds = new ArrayList<String>();
+        ClusterFragmentCache<String> cache = new ClusterFragmentCache<String>() {
+            @Override
+            protected String render(Cluster cluster, String previous) {
+                return cluster.getClusterId() + ":" + cluster.getMembers().size();
+            }
+
+            @Override
+            protected void remove(String clusterId, String previous) {
+                removedClusterIds.add(clusterId);
+            }
+        };
+
+        Topology topology = new Topology();
+        Service service = new Service("service1");
+        topology.addService(service);
+        for (int i = 0; i < 100; i++) {
+            Cluster cluster = new Cluster("service1", "cluster-" + i);
+            cluster.addHostName("cluster-" + i + ".foo.org");
+            addMember(cluster, "member-" + i, "10.0.0." + i);
+            service.addCluster(cluster);
+        }
+
+        Assert.assertEquals(100, cache.update(topology).size());
+        Assert.assertEquals(100, cache.getRenderedFragmentCount());
+        cache.update(topology);
+        Assert.assertEquals("Unchanged clusters rendered", 0, cache.getRenderedFragmentCount());
+
+        addMember(service.getCluster("cluster-5"), "member-100", "10.0.1.1");
+        service.removeCluster("cluster-7");
+        List<String> fragments = cache.update(topology);
+        Assert.assertEquals(1, cache.getRenderedFragmentCount());
+        Assert.assertTrue(fragments.contains("cluster-5:2"));
+        Assert.assertEquals(99, fragments.size());
+        Assert.assertEquals(1, removedClusterIds.size());
+        Assert.assertEquals("cluster-7", removedClusterIds.get(0));
+    }
+
+    /**
+     * Test configuration files are only written if the content changed.
+     */
+    @Test
+    public void testUnchangedConfigurationNotWritten() throws Exception {
+        File file = File.createTempFile("loadbalancer", ".conf");
+        try {
+            ConfigurationFileWriter writer = new ConfigurationFileWriter(file.getAbsolutePath());
+            Assert.assertTrue(writer.write("configuration-1"));
+            Assert.assertFalse(writer.write("configuration-1"));
+            Assert.assertTrue(writer.write("configuration-2"));
+            Assert.assertEquals("configuration-2",
+                    new String(Files.readAllBytes(file.toPath()), Charset.forName("UTF-8")));
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Test the permissions of the configuration file are kept when it is replaced.
+     */
+    @Test
+    public void testFilePermissionsKept() throws Exception {
+        if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            return;
+        }
+        File file = File.createTempFile("loadbalancer", ".conf");
+        try {
+            Files.setPosixFilePermissions(file.toPath(), PosixFilePermissions.fromString("rw-r--r--"));
+            ConfigurationFileWriter writer = new ConfigurationFileWriter(file.getAbsolutePath());
+            Assert.assertTrue(writer.write("configuration-1"));
+            Assert.assertEquals("rw-r--r--",
+                    PosixFilePermissions.toString(Files.getPosixFilePermissions(file.toPath())));
+        } finally {
+            file.delete();
+        }
+    }
+
+    private void addMember(Cluster cluster, String memberId, String hostName) {
+        Member member = new Member(cluster.getServiceName(), cluster.getClusterId(), memberId, hostName);
+        member.addPort(new Port("http", 8080, 80));
+        cluster.addMember(member);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.extension.api.test;
+
+import org.apache.stratos.load.balancer.common.domain.Topology;
+import org.apache.stratos.load.balancer.common.topology.TopologyProvider;
+import org.apache.stratos.load.balancer.extension.api.ConfigurationRenderer;
+import org.apache.stratos.load.balancer.extension.api.LoadBalancer;
+import org.apache.stratos.load.balancer.extension.api.LoadBalancerReloadScheduler;
+import org.apache.stratos.load.balancer.extension.api.exception.LoadBalancerExtensionException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Load balancer reload scheduler tests.
+ */
+@RunWith(JUnit4.class)
+public class LoadBalancerReloadSchedulerTest {
+
+    private static final long COALESCING_WINDOW = 100;
+    private static final long MIN_RELOAD_INTERVAL = 500;
+
+    private ScheduledExecutorService executorService;
+    private TestLoadBalancer loadBalancer;
+    private LoadBalancerReloadScheduler reloadScheduler;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newSingleThreadScheduledExecutor();
+        loadBalancer = new TestLoadBalancer();
+        reloadScheduler = new LoadBalancerReloadScheduler(loadBalancer, new TopologyProvider(), executorService,
+                COALESCING_WINDOW, MIN_RELOAD_INTERVAL);
+    }
+
+    @After
+    public void tearDown() {
+        reloadScheduler.terminate();
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Test a burst of reload requests is served by a single reload.
+     */
+    @Test
+    public void testReloadRequestsCoalesced() throws InterruptedException {
+        loadBalancer.version = 1;
+        for (int i = 0; i < 50; i++) {
+            reloadScheduler.requestReload();
+        }
+        Thread.sleep(COALESCING_WINDOW * 3);
+
+        Assert.assertEquals(50, reloadScheduler.getReloadsRequested());
+        Assert.assertEquals(49, reloadScheduler.getReloadsCoalesced());
+        Assert.assertEquals(1, reloadScheduler.getReloadsPerformed());
+        Assert.assertEquals(1, loadBalancer.reloadTimes.size());
+    }
+
+    /**
+     * Test reloads are skipped if the rendered configuration has not changed.
+     */
+    @Test
+    public void testUnchangedConfigurationSkipped() throws InterruptedException {
+        loadBalancer.version = 1;
+        loadBalancer.configure(new Topology());
+        reloadScheduler.loadBalancerStarted();
+
+        reloadScheduler.requestReload();
+        Thread.sleep(MIN_RELOAD_INTERVAL + COALESCING_WINDOW * 2);
+        Assert.assertEquals(1, reloadScheduler.getReloadsSkipped());
+        Assert.assertEquals(0, reloadScheduler.getReloadsPerformed());
+
+        loadBalancer.version = 2;
+        reloadScheduler.requestReload();
+        Thread.sleep(COALESCING_WINDOW * 3);
+        Assert.assertEquals(1, reloadScheduler.getReloadsPerformed());
+    }
+
+    /**
+     * Test consecutive reloads are separated by the minimum reload interval.
+     */
+    @Test
+    public void testReloadRateLimited() throws InterruptedException {
+        for (int i = 1; i <= 3; i++) {
+            loadBalancer.version = i;
+            reloadScheduler.requestReload();
+            Thread.sleep(COALESCING_WINDOW * 2);
+        }
+        Thread.sleep(MIN_RELOAD_INTERVAL * 2);
+
+        List<Long> reloadTimes = loadBalancer.reloadTimes;
+        Assert.assertEquals(2, reloadTimes.size());
+        Assert.assertEquals(1, reloadScheduler.getReloadsCoalesced());
+        // Allow a small deviation for timer accuracy
+        Assert.assertTrue("Reload rate not limited", reloadTimes.get(1) - reloadTimes.get(0) >= MIN_RELOAD_INTERVAL - 20);
+    }
+
+    /**
+     * Test a configuration which could not be applied since the reload failed is reloaded again on the
+     * next request even though the rendered configuration has not changed.
+     */
+    @Test
+    public void testFailedReloadRetried() throws InterruptedException {
+        loadBalancer.version = 1;
+        loadBalancer.configure(new Topology());
+        reloadScheduler.loadBalancerStarted();
+
+        loadBalancer.version = 2;
+        loadBalancer.failReloads = 1;
+        reloadScheduler.requestReload();
+        Thread.sleep(MIN_RELOAD_INTERVAL + COALESCING_WINDOW * 2);
+        Assert.assertEquals(0, reloadScheduler.getReloadsPerformed());
+        Assert.assertEquals(0, loadBalancer.reloadTimes.size());
+
+        reloadScheduler.requestReload();
+        Thread.sleep(MIN_RELOAD_INTERVAL + COALESCING_WINDOW * 2);
+        Assert.assertEquals(0, reloadScheduler.getReloadsSkipped());
+        Assert.assertEquals(1, reloadScheduler.getReloadsPerformed());
+        Assert.assertEquals(1, loadBalancer.reloadTimes.size());
+
+        // Configuration applied by the successful reload is not reloaded again
+        reloadScheduler.requestReload();
+        Thread.sleep(MIN_RELOAD_INTERVAL + COALESCING_WINDOW * 2);
+        Assert.assertEquals(1, reloadScheduler.getReloadsSkipped());
+        Assert.assertEquals(1, reloadScheduler.getReloadsPerformed());
+    }
+
+    private static class TestLoadBalancer implements LoadBalancer, ConfigurationRenderer {
+
+        private volatile int version;
+        private volatile int failReloads;
+        private volatile String renderedConfiguration;
+        private final List<Long> reloadTimes = new CopyOnWriteArrayList<Long>();
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public boolean configure(Topology topology) {
+            renderedConfiguration = "configuration-" + version;
+            return true;
+        }
+
+        @Override
+        public void reload() throws LoadBalancerExtensionException {
+            if (failReloads > 0) {
+                failReloads--;
+                throw new LoadBalancerExtensionException("Could not reload load balancer");
+            }
+            reloadTimes.add(System.currentTimeMillis());
+        }
+
+        @Override
+        public String getRenderedConfiguration() {
+            return renderedConfiguration;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.algorithm;
+
+import org.apache.stratos.load.balancer.common.domain.Member;
+import org.apache.stratos.load.balancer.context.AlgorithmContext;
+
+import java.util.List;
+
+/**
+ * Base class of load balance algorithms which receive the members of the cluster on every invocation.
+ * The same algorithm instance is invoked concurrently for all clusters without locking, hence per cluster
+ * state should be kept in the algorithm context. Algorithms implementing {@link LoadBalanceAlgorithm}
+ * directly are wrapped by {@link LoadBalanceAlgorithmFactory#adaptAlgorithm(LoadBalanceAlgorithm)}.
+ */
+public abstract class AbstractLoadBalanceAlgorithm implements LoadBalanceAlgorithm {
+
+    private volatile Member[] members = new Member[0];
+
+    /**
+     * Apply the algorithm and return the next member.
+     *
+     * @param members          members of the cluster, must not be modified
+     * @param algorithmContext algorithm context of the cluster
+     * @return
+     */
+    public abstract Member getNextMember(Member[] members, AlgorithmContext algorithmContext);
+
+    /**
+     * Apply the algorithm to the members given by {@link #setMembers(List)}.
+     *
+     * @param algorithmContext
+     * @return
+     */
+    @Override
+    public Member getNextMember(AlgorithmContext algorithmContext) {
+        return getNextMember(members, algorithmContext);
+    }
+
+    @Override
+    public void setMembers(List<Member> members) {
+        this.members = members.toArray(new Member[members.size()]);
+    }
+}
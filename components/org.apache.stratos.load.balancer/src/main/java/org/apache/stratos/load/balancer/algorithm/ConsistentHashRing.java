@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.algorithm;
+
+import org.apache.stratos.load.balancer.common.domain.Member;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * Consistent hash ring of the members of a cluster. Each member is placed on the ring at a number of
+ * points derived from its member id, a key is mapped to the first member found clockwise from the
+ * hash of the key. Hashes do not depend on the load balancer instance or the order of members, hence
+ * keys are mapped to the same members across load balancer restarts and instances, and only keys
+ * of added or removed members are moved when membership changes.
+ * <p/>
+ * A ring is immutable and is built once per member array of a cluster.
+ */
+public class ConsistentHashRing {
+
+    private static final int POINTS_PER_MEMBER = 160;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Member[] members;
+    // Sorted hash points and members at each point
+    private final long[] points;
+    private final Member[] pointMembers;
+
+    public ConsistentHashRing(Member[] members) {
+        this.members = members;
+
+        long[][] entries = new long[members.length * POINTS_PER_MEMBER][];
+        for (int i = 0; i < members.length; i++) {
+            for (int j = 0; j < POINTS_PER_MEMBER; j++) {
+                long point = hash(members[i].getMemberId() + "#" + j);
+                entries[i * POINTS_PER_MEMBER + j] = new long[]{point, i};
+            }
+        }
+        Arrays.sort(entries, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] a, long[] b) {
+                return (a[0] < b[0]) ? -1 : ((a[0] == b[0]) ? 0 : 1);
+            }
+        });
+
+        points = new long[entries.length];
+        pointMembers = new Member[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            pointMembers[i] = members[(int) entries[i][1]];
+        }
+    }
+
+    /**
+     * @return member array the ring was built from
+     */
+    public Member[] getMembers() {
+        return members;
+    }
+
+    /**
+     * Find the member of a key.
+     *
+     * @param key               key to be mapped
+     * @param excludedMemberIds ids of members which should not be returned, may be null
+     * @return member or null if no member is found
+     */
+    public Member getMember(String key, Collection<String> excludedMemberIds) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -(index + 1);
+        }
+        for (int i = 0; i < points.length; i++) {
+            Member member = pointMembers[(index + i) % points.length];
+            if ((excludedMemberIds == null) || !excludedMemberIds.contains(member.getMemberId())) {
+                return member;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the UTF-8 bytes of a string, followed by a bit mixing step to spread
+     * similar strings across the ring.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= (hash >>> 33);
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= (hash >>> 33);
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= (hash >>> 33);
+        return hash;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.algorithm;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.load.balancer.common.domain.Member;
+import org.apache.stratos.load.balancer.context.AlgorithmContext;
+import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsCollector;
+
+/**
+ * This is the implementation of the least outstanding requests load balancing algorithm. It selects
+ * the member with the lowest number of in-flight requests, hence slow members receive less requests.
+ * Members are scanned from a rotating offset to spread requests across members with equal load.
+ */
+public class LeastOutstandingRequests extends AbstractLoadBalanceAlgorithm {
+    private static final Log log = LogFactory.getLog(LeastOutstandingRequests.class);
+
+    @Override
+    public String getName() {
+        return "Least Outstanding Requests";
+    }
+
+    @Override
+    public Member getNextMember(Member[] members, AlgorithmContext algorithmContext) {
+        if (members.length == 0) {
+            return null;
+        }
+        LoadBalancerStatisticsCollector statisticsCollector = LoadBalancerStatisticsCollector.getInstance();
+        int offset = (algorithmContext.getAndIncrementMemberIndex() & Integer.MAX_VALUE) % members.length;
+        Member selectedMember = null;
+        int minInFlightRequestCount = Integer.MAX_VALUE;
+        for (int i = 0; i < members.length; i++) {
+            Member member = members[(offset + i) % members.length];
+            int inFlightRequestCount = statisticsCollector.getMemberInFlightRequestCount(member.getMemberId());
+            if (inFlightRequestCount < minInFlightRequestCount) {
+                selectedMember = member;
+                minInFlightRequestCount = inFlightRequestCount;
+                if (inFlightRequestCount == 0) {
+                    break;
+                }
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Member selected: [service] %s [cluster] %s [member] %s [in-flight-requests] %d",
+                    algorithmContext.getServiceName(), algorithmContext.getClusterId(),
+                    selectedMember.getMemberId(), minInFlightRequestCount));
+        }
+        return selectedMember;
+    }
+
+    @Override
+    public void reset(AlgorithmContext algorithmContext) {
+        algorithmContext.setCurrentMemberIndex(0);
+        if (log.isDebugEnabled()) {
+            log.debug("Least outstanding requests load balance algorithm was reset");
+        }
+    }
+}
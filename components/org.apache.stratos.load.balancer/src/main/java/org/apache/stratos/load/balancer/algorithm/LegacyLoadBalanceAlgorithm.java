@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.algorithm;
+
+import org.apache.stratos.load.balancer.common.domain.Member;
+import org.apache.stratos.load.balancer.context.AlgorithmContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Wraps a load balance algorithm which keeps the members of the cluster on the algorithm instance.
+ * Members are set and the next member is found while holding the lock of the wrapped algorithm.
+ */
+class LegacyLoadBalanceAlgorithm extends AbstractLoadBalanceAlgorithm {
+
+    private final LoadBalanceAlgorithm algorithm;
+
+    LegacyLoadBalanceAlgorithm(LoadBalanceAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    @Override
+    public String getName() {
+        return algorithm.getName();
+    }
+
+    @Override
+    public Member getNextMember(Member[] members, AlgorithmContext algorithmContext) {
+        synchronized (algorithm) {
+            algorithm.setMembers(new ArrayList<Member>(Arrays.asList(members)));
+            return algorithm.getNextMember(algorithmContext);
+        }
+    }
+
+    @Override
+    public Member getNextMember(AlgorithmContext algorithmContext) {
+        synchronized (algorithm) {
+            return algorithm.getNextMember(algorithmContext);
+        }
+    }
+
+    @Override
+    public void setMembers(List<Member> members) {
+        synchronized (algorithm) {
+            algorithm.setMembers(members);
+        }
+    }
+
+    @Override
+    public void reset(AlgorithmContext algorithmContext) {
+        synchronized (algorithm) {
+            algorithm.reset(algorithmContext);
+        }
+    }
+}
@@ -26,7 +26,8 @@ import java.util.List;
 
 /**
  * Load balance algorithm interface.
- * Implement this interface to introduce new load balance algorithms.
+ * Implement this interface to introduce new load balance algorithms. Implementations are invoked one
+ * at a time, extend {@link AbstractLoadBalanceAlgorithm} to select members concurrently.
  */
 public interface LoadBalanceAlgorithm {
     /**
@@ -31,15 +31,22 @@ public class LoadBalanceAlgorithmFactory {
     private static final Log log = LogFactory.getLog(LoadBalanceAlgorithmFactory.class);
 
 
-    public static LoadBalanceAlgorithm createAlgorithm(String className) {
+    /**
+     * Create a load balance algorithm instance of the given class, algorithms which do not extend
+     * {@link AbstractLoadBalanceAlgorithm} are wrapped.
+     *
+     * @param className load balance algorithm class name
+     * @return
+     */
+    public static AbstractLoadBalanceAlgorithm createAlgorithm(String className) {
         try {
             Class<?> algorithmClass = Class.forName(className);
             try {
                 Object instance = algorithmClass.getConstructor().newInstance();
                 if (instance instanceof LoadBalanceAlgorithm) {
-                    return (LoadBalanceAlgorithm) instance;
+                    return adaptAlgorithm((LoadBalanceAlgorithm) instance);
                 } else {
-                    throw new RuntimeException(String.format("Class %s is not a valid load balance algorithm implementation"));
+                    throw new RuntimeException(String.format("Class %s is not a valid load balance algorithm implementation", className));
                 }
             } catch (NoSuchMethodException e) {
                 if (log.isErrorEnabled()) {
@@ -66,4 +73,23 @@ public class LoadBalanceAlgorithmFactory {
         }
         return null;
     }
+
+    /**
+     * Adapt a load balance algorithm to be invoked with the members of the cluster. Algorithms implementing
+     * {@link LoadBalanceAlgorithm} directly keep the members of the cluster on the algorithm instance, hence
+     * they are wrapped and invoked one at a time.
+     *
+     * @param algorithm load balance algorithm
+     * @return
+     */
+    public static AbstractLoadBalanceAlgorithm adaptAlgorithm(LoadBalanceAlgorithm algorithm) {
+        if ((algorithm == null) || (algorithm instanceof AbstractLoadBalanceAlgorithm)) {
+            return (AbstractLoadBalanceAlgorithm) algorithm;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Load balance algorithm wrapped for members of the cluster: [algorithm] %s",
+                    algorithm.getClass().getName()));
+        }
+        return new LegacyLoadBalanceAlgorithm(algorithm);
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.algorithm;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.load.balancer.common.domain.Member;
+import org.apache.stratos.load.balancer.context.AlgorithmContext;
+import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsCollector;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This is the implementation of the power of two choices load balancing algorithm. It picks two
+ * distinct members at random and selects the one with the lower number of in-flight requests. The
+ * selection cost does not depend on the number of members in the cluster.
+ */
+public class PowerOfTwoChoices extends AbstractLoadBalanceAlgorithm {
+    private static final Log log = LogFactory.getLog(PowerOfTwoChoices.class);
+
+    @Override
+    public String getName() {
+        return "Power Of Two Choices";
+    }
+
+    @Override
+    public Member getNextMember(Member[] members, AlgorithmContext algorithmContext) {
+        if (members.length == 0) {
+            return null;
+        }
+        if (members.length == 1) {
+            return members[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int firstIndex = random.nextInt(members.length);
+        // Pick the second member from the remaining members
+        int secondIndex = (firstIndex + 1 + random.nextInt(members.length - 1)) % members.length;
+
+        LoadBalancerStatisticsCollector statisticsCollector = LoadBalancerStatisticsCollector.getInstance();
+        Member firstMember = members[firstIndex];
+        Member secondMember = members[secondIndex];
+        int firstCount = statisticsCollector.getMemberInFlightRequestCount(firstMember.getMemberId());
+        int secondCount = statisticsCollector.getMemberInFlightRequestCount(secondMember.getMemberId());
+        Member selectedMember = (secondCount < firstCount) ? secondMember : firstMember;
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Member selected: [service] %s [cluster] %s [member] %s [in-flight-requests] %d",
+                    algorithmContext.getServiceName(), algorithmContext.getClusterId(),
+                    selectedMember.getMemberId(), Math.min(firstCount, secondCount)));
+        }
+        return selectedMember;
+    }
+
+    @Override
+    public void reset(AlgorithmContext algorithmContext) {
+        if (log.isDebugEnabled()) {
+            log.debug("Power of two choices load balance algorithm was reset");
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.algorithm;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.load.balancer.common.domain.Member;
+import org.apache.stratos.load.balancer.context.AlgorithmContext;
+import org.apache.stratos.load.balancer.util.LoadBalancerConstants;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This is the implementation of the weighted round robin load balancing algorithm. Member weights are
+ * read from the load.balancer.member.weight member property, members without a valid weight get a
+ * weight of 1. A selection schedule which interleaves members according to their weights is built
+ * once per member array, members are then selected by an atomic increment of the member index.
+ */
+public class WeightedRoundRobin extends AbstractLoadBalanceAlgorithm {
+    private static final Log log = LogFactory.getLog(WeightedRoundRobin.class);
+
+    private static final int DEFAULT_WEIGHT = 1;
+    private static final int MAX_WEIGHT = 100;
+
+    // Map<ClusterId, Schedule>
+    private final ConcurrentMap<String, Schedule> clusterIdScheduleMap = new ConcurrentHashMap<String, Schedule>();
+
+    @Override
+    public String getName() {
+        return "Weighted Round Robin";
+    }
+
+    @Override
+    public Member getNextMember(Member[] members, AlgorithmContext algorithmContext) {
+        if (members.length == 0) {
+            return null;
+        }
+        Schedule schedule = clusterIdScheduleMap.get(algorithmContext.getClusterId());
+        if ((schedule == null) || (schedule.members != members)) {
+            // Member array has been replaced by a member update
+            schedule = new Schedule(members);
+            clusterIdScheduleMap.put(algorithmContext.getClusterId(), schedule);
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Weighted round robin schedule built: [service] %s [cluster] %s " +
+                                "[member-count] %d [schedule-length] %d", algorithmContext.getServiceName(),
+                        algorithmContext.getClusterId(), members.length, schedule.memberIndexes.length));
+            }
+        }
+        int index = (algorithmContext.getAndIncrementMemberIndex() & Integer.MAX_VALUE) % schedule.memberIndexes.length;
+        return members[schedule.memberIndexes[index]];
+    }
+
+    @Override
+    public void reset(AlgorithmContext algorithmContext) {
+        algorithmContext.setCurrentMemberIndex(0);
+        clusterIdScheduleMap.remove(algorithmContext.getClusterId());
+        if (log.isDebugEnabled()) {
+            log.debug("Weighted round robin load balance algorithm was reset");
+        }
+    }
+
+    private static int getWeight(Member member) {
+        if (member.getProperties() == null) {
+            return DEFAULT_WEIGHT;
+        }
+        String weight = member.getProperties().getProperty(LoadBalancerConstants.MEMBER_WEIGHT);
+        if (StringUtils.isBlank(weight)) {
+            return DEFAULT_WEIGHT;
+        }
+        try {
+            return Math.max(DEFAULT_WEIGHT, Math.min(MAX_WEIGHT, Integer.parseInt(weight.trim())));
+        } catch (NumberFormatException e) {
+            if (log.isWarnEnabled()) {
+                log.warn(String.format("Invalid member weight found: [member] %s [weight] %s",
+                        member.getMemberId(), weight));
+            }
+            return DEFAULT_WEIGHT;
+        }
+    }
+
+    private static int gcd(int a, int b) {
+        return (b == 0) ? a : gcd(b, a % b);
+    }
+
+    /**
+     * Selection schedule of a member array. Members are interleaved using smooth weighted round robin,
+     * hence a member with a high weight does not receive its requests in a burst.
+     */
+    private static class Schedule {
+        private final Member[] members;
+        private final int[] memberIndexes;
+
+        private Schedule(Member[] members) {
+            this.members = members;
+
+            int[] weights = new int[members.length];
+            int divisor = 0;
+            for (int i = 0; i < members.length; i++) {
+                weights[i] = getWeight(members[i]);
+                divisor = gcd(weights[i], divisor);
+            }
+            int totalWeight = 0;
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = weights[i] / divisor;
+                totalWeight += weights[i];
+            }
+
+            memberIndexes = new int[totalWeight];
+            int[] currentWeights = new int[members.length];
+            for (int slot = 0; slot < totalWeight; slot++) {
+                int selected = 0;
+                for (int i = 0; i < members.length; i++) {
+                    currentWeights[i] += weights[i];
+                    if (currentWeights[i] > currentWeights[selected]) {
+                        selected = i;
+                    }
+                }
+                currentWeights[selected] -= totalWeight;
+                memberIndexes[slot] = selected;
+            }
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.apache.stratos.load.balancer.common.domain.Service;
 import org.apache.stratos.load.balancer.common.topology.TopologyProvider;
 import org.apache.stratos.load.balancer.conf.domain.Algorithm;
 import org.apache.stratos.load.balancer.conf.domain.MemberIpType;
+import org.apache.stratos.load.balancer.conf.domain.SessionAffinityKey;
 import org.apache.stratos.load.balancer.conf.domain.TenantIdentifier;
 import org.apache.stratos.load.balancer.conf.structure.Node;
 import org.apache.stratos.load.balancer.conf.structure.NodeBuilder;
@@ -51,6 +52,9 @@ public class LoadBalancerConfiguration {
     private String defaultAlgorithmName;
     private boolean failOverEnabled;
     private boolean sessionAffinityEnabled;
+    private SessionAffinityKey sessionAffinityKey;
+    // Map<ClusterId, SessionAffinityKey>
+    private Map<String, SessionAffinityKey> clusterIdToSessionAffinityKeyMap;
     private long endpointTimeout;
     private long sessionTimeout;
     private boolean cepStatsPublisherEnabled;
@@ -64,6 +68,8 @@ public class LoadBalancerConfiguration {
     private boolean multiTenancyEnabled;
     private TenantIdentifier tenantIdentifier;
     private List<String> tenantIdentifierRegexList;
+    // Compiled once per configuration, used by the request flow
+    private List<Pattern> tenantIdentifierPatterns;
     private String topologyMemberFilter;
     private String networkPartitionId;
     private boolean reWriteLocationHeader;
@@ -75,6 +81,8 @@ public class LoadBalancerConfiguration {
      */
     private LoadBalancerConfiguration() {
         this.algorithmMap = new HashMap<String, Algorithm>();
+        this.clusterIdToSessionAffinityKeyMap = new HashMap<String, SessionAffinityKey>();
+        this.tenantIdentifierPatterns = new ArrayList<Pattern>();
     }
 
     /**
@@ -130,6 +138,30 @@ public class LoadBalancerConfiguration {
         this.sessionAffinityEnabled = sessionAffinityEnabled;
     }
 
+    public SessionAffinityKey getSessionAffinityKey() {
+        return sessionAffinityKey;
+    }
+
+    public void setSessionAffinityKey(SessionAffinityKey sessionAffinityKey) {
+        this.sessionAffinityKey = sessionAffinityKey;
+    }
+
+    /**
+     * Find the session affinity key of a cluster.
+     *
+     * @param clusterId cluster id
+     * @return session affinity key of the cluster, the default session affinity key or null if
+     * consistent hashing is not enabled for the cluster
+     */
+    public SessionAffinityKey getSessionAffinityKey(String clusterId) {
+        SessionAffinityKey clusterSessionAffinityKey = clusterIdToSessionAffinityKeyMap.get(clusterId);
+        return (clusterSessionAffinityKey != null) ? clusterSessionAffinityKey : sessionAffinityKey;
+    }
+
+    void addSessionAffinityKey(String clusterId, SessionAffinityKey sessionAffinityKey) {
+        clusterIdToSessionAffinityKeyMap.put(clusterId, sessionAffinityKey);
+    }
+
     public long getEndpointTimeout() {
         return endpointTimeout;
     }
@@ -240,12 +272,24 @@ public class LoadBalancerConfiguration {
 
     public void setTenantIdentifierRegexList(List<String> tenantIdentifierRegexList) {
         this.tenantIdentifierRegexList = tenantIdentifierRegexList;
+
+        List<Pattern> patterns = new ArrayList<Pattern>();
+        if (tenantIdentifierRegexList != null) {
+            for (String regex : tenantIdentifierRegexList) {
+                patterns.add(Pattern.compile(regex));
+            }
+        }
+        this.tenantIdentifierPatterns = patterns;
     }
 
     public List<String> getTenantIdentifierRegexList() {
         return tenantIdentifierRegexList;
     }
 
+    public List<Pattern> getTenantIdentifierPatterns() {
+        return tenantIdentifierPatterns;
+    }
+
     public void setNetworkPartitionId(String networkPartitionId) {
         this.networkPartitionId = networkPartitionId;
     }
@@ -326,6 +370,18 @@ public class LoadBalancerConfiguration {
                 configuration.setSessionAffinityEnabled(Boolean.parseBoolean(sessionAffinity));
             }
 
+            String sessionAffinityKey = loadBalancerNode.getProperty(Constants.CONF_PROPERTY_SESSION_AFFINITY_KEY);
+            if (StringUtils.isNotBlank(sessionAffinityKey)) {
+                configuration.setSessionAffinityKey(transformSessionAffinityKey(sessionAffinityKey));
+            }
+
+            Node sessionAffinityKeysNode = loadBalancerNode.findChildNodeByName(Constants.CONF_ELEMENT_SESSION_AFFINITY_KEYS);
+            if (sessionAffinityKeysNode != null) {
+                for (Map.Entry<String, String> entry : sessionAffinityKeysNode.getProperties().entrySet()) {
+                    configuration.addSessionAffinityKey(entry.getKey(), transformSessionAffinityKey(entry.getValue()));
+                }
+            }
+
             String endpointTimeout = loadBalancerNode.getProperty(Constants.CONF_PROPERTY_ENDPOINT_TIMEOUT);
             if (StringUtils.isNotBlank(endpointTimeout)) {
                 configuration.setEndpointTimeout(Long.parseLong(endpointTimeout));
@@ -490,6 +546,11 @@ public class LoadBalancerConfiguration {
                             cluster.setLoadBalanceAlgorithmName(algorithm);
                         }
 
+                        String clusterSessionAffinityKey = clusterNode.getProperty(Constants.CONF_PROPERTY_SESSION_AFFINITY_KEY);
+                        if (StringUtils.isNotBlank(clusterSessionAffinityKey)) {
+                            configuration.addSessionAffinityKey(clusterId, transformSessionAffinityKey(clusterSessionAffinityKey));
+                        }
+
                         String hosts = clusterNode.getProperty(Constants.CONF_ELEMENT_HOSTS);
                         validateRequiredPropertyInNode(Constants.CONF_ELEMENT_HOSTS, hosts, "cluster", clusterNode.getName());
 
@@ -550,6 +611,24 @@ public class LoadBalancerConfiguration {
             }
         }
 
+        /**
+         * Transform a session affinity key definition: cookie:[cookie-name], header:[header-name] or client-ip.
+         */
+        private SessionAffinityKey transformSessionAffinityKey(String sessionAffinityKey) {
+            String[] array = sessionAffinityKey.split(":", 2);
+            String type = array[0].trim();
+            String name = (array.length > 1) ? array[1].trim() : null;
+            if (Constants.CONF_PROPERTY_VALUE_CLIENT_IP.equals(type) && (name == null)) {
+                return new SessionAffinityKey(SessionAffinityKey.Type.ClientIp, null);
+            } else if (Constants.CONF_PROPERTY_VALUE_COOKIE.equals(type) && StringUtils.isNotBlank(name)) {
+                return new SessionAffinityKey(SessionAffinityKey.Type.Cookie, name);
+            } else if (Constants.CONF_PROPERTY_VALUE_HEADER.equals(type) && StringUtils.isNotBlank(name)) {
+                return new SessionAffinityKey(SessionAffinityKey.Type.Header, name);
+            } else {
+                throw new InvalidConfigurationException(String.format("Session affinity key is not valid: %s", sessionAffinityKey));
+            }
+        }
+
         private void validateRequiredNode(Node node, String nodeName) {
             if (node == null) {
                 throw new RuntimeException(String.format("%s node was not found", nodeName));
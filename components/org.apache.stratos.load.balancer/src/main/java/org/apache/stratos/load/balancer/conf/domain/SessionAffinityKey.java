@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.conf.domain;
+
+import java.util.Map;
+
+/**
+ * Load balancer configuration session affinity key definition. Requests with the same key value are
+ * delegated to the same member by consistent hashing. The key is read from a cookie, a request header
+ * or the client ip address.
+ */
+public class SessionAffinityKey {
+
+    private static final String COOKIE_HEADER = "Cookie";
+
+    public enum Type {
+        Cookie, Header, ClientIp;
+    }
+
+    private Type type;
+    private String name;
+
+    public SessionAffinityKey(Type type, String name) {
+        this.type = type;
+        this.name = name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Find the key value of a request.
+     *
+     * @param headers  transport headers of the request
+     * @param clientIp ip address of the client
+     * @return key value or null if the request does not contain the key
+     */
+    public String getValue(Map<String, String> headers, String clientIp) {
+        switch (type) {
+            case ClientIp:
+                return clientIp;
+            case Header:
+                return (headers != null) ? headers.get(name) : null;
+            case Cookie:
+                return (headers != null) ? findCookie(headers.get(COOKIE_HEADER)) : null;
+            default:
+                return null;
+        }
+    }
+
+    private String findCookie(String cookieHeader) {
+        if (cookieHeader == null) {
+            return null;
+        }
+        for (String cookie : cookieHeader.split(";")) {
+            int index = cookie.indexOf('=');
+            if ((index > 0) && name.equals(cookie.substring(0, index).trim())) {
+                return cookie.substring(index + 1).trim();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return (type == Type.ClientIp) ? type.toString() : String.format("%s:%s", type, name);
+    }
+}
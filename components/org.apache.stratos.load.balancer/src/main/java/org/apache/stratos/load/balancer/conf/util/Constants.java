@@ -31,10 +31,15 @@ public class Constants {
     public static final String CONF_ELEMENT_CLUSTERS = "clusters";
     public static final String CONF_ELEMENT_MEMBERS = "members";
     public static final String CONF_ELEMENT_PORTS = "ports";
+    public static final String CONF_ELEMENT_SESSION_AFFINITY_KEYS = "session-affinity-keys";
 
     public static final String CONF_PROPERTY_ALGORITHM = "algorithm";
     public static final String CONF_PROPERTY_FAILOVER = "failover";
     public static final String CONF_PROPERTY_SESSION_AFFINITY = "session-affinity";
+    public static final String CONF_PROPERTY_SESSION_AFFINITY_KEY = "session-affinity-key";
+    public static final String CONF_PROPERTY_VALUE_COOKIE = "cookie";
+    public static final String CONF_PROPERTY_VALUE_HEADER = "header";
+    public static final String CONF_PROPERTY_VALUE_CLIENT_IP = "client-ip";
     public static final String CONF_PROPERTY_ENDPOINT_TIMEOUT = "endpoint-timeout";
     public static final String CONF_PROPERTY_SESSION_TIMEOUT = "session-timeout";
     public static final String CONF_PROPERTY_TOPOLOGY_EVENT_LISTENER = "topology-event-listener";
@@ -20,13 +20,16 @@
 package org.apache.stratos.load.balancer.context;
 
 import org.apache.stratos.common.services.DistributedObjectProvider;
-import org.apache.stratos.load.balancer.internal.ServiceReferenceHolder;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 
 /**
  * Algorithm context is used for identifying the cluster and its current member for executing load balancing algorithms.
+ * The current member index is kept in an atomic counter, hence members can be selected concurrently without locking.
+ * If a distributed object provider is given the current member index is kept in a distributed map and updated while
+ * holding a distributed lock, hence clustered load balancers share the rotation of members.
  * Key: service name, cluster id
  */
 public class AlgorithmContext {
@@ -36,25 +39,41 @@ public class AlgorithmContext {
 
     private String serviceName;
     private String clusterId;
+    private final AtomicInteger currentMemberIndex;
     private final Map<String, Integer> clusterMemberIndexMap;
     private final DistributedObjectProvider distributedObjectProvider;
 
     public AlgorithmContext(String serviceName, String clusterId) {
+        this(serviceName, clusterId, null);
+    }
+
+    /**
+     * @param serviceName               service name
+     * @param clusterId                 cluster id
+     * @param distributedObjectProvider distributed object provider for sharing the current member index,
+     *                                  the index is kept locally if null
+     */
+    public AlgorithmContext(String serviceName, String clusterId, DistributedObjectProvider distributedObjectProvider) {
         this.serviceName = serviceName;
         this.clusterId = clusterId;
-        // Initialize distributed object provider
-        distributedObjectProvider = ServiceReferenceHolder.getInstance().getDistributedObjectProvider();
-        // Initialize cluster->memberIndex map
-        clusterMemberIndexMap = distributedObjectProvider.getMap(LOAD_BALANCER_ALGORITHM_CONTEXT_MAP);
-
-        Lock lock = null;
-        try {
-            lock = acquireCurrentMemberIndexLock();
-            putCurrentMemberIndex(serviceName, clusterId, 0);
-        } finally {
-            if (lock != null) {
+        this.currentMemberIndex = new AtomicInteger();
+        this.distributedObjectProvider = distributedObjectProvider;
+        if (distributedObjectProvider != null) {
+            // Initialize cluster->memberIndex map
+            clusterMemberIndexMap = distributedObjectProvider.getMap(LOAD_BALANCER_ALGORITHM_CONTEXT_MAP);
+
+            Lock lock = null;
+            try {
+                lock = acquireCurrentMemberIndexLock();
+                String key = constructKey();
+                if (!clusterMemberIndexMap.containsKey(key)) {
+                    clusterMemberIndexMap.put(key, 0);
+                }
+            } finally {
                 releaseCurrentMemberIndexLock(lock);
             }
+        } else {
+            clusterMemberIndexMap = null;
         }
     }
 
@@ -67,22 +86,50 @@ public class AlgorithmContext {
     }
 
     public int getCurrentMemberIndex() {
-        return getCurrentMemberIndex(getServiceName(), getClusterId());
+        if (clusterMemberIndexMap == null) {
+            return currentMemberIndex.get();
+        }
+        Integer index = clusterMemberIndexMap.get(constructKey());
+        return (index != null) ? index : 0;
     }
 
     public void setCurrentMemberIndex(int currentMemberIndex) {
+        if (clusterMemberIndexMap == null) {
+            this.currentMemberIndex.set(currentMemberIndex);
+            return;
+        }
         Lock lock = null;
         try {
             lock = acquireCurrentMemberIndexLock();
-            putCurrentMemberIndex(getServiceName(), getClusterId(), currentMemberIndex);
+            clusterMemberIndexMap.put(constructKey(), currentMemberIndex);
         } finally {
-            if (lock != null) {
-                releaseCurrentMemberIndexLock(lock);
-            }
+            releaseCurrentMemberIndexLock(lock);
         }
     }
 
-    private String constructKey(String serviceName, String clusterId) {
+    /**
+     * Atomically increment the current member index.
+     *
+     * @return the previous member index, may be negative once the index overflows
+     */
+    public int getAndIncrementMemberIndex() {
+        if (clusterMemberIndexMap == null) {
+            return currentMemberIndex.getAndIncrement();
+        }
+        Lock lock = null;
+        try {
+            lock = acquireCurrentMemberIndexLock();
+            String key = constructKey();
+            Integer index = clusterMemberIndexMap.get(key);
+            int previousIndex = (index != null) ? index : 0;
+            clusterMemberIndexMap.put(key, previousIndex + 1);
+            return previousIndex;
+        } finally {
+            releaseCurrentMemberIndexLock(lock);
+        }
+    }
+
+    private String constructKey() {
         return String.format("%s-%s", serviceName, clusterId);
     }
 
@@ -95,14 +142,4 @@ public class AlgorithmContext {
             distributedObjectProvider.releaseLock(lock);
         }
     }
-
-    public void putCurrentMemberIndex(String serviceName, String clusterId, int currentMemberIndex) {
-        String key = constructKey(serviceName, clusterId);
-        clusterMemberIndexMap.put(key, currentMemberIndex);
-    }
-
-    public int getCurrentMemberIndex(String serviceName, String clusterId) {
-        String key = constructKey(serviceName, clusterId);
-        return clusterMemberIndexMap.get(key);
-    }
 }
@@ -19,6 +19,8 @@
 
 package org.apache.stratos.load.balancer.context;
 
+import org.apache.stratos.load.balancer.algorithm.ConsistentHashRing;
+
 import java.util.Properties;
 
 /**
@@ -28,7 +30,8 @@ public class ClusterContext {
 
     private String serviceName;
     private String clusterId;
-    private AlgorithmContext algorithmContext;
+    private volatile AlgorithmContext algorithmContext;
+    private volatile ConsistentHashRing consistentHashRing;
     private Properties properties;
 
     public ClusterContext(String serviceName, String clusterId) {
@@ -52,6 +55,14 @@ public class ClusterContext {
         this.algorithmContext = algorithmContext;
     }
 
+    public ConsistentHashRing getConsistentHashRing() {
+        return consistentHashRing;
+    }
+
+    public void setConsistentHashRing(ConsistentHashRing consistentHashRing) {
+        this.consistentHashRing = consistentHashRing;
+    }
+
     public Properties getProperties() {
         return properties;
     }
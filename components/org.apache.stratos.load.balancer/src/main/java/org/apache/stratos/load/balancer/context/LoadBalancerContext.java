@@ -25,6 +25,7 @@ import org.apache.commons.logging.LogFactory;
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Defines load balancer context information.
@@ -36,9 +37,10 @@ public class LoadBalancerContext {
     private static volatile LoadBalancerContext instance;
 
     // Map<ClusterId, ClusterContext>
-    private Map<String, ClusterContext> clusterIdToClusterContextMap;
+    private ConcurrentMap<String, ClusterContext> clusterIdToClusterContextMap;
     // Map<Host/Domain-Name, DomainMappingContextPath>
     private Map<String, String> hostNameToDomainMappingContextPathMap;
+    private volatile boolean clustered;
 
     private LoadBalancerContext() {
         clusterIdToClusterContextMap = new ConcurrentHashMap<String, ClusterContext>();
@@ -77,6 +79,18 @@ public class LoadBalancerContext {
         clusterIdToClusterContextMap.put(clusterContext.getClusterId(), clusterContext);
     }
 
+    /**
+     * Add the given cluster context if a cluster context does not exist for its cluster id.
+     *
+     * @param clusterContext cluster context to be added
+     * @return existing cluster context or the given cluster context if it was added
+     */
+    public ClusterContext addClusterContextIfAbsent(ClusterContext clusterContext) {
+        ClusterContext existingContext = clusterIdToClusterContextMap.putIfAbsent(clusterContext.getClusterId(),
+                clusterContext);
+        return (existingContext != null) ? existingContext : clusterContext;
+    }
+
     public void removeClusterContext(String clusterId) {
         clusterIdToClusterContextMap.remove(clusterId);
     }
@@ -98,4 +112,15 @@ public class LoadBalancerContext {
     public boolean containsDomainMappingContextPath(String hostName) {
         return hostNameToDomainMappingContextPathMap.containsKey(hostName);
     }
+
+    /**
+     * Load balancer members share the state of load balance algorithms if clustering is enabled.
+     */
+    public boolean isClustered() {
+        return clustered;
+    }
+
+    public void setClustered(boolean clustered) {
+        this.clustered = clustered;
+    }
 }
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.context;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.domain.tenant.Tenant;
+import org.apache.stratos.messaging.message.receiver.tenant.TenantManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches tenant lookups of the request flow, hence tenant manager locks are only acquired on cache
+ * misses. The cache is invalidated on every tenant event and is cleared once it reaches its maximum
+ * size. A lookup which runs concurrently with an invalidation does not populate the cache: the result
+ * is cached first and removed again if the cache was invalidated after the lookup started, hence an
+ * invalidation which clears the cache before the result is cached is also detected.
+ */
+public class TenantLookupCache {
+
+    private static final Log log = LogFactory.getLog(TenantLookupCache.class);
+    private static final int MAX_SIZE = 10000;
+
+    private static volatile TenantLookupCache instance;
+
+    // Map<TenantDomain, TenantId>, -1 if tenant does not exist
+    private final ConcurrentMap<String, Integer> tenantDomainToTenantIdMap;
+    // Map<TenantId, Exists>
+    private final ConcurrentMap<Integer, Boolean> tenantIdToExistsMap;
+    private final AtomicLong generation;
+
+    private TenantLookupCache() {
+        tenantDomainToTenantIdMap = new ConcurrentHashMap<String, Integer>();
+        tenantIdToExistsMap = new ConcurrentHashMap<Integer, Boolean>();
+        generation = new AtomicLong();
+    }
+
+    public static TenantLookupCache getInstance() {
+        if (instance == null) {
+            synchronized (TenantLookupCache.class) {
+                if (instance == null) {
+                    instance = new TenantLookupCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Find tenant id of the given tenant domain.
+     *
+     * @param tenantDomain tenant domain
+     * @return tenant id or -1 if tenant does not exist
+     */
+    public int getTenantId(String tenantDomain) {
+        Integer tenantId = tenantDomainToTenantIdMap.get(tenantDomain);
+        if (tenantId != null) {
+            return tenantId;
+        }
+
+        long currentGeneration = generation.get();
+        try {
+            TenantManager.acquireReadLock();
+            Tenant tenant = TenantManager.getInstance().getTenant(tenantDomain);
+            tenantId = (tenant != null) ? tenant.getTenantId() : -1;
+        } finally {
+            TenantManager.releaseReadLock();
+        }
+        if (tenantDomainToTenantIdMap.size() >= MAX_SIZE) {
+            tenantDomainToTenantIdMap.clear();
+        }
+        tenantDomainToTenantIdMap.put(tenantDomain, tenantId);
+        if (generation.get() != currentGeneration) {
+            // Tenants updated during the lookup
+            tenantDomainToTenantIdMap.remove(tenantDomain, tenantId);
+        }
+        return tenantId;
+    }
+
+    /**
+     * Check tenant exists.
+     *
+     * @param tenantId tenant id
+     * @return true if tenant exists
+     */
+    public boolean tenantExists(int tenantId) {
+        Boolean exists = tenantIdToExistsMap.get(tenantId);
+        if (exists != null) {
+            return exists;
+        }
+
+        long currentGeneration = generation.get();
+        try {
+            TenantManager.acquireReadLock();
+            exists = TenantManager.getInstance().tenantExists(tenantId);
+        } finally {
+            TenantManager.releaseReadLock();
+        }
+        if (tenantIdToExistsMap.size() >= MAX_SIZE) {
+            tenantIdToExistsMap.clear();
+        }
+        tenantIdToExistsMap.put(tenantId, exists);
+        if (generation.get() != currentGeneration) {
+            // Tenants updated during the lookup
+            tenantIdToExistsMap.remove(tenantId, exists);
+        }
+        return exists;
+    }
+
+    /**
+     * Invalidate all cached tenant lookups, invoked when tenants are updated.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        tenantDomainToTenantIdMap.clear();
+        tenantIdToExistsMap.clear();
+        if (log.isDebugEnabled()) {
+            log.debug("Tenant lookup cache invalidated");
+        }
+    }
+}
@@ -19,18 +19,29 @@
 
 package org.apache.stratos.load.balancer.endpoint;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.services.DistributedObjectProvider;
+import org.apache.stratos.load.balancer.algorithm.AbstractLoadBalanceAlgorithm;
+import org.apache.stratos.load.balancer.algorithm.ConsistentHashRing;
 import org.apache.stratos.load.balancer.algorithm.LoadBalanceAlgorithm;
+import org.apache.stratos.load.balancer.algorithm.LoadBalanceAlgorithmFactory;
 import org.apache.stratos.load.balancer.common.domain.Cluster;
 import org.apache.stratos.load.balancer.common.domain.Member;
 import org.apache.stratos.load.balancer.common.topology.TopologyProvider;
 import org.apache.stratos.load.balancer.conf.LoadBalancerConfiguration;
+import org.apache.stratos.load.balancer.conf.domain.Algorithm;
+import org.apache.stratos.load.balancer.conf.domain.SessionAffinityKey;
 import org.apache.stratos.load.balancer.context.AlgorithmContext;
 import org.apache.stratos.load.balancer.context.ClusterContext;
 import org.apache.stratos.load.balancer.context.LoadBalancerContext;
+import org.apache.stratos.load.balancer.internal.ServiceReferenceHolder;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Implements core load balancing logic for identifying the next member
@@ -40,10 +51,13 @@ public class RequestDelegator {
 
     private static final Log log = LogFactory.getLog(RequestDelegator.class);
 
-    private LoadBalanceAlgorithm algorithm;
+    private AbstractLoadBalanceAlgorithm algorithm;
+    // Map<AlgorithmName, AbstractLoadBalanceAlgorithm>
+    private final ConcurrentMap<String, AbstractLoadBalanceAlgorithm> algorithmNameToAlgorithmMap;
 
     public RequestDelegator(LoadBalanceAlgorithm algorithm) {
-        this.algorithm = algorithm;
+        this.algorithm = LoadBalanceAlgorithmFactory.adaptAlgorithm(algorithm);
+        this.algorithmNameToAlgorithmMap = new ConcurrentHashMap<String, AbstractLoadBalanceAlgorithm>();
     }
 
     /**
@@ -54,6 +68,23 @@ public class RequestDelegator {
      * @return
      */
     public Member findNextMemberFromHostName(String hostName, String messageId) {
+        return findNextMemberFromHostName(hostName, messageId, null, null, null);
+    }
+
+    /**
+     * Find the next member in a cluster by the given host name. If a session affinity key is configured
+     * for the cluster and the request contains the key, the member is found by consistent hashing,
+     * otherwise by applying the load balancing algorithm of the cluster.
+     *
+     * @param hostName          host name of the cluster
+     * @param messageId         synapse message id to be included in debugging logs
+     * @param headers           transport headers of the request
+     * @param clientIp          ip address of the client
+     * @param excludedMemberIds ids of members which failed to serve the request, may be null
+     * @return
+     */
+    public Member findNextMemberFromHostName(String hostName, String messageId, Map<String, String> headers,
+                                             String clientIp, Collection<String> excludedMemberIds) {
         if (hostName == null)
             return null;
 
@@ -65,7 +96,7 @@ public class RequestDelegator {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Cluster %s identified for request %s", cluster.getClusterId(), messageId));
             }
-            Member member = findNextMemberInCluster(cluster);
+            Member member = findNextMemberInCluster(cluster, headers, clientIp, excludedMemberIds);
             if (member != null) {
                 if (log.isDebugEnabled()) {
                     long endTime = System.currentTimeMillis();
@@ -90,13 +121,30 @@ public class RequestDelegator {
      * @return
      */
     public Member findNextMemberFromTenantId(String hostName, int tenantId) {
+        return findNextMemberFromTenantId(hostName, tenantId, null, null, null);
+    }
+
+    /**
+     * Find the next member in a cluster by the given host name and tenant id. If a session affinity key is
+     * configured for the cluster and the request contains the key, the member is found by consistent hashing,
+     * otherwise by applying the load balancing algorithm of the cluster.
+     *
+     * @param hostName          host name of the cluster
+     * @param tenantId          tenant id of the incoming request
+     * @param headers           transport headers of the request
+     * @param clientIp          ip address of the client
+     * @param excludedMemberIds ids of members which failed to serve the request, may be null
+     * @return
+     */
+    public Member findNextMemberFromTenantId(String hostName, int tenantId, Map<String, String> headers,
+                                             String clientIp, Collection<String> excludedMemberIds) {
         long startTime = System.currentTimeMillis();
 
         // Find cluster from host name and tenant id
         TopologyProvider topologyProvider = LoadBalancerConfiguration.getInstance().getTopologyProvider();
         Cluster cluster = topologyProvider.getClusterByHostName(hostName, tenantId);
         if (cluster != null) {
-            Member member = findNextMemberInCluster(cluster);
+            Member member = findNextMemberInCluster(cluster, headers, clientIp, excludedMemberIds);
             if (member != null) {
                 if (log.isDebugEnabled()) {
                     long endTime = System.currentTimeMillis();
@@ -116,25 +164,28 @@ public class RequestDelegator {
     /**
      * Find next member in the cluster by applying a load balancing algorithm.
      * <p/>
-     * This operation should be synchronized in order to find a member
-     * correctly. This has no performance impact as per the load tests
-     * carried out.
+     * This operation is not synchronized, member arrays of clusters are only replaced on
+     * member updates and algorithms keep their per cluster state in algorithm contexts.
+     * Algorithms keeping the members on the algorithm instance are synchronized by
+     * {@link LoadBalanceAlgorithmFactory#adaptAlgorithm(LoadBalanceAlgorithm)}.
      */
-    private synchronized Member findNextMemberInCluster(Cluster cluster) {
-        // Find algorithm context of the cluster
-        ClusterContext clusterContext = LoadBalancerContext.getInstance().getClusterContext(cluster.getClusterId());
-        if (clusterContext == null) {
-            clusterContext = new ClusterContext(cluster.getServiceName(), cluster.getClusterId());
-            LoadBalancerContext.getInstance().addClusterContext(clusterContext);
-        }
-
-        AlgorithmContext algorithmContext = clusterContext.getAlgorithmContext();
-        if (algorithmContext == null) {
-            algorithmContext = new AlgorithmContext(cluster.getServiceName(), cluster.getClusterId());
-            clusterContext.setAlgorithmContext(algorithmContext);
+    private Member findNextMemberInCluster(Cluster cluster, Map<String, String> headers, String clientIp,
+                                           Collection<String> excludedMemberIds) {
+        Member member = null;
+        SessionAffinityKey sessionAffinityKey = LoadBalancerConfiguration.getInstance().getSessionAffinityKey(
+                cluster.getClusterId());
+        String sessionAffinityKeyValue = (sessionAffinityKey != null) ?
+                sessionAffinityKey.getValue(headers, clientIp) : null;
+        if (sessionAffinityKeyValue != null) {
+            member = getConsistentHashRing(cluster).getMember(sessionAffinityKeyValue, excludedMemberIds);
+            if (log.isDebugEnabled() && (member != null)) {
+                log.debug(String.format("Member identified by consistent hashing: [cluster] %s [key] %s [member] %s",
+                        cluster.getClusterId(), sessionAffinityKey, member.getMemberId()));
+            }
+        } else {
+            AlgorithmContext algorithmContext = getAlgorithmContext(cluster);
+            member = getAlgorithm(cluster).getNextMember(cluster.getMemberArray(), algorithmContext);
         }
-        algorithm.setMembers(new ArrayList<Member>(cluster.getMembers()));
-        Member member = algorithm.getNextMember(algorithmContext);
         if (member == null) {
             if (log.isWarnEnabled()) {
                 log.warn(String.format("Could not find a member in cluster: [service] %s [cluster] %s",
@@ -144,6 +195,80 @@ public class RequestDelegator {
         return member;
     }
 
+    /**
+     * Find the load balance algorithm of the cluster. Algorithms are referred by their names defined in
+     * the load balancer configuration, the default algorithm is used if the cluster does not refer one.
+     */
+    private AbstractLoadBalanceAlgorithm getAlgorithm(Cluster cluster) {
+        String algorithmName = cluster.getLoadBalanceAlgorithmName();
+        if (StringUtils.isBlank(algorithmName)) {
+            return algorithm;
+        }
+        AbstractLoadBalanceAlgorithm clusterAlgorithm = algorithmNameToAlgorithmMap.get(algorithmName);
+        if (clusterAlgorithm != null) {
+            return clusterAlgorithm;
+        }
+
+        Algorithm algorithmDefinition = LoadBalancerConfiguration.getInstance().getAlgorithm(algorithmName);
+        if (algorithmDefinition != null) {
+            clusterAlgorithm = LoadBalanceAlgorithmFactory.createAlgorithm(algorithmDefinition.getClassName());
+        }
+        if (clusterAlgorithm == null) {
+            if (log.isWarnEnabled()) {
+                log.warn(String.format("Load balance algorithm not found, using default algorithm: [cluster] %s " +
+                        "[algorithm] %s", cluster.getClusterId(), algorithmName));
+            }
+            clusterAlgorithm = algorithm;
+        }
+        AbstractLoadBalanceAlgorithm existingAlgorithm = algorithmNameToAlgorithmMap.putIfAbsent(algorithmName, clusterAlgorithm);
+        return (existingAlgorithm != null) ? existingAlgorithm : clusterAlgorithm;
+    }
+
+    private ClusterContext getClusterContext(Cluster cluster) {
+        ClusterContext clusterContext = LoadBalancerContext.getInstance().getClusterContext(cluster.getClusterId());
+        if (clusterContext == null) {
+            clusterContext = LoadBalancerContext.getInstance().addClusterContextIfAbsent(
+                    new ClusterContext(cluster.getServiceName(), cluster.getClusterId()));
+        }
+        return clusterContext;
+    }
+
+    /**
+     * Find the consistent hash ring of the cluster, the ring is rebuilt once the member array
+     * of the cluster is replaced.
+     */
+    private ConsistentHashRing getConsistentHashRing(Cluster cluster) {
+        ClusterContext clusterContext = getClusterContext(cluster);
+        Member[] members = cluster.getMemberArray();
+        ConsistentHashRing consistentHashRing = clusterContext.getConsistentHashRing();
+        if ((consistentHashRing == null) || (consistentHashRing.getMembers() != members)) {
+            consistentHashRing = new ConsistentHashRing(members);
+            clusterContext.setConsistentHashRing(consistentHashRing);
+        }
+        return consistentHashRing;
+    }
+
+    private AlgorithmContext getAlgorithmContext(Cluster cluster) {
+        // Find algorithm context of the cluster
+        ClusterContext clusterContext = getClusterContext(cluster);
+
+        AlgorithmContext algorithmContext = clusterContext.getAlgorithmContext();
+        if (algorithmContext == null) {
+            synchronized (clusterContext) {
+                algorithmContext = clusterContext.getAlgorithmContext();
+                if (algorithmContext == null) {
+                    // Share the member index with other load balancer members if clustering is enabled
+                    DistributedObjectProvider distributedObjectProvider = LoadBalancerContext.getInstance().isClustered() ?
+                            ServiceReferenceHolder.getInstance().getDistributedObjectProvider() : null;
+                    algorithmContext = new AlgorithmContext(cluster.getServiceName(), cluster.getClusterId(),
+                            distributedObjectProvider);
+                    clusterContext.setAlgorithmContext(algorithmContext);
+                }
+            }
+        }
+        return algorithmContext;
+    }
+
     public boolean isTargetHostValid(String hostName) {
         if (hostName == null)
             return false;
@@ -31,12 +31,10 @@ import org.apache.stratos.load.balancer.common.domain.Port;
 import org.apache.stratos.load.balancer.conf.LoadBalancerConfiguration;
 import org.apache.stratos.load.balancer.conf.domain.TenantIdentifier;
 import org.apache.stratos.load.balancer.context.LoadBalancerContext;
-import org.apache.stratos.load.balancer.statistics.InFlightRequestDecrementCallable;
-import org.apache.stratos.load.balancer.statistics.InFlightRequestIncrementCallable;
-import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsExecutor;
+import org.apache.stratos.load.balancer.context.TenantLookupCache;
+import org.apache.stratos.load.balancer.statistics.InFlightRequest;
+import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsCollector;
 import org.apache.stratos.load.balancer.util.LoadBalancerConstants;
-import org.apache.stratos.messaging.domain.tenant.Tenant;
-import org.apache.stratos.messaging.message.receiver.tenant.TenantManager;
 import org.apache.synapse.MessageContext;
 import org.apache.synapse.SynapseConstants;
 import org.apache.synapse.SynapseException;
@@ -54,7 +52,6 @@ import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
-import java.util.concurrent.FutureTask;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -130,7 +127,7 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
         } else {
             // No existing session found
             // Find next member
-            org.apache.axis2.clustering.Member axis2Member = findNextMember(synCtx);
+            org.apache.axis2.clustering.Member axis2Member = findNextMember(synCtx, null);
             if (axis2Member != null) {
                 // Send request to member
                 sendToApplicationMember(synCtx, axis2Member, faultHandler, true);
@@ -170,11 +167,13 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
         String lbHttpPort = (String) httpTransportIn.getParameter("port").getValue();
         String lbHttpsPort = (String) httpsTransportIn.getParameter("port").getValue();
         String clusterId = currentMember.getProperties().getProperty(LoadBalancerConstants.CLUSTER_ID);
+        String memberId = currentMember.getProperties().getProperty(LoadBalancerConstants.MEMBER_ID);
 
         synCtx.setProperty(LoadBalancerConstants.LB_TARGET_HOSTNAME, targetHostname);
         synCtx.setProperty(LoadBalancerConstants.LB_HTTP_PORT, lbHttpPort);
         synCtx.setProperty(LoadBalancerConstants.LB_HTTPS_PORT, lbHttpsPort);
         synCtx.setProperty(LoadBalancerConstants.CLUSTER_ID, clusterId);
+        synCtx.setProperty(LoadBalancerConstants.MEMBER_ID, memberId);
     }
 
     protected String getTransportId(String incomingTransportName) {
@@ -223,7 +222,8 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
         }
     }
 
-    private org.apache.axis2.clustering.Member findNextMember(MessageContext synCtx) {
+    private org.apache.axis2.clustering.Member findNextMember(MessageContext synCtx,
+                                                              Collection<String> excludedMemberIds) {
         String targetHost = extractTargetHost(synCtx);
         if (log.isDebugEnabled()) {
             log.debug(String.format("Request %s for host %s", synCtx.getMessageID(), targetHost));
@@ -243,16 +243,19 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
 
             if (tenantId == -1) {
                 // If there is no tenant involves in the URL, Find next member from host name
-                member = requestDelegator.findNextMemberFromHostName(targetHost, synCtx.getMessageID());
+                member = requestDelegator.findNextMemberFromHostName(targetHost, synCtx.getMessageID(),
+                        extractTransportHeaders(synCtx), extractClientIp(synCtx), excludedMemberIds);
             } else if (tenantExists(tenantId)) {
                 // Tenant found, find member from hostname and tenant id
-                member = requestDelegator.findNextMemberFromTenantId(targetHost, tenantId);
+                member = requestDelegator.findNextMemberFromTenantId(targetHost, tenantId,
+                        extractTransportHeaders(synCtx), extractClientIp(synCtx), excludedMemberIds);
             } else {
                 // Tenant id not found in the subscription for the URL which has tenant domain.
                 throwSynapseException(synCtx, 403, String.format("You are unauthorized to access"));
             }
         } else {
-            member = requestDelegator.findNextMemberFromHostName(targetHost, synCtx.getMessageID());
+            member = requestDelegator.findNextMemberFromHostName(targetHost, synCtx.getMessageID(),
+                    extractTransportHeaders(synCtx), extractClientIp(synCtx), excludedMemberIds);
         }
 
         if (member == null)
@@ -262,6 +265,32 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
         return createAxis2Member(synCtx, targetHost, member);
     }
 
+    private Map<String, String> extractTransportHeaders(MessageContext synCtx) {
+        org.apache.axis2.context.MessageContext axis2MessageCtx = ((Axis2MessageContext) synCtx).getAxis2MessageContext();
+        Object headers = axis2MessageCtx.getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
+        if (headers instanceof Map) {
+            return (Map<String, String>) headers;
+        }
+        return null;
+    }
+
+    private String extractClientIp(MessageContext synCtx) {
+        org.apache.axis2.context.MessageContext axis2MessageCtx = ((Axis2MessageContext) synCtx).getAxis2MessageContext();
+        return (String) axis2MessageCtx.getProperty(org.apache.axis2.context.MessageContext.REMOTE_ADDR);
+    }
+
+    /**
+     * Members of clusters with a session affinity key are found by consistent hashing, hence sessions
+     * of those clusters are not tracked by the session dispatcher.
+     *
+     * @param axis2Member
+     * @return
+     */
+    private boolean isConsistentHashingEnabled(org.apache.axis2.clustering.Member axis2Member) {
+        String clusterId = axis2Member.getProperties().getProperty(LoadBalancerConstants.CLUSTER_ID);
+        return (clusterId != null) && (LoadBalancerConfiguration.getInstance().getSessionAffinityKey(clusterId) != null);
+    }
+
     /**
      * Create axis2 member from load balancer member object.
      *
@@ -437,13 +466,12 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
      */
     private int scanUrlForTenantId(String url) {
         int tenantId = -1;
-        List<String> regexList = LoadBalancerConfiguration.getInstance().getTenantIdentifierRegexList();
-        for (String regex : regexList) {
+        List<Pattern> patterns = LoadBalancerConfiguration.getInstance().getTenantIdentifierPatterns();
+        for (Pattern pattern : patterns) {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Request URL: %s ", url));
-                log.debug(String.format("Tenant identifier regex: %s ", regex));
+                log.debug(String.format("Tenant identifier regex: %s ", pattern.pattern()));
             }
-            Pattern pattern = Pattern.compile(regex);
             Matcher matcher = pattern.matcher(url);
             if (matcher.find()) {
                 if (LoadBalancerConfiguration.getInstance().getTenantIdentifier() == TenantIdentifier.TenantId) {
@@ -481,12 +509,7 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
      * @return
      */
     private boolean tenantExists(int tenantId) {
-        try {
-            TenantManager.acquireReadLock();
-            return TenantManager.getInstance().tenantExists(tenantId);
-        } finally {
-            TenantManager.releaseReadLock();
-        }
+        return TenantLookupCache.getInstance().tenantExists(tenantId);
     }
 
     /**
@@ -496,16 +519,7 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
      * @return
      */
     private int findTenantIdFromTenantDomain(String tenantDomain) {
-        try {
-            TenantManager.acquireReadLock();
-            Tenant tenant = TenantManager.getInstance().getTenant(tenantDomain);
-            if (tenant != null) {
-                return tenant.getTenantId();
-            }
-            return -1;
-        } finally {
-            TenantManager.releaseReadLock();
-        }
+        return TenantLookupCache.getInstance().getTenantId(tenantDomain);
     }
 
     /**
@@ -690,7 +704,7 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
         synCtx.pushFaultHandler(faultHandler);
         synCtx.getEnvelope().build();
 
-        if (isSessionAffinityBasedLB()) {
+        if (isSessionAffinityBasedLB() && !isConsistentHashingEnabled(currentMember)) {
             synCtx.setProperty(SynapseConstants.PROP_SAL_ENDPOINT_DEFAULT_SESSION_TIMEOUT, getSessionTimeout());
             synCtx.setProperty(SynapseConstants.PROP_SAL_ENDPOINT_CURRENT_DISPATCHER, dispatcher);
 
@@ -717,11 +731,12 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Sending request %s to endpoint: %s", synCtx.getMessageID(), to.getAddress()));
             }
-            endpoint.send(synCtx);
-
-            // Increment in-flight request count
+            // Increment in-flight request count before sending, the response may be received
+            // before the send method returns
             incrementInFlightRequestCount(synCtx);
+            endpoint.send(synCtx);
         } catch (Exception e) {
+            decrementInFlightRequestCount(synCtx);
             if (e.getMessage().toLowerCase().contains("io reactor shutdown")) {
                 log.fatal("System cannot continue normal operation. Restarting", e);
                 System.exit(121); // restart
@@ -737,8 +752,11 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
             if (StringUtils.isBlank(clusterId)) {
                 throw new RuntimeException("Cluster id not found in message context");
             }
-            FutureTask<Object> task = new FutureTask<Object>(new InFlightRequestIncrementCallable(clusterId));
-            LoadBalancerStatisticsExecutor.getInstance().getService().submit(task);
+            String memberId = (String) messageContext.getProperty(LoadBalancerConstants.MEMBER_ID);
+            InFlightRequest inFlightRequest = LoadBalancerStatisticsCollector.getInstance().
+                    incrementInFlightRequestCount(clusterId, memberId);
+            // Properties of the request are copied to its response
+            messageContext.setProperty(LoadBalancerConstants.IN_FLIGHT_REQUEST, inFlightRequest);
         } catch (Exception e) {
             if (log.isDebugEnabled()) {
                 log.debug("Could not increment in-flight request count", e);
@@ -748,12 +766,12 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
 
     private void decrementInFlightRequestCount(MessageContext messageContext) {
         try {
-            String clusterId = (String) messageContext.getProperty(LoadBalancerConstants.CLUSTER_ID);
-            if (StringUtils.isBlank(clusterId)) {
-                throw new RuntimeException("Cluster id not found in message context");
+            Object inFlightRequest = messageContext.getProperty(LoadBalancerConstants.IN_FLIGHT_REQUEST);
+            if (!(inFlightRequest instanceof InFlightRequest)) {
+                throw new RuntimeException("In-flight request not found in message context");
             }
-            FutureTask<Object> task = new FutureTask<Object>(new InFlightRequestDecrementCallable(clusterId));
-            LoadBalancerStatisticsExecutor.getInstance().getService().submit(task);
+            LoadBalancerStatisticsCollector.getInstance().decrementInFlightRequestCount(
+                    (InFlightRequest) inFlightRequest);
         } catch (Exception e) {
             if (log.isDebugEnabled()) {
                 log.debug("Could not decrement in-flight request count", e);
@@ -846,7 +864,7 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
                 // Add current member to faulty members
                 faultyMemberIds.put(currentMember.getProperties().getProperty(LoadBalancerConstants.MEMBER_ID), true);
 
-                currentMember = findNextMember(synCtx);
+                currentMember = findNextMember(synCtx, faultyMemberIds.keySet());
                 if (currentMember == null) {
                     String msg = String.format("No members available to serve the request %s", (to != null) ? to.getAddress() : "address not found");
                     if (log.isErrorEnabled()) {
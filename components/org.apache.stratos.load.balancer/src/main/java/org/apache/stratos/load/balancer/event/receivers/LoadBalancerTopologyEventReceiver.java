@@ -22,6 +22,7 @@ package org.apache.stratos.load.balancer.event.receivers;
 import org.apache.stratos.load.balancer.common.event.receivers.LoadBalancerCommonTopologyEventReceiver;
 import org.apache.stratos.load.balancer.common.topology.TopologyProvider;
 import org.apache.stratos.load.balancer.context.LoadBalancerContext;
+import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsCollector;
 import org.apache.stratos.messaging.domain.topology.Cluster;
 
 /**
@@ -29,8 +30,11 @@ import org.apache.stratos.messaging.domain.topology.Cluster;
  */
 public class LoadBalancerTopologyEventReceiver extends LoadBalancerCommonTopologyEventReceiver {
 
+    private final TopologyProvider topologyProvider;
+
     public LoadBalancerTopologyEventReceiver(TopologyProvider topologyProvider) {
         super(topologyProvider);
+        this.topologyProvider = topologyProvider;
     }
 
     @Override
@@ -39,5 +43,19 @@ public class LoadBalancerTopologyEventReceiver extends LoadBalancerCommonTopolog
 
         // Remove cluster context
         LoadBalancerContext.getInstance().removeClusterContext(cluster.getClusterId());
+        // Remove in-flight request counts of the members of the cluster
+        LoadBalancerStatisticsCollector.getInstance().removeStaleMemberInFlightRequestCounts(
+                topologyProvider.getTopology());
+    }
+
+    @Override
+    protected void removeMember(String serviceName, String clusterId, String memberId) {
+        super.removeMember(serviceName, clusterId, memberId);
+
+        // Remove in-flight request count of the member
+        LoadBalancerStatisticsCollector statisticsCollector = LoadBalancerStatisticsCollector.getInstance();
+        statisticsCollector.removeMemberInFlightRequestCount(memberId);
+        // Remove counts of members removed earlier, which were counted again by requests in progress
+        statisticsCollector.removeStaleMemberInFlightRequestCounts(topologyProvider.getTopology());
     }
 }
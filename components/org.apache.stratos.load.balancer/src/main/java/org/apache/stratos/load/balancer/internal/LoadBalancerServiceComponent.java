@@ -33,16 +33,17 @@ import org.apache.stratos.load.balancer.conf.LoadBalancerConfiguration;
 import org.apache.stratos.load.balancer.conf.configurator.CEPConfigurator;
 import org.apache.stratos.load.balancer.conf.configurator.SynapseConfigurator;
 import org.apache.stratos.load.balancer.conf.configurator.TopologyFilterConfigurator;
+import org.apache.stratos.load.balancer.context.LoadBalancerContext;
 import org.apache.stratos.load.balancer.endpoint.EndpointDeployer;
 import org.apache.stratos.load.balancer.event.receivers.LoadBalancerDomainMappingEventReceiver;
 import org.apache.stratos.load.balancer.event.receivers.LoadBalancerTopologyEventReceiver;
+import org.apache.stratos.load.balancer.event.receivers.LoadBalancerTenantEventReceiver;
 import org.apache.stratos.load.balancer.exception.TenantAwareLoadBalanceEndpointException;
 import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsCollector;
 import org.apache.stratos.load.balancer.util.LoadBalancerConstants;
 import org.apache.stratos.messaging.message.filter.topology.TopologyClusterFilter;
 import org.apache.stratos.messaging.message.filter.topology.TopologyMemberFilter;
 import org.apache.stratos.messaging.message.filter.topology.TopologyServiceFilter;
-import org.apache.stratos.messaging.message.receiver.tenant.TenantEventReceiver;
 import org.apache.synapse.config.SynapseConfiguration;
 import org.apache.synapse.config.xml.MultiXMLConfigurationBuilder;
 import org.apache.synapse.core.SynapseEnvironment;
@@ -92,7 +93,7 @@ public class LoadBalancerServiceComponent {
     private boolean activated = false;
     private ExecutorService executorService;
     private LoadBalancerTopologyEventReceiver topologyEventReceiver;
-    private TenantEventReceiver tenantEventReceiver;
+    private LoadBalancerTenantEventReceiver tenantEventReceiver;
     private LoadBalancerDomainMappingEventReceiver domainMappingEventReceiver;
     private LoadBalancerCommonApplicationSignUpEventReceiver applicationSignUpEventReceiver;
     private LoadBalancerStatisticsNotifier statisticsNotifier;
@@ -104,6 +105,7 @@ public class LoadBalancerServiceComponent {
         try {
             ClusteringAgent clusteringAgent = ServiceReferenceHolder.getInstance().getAxisConfiguration().getClusteringAgent();
             boolean clusteringEnabled = (clusteringAgent != null);
+            LoadBalancerContext.getInstance().setClustered(clusteringEnabled);
             if (log.isInfoEnabled()) {
                 log.info(String.format("Load balancer clustering is %s", (clusteringEnabled ? "enabled" : "disabled")));
             }
@@ -225,7 +227,7 @@ public class LoadBalancerServiceComponent {
 
     private void startTenantEventReceiver(ExecutorService executorService) {
 
-        tenantEventReceiver = new TenantEventReceiver();
+        tenantEventReceiver = new LoadBalancerTenantEventReceiver();
         tenantEventReceiver.setExecutorService(executorService);
         tenantEventReceiver.execute();
         if (log.isInfoEnabled()) {
@@ -234,13 +236,12 @@ public class LoadBalancerServiceComponent {
     }
 
     private void startStatisticsNotifier(TopologyProvider topologyProvider) {
-        // Start stats notifier thread
+        // Start stats notifier
         statisticsNotifier = new LoadBalancerStatisticsNotifier(LoadBalancerStatisticsCollector.getInstance(),
                 topologyProvider);
-        Thread statsNotifierThread = new Thread(statisticsNotifier);
-        statsNotifierThread.start();
+        statisticsNotifier.start();
         if (log.isInfoEnabled()) {
-            log.info("Load balancer statistics notifier thread started");
+            log.info("Load balancer statistics notifier started");
         }
     }
 
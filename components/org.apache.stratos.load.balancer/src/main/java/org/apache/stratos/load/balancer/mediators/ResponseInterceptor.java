@@ -18,17 +18,14 @@
  */
 package org.apache.stratos.load.balancer.mediators;
 
-import org.apache.commons.lang3.StringUtils;
-import org.apache.stratos.load.balancer.statistics.InFlightRequestDecrementCallable;
-import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsExecutor;
+import org.apache.stratos.load.balancer.statistics.InFlightRequest;
+import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsCollector;
 import org.apache.stratos.load.balancer.util.LoadBalancerConstants;
 import org.apache.synapse.ManagedLifecycle;
 import org.apache.synapse.MessageContext;
 import org.apache.synapse.core.SynapseEnvironment;
 import org.apache.synapse.mediators.AbstractMediator;
 
-import java.util.concurrent.FutureTask;
-
 /**
  * This Synapse mediator counts the responses that are going across LB.
  */
@@ -46,13 +43,13 @@ public class ResponseInterceptor extends AbstractMediator implements ManagedLife
             if (log.isDebugEnabled()) {
                 log.debug("Response interceptor mediation started");
             }
-            String clusterId = (String) messageContext.getProperty(LoadBalancerConstants.CLUSTER_ID);
-            if (StringUtils.isNotBlank(clusterId)) {
-                FutureTask<Object> task = new FutureTask<Object>(new InFlightRequestDecrementCallable(clusterId));
-                LoadBalancerStatisticsExecutor.getInstance().getService().submit(task);
+            Object inFlightRequest = messageContext.getProperty(LoadBalancerConstants.IN_FLIGHT_REQUEST);
+            if (inFlightRequest instanceof InFlightRequest) {
+                LoadBalancerStatisticsCollector.getInstance().decrementInFlightRequestCount(
+                        (InFlightRequest) inFlightRequest);
             } else {
                 if (log.isDebugEnabled()) {
-                    log.debug("Could not decrement in-flight request count : cluster id not found in message context");
+                    log.debug("Could not decrement in-flight request count : in-flight request not found in message context");
                 }
             }
 
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.load.balancer.statistics;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A request counted as in-flight by the load balancer statistics collector. A request may complete
+ * more than once, for an example when a fault is detected and its response is received afterwards,
+ * only the first completion is counted.
+ */
+public class InFlightRequest {
+
+    private final String clusterId;
+    private final String memberId;
+    private final AtomicBoolean completed;
+
+    InFlightRequest(String clusterId, String memberId) {
+        this.clusterId = clusterId;
+        this.memberId = memberId;
+        this.completed = new AtomicBoolean();
+    }
+
+    public String getClusterId() {
+        return clusterId;
+    }
+
+    public String getMemberId() {
+        return memberId;
+    }
+
+    /**
+     * Mark the request as completed.
+     *
+     * @return true if the request was not completed before
+     */
+    boolean complete() {
+        return completed.compareAndSet(false, true);
+    }
+}
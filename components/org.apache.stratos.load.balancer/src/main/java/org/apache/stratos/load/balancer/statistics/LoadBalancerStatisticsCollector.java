@@ -23,26 +23,37 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.common.constants.StratosConstants;
 import org.apache.stratos.load.balancer.common.domain.Cluster;
+import org.apache.stratos.load.balancer.common.domain.Member;
+import org.apache.stratos.load.balancer.common.domain.Service;
+import org.apache.stratos.load.balancer.common.domain.Topology;
 import org.apache.stratos.load.balancer.common.statistics.LoadBalancerStatisticsReader;
 
-import java.util.Map;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * This is the load balancer statistics collector.
+ * This is the load balancer statistics collector. Request counts are kept in striped counters per
+ * cluster and are updated by the mediation threads without locking. In-flight request counts are
+ * additionally kept per member for load balance algorithms which select members by their load.
+ * Requests are decremented through the {@link InFlightRequest} returned when they were counted, hence
+ * a request which completes more than once does not decrement the counts below the actual value.
  */
 public class LoadBalancerStatisticsCollector implements LoadBalancerStatisticsReader {
     private static final Log log = LogFactory.getLog(LoadBalancerStatisticsCollector.class);
 
     private static volatile LoadBalancerStatisticsCollector instance;
-    // Map<ClusterId, Integer>
-    private Map<String, Integer> clusterIdRequestCountMap;
-    private Map<String, Integer> clusterIdServedRequestCountMap;
+    // Map<ClusterId, ClusterRequestCounters>
+    private ConcurrentMap<String, ClusterRequestCounters> clusterIdRequestCountersMap;
+    // Map<MemberId, InFlightRequestCount>
+    private ConcurrentMap<String, AtomicInteger> memberIdInFlightRequestCountMap;
     private String clusterInstanceId;
 
     private LoadBalancerStatisticsCollector() {
-        clusterIdRequestCountMap = new ConcurrentHashMap<String, Integer>();
-        clusterIdServedRequestCountMap = new ConcurrentHashMap<String, Integer>();
+        clusterIdRequestCountersMap = new ConcurrentHashMap<String, ClusterRequestCounters>();
+        memberIdInFlightRequestCountMap = new ConcurrentHashMap<String, AtomicInteger>();
         clusterInstanceId = System.getProperty(StratosConstants.CLUSTER_INSTANCE_ID, StratosConstants.NOT_DEFINED);
     }
 
@@ -75,92 +86,172 @@ public class LoadBalancerStatisticsCollector implements LoadBalancerStatisticsRe
     }
 
     public int getInFlightRequestCount(String clusterId) {
-        synchronized (LoadBalancerStatisticsCollector.class) {
-            if (clusterIdRequestCountMap.containsKey(clusterId)) {
-                Integer count = clusterIdRequestCountMap.get(clusterId);
-                if (count != null) {
-                    return count;
-                }
-            }
+        ClusterRequestCounters counters = clusterIdRequestCountersMap.get(clusterId);
+        if (counters == null) {
             return 0;
         }
+        // The sum is not an atomic snapshot, it may be negative while requests are in progress
+        return (int) Math.max(0, counters.inFlightRequestCount.sum());
     }
 
     /**
      * Returns the number of requests served since the last time this function was called.
      */
     public int getServedRequestCount(String clusterId) {
-        synchronized (LoadBalancerStatisticsCollector.class) {
-            if (clusterIdServedRequestCountMap.containsKey(clusterId)) {
-                Integer servedCount = clusterIdServedRequestCountMap.get(clusterId);
-                if (servedCount != null) {
-                    clusterIdServedRequestCountMap.put(clusterId, 0);
-                    return servedCount;
-                }
-            }
+        ClusterRequestCounters counters = clusterIdRequestCountersMap.get(clusterId);
+        if (counters == null) {
             return 0;
         }
+        return (int) counters.servedRequestCount.sumThenReset();
+    }
+
+    /**
+     * Returns the number of requests sent to the given member which have not been responded yet.
+     */
+    public int getMemberInFlightRequestCount(String memberId) {
+        AtomicInteger count = memberIdInFlightRequestCountMap.get(memberId);
+        if (count == null) {
+            return 0;
+        }
+        return Math.max(0, count.get());
     }
 
     public int getActiveInstancesCount(Cluster cluster) {
         return cluster.getMembers().size();
     }
 
-    void incrementInFlightRequestCount(String clusterId) {
-        synchronized (LoadBalancerStatisticsCollector.class) {
-            if (StringUtils.isBlank(clusterId)) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Cluster id is null, could not increment in-flight request count");
-                }
-                return;
+    public void incrementInFlightRequestCount(String clusterId) {
+        if (StringUtils.isBlank(clusterId)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Cluster id is null, could not increment in-flight request count");
             }
-            Integer count = 0;
-            if (clusterIdRequestCountMap.containsKey(clusterId)) {
-                count = clusterIdRequestCountMap.get(clusterId);
+            return;
+        }
+
+        ClusterRequestCounters counters = clusterIdRequestCountersMap.get(clusterId);
+        if (counters == null) {
+            ClusterRequestCounters newCounters = new ClusterRequestCounters();
+            counters = clusterIdRequestCountersMap.putIfAbsent(clusterId, newCounters);
+            if (counters == null) {
+                counters = newCounters;
             }
-            count++;
-            clusterIdRequestCountMap.put(clusterId, count);
+        }
+        counters.inFlightRequestCount.increment();
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("In-flight request count incremented: [cluster] %s [count] %s ", clusterId,
+                    counters.inFlightRequestCount.sum()));
+        }
+    }
 
+    public void decrementInFlightRequestCount(String clusterId) {
+        if (StringUtils.isBlank(clusterId)) {
             if (log.isDebugEnabled()) {
-                log.debug(String.format("In-flight request count incremented: [cluster] %s [count] %s ", clusterId,
-                        count));
+                log.debug("Cluster id is null, could not decrement in-flight request count");
+            }
+            return;
+        }
 
+        ClusterRequestCounters counters = clusterIdRequestCountersMap.get(clusterId);
+        if (counters == null) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("In-flight request count not found for cluster, could not decrement in-flight request count: [cluster] %s ", clusterId));
             }
+            return;
+        }
+        counters.inFlightRequestCount.decrement();
+        counters.servedRequestCount.increment();
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("In-flight request count decremented: [cluster] %s [count] %s ", clusterId,
+                    counters.inFlightRequestCount.sum()));
         }
     }
 
-    void decrementInFlightRequestCount(String clusterId) {
-        synchronized (LoadBalancerStatisticsCollector.class) {
-            if (StringUtils.isBlank(clusterId)) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Cluster id is null, could not decrement in-flight request count");
+    /**
+     * Count a request sent to a member of a cluster as in-flight.
+     *
+     * @param clusterId cluster id
+     * @param memberId  member id, may be blank if the request is only counted for the cluster
+     * @return in-flight request to be passed to {@link #decrementInFlightRequestCount(InFlightRequest)}
+     * once the request is completed
+     */
+    public InFlightRequest incrementInFlightRequestCount(String clusterId, String memberId) {
+        incrementInFlightRequestCount(clusterId);
+        if (StringUtils.isNotBlank(memberId)) {
+            AtomicInteger count = memberIdInFlightRequestCountMap.get(memberId);
+            if (count == null) {
+                AtomicInteger newCount = new AtomicInteger();
+                count = memberIdInFlightRequestCountMap.putIfAbsent(memberId, newCount);
+                if (count == null) {
+                    count = newCount;
                 }
-                return;
             }
+            count.incrementAndGet();
+        }
+        return new InFlightRequest(clusterId, memberId);
+    }
 
-            if (!clusterIdRequestCountMap.containsKey(clusterId)) {
-                if (log.isDebugEnabled()) {
-                    log.debug(String.format("In-flight request count not found for cluster, could not decrement in-flight request count: [cluster] %s ", clusterId));
-                }
-            } else {
-                Integer count = clusterIdRequestCountMap.get(clusterId);
-                if (count != null) {
-                    count = (count >= 1) ? (count - 1) : 0;
-                }
-                clusterIdRequestCountMap.put(clusterId, count);
+    /**
+     * Decrement the in-flight request counts of a completed request. Counts are decremented only the
+     * first time a request is completed.
+     *
+     * @param inFlightRequest in-flight request returned when the request was counted
+     */
+    public void decrementInFlightRequestCount(InFlightRequest inFlightRequest) {
+        if (!inFlightRequest.complete()) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("In-flight request already completed: [cluster] %s [member] %s",
+                        inFlightRequest.getClusterId(), inFlightRequest.getMemberId()));
+            }
+            return;
+        }
 
-                Integer servedCount = 0;
-                if (clusterIdServedRequestCountMap.containsKey(clusterId)) {
-                    servedCount = clusterIdServedRequestCountMap.get(clusterId);
-                }
-                servedCount++;
-                clusterIdServedRequestCountMap.put(clusterId, servedCount);
+        decrementInFlightRequestCount(inFlightRequest.getClusterId());
+        if (StringUtils.isBlank(inFlightRequest.getMemberId())) {
+            return;
+        }
 
+        AtomicInteger count = memberIdInFlightRequestCountMap.get(inFlightRequest.getMemberId());
+        if (count != null) {
+            count.decrementAndGet();
+        }
+    }
+
+    /**
+     * Remove the in-flight request count of a member once it is removed from the topology.
+     */
+    public void removeMemberInFlightRequestCount(String memberId) {
+        memberIdInFlightRequestCountMap.remove(memberId);
+    }
+
+    /**
+     * Remove the in-flight request counts of members not found in the topology. A request sent to a member
+     * while it is being removed counts the member again after its count was removed.
+     *
+     * @param topology topology of the load balancer
+     */
+    public void removeStaleMemberInFlightRequestCounts(Topology topology) {
+        Set<String> memberIds = new HashSet<String>();
+        for (Service service : topology.getServices()) {
+            for (Cluster cluster : service.getClusters()) {
+                for (Member member : cluster.getMembers()) {
+                    memberIds.add(member.getMemberId());
+                }
+            }
+        }
+        for (String memberId : memberIdInFlightRequestCountMap.keySet()) {
+            if (!memberIds.contains(memberId)) {
                 if (log.isDebugEnabled()) {
-                    log.debug(String.format("In-flight request count decremented: [cluster] %s [count] %s ", clusterId,
-                            count));
+                    log.debug(String.format("Stale in-flight request count removed: [member] %s", memberId));
                 }
+                memberIdInFlightRequestCountMap.remove(memberId);
             }
         }
     }
-}
\ No newline at end of file
+
+    private static class ClusterRequestCounters {
+        private final StripedCounter inFlightRequestCount = new StripedCounter();
+        private final StripedCounter servedRequestCount = new StripedCounter();
+    }
+}
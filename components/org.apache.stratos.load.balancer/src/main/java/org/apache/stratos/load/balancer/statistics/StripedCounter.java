@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter which spreads updates across a number of cells selected by the updating thread, hence
+ * concurrent updates from different threads rarely contend on the same cell. Cells are padded to
+ * separate cache lines. The value is the sum of all cells, which is not an atomic snapshot while
+ * updates are in progress.
+ */
+public class StripedCounter {
+
+    // Number of longs in a cache line, only the first slot of each cache line is used
+    private static final int PADDING = 8;
+    private static final int STRIPES = stripeCount();
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+    private static int stripeCount() {
+        int stripes = 1;
+        while (stripes < Runtime.getRuntime().availableProcessors() * 2) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    private static int cellIndex() {
+        long threadId = Thread.currentThread().getId();
+        // Spread sequential thread ids across the stripes
+        int hash = (int) (threadId * 0x9E3779B9L);
+        return ((hash ^ (hash >>> 16)) & (STRIPES - 1)) * PADDING;
+    }
+
+    public void increment() {
+        cells.incrementAndGet(cellIndex());
+    }
+
+    public void decrement() {
+        cells.decrementAndGet(cellIndex());
+    }
+
+    /**
+     * @return sum of all cells
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < cells.length(); i += PADDING) {
+            sum += cells.get(i);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the sum of all cells and resets them to zero. Updates made concurrently are either
+     * included in the returned sum or retained for the next invocation, they are never lost.
+     *
+     * @return sum of all cells
+     */
+    public long sumThenReset() {
+        long sum = 0;
+        for (int i = 0; i < cells.length(); i += PADDING) {
+            sum += cells.getAndSet(i, 0);
+        }
+        return sum;
+    }
+}
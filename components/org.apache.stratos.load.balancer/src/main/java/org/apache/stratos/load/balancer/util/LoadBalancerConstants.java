@@ -23,6 +23,8 @@ public class LoadBalancerConstants {
 
     public static final String CLUSTER_ID = "cluster_id";
     public static final String MEMBER_ID = "member_id";
+    public static final String IN_FLIGHT_REQUEST = "in_flight_request";
+    public static final String MEMBER_WEIGHT = "load.balancer.member.weight";
 
     public static final String HTTP = "http";
     public static final String HTTPS = "https";
@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.test;
+
+import org.apache.stratos.load.balancer.algorithm.ConsistentHashRing;
+import org.apache.stratos.load.balancer.common.domain.Member;
+import org.apache.stratos.load.balancer.conf.domain.SessionAffinityKey;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Consistent hash ring tests.
+ */
+@RunWith(JUnit4.class)
+public class ConsistentHashRingTest {
+
+    private static final int KEY_COUNT = 20000;
+
+    /**
+     * Test keys are mapped to the same members regardless of member order and only keys of a
+     * removed member are moved.
+     */
+    @Test
+    public void testMemberRemoval() {
+        Member[] members = createMembers(10);
+        ConsistentHashRing ring = new ConsistentHashRing(members);
+        Member[] reversedMembers = members.clone();
+        Collections.reverse(Arrays.asList(reversedMembers));
+        ConsistentHashRing reversedRing = new ConsistentHashRing(reversedMembers);
+        ConsistentHashRing reducedRing = new ConsistentHashRing(Arrays.copyOf(members, 9));
+
+        int movedKeys = 0;
+        Map<String, Integer> keyCounts = new HashMap<String, Integer>();
+        for (int i = 0; i < KEY_COUNT; i++) {
+            String key = "session-" + i;
+            String memberId = ring.getMember(key, null).getMemberId();
+            Assert.assertEquals("Key mapped to a different member", memberId,
+                    reversedRing.getMember(key, null).getMemberId());
+
+            String reducedMemberId = reducedRing.getMember(key, null).getMemberId();
+            if (!memberId.equals(reducedMemberId)) {
+                Assert.assertEquals("Key of an existing member moved", "member-9", memberId);
+                movedKeys++;
+            }
+            Integer count = keyCounts.get(memberId);
+            keyCounts.put(memberId, (count == null) ? 1 : count + 1);
+        }
+
+        Assert.assertEquals("Keys of the removed member not moved", keyCounts.get("member-9").intValue(), movedKeys);
+        for (Integer count : keyCounts.values()) {
+            // Each member should own roughly a tenth of the keys
+            Assert.assertTrue("Keys not spread evenly: " + keyCounts, (count > KEY_COUNT / 20) && (count < KEY_COUNT / 5));
+        }
+    }
+
+    /**
+     * Test excluded members are skipped.
+     */
+    @Test
+    public void testExcludedMembers() {
+        ConsistentHashRing ring = new ConsistentHashRing(createMembers(3));
+        String memberId = ring.getMember("session", null).getMemberId();
+        Member member = ring.getMember("session", Collections.singleton(memberId));
+        Assert.assertNotNull("Member not found", member);
+        Assert.assertFalse("Excluded member returned", memberId.equals(member.getMemberId()));
+        Assert.assertNull("Member found in an empty ring", new ConsistentHashRing(new Member[0]).getMember("session", null));
+    }
+
+    /**
+     * Test session affinity key values are read from requests.
+     */
+    @Test
+    public void testSessionAffinityKeyValues() {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("Cookie", "JSESSIONID=abc; USER_ID=user1");
+        headers.put("X-User", "user2");
+
+        Assert.assertEquals("user1", new SessionAffinityKey(SessionAffinityKey.Type.Cookie, "USER_ID")
+                .getValue(headers, "10.0.0.1"));
+        Assert.assertNull(new SessionAffinityKey(SessionAffinityKey.Type.Cookie, "OTHER")
+                .getValue(headers, "10.0.0.1"));
+        Assert.assertEquals("user2", new SessionAffinityKey(SessionAffinityKey.Type.Header, "X-User")
+                .getValue(headers, "10.0.0.1"));
+        Assert.assertEquals("10.0.0.1", new SessionAffinityKey(SessionAffinityKey.Type.ClientIp, null)
+                .getValue(null, "10.0.0.1"));
+    }
+
+    private Member[] createMembers(int count) {
+        Member[] members = new Member[count];
+        for (int i = 0; i < count; i++) {
+            members[i] = new Member("service1", "cluster1", "member-" + i, "10.0.0." + i);
+        }
+        return members;
+    }
+}
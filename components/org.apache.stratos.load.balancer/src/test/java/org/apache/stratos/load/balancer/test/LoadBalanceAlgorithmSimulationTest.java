@@ -0,0 +1,214 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.test;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.load.balancer.algorithm.LeastOutstandingRequests;
+import org.apache.stratos.load.balancer.algorithm.AbstractLoadBalanceAlgorithm;
+import org.apache.stratos.load.balancer.algorithm.PowerOfTwoChoices;
+import org.apache.stratos.load.balancer.algorithm.RoundRobin;
+import org.apache.stratos.load.balancer.algorithm.WeightedRoundRobin;
+import org.apache.stratos.load.balancer.common.domain.Cluster;
+import org.apache.stratos.load.balancer.common.domain.Member;
+import org.apache.stratos.load.balancer.context.AlgorithmContext;
+import org.apache.stratos.load.balancer.statistics.InFlightRequest;
+import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsCollector;
+import org.apache.stratos.load.balancer.util.LoadBalancerConstants;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Replays a request trace against load balance algorithms on a cluster of heterogeneous members and
+ * reports the resulting request latencies. Time is simulated, member in-flight request counts are
+ * maintained through the load balancer statistics collector as done by the endpoint.
+ */
+@RunWith(JUnit4.class)
+public class LoadBalanceAlgorithmSimulationTest {
+
+    private static final Log log = LogFactory.getLog(LoadBalanceAlgorithmSimulationTest.class);
+    private static final int REQUEST_COUNT = 50000;
+    // Relative member speeds, the last members are slow or still warming up
+    private static final double[] MEMBER_SPEEDS = {1.0, 1.0, 1.0, 1.0, 0.5, 0.25};
+    private static final int MEMBER_CONCURRENCY = 4;
+    private static final double MEAN_SERVICE_TIME = 20.0;
+    private static final double UTILIZATION = 0.7;
+
+    /**
+     * Test weighted round robin selects members proportionally to their weights.
+     */
+    @Test
+    public void testWeightedMemberSelection() {
+        Cluster cluster = createCluster("weighted", new int[]{1, 3, 0});
+        WeightedRoundRobin algorithm = new WeightedRoundRobin();
+        AlgorithmContext algorithmContext = new AlgorithmContext(cluster.getServiceName(), cluster.getClusterId());
+        Map<String, Integer> selectionCounts = new HashMap<String, Integer>();
+        for (int i = 0; i < 500; i++) {
+            String memberId = algorithm.getNextMember(cluster.getMemberArray(), algorithmContext).getMemberId();
+            Integer count = selectionCounts.get(memberId);
+            selectionCounts.put(memberId, (count == null) ? 1 : count + 1);
+        }
+        Assert.assertEquals("Invalid selection count", 100, selectionCounts.get("weighted-member-0").intValue());
+        Assert.assertEquals("Invalid selection count", 300, selectionCounts.get("weighted-member-1").intValue());
+        // Members with invalid weights get the default weight
+        Assert.assertEquals("Invalid selection count", 100, selectionCounts.get("weighted-member-2").intValue());
+    }
+
+    /**
+     * Replay the same request trace against each algorithm and compare latency percentiles.
+     */
+    @Test
+    public void testAlgorithmLatencies() {
+        List<double[]> trace = generateTrace(new Random(42));
+        int[] weights = new int[MEMBER_SPEEDS.length];
+        for (int i = 0; i < MEMBER_SPEEDS.length; i++) {
+            weights[i] = (int) (MEMBER_SPEEDS[i] * 4);
+        }
+
+        Map<String, double[]> results = new HashMap<String, double[]>();
+        AbstractLoadBalanceAlgorithm[] algorithms = {new RoundRobin(), new LeastOutstandingRequests(),
+                new PowerOfTwoChoices(), new WeightedRoundRobin()};
+        for (AbstractLoadBalanceAlgorithm algorithm : algorithms) {
+            String clusterId = algorithm.getClass().getSimpleName();
+            double[] latencies = replay(trace, createCluster(clusterId, weights), algorithm);
+            Arrays.sort(latencies);
+            double p50 = percentile(latencies, 0.50);
+            double p99 = percentile(latencies, 0.99);
+            results.put(clusterId, new double[]{p50, p99});
+            log.info(String.format("Simulated latency: [algorithm] %s [requests] %d [p50] %.1f ms [p99] %.1f ms",
+                    algorithm.getName(), latencies.length, p50, p99));
+        }
+
+        Assert.assertTrue("Least outstanding requests did not reduce tail latency",
+                results.get("LeastOutstandingRequests")[1] < results.get("RoundRobin")[1]);
+        Assert.assertTrue("Power of two choices did not reduce tail latency",
+                results.get("PowerOfTwoChoices")[1] < results.get("RoundRobin")[1]);
+    }
+
+    /**
+     * Generate a request trace of arrival times and service times with exponential distributions.
+     */
+    private List<double[]> generateTrace(Random random) {
+        double totalSpeed = 0;
+        for (double speed : MEMBER_SPEEDS) {
+            totalSpeed += speed;
+        }
+        double arrivalRate = UTILIZATION * totalSpeed * MEMBER_CONCURRENCY / MEAN_SERVICE_TIME;
+
+        List<double[]> trace = new ArrayList<double[]>(REQUEST_COUNT);
+        double time = 0;
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            time += -Math.log(1 - random.nextDouble()) / arrivalRate;
+            double serviceTime = -Math.log(1 - random.nextDouble()) * MEAN_SERVICE_TIME;
+            trace.add(new double[]{time, serviceTime});
+        }
+        return trace;
+    }
+
+    /**
+     * Replay a request trace against the given algorithm. Each member serves a fixed number of requests
+     * concurrently and queues the remaining requests.
+     *
+     * @return latency of each request
+     */
+    private double[] replay(List<double[]> trace, Cluster cluster, AbstractLoadBalanceAlgorithm algorithm) {
+        LoadBalancerStatisticsCollector statisticsCollector = LoadBalancerStatisticsCollector.getInstance();
+        AlgorithmContext algorithmContext = new AlgorithmContext(cluster.getServiceName(), cluster.getClusterId());
+        Member[] members = cluster.getMemberArray();
+        // Member speeds are indexed in the order members were created
+        Map<String, Integer> memberIndexes = new HashMap<String, Integer>();
+        List<PriorityQueue<Double>> memberSlots = new ArrayList<PriorityQueue<Double>>();
+        for (int i = 0; i < MEMBER_SPEEDS.length; i++) {
+            memberIndexes.put(getMemberId(cluster.getClusterId(), i), i);
+            PriorityQueue<Double> slots = new PriorityQueue<Double>();
+            for (int j = 0; j < MEMBER_CONCURRENCY; j++) {
+                slots.add(0.0);
+            }
+            memberSlots.add(slots);
+        }
+
+        // Completions ordered by time: {completion time, member index, request index}
+        PriorityQueue<double[]> completions = new PriorityQueue<double[]>(11, new Comparator<double[]>() {
+            @Override
+            public int compare(double[] a, double[] b) {
+                return Double.compare(a[0], b[0]);
+            }
+        });
+        double[] latencies = new double[trace.size()];
+        InFlightRequest[] inFlightRequests = new InFlightRequest[trace.size()];
+        for (int i = 0; i < trace.size(); i++) {
+            double arrivalTime = trace.get(i)[0];
+            while (!completions.isEmpty() && (completions.peek()[0] <= arrivalTime)) {
+                double[] completion = completions.poll();
+                statisticsCollector.decrementInFlightRequestCount(inFlightRequests[(int) completion[2]]);
+            }
+
+            Member member = algorithm.getNextMember(members, algorithmContext);
+            int memberIndex = memberIndexes.get(member.getMemberId());
+            inFlightRequests[i] = statisticsCollector.incrementInFlightRequestCount(cluster.getClusterId(),
+                    member.getMemberId());
+
+            PriorityQueue<Double> slots = memberSlots.get(memberIndex);
+            double startTime = Math.max(arrivalTime, slots.poll());
+            double completionTime = startTime + trace.get(i)[1] / MEMBER_SPEEDS[memberIndex];
+            slots.add(completionTime);
+            completions.add(new double[]{completionTime, memberIndex, i});
+            latencies[i] = completionTime - arrivalTime;
+        }
+        while (!completions.isEmpty()) {
+            double[] completion = completions.poll();
+            statisticsCollector.decrementInFlightRequestCount(inFlightRequests[(int) completion[2]]);
+        }
+        return latencies;
+    }
+
+    private double percentile(double[] sortedValues, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedValues.length) - 1;
+        return sortedValues[Math.max(0, index)];
+    }
+
+    private String getMemberId(String clusterId, int index) {
+        return clusterId + "-member-" + index;
+    }
+
+    private Cluster createCluster(String clusterId, int[] weights) {
+        Cluster cluster = new Cluster("service1", clusterId);
+        for (int i = 0; i < weights.length; i++) {
+            Member member = new Member("service1", clusterId, getMemberId(clusterId, i), "10.0.0." + i);
+            Properties properties = new Properties();
+            properties.setProperty(LoadBalancerConstants.MEMBER_WEIGHT, String.valueOf(weights[i]));
+            member.setProperties(properties);
+            cluster.addMember(member);
+        }
+        return cluster;
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.stratos.load.balancer.common.domain.Member;
 import org.apache.stratos.load.balancer.common.domain.Port;
 import org.apache.stratos.load.balancer.common.topology.TopologyProvider;
 import org.apache.stratos.load.balancer.conf.LoadBalancerConfiguration;
+import org.apache.stratos.load.balancer.conf.domain.SessionAffinityKey;
 import org.apache.stratos.load.balancer.conf.domain.TenantIdentifier;
 import org.junit.Assert;
 import org.junit.Test;
@@ -116,6 +117,9 @@ public class LoadBalancerConfigurationTest {
             hostName = "cluster1.org";
             Assert.assertTrue(String.format("%s, hostname not found: [hostname] %s", validationError, hostName), hostNameExist(cluster1, hostName));
             Assert.assertEquals(String.format("%s, algorithm not valid", validationError), "round-robin", cluster1.getLoadBalanceAlgorithmName());
+            SessionAffinityKey sessionAffinityKey = LoadBalancerConfiguration.getInstance().getSessionAffinityKey(clusterId);
+            Assert.assertNotNull(String.format("%s, session affinity key not found", validationError), sessionAffinityKey);
+            Assert.assertEquals(String.format("%s, session affinity key not valid", validationError), "Cookie:USER_ID", sessionAffinityKey.toString());
 
             String memberId = "m1";
             Member m1 = cluster1.getMember(memberId);
@@ -19,17 +19,20 @@
 
 package org.apache.stratos.load.balancer.test;
 
-import org.apache.stratos.load.balancer.statistics.InFlightRequestDecrementCallable;
-import org.apache.stratos.load.balancer.statistics.InFlightRequestIncrementCallable;
+import org.apache.stratos.load.balancer.common.domain.Cluster;
+import org.apache.stratos.load.balancer.common.domain.Member;
+import org.apache.stratos.load.balancer.common.domain.Service;
+import org.apache.stratos.load.balancer.common.domain.Topology;
+import org.apache.stratos.load.balancer.statistics.InFlightRequest;
 import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsCollector;
-import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsExecutor;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
-import java.util.concurrent.Future;
-import java.util.concurrent.FutureTask;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Load balancer statistics collector tests.
@@ -37,6 +40,9 @@ import java.util.concurrent.FutureTask;
 @RunWith(JUnit4.class)
 public class LoadBalancerStatisticsCollectorTest {
 
+    private static final int THREAD_COUNT = 8;
+    private static final int REQUESTS_PER_THREAD = 100000;
+
     /**
      * Test in-flight request count calculation.
      */
@@ -46,42 +52,146 @@ public class LoadBalancerStatisticsCollectorTest {
         String incrementErrorMessage = "Could not increment in-flight request count: ";
         String decrementErrorMessage = "Could not decrement in-flight request count: ";
 
-        FutureTask<Object> task = new FutureTask<Object>(new InFlightRequestIncrementCallable(clusterId));
-        executeTask(task);
-        Assert.assertEquals(incrementErrorMessage, 1, LoadBalancerStatisticsCollector.getInstance().getInFlightRequestCount(clusterId));
+        LoadBalancerStatisticsCollector collector = LoadBalancerStatisticsCollector.getInstance();
+
+        collector.incrementInFlightRequestCount(clusterId);
+        Assert.assertEquals(incrementErrorMessage, 1, collector.getInFlightRequestCount(clusterId));
 
-        task = new FutureTask<Object>(new InFlightRequestIncrementCallable(clusterId));
-        executeTask(task);
-        Assert.assertEquals(incrementErrorMessage, 2, LoadBalancerStatisticsCollector.getInstance().getInFlightRequestCount(clusterId));
+        collector.incrementInFlightRequestCount(clusterId);
+        Assert.assertEquals(incrementErrorMessage, 2, collector.getInFlightRequestCount(clusterId));
 
-        task = new FutureTask<Object>(new InFlightRequestIncrementCallable(clusterId));
-        executeTask(task);
-        Assert.assertEquals(incrementErrorMessage, 3, LoadBalancerStatisticsCollector.getInstance().getInFlightRequestCount(clusterId));
+        collector.incrementInFlightRequestCount(clusterId);
+        Assert.assertEquals(incrementErrorMessage, 3, collector.getInFlightRequestCount(clusterId));
 
-        task = new FutureTask<Object>(new InFlightRequestDecrementCallable(clusterId));
-        executeTask(task);
-        Assert.assertEquals(decrementErrorMessage, 2, LoadBalancerStatisticsCollector.getInstance().getInFlightRequestCount(clusterId));
+        collector.decrementInFlightRequestCount(clusterId);
+        Assert.assertEquals(decrementErrorMessage, 2, collector.getInFlightRequestCount(clusterId));
 
-        task = new FutureTask<Object>(new InFlightRequestDecrementCallable(clusterId));
-        executeTask(task);
-        Assert.assertEquals(decrementErrorMessage, 1, LoadBalancerStatisticsCollector.getInstance().getInFlightRequestCount(clusterId));
+        collector.decrementInFlightRequestCount(clusterId);
+        Assert.assertEquals(decrementErrorMessage, 1, collector.getInFlightRequestCount(clusterId));
 
-        task = new FutureTask<Object>(new InFlightRequestDecrementCallable(clusterId));
-        executeTask(task);
-        Assert.assertEquals(decrementErrorMessage, 0, LoadBalancerStatisticsCollector.getInstance().getInFlightRequestCount(clusterId));
+        collector.decrementInFlightRequestCount(clusterId);
+        Assert.assertEquals(decrementErrorMessage, 0, collector.getInFlightRequestCount(clusterId));
 
         LoadBalancerStatisticsCollector.clear();
     }
 
-    private void executeTask(FutureTask<Object> task) {
-        Future future = LoadBalancerStatisticsExecutor.getInstance().getService().submit(task);
-        while (!future.isDone()) {
-            // Wait until task get executed
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                // Might not need to trace
+    /**
+     * Test request counts updated concurrently by multiple mediation threads.
+     */
+    @Test
+    public void testConcurrentRequestCounting() throws InterruptedException {
+        final String clusterId = "cluster1";
+        final LoadBalancerStatisticsCollector collector = LoadBalancerStatisticsCollector.getInstance();
+
+        runConcurrently(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                    collector.incrementInFlightRequestCount(clusterId);
+                    collector.decrementInFlightRequestCount(clusterId);
+                }
             }
+        });
+
+        Assert.assertEquals(0, collector.getInFlightRequestCount(clusterId));
+        Assert.assertEquals(THREAD_COUNT * REQUESTS_PER_THREAD, collector.getServedRequestCount(clusterId));
+        Assert.assertEquals("Served request count was not reset: ", 0, collector.getServedRequestCount(clusterId));
+
+        LoadBalancerStatisticsCollector.clear();
+    }
+
+    /**
+     * Test a request completed more than once, for an example by a fault followed by its response,
+     * is decremented only once.
+     */
+    @Test
+    public void testRequestCompletedTwiceIsDecrementedOnce() {
+        String clusterId = "cluster1";
+        String memberId = "member1";
+        LoadBalancerStatisticsCollector collector = LoadBalancerStatisticsCollector.getInstance();
+
+        InFlightRequest request1 = collector.incrementInFlightRequestCount(clusterId, memberId);
+        InFlightRequest request2 = collector.incrementInFlightRequestCount(clusterId, memberId);
+        Assert.assertEquals(2, collector.getInFlightRequestCount(clusterId));
+        Assert.assertEquals(2, collector.getMemberInFlightRequestCount(memberId));
+
+        collector.decrementInFlightRequestCount(request1);
+        collector.decrementInFlightRequestCount(request1);
+        Assert.assertEquals(1, collector.getInFlightRequestCount(clusterId));
+        Assert.assertEquals(1, collector.getMemberInFlightRequestCount(memberId));
+        Assert.assertEquals(1, collector.getServedRequestCount(clusterId));
+
+        // Counts do not drift below the requests in progress
+        InFlightRequest request3 = collector.incrementInFlightRequestCount(clusterId, memberId);
+        Assert.assertEquals(2, collector.getInFlightRequestCount(clusterId));
+        Assert.assertEquals(2, collector.getMemberInFlightRequestCount(memberId));
+
+        collector.decrementInFlightRequestCount(request2);
+        collector.decrementInFlightRequestCount(request3);
+        collector.decrementInFlightRequestCount(request3);
+        Assert.assertEquals(0, collector.getInFlightRequestCount(clusterId));
+        Assert.assertEquals(0, collector.getMemberInFlightRequestCount(memberId));
+
+        LoadBalancerStatisticsCollector.clear();
+    }
+
+    /**
+     * Test in-flight request counts of members counted again after their removal are removed
+     * on the next topology update.
+     */
+    @Test
+    public void testStaleMemberInFlightRequestCountsAreRemoved() {
+        Topology topology = new Topology();
+        Service service = new Service("service1");
+        Cluster cluster = new Cluster("service1", "cluster1");
+        cluster.addMember(new Member("service1", "cluster1", "member1", "10.0.0.1"));
+        service.addCluster(cluster);
+        topology.addService(service);
+        LoadBalancerStatisticsCollector collector = LoadBalancerStatisticsCollector.getInstance();
+
+        InFlightRequest request1 = collector.incrementInFlightRequestCount("cluster1", "member1");
+        collector.removeMemberInFlightRequestCount("member2");
+        // Request sent to member2 after it was removed counts it again
+        InFlightRequest request2 = collector.incrementInFlightRequestCount("cluster1", "member2");
+        Assert.assertEquals(1, collector.getMemberInFlightRequestCount("member2"));
+
+        collector.removeStaleMemberInFlightRequestCounts(topology);
+        Assert.assertEquals(1, collector.getMemberInFlightRequestCount("member1"));
+        Assert.assertEquals(0, collector.getMemberInFlightRequestCount("member2"));
+
+        // Completing the request of the removed member does not count it again
+        collector.decrementInFlightRequestCount(request2);
+        collector.decrementInFlightRequestCount(request1);
+        Assert.assertEquals(0, collector.getMemberInFlightRequestCount("member2"));
+        Assert.assertEquals(0, collector.getInFlightRequestCount("cluster1"));
+
+        LoadBalancerStatisticsCollector.clear();
+    }
+
+    private long runConcurrently(final Runnable runnable) throws InterruptedException {
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                    } catch (InterruptedException ignore) {
+                        return;
+                    }
+                    runnable.run();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long startTime = System.currentTimeMillis();
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
         }
+        return System.currentTimeMillis() - startTime;
     }
 }
@@ -0,0 +1,298 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.test;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.services.DistributedObjectProvider;
+import org.apache.stratos.load.balancer.algorithm.AbstractLoadBalanceAlgorithm;
+import org.apache.stratos.load.balancer.algorithm.LoadBalanceAlgorithm;
+import org.apache.stratos.load.balancer.algorithm.LoadBalanceAlgorithmFactory;
+import org.apache.stratos.load.balancer.algorithm.RoundRobin;
+import org.apache.stratos.load.balancer.common.domain.Cluster;
+import org.apache.stratos.load.balancer.common.domain.Member;
+import org.apache.stratos.load.balancer.context.AlgorithmContext;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Round robin load balance algorithm tests.
+ */
+@RunWith(JUnit4.class)
+public class RoundRobinTest {
+
+    private static final Log log = LogFactory.getLog(RoundRobinTest.class);
+    private static final int[] THREAD_COUNTS = {16, 64};
+    private static final int[] MEMBER_COUNTS = {2, 500};
+    private static final int SELECTIONS_PER_THREAD = 5000;
+
+    /**
+     * Test members are selected evenly by concurrent threads.
+     */
+    @Test
+    public void testConcurrentMemberSelection() throws InterruptedException {
+        final Cluster cluster = createCluster(10);
+        final RoundRobin algorithm = new RoundRobin();
+        final AlgorithmContext algorithmContext = new AlgorithmContext(cluster.getServiceName(), cluster.getClusterId());
+        final Map<String, AtomicInteger> selectionCounts = new ConcurrentHashMap<String, AtomicInteger>();
+        for (Member member : cluster.getMembers()) {
+            selectionCounts.put(member.getMemberId(), new AtomicInteger());
+        }
+
+        runConcurrently(8, new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 10000; i++) {
+                    Member member = algorithm.getNextMember(cluster.getMemberArray(), algorithmContext);
+                    selectionCounts.get(member.getMemberId()).incrementAndGet();
+                }
+            }
+        });
+
+        for (AtomicInteger count : selectionCounts.values()) {
+            Assert.assertEquals("Members were not selected evenly", 8000, count.get());
+        }
+
+        cluster.removeMember("member-0");
+        Assert.assertEquals("Member array was not updated", 9, cluster.getMemberArray().length);
+        algorithmContext.setCurrentMemberIndex(Integer.MAX_VALUE);
+        Assert.assertNotNull("Member not found after index overflow",
+                algorithm.getNextMember(cluster.getMemberArray(), algorithmContext));
+        Assert.assertNotNull("Member not found after index overflow",
+                algorithm.getNextMember(cluster.getMemberArray(), algorithmContext));
+    }
+
+    /**
+     * Test algorithms keeping the members on the algorithm instance are wrapped by the factory
+     * and select members evenly when invoked concurrently.
+     */
+    @Test
+    public void testLegacyAlgorithmAdapted() throws InterruptedException {
+        final Cluster cluster = createCluster(10);
+        final AbstractLoadBalanceAlgorithm algorithm = LoadBalanceAlgorithmFactory.createAlgorithm(
+                LegacyRoundRobin.class.getName());
+        Assert.assertNotNull("Legacy algorithm was not created", algorithm);
+        Assert.assertEquals("Legacy algorithm name not found", "Legacy Round Robin", algorithm.getName());
+        final AlgorithmContext algorithmContext = new AlgorithmContext(cluster.getServiceName(), cluster.getClusterId());
+        final Map<String, AtomicInteger> selectionCounts = new ConcurrentHashMap<String, AtomicInteger>();
+        for (Member member : cluster.getMembers()) {
+            selectionCounts.put(member.getMemberId(), new AtomicInteger());
+        }
+
+        runConcurrently(8, new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 1000; i++) {
+                    Member member = algorithm.getNextMember(cluster.getMemberArray(), algorithmContext);
+                    selectionCounts.get(member.getMemberId()).incrementAndGet();
+                }
+            }
+        });
+
+        for (AtomicInteger count : selectionCounts.values()) {
+            Assert.assertEquals("Members were not selected evenly", 800, count.get());
+        }
+    }
+
+    /**
+     * Test algorithm contexts of clustered load balancers share the member index.
+     */
+    @Test
+    public void testDistributedMemberIndex() {
+        Cluster cluster = createCluster(3);
+        DistributedObjectProvider distributedObjectProvider = new TestDistributedObjectProvider();
+        AlgorithmContext algorithmContext1 = new AlgorithmContext(cluster.getServiceName(), cluster.getClusterId(),
+                distributedObjectProvider);
+        AlgorithmContext algorithmContext2 = new AlgorithmContext(cluster.getServiceName(), cluster.getClusterId(),
+                distributedObjectProvider);
+        RoundRobin algorithm = new RoundRobin();
+
+        Member[] members = cluster.getMemberArray();
+        for (int i = 0; i < 6; i += 2) {
+            Assert.assertSame("Member index was not shared", members[i % 3],
+                    algorithm.getNextMember(members, algorithmContext1));
+            Assert.assertSame("Member index was not shared", members[(i + 1) % 3],
+                    algorithm.getNextMember(members, algorithmContext2));
+        }
+        Assert.assertEquals("Member index not found", 6, algorithmContext1.getCurrentMemberIndex());
+
+        algorithm.reset(algorithmContext2);
+        Assert.assertEquals("Member index was not reset", 0, algorithmContext1.getCurrentMemberIndex());
+    }
+
+    /**
+     * Compare the throughput of lock-free member selection with synchronized selection on a copy
+     * of the member list.
+     */
+    @Test
+    public void testMemberSelectionThroughput() throws InterruptedException {
+        for (int threadCount : THREAD_COUNTS) {
+            for (int memberCount : MEMBER_COUNTS) {
+                final Cluster cluster = createCluster(memberCount);
+                final RoundRobin algorithm = new RoundRobin();
+                final AlgorithmContext algorithmContext = new AlgorithmContext(cluster.getServiceName(),
+                        cluster.getClusterId());
+                final Object monitor = new Object();
+
+                long synchronizedTime = runConcurrently(threadCount, new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int i = 0; i < SELECTIONS_PER_THREAD; i++) {
+                            synchronized (monitor) {
+                                List<Member> members = new ArrayList<Member>(cluster.getMembers());
+                                algorithm.getNextMember(members.toArray(new Member[members.size()]),
+                                        algorithmContext);
+                            }
+                        }
+                    }
+                });
+
+                long lockFreeTime = runConcurrently(threadCount, new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int i = 0; i < SELECTIONS_PER_THREAD; i++) {
+                            algorithm.getNextMember(cluster.getMemberArray(), algorithmContext);
+                        }
+                    }
+                });
+
+                log.info(String.format("Member selection: [threads] %d [members] %d [selections] %d " +
+                                "[synchronized copy] %d ms [lock-free] %d ms", threadCount, memberCount,
+                        threadCount * SELECTIONS_PER_THREAD, synchronizedTime, lockFreeTime));
+            }
+        }
+    }
+
+    private Cluster createCluster(int memberCount) {
+        Cluster cluster = new Cluster("service1", "cluster1");
+        for (int i = 0; i < memberCount; i++) {
+            cluster.addMember(new Member("service1", "cluster1", "member-" + i, "10.0.0." + i));
+        }
+        return cluster;
+    }
+
+    private long runConcurrently(int threadCount, final Runnable runnable) throws InterruptedException {
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                    } catch (InterruptedException ignore) {
+                        return;
+                    }
+                    runnable.run();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long startTime = System.currentTimeMillis();
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * Round robin algorithm keeping the members on the algorithm instance.
+     */
+    public static class LegacyRoundRobin implements LoadBalanceAlgorithm {
+        private List<Member> members;
+
+        @Override
+        public String getName() {
+            return "Legacy Round Robin";
+        }
+
+        @Override
+        public Member getNextMember(AlgorithmContext algorithmContext) {
+            int currentMemberIndex = algorithmContext.getCurrentMemberIndex() % members.size();
+            algorithmContext.setCurrentMemberIndex(currentMemberIndex + 1);
+            return members.get(currentMemberIndex);
+        }
+
+        @Override
+        public void setMembers(List<Member> members) {
+            this.members = members;
+        }
+
+        @Override
+        public void reset(AlgorithmContext algorithmContext) {
+            algorithmContext.setCurrentMemberIndex(0);
+        }
+    }
+
+    /**
+     * Distributed object provider shared by load balancers in the same JVM.
+     */
+    private static class TestDistributedObjectProvider implements DistributedObjectProvider {
+        private final Map<String, Map> maps = new ConcurrentHashMap<String, Map>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        @Override
+        public synchronized Map getMap(String name) {
+            if (!maps.containsKey(name)) {
+                maps.put(name, new ConcurrentHashMap());
+            }
+            return maps.get(name);
+        }
+
+        @Override
+        public void removeMap(String name) {
+            maps.remove(name);
+        }
+
+        @Override
+        public List getList(String name) {
+            return new ArrayList();
+        }
+
+        @Override
+        public void removeList(String name) {
+        }
+
+        @Override
+        public Lock acquireLock(Object object) {
+            lock.lock();
+            return lock;
+        }
+
+        @Override
+        public void releaseLock(Lock lock) {
+            lock.unlock();
+        }
+    }
+}
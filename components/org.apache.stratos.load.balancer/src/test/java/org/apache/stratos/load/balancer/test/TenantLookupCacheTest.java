@@ -0,0 +1,186 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.test;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.load.balancer.context.TenantLookupCache;
+import org.apache.stratos.messaging.domain.tenant.Tenant;
+import org.apache.stratos.messaging.message.receiver.tenant.TenantManager;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tenant lookup cache tests.
+ */
+@RunWith(JUnit4.class)
+public class TenantLookupCacheTest {
+
+    private static final Log log = LogFactory.getLog(TenantLookupCacheTest.class);
+    private static final String TENANT_REGEX = "t/([^/]*)/";
+    private static final String URL = "/t/example.com/services/echo";
+    private static final int ITERATIONS = 200000;
+    private static final int ROUNDS = 20;
+    private static final int READER_COUNT = 4;
+    private static final int UPDATES_PER_ROUND = 101;
+    private static final int FIRST_TENANT_ID = 100;
+    private static final int TENANT_COUNT = 100;
+
+    /**
+     * Test tenant lookups are served from the cache until tenants are updated.
+     */
+    @Test
+    public void testTenantLookupInvalidation() {
+        TenantLookupCache cache = TenantLookupCache.getInstance();
+        cache.invalidate();
+        Assert.assertEquals("Unknown tenant domain resolved", -1, cache.getTenantId("cache.com"));
+        Assert.assertFalse("Unknown tenant id exists", cache.tenantExists(10));
+
+        TenantManager.getInstance().addTenant(new Tenant(10, "cache.com"));
+        Assert.assertEquals("Tenant lookup not cached", -1, cache.getTenantId("cache.com"));
+
+        cache.invalidate();
+        Assert.assertEquals("Tenant domain not resolved", 10, cache.getTenantId("cache.com"));
+        Assert.assertTrue("Tenant id does not exist", cache.tenantExists(10));
+
+        TenantManager.getInstance().removeTenant(10);
+        cache.invalidate();
+        Assert.assertFalse("Removed tenant exists", cache.tenantExists(10));
+    }
+
+    /**
+     * Test lookups running concurrently with tenant updates do not leave stale results in the cache once
+     * the cache is invalidated.
+     */
+    @Test
+    public void testConcurrentLookupsAndInvalidations() throws InterruptedException {
+        final TenantLookupCache cache = TenantLookupCache.getInstance();
+        cache.invalidate();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            final AtomicBoolean running = new AtomicBoolean(true);
+            List<Thread> readers = new ArrayList<Thread>();
+            for (int i = 0; i < READER_COUNT; i++) {
+                Thread reader = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        while (running.get()) {
+                            for (int tenantId = FIRST_TENANT_ID; tenantId < FIRST_TENANT_ID + TENANT_COUNT;
+                                 tenantId++) {
+                                cache.getTenantId(tenantDomain(tenantId));
+                                cache.tenantExists(tenantId);
+                            }
+                        }
+                    }
+                });
+                reader.start();
+                readers.add(reader);
+            }
+
+            // Update tenants the way the tenant event receiver does, tenant manager is updated first
+            // and the cache is invalidated afterwards
+            boolean tenantsExist = false;
+            for (int i = 0; i < UPDATES_PER_ROUND; i++) {
+                tenantsExist = !tenantsExist;
+                try {
+                    TenantManager.acquireWriteLock();
+                    for (int tenantId = FIRST_TENANT_ID; tenantId < FIRST_TENANT_ID + TENANT_COUNT; tenantId++) {
+                        if (tenantsExist) {
+                            TenantManager.getInstance().addTenant(new Tenant(tenantId, tenantDomain(tenantId)));
+                        } else {
+                            TenantManager.getInstance().removeTenant(tenantId);
+                        }
+                    }
+                } finally {
+                    TenantManager.releaseWriteLock();
+                }
+                cache.invalidate();
+            }
+
+            running.set(false);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            for (int tenantId = FIRST_TENANT_ID; tenantId < FIRST_TENANT_ID + TENANT_COUNT; tenantId++) {
+                Assert.assertEquals("Stale tenant id cached", tenantsExist ? tenantId : -1,
+                        cache.getTenantId(tenantDomain(tenantId)));
+                Assert.assertEquals("Stale tenant existence cached", tenantsExist, cache.tenantExists(tenantId));
+                TenantManager.getInstance().removeTenant(tenantId);
+            }
+            cache.invalidate();
+        }
+    }
+
+    private static String tenantDomain(int tenantId) {
+        return "tenant" + tenantId + ".com";
+    }
+
+    /**
+     * Compare the cost of resolving the tenant of a request with and without precompiled patterns and
+     * the tenant lookup cache.
+     */
+    @Test
+    public void testRoutingDecisionCost() {
+        TenantManager.getInstance().addTenant(new Tenant(20, "example.com"));
+        TenantLookupCache cache = TenantLookupCache.getInstance();
+        cache.invalidate();
+        Pattern pattern = Pattern.compile(TENANT_REGEX);
+
+        long startTime = System.currentTimeMillis();
+        int uncachedTenantId = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            Matcher matcher = Pattern.compile(TENANT_REGEX).matcher(URL);
+            if (matcher.find()) {
+                try {
+                    TenantManager.acquireReadLock();
+                    uncachedTenantId = TenantManager.getInstance().getTenant(matcher.group(1)).getTenantId();
+                } finally {
+                    TenantManager.releaseReadLock();
+                }
+            }
+        }
+        long uncachedTime = System.currentTimeMillis() - startTime;
+
+        startTime = System.currentTimeMillis();
+        int cachedTenantId = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            Matcher matcher = pattern.matcher(URL);
+            if (matcher.find()) {
+                cachedTenantId = cache.getTenantId(matcher.group(1));
+            }
+        }
+        long cachedTime = System.currentTimeMillis() - startTime;
+
+        Assert.assertEquals("Tenant domain not resolved", 20, uncachedTenantId);
+        Assert.assertEquals("Tenant domain not resolved", 20, cachedTenantId);
+        log.info(String.format("Routing decisions: [requests] %d [compile and lock] %d ms [precompiled and cached] %d ms",
+                ITERATIONS, uncachedTime, cachedTime));
+        TenantManager.getInstance().removeTenant(20);
+        cache.invalidate();
+    }
+}
@@ -45,4 +45,12 @@ public interface TopicConnector {
      * Disconnect from the message broker.
      */
     public abstract void disconnect();
+
+    /**
+     * Returns true if a connection to the message broker has been established
+     * and has not been closed since.
+     *
+     * @return true if connected
+     */
+    public abstract boolean isConnected();
 }
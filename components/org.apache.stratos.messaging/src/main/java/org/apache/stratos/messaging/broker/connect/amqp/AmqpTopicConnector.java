@@ -43,6 +43,7 @@ public abstract class AmqpTopicConnector implements TopicConnector {
     private TopicConnectionFactory connectionFactory;
     private TopicConnection topicConnection;
     private InitialContext initialContext;
+    private volatile boolean connected;
 
     private String mbUsername = null;
     private String mbPassword = null;
@@ -92,6 +93,7 @@ public abstract class AmqpTopicConnector implements TopicConnector {
                 }
             });
             topicConnection.start();
+            connected = true;
         } catch (JMSException e) {
             String message = "Could not connect to message broker";
             log.error(message, e);
@@ -101,6 +103,7 @@ public abstract class AmqpTopicConnector implements TopicConnector {
 
     @Override
     public void disconnect() {
+        connected = false;
         if (topicConnection != null) {
             try {
                 topicConnection.stop();
@@ -111,6 +114,11 @@ public abstract class AmqpTopicConnector implements TopicConnector {
         }
     }
 
+    @Override
+    public boolean isConnected() {
+        return connected;
+    }
+
     /**
      * Provides a new topic session.
      *
@@ -25,8 +25,8 @@ import org.apache.stratos.messaging.broker.connect.RetryTimer;
 import org.apache.stratos.messaging.broker.connect.TopicPublisher;
 import org.apache.stratos.messaging.domain.exception.MessagingException;
 
+import javax.jms.BytesMessage;
 import javax.jms.JMSException;
-import javax.jms.TextMessage;
 import javax.jms.Topic;
 import javax.jms.TopicSession;
 
@@ -43,6 +43,10 @@ public class AmqpTopicPublisher extends AmqpTopicConnector implements TopicPubli
 
     private ConnectionStatus connectionStatus;
 
+    private final Object sessionLock = new Object();
+    private TopicSession topicSession;
+    private javax.jms.TopicPublisher topicPublisher;
+
     public AmqpTopicPublisher(String topicName) {
         this.topicName = topicName;
         create();
@@ -56,10 +60,23 @@ public class AmqpTopicPublisher extends AmqpTopicConnector implements TopicPubli
      */
     @Override
     public void publish(String message, boolean retry) {
+        publishMessage(message, null, retry);
+    }
+
+    /**
+     * Publish binary message to message broker.
+     *
+     * @param message Message to be published
+     * @param retry   Retry if message broker is not available
+     */
+    @Override
+    public void publish(byte[] message, boolean retry) {
+        publishMessage(null, message, retry);
+    }
+
+    private void publishMessage(String text, byte[] bytes, boolean retry) {
         boolean published = false;
         while (!published) {
-            TopicSession topicSession = null;
-            javax.jms.TopicPublisher topicPublisher = null;
             try {
                 while (connectionStatus == ConnectionStatus.ReConnecting) {
                     // Connection has been broken, wait until reconnected
@@ -76,41 +93,75 @@ public class AmqpTopicPublisher extends AmqpTopicConnector implements TopicPubli
                     connectionStatus = ConnectionStatus.Connected;
                 }
 
-                topicSession = newSession();
-                Topic topic = lookupTopic(topicName);
-                if (topic == null) {
-                    // if the topic doesn't exist, create it.
-                    topic = topicSession.createTopic(topicName);
+                synchronized (sessionLock) {
+                    if (topicPublisher == null) {
+                        createPublisher();
+                    }
+                    javax.jms.Message jmsMessage;
+                    if (bytes != null) {
+                        BytesMessage bytesMessage = topicSession.createBytesMessage();
+                        bytesMessage.writeBytes(bytes);
+                        jmsMessage = bytesMessage;
+                    } else {
+                        jmsMessage = topicSession.createTextMessage(text);
+                    }
+                    topicPublisher.publish(jmsMessage);
                 }
-                topicPublisher = topicSession.createPublisher(topic);
-                TextMessage textMessage = topicSession.createTextMessage(message);
-                topicPublisher.publish(textMessage);
                 published = true;
             } catch (Exception e) {
-                String errorMessage = "Could not publish to topic: [topic-name] %s";
+                String errorMessage = String.format("Could not publish to topic: [topic-name] %s", topicName);
                 log.error(errorMessage, e);
+                // Session may be in an inconsistent state, create a new one on next attempt
+                closePublisher();
                 if (!retry) {
                     // Retry is disabled, throw exception
                     throw new MessagingException(errorMessage, e);
                 }
                 // Try to reconnect
                 reconnect();
-            } finally {
+            }
+        }
+    }
 
-                try {
-                    if (topicSession != null) {
-                        topicSession.close();
-                    }
-                    if (topicPublisher != null) {
-                        topicPublisher.close();
-                    }
+    /**
+     * Close the cached topic session and publisher before disconnecting from the message broker.
+     */
+    @Override
+    public void disconnect() {
+        closePublisher();
+        super.disconnect();
+    }
 
-                } catch (JMSException e) {
-                    message = "Error cleaning up pubisher";
-                    log.error(message, e);
-                    throw new MessagingException(message, e);
-                }
+    /**
+     * Create topic session and publisher, they are kept open until the connection is closed
+     * so that the same session can be used for publishing subsequent messages.
+     *
+     * @throws Exception if unable to create the session or the publisher
+     */
+    private void createPublisher() throws Exception {
+        topicSession = newSession();
+        Topic topic = lookupTopic(topicName);
+        if (topic == null) {
+            // if the topic doesn't exist, create it.
+            topic = topicSession.createTopic(topicName);
+        }
+        topicPublisher = topicSession.createPublisher(topic);
+    }
 
+    private void closePublisher() {
+        synchronized (sessionLock) {
+            try {
+                if (topicPublisher != null) {
+                    topicPublisher.close();
+                }
+                if (topicSession != null) {
+                    topicSession.close();
+                }
+            } catch (JMSException e) {
+                log.warn("Error cleaning up publisher", e);
+            } finally {
+                topicPublisher = null;
+                topicSession = null;
             }
         }
     }
@@ -147,6 +147,17 @@ public abstract class MqttTopicConnector implements TopicConnector {
         }
     }
 
+    /**
+     * Returns true if the MQTT client has been created and is connected to the message broker.
+     *
+     * @return true if connected
+     */
+    @Override
+    public boolean isConnected() {
+        MqttClient client = mqttClient;
+        return (client != null) && client.isConnected();
+    }
+
     /**
      * Return server URI.
      *
@@ -62,4 +62,24 @@ public class MqttTopicPublisher extends MqttTopicConnector implements TopicPubli
             throw new MessagingException(errorMessage, e);
         }
     }
+
+    public void publish(byte[] message, boolean retry) {
+        try {
+            if (mqttClient == null) {
+                String error = "Could not publish message to topic, MQTT client has not been initialized";
+                if (log.isErrorEnabled()) {
+                    log.error(error);
+                }
+                throw new MessagingException(error);
+            }
+
+            MqttMessage mqttMessage = new MqttMessage(message);
+            mqttMessage.setQos(MessagingConstants.QOS);
+            mqttClient.publish(topicName, mqttMessage);
+        } catch (Exception e) {
+            String errorMessage = String.format("Could not publish binary message: [topic] %s", topicName);
+            log.error(errorMessage, e);
+            throw new MessagingException(errorMessage, e);
+        }
+    }
 }
@@ -131,11 +131,12 @@ public class MqttTopicSubscriber extends MqttTopicConnector implements TopicSubs
         @Override
         public void messageArrived(String topic, MqttMessage message) throws Exception {
 
-            String messageText = new String(message.getPayload());
+            // Message text is decoded by the receiver only if required
+            byte[] payload = message.getPayload();
             if (log.isDebugEnabled()) {
-                log.debug(String.format("Message received: %s", messageText));
+                log.debug(String.format("Message received: %s", new String(payload)));
             }
-            messageListener.messageReceived(new Message(topic, messageText));
+            messageListener.messageReceived(new Message(topic, payload));
         }
 
         @Override
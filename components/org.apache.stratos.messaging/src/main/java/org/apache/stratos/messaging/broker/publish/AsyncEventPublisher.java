@@ -0,0 +1,362 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.messaging.broker.publish;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.broker.connect.TopicPublisher;
+import org.apache.stratos.messaging.broker.connect.TopicPublisherFactory;
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.domain.exception.MessagingException;
+import org.apache.stratos.messaging.util.MessagingConstants;
+import org.apache.stratos.messaging.util.MessagingUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Asynchronous event publisher. Messages are serialized on the caller's thread and added to
+ * a bounded queue, a dedicated publisher thread drains the queue and publishes the messages
+ * in batches. A batch is published when it reaches the configured batch size or when the flush
+ * interval has elapsed since the first message of the batch was taken from the queue. Messages
+ * are published in the order they were accepted. Messages are added to the queue while holding the
+ * read lock of the publisher state and the publisher is closed while holding the write lock, hence no
+ * message is added to the queue after the publisher has been closed.
+ */
+public class AsyncEventPublisher extends EventPublisher {
+
+    private static final Log log = LogFactory.getLog(AsyncEventPublisher.class);
+
+    /**
+     * Action to be taken when a message is published while the queue is full.
+     */
+    public static enum OverflowPolicy {
+        // Wait until space becomes available in the queue
+        BLOCK,
+        // Discard the oldest message in the queue
+        DROP_OLDEST,
+        // Throw a messaging exception
+        FAIL
+    }
+
+    private final BlockingQueue<PendingMessage> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final OverflowPolicy overflowPolicy;
+    private final Thread publisherThread;
+
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final Object flushLock = new Object();
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+
+    /**
+     * @param topicName topic name of this publisher instance.
+     */
+    AsyncEventPublisher(String topicName) {
+        this(topicName,
+                MessagingUtil.getNumericSystemProperty(MessagingConstants.PUBLISHER_ASYNC_QUEUE_SIZE_DEFAULT,
+                        MessagingConstants.PUBLISHER_ASYNC_QUEUE_SIZE),
+                MessagingUtil.getNumericSystemProperty(MessagingConstants.PUBLISHER_ASYNC_BATCH_SIZE_DEFAULT,
+                        MessagingConstants.PUBLISHER_ASYNC_BATCH_SIZE),
+                MessagingUtil.getNumericSystemProperty(MessagingConstants.PUBLISHER_ASYNC_FLUSH_INTERVAL_DEFAULT,
+                        MessagingConstants.PUBLISHER_ASYNC_FLUSH_INTERVAL),
+                readOverflowPolicy());
+    }
+
+    AsyncEventPublisher(String topicName, int queueSize, int batchSize, long flushIntervalMillis,
+                        OverflowPolicy overflowPolicy) {
+        this(topicName, TopicPublisherFactory.createTopicPublisher(MessagingUtil.getMessagingProtocol(), topicName),
+                queueSize, batchSize, flushIntervalMillis, overflowPolicy);
+    }
+
+    AsyncEventPublisher(String topicName, TopicPublisher topicPublisher, int queueSize, int batchSize,
+                        long flushIntervalMillis, OverflowPolicy overflowPolicy) {
+        super(topicName, topicPublisher);
+        validatePositive(MessagingConstants.PUBLISHER_ASYNC_QUEUE_SIZE, queueSize);
+        validatePositive(MessagingConstants.PUBLISHER_ASYNC_BATCH_SIZE, batchSize);
+        validatePositive(MessagingConstants.PUBLISHER_ASYNC_FLUSH_INTERVAL, flushIntervalMillis);
+        this.queue = new ArrayBlockingQueue<PendingMessage>(queueSize);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.overflowPolicy = overflowPolicy;
+
+        this.publisherThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drainQueue();
+            }
+        }, "async-event-publisher-" + topicName);
+        this.publisherThread.setDaemon(true);
+        this.publisherThread.start();
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Asynchronous event publisher created: [topic] %s [queue-size] %d " +
+                    "[batch-size] %d [flush-interval] %d ms [overflow-policy] %s", topicName, queueSize,
+                    batchSize, flushIntervalMillis, overflowPolicy));
+        }
+    }
+
+    private static void validatePositive(String propertyName, long value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid asynchronous event publisher configuration, " +
+                    "%s must be greater than zero: [value] %d", propertyName, value));
+        }
+    }
+
+    private static OverflowPolicy readOverflowPolicy() {
+        String value = System.getProperty(MessagingConstants.PUBLISHER_ASYNC_OVERFLOW_POLICY);
+        if (value == null) {
+            return OverflowPolicy.BLOCK;
+        }
+        try {
+            return OverflowPolicy.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn(String.format("Unknown event publisher overflow policy %s, using %s", value,
+                    OverflowPolicy.BLOCK));
+            return OverflowPolicy.BLOCK;
+        }
+    }
+
+    /**
+     * Convert the object to its JSON or binary representation and add it to the publisher queue.
+     * The object is serialized before this method returns, hence it can be modified afterwards.
+     */
+    @Override
+    public void publish(Object messageObj, boolean retry) {
+        PendingMessage pendingMessage = new PendingMessage(encode(messageObj), retry);
+        stateLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new MessagingException("Could not publish message, event publisher has been closed: [topic] "
+                        + getTopicName());
+            }
+            acceptedCount.incrementAndGet();
+            enqueue(pendingMessage);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    private void enqueue(PendingMessage pendingMessage) {
+        try {
+            switch (overflowPolicy) {
+                case BLOCK:
+                    // Wait for space in the queue as long as the publisher thread is running
+                    while (!queue.offer(pendingMessage, flushIntervalMillis, TimeUnit.MILLISECONDS)) {
+                        if (!publisherThread.isAlive()) {
+                            throw new MessagingException("Could not publish message, event publisher thread " +
+                                    "is not running: [topic] " + getTopicName());
+                        }
+                    }
+                    break;
+                case DROP_OLDEST:
+                    while (!queue.offer(pendingMessage)) {
+                        if (queue.poll() != null) {
+                            droppedCount.incrementAndGet();
+                            markProcessed(1);
+                        }
+                    }
+                    break;
+                case FAIL:
+                    if (!queue.offer(pendingMessage)) {
+                        throw new MessagingException("Could not publish message, event publisher queue is full: " +
+                                "[topic] " + getTopicName());
+                    }
+                    break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            markProcessed(1);
+            throw new MessagingException("Interrupted while waiting for space in event publisher queue: [topic] "
+                    + getTopicName(), e);
+        } catch (MessagingException e) {
+            markProcessed(1);
+            throw e;
+        }
+    }
+
+    /**
+     * Wait until all messages accepted before this call have been published or dropped.
+     */
+    @Override
+    public void flush() {
+        long target = acceptedCount.get();
+        synchronized (flushLock) {
+            while (processedCount.get() < target) {
+                if (!publisherThread.isAlive()) {
+                    log.warn("Could not flush event publisher, publisher thread is not running: [topic] "
+                            + getTopicName());
+                    return;
+                }
+                try {
+                    flushLock.wait(flushIntervalMillis + 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop accepting messages, publish the messages already in the queue and stop the publisher thread.
+     */
+    @Override
+    void close() {
+        // Wait for messages being added to the queue, no message is accepted afterwards
+        stateLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        flush();
+        publisherThread.interrupt();
+        try {
+            publisherThread.join(flushIntervalMillis + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        super.close();
+    }
+
+    /**
+     * @return number of messages in the queue waiting to be published
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return number of messages discarded due to the drop oldest overflow policy
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private void drainQueue() {
+        List<PendingMessage> batch = new ArrayList<PendingMessage>(batchSize);
+        while (!(closed && queue.isEmpty())) {
+            try {
+                PendingMessage first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Wait for the batch to fill up until the flush interval elapses
+                long deadline = System.currentTimeMillis() + flushIntervalMillis;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.currentTimeMillis();
+                    if ((batch.size() >= batchSize) || (remaining <= 0) || closed) {
+                        break;
+                    }
+                    PendingMessage next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (!closed) {
+                    log.warn("Event publisher thread interrupted: [topic] " + getTopicName());
+                }
+                // Publish whatever is in the queue before exiting
+                queue.drainTo(batch);
+                publishBatch(batch);
+                return;
+            }
+            publishBatch(batch);
+        }
+    }
+
+    /**
+     * Publish batch of messages in order, consecutive messages having the same retry flag
+     * are published together. If a group could not be published, the message which failed and
+     * the messages after it are published one by one, hence a failure only drops the messages
+     * which could not be published themselves.
+     */
+    private void publishBatch(List<PendingMessage> batch) {
+        int start = 0;
+        while (start < batch.size()) {
+            boolean retry = batch.get(start).retry;
+            int end = start + 1;
+            while ((end < batch.size()) && (batch.get(end).retry == retry)) {
+                end++;
+            }
+
+            List<Message> messages = new ArrayList<Message>(end - start);
+            for (int i = start; i < end; i++) {
+                messages.add(batch.get(i).message);
+            }
+            ListIterator<Message> iterator = messages.listIterator();
+            try {
+                publishMessages(iterator, retry);
+            } catch (Exception e) {
+                // Messages before the one which failed have been published
+                int failedIndex = Math.max(iterator.previousIndex(), 0);
+                log.warn(String.format("Could not publish %d messages together, publishing them one by one: " +
+                        "[topic] %s", messages.size() - failedIndex, getTopicName()), e);
+                publishIndividually(messages.subList(failedIndex, messages.size()), retry);
+            }
+            markProcessed(end - start);
+            start = end;
+        }
+        batch.clear();
+    }
+
+    private void publishIndividually(List<Message> messages, boolean retry) {
+        for (Message message : messages) {
+            try {
+                publishMessages(Collections.singletonList(message), retry);
+            } catch (Exception e) {
+                log.error(String.format("Could not publish message: [topic] %s", getTopicName()), e);
+            }
+        }
+    }
+
+    private void markProcessed(int count) {
+        processedCount.addAndGet(count);
+        synchronized (flushLock) {
+            flushLock.notifyAll();
+        }
+    }
+
+    private static class PendingMessage {
+        private final Message message;
+        private final boolean retry;
+
+        private PendingMessage(Message message, boolean retry) {
+            this.message = message;
+            this.retry = retry;
+        }
+    }
+}
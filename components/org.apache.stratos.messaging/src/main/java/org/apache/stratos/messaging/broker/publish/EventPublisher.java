@@ -22,31 +22,62 @@ package org.apache.stratos.messaging.broker.publish;
 import com.google.gson.Gson;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.broker.connect.RetryTimer;
 import org.apache.stratos.messaging.broker.connect.TopicPublisher;
 import org.apache.stratos.messaging.broker.connect.TopicPublisherFactory;
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.domain.exception.MessagingException;
 import org.apache.stratos.messaging.event.Event;
+import org.apache.stratos.messaging.message.codec.BinaryEventCodec;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+
 /**
  * A topic publisher for publishing messages to a message broker topic.
- * Messages will be published in JSON format.
+ * Messages will be published in JSON format. If the stratos.messaging.publisher.binaryCodec
+ * system property is set to true, events supported by {@link BinaryEventCodec} will be
+ * published in binary format.
+ * <p/>
+ * By default a connection is established and closed for each message. If the
+ * stratos.messaging.publisher.persistentConnection system property is set to true,
+ * the connection is established once and reused for all subsequent messages, it
+ * will be re-established if publishing fails.
  */
 public class EventPublisher {
 
     private static final Log log = LogFactory.getLog(EventPublisher.class);
 
+    // Gson instances are thread safe, hence a single instance is shared among all publishers
+    private static final Gson gson = new Gson();
+
     private final String topicName;
     private final TopicPublisher topicPublisher;
+    private final boolean persistentConnection;
+    private final boolean binaryCodec;
 
     /**
      * @param topicName topic name of this publisher instance.
      */
     EventPublisher(String topicName) {
+        this(topicName, TopicPublisherFactory.createTopicPublisher(MessagingUtil.getMessagingProtocol(), topicName));
+    }
+
+    /**
+     * @param topicName      topic name of this publisher instance.
+     * @param topicPublisher transport specific topic publisher used for publishing messages.
+     */
+    EventPublisher(String topicName, TopicPublisher topicPublisher) {
         this.topicName = topicName;
-        String protocol = MessagingUtil.getMessagingProtocol();
-        this.topicPublisher = TopicPublisherFactory.createTopicPublisher(protocol, topicName);
+        this.topicPublisher = topicPublisher;
+        this.persistentConnection = MessagingUtil.isPublisherPersistentConnectionEnabled();
+        this.binaryCodec = MessagingUtil.isPublisherBinaryCodecEnabled(topicName);
         if (log.isDebugEnabled()) {
-            log.debug(String.format("Topic publisher created: [protocol] %s [topic] %s", protocol, topicName));
+            log.debug(String.format("Topic publisher created: [protocol] %s [topic] %s [persistent-connection] %s " +
+                            "[binary-codec] %s", MessagingUtil.getMessagingProtocol(), topicName,
+                    persistentConnection, binaryCodec));
         }
     }
 
@@ -60,18 +91,131 @@ public class EventPublisher {
     }
 
     /**
-     * Convert the object to its JSON representation and publish to the given topic.
+     * Convert the object to its JSON or binary representation and publish to the given topic.
      */
 
     public void publish(Object messageObj, boolean retry) {
-        synchronized (EventPublisher.class) {
-            Gson gson = new Gson();
-            String message = gson.toJson(messageObj);
+        publishMessages(Collections.singletonList(encode(messageObj)), retry);
+    }
+
+    /**
+     * Wait until all messages accepted by this publisher have been published. Messages are
+     * published synchronously by this implementation, therefore there is nothing to wait for.
+     */
+    public void flush() {
+    }
+
+    String getTopicName() {
+        return topicName;
+    }
+
+    /**
+     * Encode the object in binary format if it is enabled and supported for the object type,
+     * otherwise in JSON format.
+     *
+     * @param messageObj object to be published
+     * @return message to be published
+     */
+    Message encode(Object messageObj) {
+        if (binaryCodec && BinaryEventCodec.canEncode(messageObj.getClass())) {
+            try {
+                return new Message(topicName, BinaryEventCodec.encode(messageObj));
+            } catch (MessagingException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Could not encode message in binary format, using JSON: [topic] %s",
+                            topicName), e);
+                }
+            }
+        }
+        return new Message(topicName, gson.toJson(messageObj));
+    }
 
-            topicPublisher.connect();
-            topicPublisher.publish(message, retry);
-            topicPublisher.disconnect();
+    /**
+     * Publish the given messages in order. If a connection is not maintained between messages,
+     * a single connection is used for publishing all of them.
+     *
+     * @param messages messages to be published
+     * @param retry    retry if message broker is not available
+     */
+    void publishMessages(List<Message> messages, boolean retry) {
+        publishMessages(messages.listIterator(), retry);
+    }
+
+    /**
+     * Publish the remaining messages of the given iterator in order. If publishing fails, the
+     * iterator is left positioned after the message which could not be published, hence the
+     * messages which have not been published can be identified by the caller.
+     *
+     * @param messages iterator of the messages to be published
+     * @param retry    retry if message broker is not available
+     */
+    void publishMessages(ListIterator<Message> messages, boolean retry) {
+        // Publishers are pooled per topic, hence locking this instance only
+        // serializes messages published to the same topic
+        synchronized (this) {
+            if (persistentConnection) {
+                while (messages.hasNext()) {
+                    publishWithPersistentConnection(messages.next(), retry);
+                }
+            } else {
+                topicPublisher.connect();
+                try {
+                    while (messages.hasNext()) {
+                        publishMessage(messages.next(), retry);
+                    }
+                } finally {
+                    topicPublisher.disconnect();
+                }
+            }
+        }
+    }
 
+    private void publishMessage(Message message, boolean retry) {
+        if (message.getPayload() != null) {
+            topicPublisher.publish(message.getPayload(), retry);
+        } else {
+            topicPublisher.publish(message.getText(), retry);
+        }
+    }
+
+    private void publishWithPersistentConnection(Message message, boolean retry) {
+        RetryTimer retryTimer = null;
+        while (true) {
+            try {
+                if (!topicPublisher.isConnected()) {
+                    topicPublisher.connect();
+                }
+                publishMessage(message, retry);
+                return;
+            } catch (MessagingException e) {
+                // Drop the connection, a new connection will be established on next attempt
+                topicPublisher.disconnect();
+                if (!retry) {
+                    throw e;
+                }
+
+                if (retryTimer == null) {
+                    retryTimer = new RetryTimer();
+                }
+                long interval = retryTimer.getNextInterval();
+                log.warn(String.format("Could not publish message, will try to reconnect in %d seconds: " +
+                        "[topic] %s", (interval / 1000), topicName));
+                try {
+                    Thread.sleep(interval);
+                } catch (InterruptedException ignore) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Close the connection to the message broker if a persistent connection is maintained.
+     */
+    void close() {
+        synchronized (this) {
+            if (persistentConnection && topicPublisher.isConnected()) {
+                topicPublisher.disconnect();
+            }
         }
     }
 }
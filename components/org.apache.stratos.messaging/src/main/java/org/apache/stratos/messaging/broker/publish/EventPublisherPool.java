@@ -21,13 +21,15 @@ package org.apache.stratos.messaging.broker.publish;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.util.MessagingUtil;
 
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Event publisher instance pool will make sure that only one publisher
- * instance is created for each topic.
+ * instance is created for each topic. If the stratos.messaging.publisher.async
+ * system property is set to true, asynchronous event publishers are created.
  */
 public class EventPublisherPool {
     private static final Log log = LogFactory.getLog(EventPublisherPool.class);
@@ -41,7 +43,12 @@ public class EventPublisherPool {
                 }
                 return topicNameEventPublisherMap.get(topicName);
             }
-            EventPublisher eventPublisher = new EventPublisher(topicName);
+            EventPublisher eventPublisher;
+            if (MessagingUtil.isPublisherAsyncEnabled()) {
+                eventPublisher = new AsyncEventPublisher(topicName);
+            } else {
+                eventPublisher = new EventPublisher(topicName);
+            }
             topicNameEventPublisherMap.put(topicName, eventPublisher);
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Event publisher instance created: [topic] %s", topicName));
@@ -53,7 +60,8 @@ public class EventPublisherPool {
     public static void close(String topicName) {
         synchronized (EventPublisherPool.class) {
             if (topicNameEventPublisherMap.containsKey(topicName)) {
-                topicNameEventPublisherMap.remove(topicName);
+                EventPublisher eventPublisher = topicNameEventPublisherMap.remove(topicName);
+                eventPublisher.close();
                 if (log.isDebugEnabled()) {
                     log.debug(String.format("Event publisher closed and removed from pool: [topic] %s", topicName));
                 }
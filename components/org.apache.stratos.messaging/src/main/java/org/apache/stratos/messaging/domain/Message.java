@@ -19,19 +19,31 @@
 
 package org.apache.stratos.messaging.domain;
 
+import org.apache.stratos.messaging.message.codec.BinaryEventCodec;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
 /**
- * Message definition.
+ * Message definition. A message is created either with its text or with the payload bytes
+ * received from the message broker, the text of the latter is decoded only when requested.
+ * The text of a binary encoded message is the JSON representation of its event.
  */
 public class Message {
     private final String topicName;
-    private final String text;
     private final String eventClassName;
+    private final byte[] payload;
+    private volatile String text;
+    private volatile Object event;
 
     public Message(String topicName, String text) {
         this.topicName = topicName;
         this.text = text;
+        this.payload = null;
+        this.eventClassName = MessagingUtil.getEventClassNameForTopic(topicName);
+    }
+
+    public Message(String topicName, byte[] payload) {
+        this.topicName = topicName;
+        this.payload = payload;
         this.eventClassName = MessagingUtil.getEventClassNameForTopic(topicName);
     }
 
@@ -40,9 +52,47 @@ public class Message {
     }
 
     public String getText() {
+        if ((text == null) && (payload != null)) {
+            if (BinaryEventCodec.isBinary(payload)) {
+                text = MessagingUtil.ObjectToJson(getEvent());
+            } else {
+                text = new String(payload);
+            }
+        }
         return text;
     }
 
+    /**
+     * Returns the payload bytes of the message if it was created with its payload.
+     *
+     * @return payload bytes or null
+     */
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * Returns the event of a binary encoded message. The payload is decoded only once, readers
+     * of the message share the decoded event.
+     *
+     * @return event or null if the message is not binary encoded
+     */
+    public Object getEvent() {
+        if ((event == null) && isBinary()) {
+            event = BinaryEventCodec.decode(payload);
+        }
+        return event;
+    }
+
+    /**
+     * Returns true if the message payload is in the binary format of {@link BinaryEventCodec}.
+     *
+     * @return true if the message is binary encoded
+     */
+    public boolean isBinary() {
+        return BinaryEventCodec.isBinary(payload);
+    }
+
     public String getEventClassName() {
         return eventClassName;
     }
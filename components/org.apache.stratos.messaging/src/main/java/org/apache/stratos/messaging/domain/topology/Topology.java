@@ -38,6 +38,10 @@ public class Topology implements Serializable {
     private Map<String, Service> serviceMap;
 
     private boolean initialized;
+    // Incremented by the cloud controller on each topology update
+    private long version;
+    // Set by subscribers when topology updates have been missed and a complete topology is required
+    private transient volatile boolean outOfSync;
     private static Log log = LogFactory.getLog(Topology.class);
 
     public Topology() {
@@ -83,6 +87,10 @@ public class Topology implements Serializable {
         return this.clusterMap.get(clusterId);
     }
 
+    public Collection<Cluster> getClusters() {
+        return clusterMap.values();
+    }
+
     public boolean clusterExist(String clusterId) {
         return clusterMap.get(clusterId) != null;
     }
@@ -100,8 +108,33 @@ public class Topology implements Serializable {
         return initialized;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Increment topology version, invoked whenever the topology is updated by its owner.
+     *
+     * @return the new version
+     */
+    public long incrementVersion() {
+        return ++version;
+    }
+
+    public boolean isOutOfSync() {
+        return outOfSync;
+    }
+
+    public void setOutOfSync(boolean outOfSync) {
+        this.outOfSync = outOfSync;
+    }
+
     @Override
     public String toString() {
-        return "Topology [serviceMap=" + serviceMap + ", initialized=" + initialized + "]";
+        return "Topology [serviceMap=" + serviceMap + ", initialized=" + initialized + ", version=" + version + "]";
     }
 }
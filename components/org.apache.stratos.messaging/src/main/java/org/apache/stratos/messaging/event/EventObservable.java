@@ -23,17 +23,26 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.messaging.listener.EventListener;
 
+import java.util.List;
 import java.util.Observable;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * Event observable definition.
+ * Event observable definition. Event listeners are notified without using the changed flag of
+ * {@link Observable}, hence events may be notified concurrently by multiple threads.
  */
 public abstract class EventObservable extends Observable {
 
     private static final Log log = LogFactory.getLog(EventObservable.class);
 
+    private final List<EventListener> eventListeners = new CopyOnWriteArrayList<EventListener>();
+
     public void addEventListener(EventListener eventListener) {
         addObserver(eventListener);
+        // Listeners are notified in reverse order of registration, same as observable
+        if (!eventListeners.contains(eventListener)) {
+            eventListeners.add(0, eventListener);
+        }
     }
 
     public void removeEventListener(EventListener eventListener) {
@@ -41,13 +50,15 @@ public abstract class EventObservable extends Observable {
             log.debug(String.format("Removing event listeners: [event-listener] %s", eventListener.getClass().getName()));
         }
         deleteObserver(eventListener);
+        eventListeners.remove(eventListener);
     }
 
     public void notifyEventListeners(Event event) {
         if (log.isDebugEnabled()) {
             log.debug(String.format("Notifying event listeners: [event] %s", event.getClass().getName()));
         }
-        setChanged();
-        notifyObservers(event);
+        for (EventListener eventListener : eventListeners) {
+            eventListener.update(this, event);
+        }
     }
 }
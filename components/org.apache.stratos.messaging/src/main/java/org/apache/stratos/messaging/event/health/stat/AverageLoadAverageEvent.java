@@ -38,6 +38,10 @@ public class AverageLoadAverageEvent extends Event {
         this.value = value;
     }
 
+    private AverageLoadAverageEvent() {
+        this(null, null, null, 0);
+    }
+
     public String getClusterId() {
         return clusterId;
     }
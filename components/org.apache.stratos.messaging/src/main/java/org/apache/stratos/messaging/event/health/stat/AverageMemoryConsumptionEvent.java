@@ -37,6 +37,10 @@ public class AverageMemoryConsumptionEvent extends Event {
         this.value = value;
     }
 
+    private AverageMemoryConsumptionEvent() {
+        this(null, null, null, 0);
+    }
+
 
     public String getClusterId() {
         return clusterId;
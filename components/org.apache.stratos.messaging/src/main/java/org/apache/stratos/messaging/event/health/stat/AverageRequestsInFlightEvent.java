@@ -41,6 +41,10 @@ public class AverageRequestsInFlightEvent extends Event {
         this.activeInstances = activeInstances;
     }
 
+    private AverageRequestsInFlightEvent() {
+        this(null, null, null, 0, 0, 0);
+    }
+
 
     public String getClusterId() {
         return clusterId;
@@ -37,6 +37,10 @@ public class AverageRequestsServingCapabilityEvent extends Event {
         this.value = value;
     }
 
+    private AverageRequestsServingCapabilityEvent() {
+        this(null, null, null, 0);
+    }
+
     public String getClusterId() {
         return clusterId;
     }
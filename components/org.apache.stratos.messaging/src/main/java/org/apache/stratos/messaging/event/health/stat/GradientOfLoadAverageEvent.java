@@ -37,6 +37,10 @@ public class GradientOfLoadAverageEvent extends Event {
         this.value = value;
     }
 
+    private GradientOfLoadAverageEvent() {
+        this(null, null, null, 0);
+    }
+
 
     public String getClusterId() {
         return clusterId;
@@ -37,6 +37,10 @@ public class GradientOfMemoryConsumptionEvent extends Event {
         this.value = value;
     }
 
+    private GradientOfMemoryConsumptionEvent() {
+        this(null, null, null, 0);
+    }
+
 
     public String getClusterId() {
         return clusterId;
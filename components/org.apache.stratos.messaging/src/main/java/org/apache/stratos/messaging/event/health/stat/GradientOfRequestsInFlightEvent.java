@@ -37,6 +37,10 @@ public class GradientOfRequestsInFlightEvent extends Event {
         this.value = value;
     }
 
+    private GradientOfRequestsInFlightEvent() {
+        this(null, null, null, 0);
+    }
+
 
     public String getClusterId() {
         return clusterId;
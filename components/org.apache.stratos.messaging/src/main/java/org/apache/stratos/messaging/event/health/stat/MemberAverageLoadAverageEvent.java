@@ -35,6 +35,10 @@ public class MemberAverageLoadAverageEvent extends Event {
         this.value = value;
     }
 
+    private MemberAverageLoadAverageEvent() {
+        this(null, null, 0);
+    }
+
 
     public String getMemberId() {
         return memberId;
@@ -35,6 +35,10 @@ public class MemberAverageMemoryConsumptionEvent extends Event {
         this.value = value;
     }
 
+    private MemberAverageMemoryConsumptionEvent() {
+        this(null, null, 0);
+    }
+
 
     public String getMemberId() {
         return memberId;
@@ -42,6 +42,10 @@ public class MemberFaultEvent extends Event {
         this.value = value;
     }
 
+    private MemberFaultEvent() {
+        this(null, null, null, null, null, 0);
+    }
+
 
     public String getClusterId() {
         return clusterId;
@@ -35,6 +35,10 @@ public class MemberGradientOfLoadAverageEvent extends Event {
         this.value = value;
     }
 
+    private MemberGradientOfLoadAverageEvent() {
+        this(null, null, 0);
+    }
+
 
     public String getMemberId() {
         return memberId;
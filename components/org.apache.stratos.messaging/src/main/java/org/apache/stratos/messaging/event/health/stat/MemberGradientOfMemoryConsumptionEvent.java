@@ -36,6 +36,10 @@ public class MemberGradientOfMemoryConsumptionEvent extends Event {
         this.value = value;
     }
 
+    private MemberGradientOfMemoryConsumptionEvent() {
+        this(null, null, 0);
+    }
+
 
     public String getMemberId() {
         return memberId;
@@ -37,6 +37,10 @@ public class MemberSecondDerivativeOfLoadAverageEvent extends Event {
         this.value = value;
     }
 
+    private MemberSecondDerivativeOfLoadAverageEvent() {
+        this(null, null, null, 0);
+    }
+
 
     public String getMemberId() {
         return memberId;
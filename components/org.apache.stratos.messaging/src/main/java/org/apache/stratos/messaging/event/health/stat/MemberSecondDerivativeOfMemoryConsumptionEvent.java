@@ -35,6 +35,10 @@ public class MemberSecondDerivativeOfMemoryConsumptionEvent extends Event {
         this.value = value;
     }
 
+    private MemberSecondDerivativeOfMemoryConsumptionEvent() {
+        this(null, null, 0);
+    }
+
 
     public String getMemberId() {
         return memberId;
@@ -38,6 +38,10 @@ public class SecondDerivativeOfLoadAverageEvent extends Event {
         this.value = value;
     }
 
+    private SecondDerivativeOfLoadAverageEvent() {
+        this(null, null, null, 0);
+    }
+
 
     public String getClusterId() {
         return clusterId;
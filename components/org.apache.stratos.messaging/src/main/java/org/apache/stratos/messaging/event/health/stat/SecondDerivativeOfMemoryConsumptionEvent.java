@@ -38,6 +38,10 @@ public class SecondDerivativeOfMemoryConsumptionEvent extends Event {
         this.value = value;
     }
 
+    private SecondDerivativeOfMemoryConsumptionEvent() {
+        this(null, null, null, 0);
+    }
+
 
     public String getClusterId() {
         return clusterId;
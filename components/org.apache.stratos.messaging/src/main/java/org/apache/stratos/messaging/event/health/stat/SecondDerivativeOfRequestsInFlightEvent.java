@@ -37,6 +37,10 @@ public class SecondDerivativeOfRequestsInFlightEvent extends Event {
         this.value = value;
     }
 
+    private SecondDerivativeOfRequestsInFlightEvent() {
+        this(null, null, null, 0);
+    }
+
     public String getClusterId() {
         return clusterId;
     }
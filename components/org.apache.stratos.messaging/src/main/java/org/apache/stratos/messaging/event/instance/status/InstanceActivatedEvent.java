@@ -48,6 +48,10 @@ public class InstanceActivatedEvent extends InstanceStatusEvent implements Seria
         this.partitionId = partitionId;
     }
 
+    private InstanceActivatedEvent() {
+        this(null, null, null, null, null, null, null);
+    }
+
     public String getServiceName() {
         return serviceName;
     }
@@ -39,6 +39,10 @@ public class InstanceMaintenanceModeEvent extends InstanceStatusEvent implements
         this.partitionId = partitionId;
     }
 
+    private InstanceMaintenanceModeEvent() {
+        this(null, null, null, null, null, null);
+    }
+
     public String getServiceName() {
         return serviceName;
     }
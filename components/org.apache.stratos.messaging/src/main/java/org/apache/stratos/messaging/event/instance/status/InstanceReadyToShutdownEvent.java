@@ -43,6 +43,10 @@ public class InstanceReadyToShutdownEvent extends InstanceStatusEvent implements
         this.partitionId = partitionId;
     }
 
+    private InstanceReadyToShutdownEvent() {
+        this(null, null, null, null, null, null);
+    }
+
     public String getServiceName() {
         return serviceName;
     }
@@ -47,6 +47,10 @@ public class InstanceStartedEvent extends InstanceStatusEvent implements Seriali
         this.partitionId = partitionId;
     }
 
+    private InstanceStartedEvent() {
+        this(null, null, null, null, null, null, null);
+    }
+
     public String getApplicationId() {
         return applicationId;
     }
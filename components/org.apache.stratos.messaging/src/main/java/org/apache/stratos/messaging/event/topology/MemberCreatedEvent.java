@@ -56,6 +56,10 @@ public class MemberCreatedEvent extends TopologyEvent implements Serializable {
         this.initTime = initTime;
     }
 
+    private MemberCreatedEvent() {
+        this(null, null, null, null, null, null, null, 0);
+    }
+
     public String getServiceName() {
         return serviceName;
     }
@@ -55,6 +55,10 @@ public class MemberInitializedEvent extends TopologyEvent implements Serializabl
         this.instanceId = instanceId;
     }
 
+    private MemberInitializedEvent() {
+        this(null, null, null, null, null, null, null);
+    }
+
     public String getServiceName() {
         return serviceName;
     }
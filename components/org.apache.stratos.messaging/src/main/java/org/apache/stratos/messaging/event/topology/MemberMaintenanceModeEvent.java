@@ -45,6 +45,10 @@ public class MemberMaintenanceModeEvent extends TopologyEvent implements Seriali
         this.partitionId = partitionId;
     }
 
+    private MemberMaintenanceModeEvent() {
+        this(null, null, null, null, null, null);
+    }
+
     public String getServiceName() {
         return serviceName;
     }
@@ -44,6 +44,10 @@ public class MemberReadyToShutdownEvent extends TopologyEvent implements Seriali
         this.partitionId = partitionId;
     }
 
+    private MemberReadyToShutdownEvent() {
+        this(null, null, null, null, null, null);
+    }
+
     public String getServiceName() {
         return serviceName;
     }
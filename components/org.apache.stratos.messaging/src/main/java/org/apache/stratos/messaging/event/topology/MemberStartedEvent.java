@@ -50,6 +50,10 @@ public class MemberStartedEvent extends TopologyEvent implements Serializable {
         this.partitionId = partitionId;
     }
 
+    private MemberStartedEvent() {
+        this(null, null, null, null, null, null);
+    }
+
     public String getServiceName() {
         return serviceName;
     }
@@ -43,6 +43,10 @@ public class MemberSuspendedEvent extends TopologyEvent implements Serializable
         this.memberId = memberId;
     }
 
+    private MemberSuspendedEvent() {
+        this(null, null, null, null, null);
+    }
+
     public String getServiceName() {
         return serviceName;
     }
@@ -49,6 +49,10 @@ public class MemberTerminatedEvent extends TopologyEvent implements Serializable
         this.partitionId = partitionId;
     }
 
+    private MemberTerminatedEvent() {
+        this(null, null, null, null, null, null);
+    }
+
     public String getServiceName() {
         return serviceName;
     }
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.messaging.event.topology;
+
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.Service;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This event is fired periodically instead of the complete topology event when delta
+ * topology synchronization is enabled. It carries the services and clusters that have
+ * changed between the base version and the version of the topology. Subscribers holding
+ * a topology version older than the base version have missed a diff and need to request
+ * the complete topology.
+ */
+public class TopologyDiffEvent extends TopologyEvent implements Serializable {
+    private static final long serialVersionUID = -6350417093361235745L;
+
+    private final long baseVersion;
+    private final long version;
+    // Services added or updated, including all of their clusters
+    private final List<Service> updatedServices;
+    private final List<String> removedServices;
+    // Clusters added or updated in services not listed above
+    private final List<Cluster> updatedClusters;
+    // Key: cluster id, value: service name
+    private final Map<String, String> removedClusters;
+
+    public TopologyDiffEvent(long baseVersion, long version) {
+        this.baseVersion = baseVersion;
+        this.version = version;
+        this.updatedServices = new ArrayList<Service>();
+        this.removedServices = new ArrayList<String>();
+        this.updatedClusters = new ArrayList<Cluster>();
+        this.removedClusters = new HashMap<String, String>();
+    }
+
+    public long getBaseVersion() {
+        return baseVersion;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Service> getUpdatedServices() {
+        return updatedServices;
+    }
+
+    public void addUpdatedService(Service service) {
+        updatedServices.add(service);
+    }
+
+    public List<String> getRemovedServices() {
+        return removedServices;
+    }
+
+    public void addRemovedService(String serviceName) {
+        removedServices.add(serviceName);
+    }
+
+    public List<Cluster> getUpdatedClusters() {
+        return updatedClusters;
+    }
+
+    public void addUpdatedCluster(Cluster cluster) {
+        updatedClusters.add(cluster);
+    }
+
+    public Map<String, String> getRemovedClusters() {
+        return removedClusters;
+    }
+
+    public void addRemovedCluster(String serviceName, String clusterId) {
+        removedClusters.put(clusterId, serviceName);
+    }
+
+    public boolean isEmpty() {
+        return updatedServices.isEmpty() && removedServices.isEmpty() && updatedClusters.isEmpty()
+                && removedClusters.isEmpty();
+    }
+}
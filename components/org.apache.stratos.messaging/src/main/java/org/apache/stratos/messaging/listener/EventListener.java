@@ -28,6 +28,11 @@ import java.util.Observer;
 
 /**
  * Event listener definition.
+ * <p/>
+ * Listeners registered on topology and health stat receivers having sharding enabled are notified
+ * concurrently by the shard threads of the receiver, hence they need to be thread safe. Events having
+ * the same shard key, the cluster id of topology events and the cluster instance id of health stat
+ * events, are notified in order by a single thread.
  */
 public abstract class EventListener implements Observer {
     private static final Log log = LogFactory.getLog(EventListener.class);
@@ -7,7 +7,7 @@
  * "License"); you may not use this file except in compliance
  * with the License.  You may obtain a copy of the License at
  *
- *  http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing,
  * software distributed under the License is distributed on an
@@ -16,23 +16,11 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-package org.apache.stratos.load.balancer.statistics;
 
-import java.util.concurrent.Callable;
+package org.apache.stratos.messaging.listener.topology;
 
-/**
- * In-flight request increment callable definition.
- */
-public class InFlightRequestIncrementCallable implements Callable<Object> {
-    private String clusterId;
+import org.apache.stratos.messaging.listener.EventListener;
 
-    public InFlightRequestIncrementCallable(String clusterId) {
-        this.clusterId = clusterId;
-    }
+public abstract class TopologyDiffEventListener extends EventListener {
 
-    @Override
-    public Object call() throws Exception {
-        LoadBalancerStatisticsCollector.getInstance().incrementInFlightRequestCount(clusterId);
-        return null;
-    }
 }
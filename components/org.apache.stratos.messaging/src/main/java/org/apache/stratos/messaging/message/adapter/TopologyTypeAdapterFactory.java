@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.messaging.message.adapter;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.Port;
+import org.apache.stratos.messaging.domain.topology.Service;
+import org.apache.stratos.messaging.domain.topology.ServiceType;
+import org.apache.stratos.messaging.domain.topology.Topology;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Gson type adapter factory for topology domain objects. Topology, services and ports are read
+ * field by field from the json stream and added to the domain objects as they are read, instead
+ * of being reflectively populated through intermediate maps. Clusters and members are read using
+ * the reflective adapters of the given gson instance, since their life cycle state managers are
+ * not exposed. Writing is delegated to the reflective adapters, therefore the json format is the
+ * same as the one produced by a default gson instance.
+ */
+public class TopologyTypeAdapterFactory implements TypeAdapterFactory {
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+        Class<? super T> rawType = typeToken.getRawType();
+        if (rawType == Topology.class) {
+            return (TypeAdapter<T>) new TopologyAdapter(gson.getDelegateAdapter(this, TypeToken.get(Topology.class)),
+                    gson.getAdapter(Service.class), gson.getAdapter(Cluster.class));
+        } else if (rawType == Service.class) {
+            return (TypeAdapter<T>) new ServiceAdapter(gson.getDelegateAdapter(this, TypeToken.get(Service.class)),
+                    gson.getAdapter(ServiceType.class), gson.getAdapter(Cluster.class),
+                    gson.getAdapter(Port.class), gson.getAdapter(Properties.class));
+        } else if (rawType == Port.class) {
+            return (TypeAdapter<T>) new PortAdapter(gson.getDelegateAdapter(this, TypeToken.get(Port.class)));
+        }
+        return null;
+    }
+
+    private static boolean readNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    private static String readString(JsonReader in) throws IOException {
+        return readNull(in) ? null : in.nextString();
+    }
+
+    private static class TopologyAdapter extends TypeAdapter<Topology> {
+
+        private final TypeAdapter<Topology> delegate;
+        private final TypeAdapter<Service> serviceAdapter;
+        private final TypeAdapter<Cluster> clusterAdapter;
+
+        private TopologyAdapter(TypeAdapter<Topology> delegate, TypeAdapter<Service> serviceAdapter,
+                                TypeAdapter<Cluster> clusterAdapter) {
+            this.delegate = delegate;
+            this.serviceAdapter = serviceAdapter;
+            this.clusterAdapter = clusterAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, Topology topology) throws IOException {
+            delegate.write(out, topology);
+        }
+
+        @Override
+        public Topology read(JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            Topology topology = new Topology();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if ("serviceMap".equals(name)) {
+                    if (readNull(in)) {
+                        continue;
+                    }
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        in.nextName();
+                        Service service = serviceAdapter.read(in);
+                        if (service != null) {
+                            topology.addService(service);
+                        }
+                    }
+                    in.endObject();
+                } else if ("clusterMap".equals(name)) {
+                    if (readNull(in)) {
+                        continue;
+                    }
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        in.nextName();
+                        Cluster cluster = clusterAdapter.read(in);
+                        if (cluster != null) {
+                            topology.addToCluterMap(cluster);
+                        }
+                    }
+                    in.endObject();
+                } else if ("initialized".equals(name)) {
+                    topology.setInitialized(in.nextBoolean());
+                } else if ("version".equals(name)) {
+                    topology.setVersion(in.nextLong());
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return topology;
+        }
+    }
+
+    private static class ServiceAdapter extends TypeAdapter<Service> {
+
+        private final TypeAdapter<Service> delegate;
+        private final TypeAdapter<ServiceType> serviceTypeAdapter;
+        private final TypeAdapter<Cluster> clusterAdapter;
+        private final TypeAdapter<Port> portAdapter;
+        private final TypeAdapter<Properties> propertiesAdapter;
+
+        private ServiceAdapter(TypeAdapter<Service> delegate, TypeAdapter<ServiceType> serviceTypeAdapter,
+                               TypeAdapter<Cluster> clusterAdapter, TypeAdapter<Port> portAdapter,
+                               TypeAdapter<Properties> propertiesAdapter) {
+            this.delegate = delegate;
+            this.serviceTypeAdapter = serviceTypeAdapter;
+            this.clusterAdapter = clusterAdapter;
+            this.portAdapter = portAdapter;
+            this.propertiesAdapter = propertiesAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, Service service) throws IOException {
+            delegate.write(out, service);
+        }
+
+        @Override
+        public Service read(JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            String serviceName = null;
+            ServiceType serviceType = null;
+            Properties properties = null;
+            List<Cluster> clusters = new ArrayList<Cluster>();
+            List<Port> ports = new ArrayList<Port>();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if ("serviceName".equals(name)) {
+                    serviceName = readString(in);
+                } else if ("serviceType".equals(name)) {
+                    serviceType = serviceTypeAdapter.read(in);
+                } else if ("clusterIdClusterMap".equals(name)) {
+                    if (readNull(in)) {
+                        continue;
+                    }
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        in.nextName();
+                        Cluster cluster = clusterAdapter.read(in);
+                        if (cluster != null) {
+                            clusters.add(cluster);
+                        }
+                    }
+                    in.endObject();
+                } else if ("portMap".equals(name)) {
+                    if (readNull(in)) {
+                        continue;
+                    }
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        in.nextName();
+                        Port port = portAdapter.read(in);
+                        if (port != null) {
+                            ports.add(port);
+                        }
+                    }
+                    in.endObject();
+                } else if ("properties".equals(name)) {
+                    properties = propertiesAdapter.read(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+
+            Service service = new Service(serviceName, serviceType);
+            for (Cluster cluster : clusters) {
+                service.addCluster(cluster);
+            }
+            service.addPorts(ports);
+            service.setProperties(properties);
+            return service;
+        }
+    }
+
+    private static class PortAdapter extends TypeAdapter<Port> {
+
+        private final TypeAdapter<Port> delegate;
+
+        private PortAdapter(TypeAdapter<Port> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(JsonWriter out, Port port) throws IOException {
+            delegate.write(out, port);
+        }
+
+        @Override
+        public Port read(JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            String protocol = null;
+            int value = 0;
+            int proxy = 0;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if ("protocol".equals(name)) {
+                    protocol = readString(in);
+                } else if ("value".equals(name)) {
+                    value = in.nextInt();
+                } else if ("proxy".equals(name)) {
+                    proxy = in.nextInt();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Port(protocol, value, proxy);
+        }
+    }
+}
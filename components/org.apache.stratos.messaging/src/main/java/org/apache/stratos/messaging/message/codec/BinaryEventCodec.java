@@ -0,0 +1,537 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.messaging.message.codec;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.domain.exception.MessagingException;
+import org.apache.stratos.messaging.event.health.stat.*;
+import org.apache.stratos.messaging.event.instance.status.InstanceActivatedEvent;
+import org.apache.stratos.messaging.event.instance.status.InstanceMaintenanceModeEvent;
+import org.apache.stratos.messaging.event.instance.status.InstanceReadyToShutdownEvent;
+import org.apache.stratos.messaging.event.instance.status.InstanceStartedEvent;
+import org.apache.stratos.messaging.event.topology.MemberCreatedEvent;
+import org.apache.stratos.messaging.event.topology.MemberInitializedEvent;
+import org.apache.stratos.messaging.event.topology.MemberMaintenanceModeEvent;
+import org.apache.stratos.messaging.event.topology.MemberReadyToShutdownEvent;
+import org.apache.stratos.messaging.event.topology.MemberStartedEvent;
+import org.apache.stratos.messaging.event.topology.MemberSuspendedEvent;
+import org.apache.stratos.messaging.event.topology.MemberTerminatedEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Compact binary codec for events having only simple fields. A binary message starts with a
+ * header consisting of a marker byte, which can never start a JSON message, the format version,
+ * the varint encoded event type id and the schema fingerprint of the event type. The header is
+ * followed by the event fields in schema order, integer fields are zigzag varint encoded.
+ * <p/>
+ * The schema of an event type is the list of its non-static, non-transient fields including the
+ * ones inherited, sorted by name. Event type ids are the positions of the event classes in
+ * {@link #EVENT_TYPES}, hence new event types must be appended to the end of the list. Messages
+ * are decoded only if the schema fingerprint matches the local event class. Event classes are
+ * required to declare a no-arg constructor, which may be private, for creating decoded events.
+ * <p/>
+ * Health stat events are published by CEP in its own JSON envelope, hence binary health stat
+ * messages are received only from Java publishers having the binary codec enabled.
+ */
+public class BinaryEventCodec {
+
+    private static final Log log = LogFactory.getLog(BinaryEventCodec.class);
+
+    private static final byte MARKER = 0x00;
+    private static final byte FORMAT_VERSION = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Do not reorder, the position of each class is its event type id
+    private static final Class[] EVENT_TYPES = {
+            AverageLoadAverageEvent.class,
+            AverageMemoryConsumptionEvent.class,
+            AverageRequestsInFlightEvent.class,
+            AverageRequestsServingCapabilityEvent.class,
+            GradientOfLoadAverageEvent.class,
+            GradientOfMemoryConsumptionEvent.class,
+            GradientOfRequestsInFlightEvent.class,
+            MemberAverageLoadAverageEvent.class,
+            MemberAverageMemoryConsumptionEvent.class,
+            MemberFaultEvent.class,
+            MemberGradientOfLoadAverageEvent.class,
+            MemberGradientOfMemoryConsumptionEvent.class,
+            MemberSecondDerivativeOfLoadAverageEvent.class,
+            MemberSecondDerivativeOfMemoryConsumptionEvent.class,
+            SecondDerivativeOfLoadAverageEvent.class,
+            SecondDerivativeOfMemoryConsumptionEvent.class,
+            SecondDerivativeOfRequestsInFlightEvent.class,
+            InstanceActivatedEvent.class,
+            InstanceMaintenanceModeEvent.class,
+            InstanceReadyToShutdownEvent.class,
+            InstanceStartedEvent.class,
+            MemberCreatedEvent.class,
+            MemberInitializedEvent.class,
+            MemberMaintenanceModeEvent.class,
+            MemberReadyToShutdownEvent.class,
+            MemberStartedEvent.class,
+            MemberSuspendedEvent.class,
+            MemberTerminatedEvent.class
+    };
+
+    private static final Map<Class, EventSchema> schemaByType = new HashMap<Class, EventSchema>();
+    private static final EventSchema[] schemaById = new EventSchema[EVENT_TYPES.length];
+
+    static {
+        for (int typeId = 0; typeId < EVENT_TYPES.length; typeId++) {
+            EventSchema schema = EventSchema.create(typeId, EVENT_TYPES[typeId]);
+            if (schema != null) {
+                schemaById[typeId] = schema;
+                schemaByType.put(EVENT_TYPES[typeId], schema);
+            }
+        }
+    }
+
+    private BinaryEventCodec() {
+    }
+
+    /**
+     * Returns true if events of the given type can be binary encoded.
+     *
+     * @param type event class
+     * @return true if the event type is supported
+     */
+    public static boolean canEncode(Class type) {
+        return schemaByType.containsKey(type);
+    }
+
+    /**
+     * Returns true if the given message payload is binary encoded.
+     *
+     * @param payload message payload
+     * @return true if the payload starts with the binary message marker
+     */
+    public static boolean isBinary(byte[] payload) {
+        return (payload != null) && (payload.length > 1) && (payload[0] == MARKER);
+    }
+
+    /**
+     * Encode an event.
+     *
+     * @param event event to be encoded
+     * @return binary message
+     * @throws MessagingException if the event type is not supported or a field value cannot be encoded
+     */
+    public static byte[] encode(Object event) {
+        EventSchema schema = schemaByType.get(event.getClass());
+        if (schema == null) {
+            throw new MessagingException("Event type is not supported by binary codec: " +
+                    event.getClass().getName());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(MARKER);
+        out.write(FORMAT_VERSION);
+        writeVarint(out, schema.typeId);
+        writeInt(out, schema.fingerprint);
+        try {
+            for (int i = 0; i < schema.fields.length; i++) {
+                writeField(out, schema.kinds[i], schema.fields[i].get(event));
+            }
+        } catch (IllegalAccessException e) {
+            throw new MessagingException("Could not encode event: " + event.getClass().getName(), e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a binary message.
+     *
+     * @param payload binary message
+     * @return event
+     * @throws MessagingException if the message cannot be decoded
+     */
+    public static Object decode(byte[] payload) {
+        if (!isBinary(payload)) {
+            throw new MessagingException("Message is not binary encoded");
+        }
+        Reader in = new Reader(payload, 1);
+        int formatVersion = in.readByte();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new MessagingException("Unknown binary message format version: " + formatVersion);
+        }
+        int typeId = (int) in.readVarint();
+        EventSchema schema = ((typeId >= 0) && (typeId < schemaById.length)) ? schemaById[typeId] : null;
+        if (schema == null) {
+            throw new MessagingException("Unknown binary message event type id: " + typeId);
+        }
+        int fingerprint = in.readInt();
+        if (fingerprint != schema.fingerprint) {
+            throw new MessagingException(String.format("Binary message schema does not match local event " +
+                    "class: [event-type] %s", schema.type.getName()));
+        }
+
+        try {
+            Object event = schema.newInstance();
+            for (int i = 0; i < schema.fields.length; i++) {
+                schema.fields[i].set(event, readField(in, schema.kinds[i], schema.fields[i].getType()));
+            }
+            return event;
+        } catch (MessagingException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MessagingException("Could not decode binary message: [event-type] " +
+                    schema.type.getName(), e);
+        }
+    }
+
+    private static void writeField(ByteArrayOutputStream out, FieldKind kind, Object value) {
+        if (kind.nullable) {
+            if (value == null) {
+                out.write(0);
+                return;
+            }
+            out.write(1);
+        }
+
+        switch (kind) {
+            case BOOLEAN:
+            case BOOLEAN_OBJECT:
+                out.write(((Boolean) value) ? 1 : 0);
+                break;
+            case BYTE:
+            case BYTE_OBJECT:
+            case SHORT:
+            case SHORT_OBJECT:
+            case INT:
+            case INT_OBJECT:
+            case LONG:
+            case LONG_OBJECT:
+                writeVarint(out, zigzag(((Number) value).longValue()));
+                break;
+            case CHAR:
+            case CHAR_OBJECT:
+                writeVarint(out, (Character) value);
+                break;
+            case FLOAT:
+            case FLOAT_OBJECT:
+                writeInt(out, Float.floatToIntBits((Float) value));
+                break;
+            case DOUBLE:
+            case DOUBLE_OBJECT:
+                long bits = Double.doubleToLongBits((Double) value);
+                writeInt(out, (int) (bits >>> 32));
+                writeInt(out, (int) bits);
+                break;
+            case STRING:
+                writeString(out, (String) value);
+                break;
+            case ENUM:
+                writeString(out, ((Enum) value).name());
+                break;
+            case STRING_LIST:
+                List list = (List) value;
+                writeVarint(out, list.size());
+                for (Object item : list) {
+                    if ((item != null) && !(item instanceof String)) {
+                        throw new MessagingException("Could not encode non string list item: " + item);
+                    }
+                    writeNullableString(out, (String) item);
+                }
+                break;
+            case PROPERTIES:
+                Properties properties = (Properties) value;
+                writeVarint(out, properties.size());
+                for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+                    if (!(entry.getKey() instanceof String) || !(entry.getValue() instanceof String)) {
+                        throw new MessagingException("Could not encode non string property: " + entry.getKey());
+                    }
+                    writeString(out, (String) entry.getKey());
+                    writeString(out, (String) entry.getValue());
+                }
+                break;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object readField(Reader in, FieldKind kind, Class type) {
+        if (kind.nullable && (in.readByte() == 0)) {
+            return null;
+        }
+
+        switch (kind) {
+            case BOOLEAN:
+            case BOOLEAN_OBJECT:
+                return in.readByte() != 0;
+            case BYTE:
+            case BYTE_OBJECT:
+                return (byte) unzigzag(in.readVarint());
+            case SHORT:
+            case SHORT_OBJECT:
+                return (short) unzigzag(in.readVarint());
+            case INT:
+            case INT_OBJECT:
+                return (int) unzigzag(in.readVarint());
+            case LONG:
+            case LONG_OBJECT:
+                return unzigzag(in.readVarint());
+            case CHAR:
+            case CHAR_OBJECT:
+                return (char) in.readVarint();
+            case FLOAT:
+            case FLOAT_OBJECT:
+                return Float.intBitsToFloat(in.readInt());
+            case DOUBLE:
+            case DOUBLE_OBJECT:
+                long high = in.readInt() & 0xFFFFFFFFL;
+                long low = in.readInt() & 0xFFFFFFFFL;
+                return Double.longBitsToDouble((high << 32) | low);
+            case STRING:
+                return in.readString();
+            case ENUM:
+                return Enum.valueOf(type, in.readString());
+            case STRING_LIST:
+                int size = (int) in.readVarint();
+                List<String> list = new ArrayList<String>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(in.readNullableString());
+                }
+                return list;
+            case PROPERTIES:
+                int count = (int) in.readVarint();
+                Properties properties = new Properties();
+                for (int i = 0; i < count; i++) {
+                    String key = in.readString();
+                    properties.setProperty(key, in.readString());
+                }
+                return properties;
+            default:
+                throw new MessagingException("Unknown field kind: " + kind);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeNullableString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            out.write(0);
+        } else {
+            out.write(1);
+            writeString(out, value);
+        }
+    }
+
+    /**
+     * Kinds of fields supported by the codec, nullable kinds are prefixed with a presence byte.
+     */
+    private static enum FieldKind {
+        BOOLEAN(false, boolean.class), BYTE(false, byte.class), SHORT(false, short.class),
+        CHAR(false, char.class), INT(false, int.class), LONG(false, long.class), FLOAT(false, float.class),
+        DOUBLE(false, double.class), BOOLEAN_OBJECT(true, Boolean.class), BYTE_OBJECT(true, Byte.class),
+        SHORT_OBJECT(true, Short.class), CHAR_OBJECT(true, Character.class), INT_OBJECT(true, Integer.class),
+        LONG_OBJECT(true, Long.class), FLOAT_OBJECT(true, Float.class), DOUBLE_OBJECT(true, Double.class),
+        STRING(true, String.class), ENUM(true, Enum.class), STRING_LIST(true, List.class),
+        PROPERTIES(true, Properties.class);
+
+        private static final Map<Class, FieldKind> kindByType = new HashMap<Class, FieldKind>();
+
+        static {
+            for (FieldKind kind : values()) {
+                kindByType.put(kind.type, kind);
+            }
+        }
+
+        private final boolean nullable;
+        private final Class type;
+
+        FieldKind(boolean nullable, Class type) {
+            this.nullable = nullable;
+            this.type = type;
+        }
+
+        private static FieldKind of(Field field) {
+            Class<?> type = field.getType();
+            if (type.isEnum()) {
+                return ENUM;
+            }
+            if (type == List.class) {
+                // Only lists of strings are supported
+                Type genericType = field.getGenericType();
+                if ((genericType instanceof ParameterizedType) &&
+                        (((ParameterizedType) genericType).getActualTypeArguments()[0] == String.class)) {
+                    return STRING_LIST;
+                }
+                return null;
+            }
+            return kindByType.get(type);
+        }
+    }
+
+    private static class EventSchema {
+        private final int typeId;
+        private final Class type;
+        private final Field[] fields;
+        private final FieldKind[] kinds;
+        private final int fingerprint;
+        private final Constructor defaultConstructor;
+
+        private EventSchema(int typeId, Class type, Field[] fields, FieldKind[] kinds, int fingerprint,
+                            Constructor defaultConstructor) {
+            this.typeId = typeId;
+            this.type = type;
+            this.fields = fields;
+            this.kinds = kinds;
+            this.fingerprint = fingerprint;
+            this.defaultConstructor = defaultConstructor;
+        }
+
+        private static EventSchema create(int typeId, Class type) {
+            List<Field> fieldList = new ArrayList<Field>();
+            for (Class current = type; current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+                        fieldList.add(field);
+                    }
+                }
+            }
+            Collections.sort(fieldList, new Comparator<Field>() {
+                @Override
+                public int compare(Field field1, Field field2) {
+                    int result = field1.getName().compareTo(field2.getName());
+                    return (result != 0) ? result :
+                            field1.getDeclaringClass().getName().compareTo(field2.getDeclaringClass().getName());
+                }
+            });
+
+            Field[] fields = fieldList.toArray(new Field[fieldList.size()]);
+            FieldKind[] kinds = new FieldKind[fields.length];
+            StringBuilder description = new StringBuilder(type.getName());
+            for (int i = 0; i < fields.length; i++) {
+                kinds[i] = FieldKind.of(fields[i]);
+                if (kinds[i] == null) {
+                    log.warn(String.format("Event type is not supported by binary codec, field type is not " +
+                            "supported: [event-type] %s [field] %s", type.getName(), fields[i].getName()));
+                    return null;
+                }
+                fields[i].setAccessible(true);
+                description.append(';').append(fields[i].getName()).append(':').append(kinds[i]);
+            }
+
+            Constructor defaultConstructor;
+            try {
+                defaultConstructor = type.getDeclaredConstructor();
+                defaultConstructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                log.warn(String.format("Event type is not supported by binary codec, event class does not " +
+                        "have a no-arg constructor: [event-type] %s", type.getName()));
+                return null;
+            }
+            return new EventSchema(typeId, type, fields, kinds, description.toString().hashCode(),
+                    defaultConstructor);
+        }
+
+        private Object newInstance() throws Exception {
+            return defaultConstructor.newInstance();
+        }
+    }
+
+    private static class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        private Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        private int readByte() {
+            if (position >= buffer.length) {
+                throw new MessagingException("Unexpected end of binary message");
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        private long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new MessagingException("Malformed varint in binary message");
+        }
+
+        private int readInt() {
+            return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+        }
+
+        private String readString() {
+            int length = (int) readVarint();
+            if ((length < 0) || (position + length > buffer.length)) {
+                throw new MessagingException("Unexpected end of binary message");
+            }
+            String value = new String(buffer, position, length, UTF_8);
+            position += length;
+            return value;
+        }
+
+        private String readNullableString() {
+            return (readByte() == 0) ? null : readString();
+        }
+    }
+}
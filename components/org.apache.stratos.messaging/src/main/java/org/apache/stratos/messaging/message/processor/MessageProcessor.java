@@ -19,6 +19,7 @@
 
 package org.apache.stratos.messaging.message.processor;
 
+import org.apache.stratos.messaging.domain.Message;
 import org.apache.stratos.messaging.event.EventObservable;
 
 /**
@@ -33,6 +34,16 @@ public abstract class MessageProcessor extends EventObservable {
      */
     public abstract void setNext(MessageProcessor nextProcessor);
 
+    /**
+     * Returns the class name of the event handled by this message processor. Message processor chains
+     * use it for dispatching messages directly to the matching processor without walking the chain.
+     *
+     * @return event class name or null if the processor does not declare the event it handles
+     */
+    public String getEventType() {
+        return null;
+    }
+
     /**
      * Message processing and delegating logic.
      *
@@ -42,4 +53,17 @@ public abstract class MessageProcessor extends EventObservable {
      * @return whether the processing was successful or not.
      */
     public abstract boolean process(String type, String message, Object object);
+
+    /**
+     * Message processing and delegating logic for messages received from the message broker.
+     * Processors of large messages may override this to decode the message payload directly.
+     *
+     * @param type    type of the message.
+     * @param message message received.
+     * @param object  Object that will get updated.
+     * @return whether the processing was successful or not.
+     */
+    public boolean process(String type, Message message, Object object) {
+        return process(type, message.getText(), object);
+    }
 }
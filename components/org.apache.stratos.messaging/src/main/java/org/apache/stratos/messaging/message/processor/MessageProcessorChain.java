@@ -19,19 +19,32 @@
 
 package org.apache.stratos.messaging.message.processor;
 
+import org.apache.stratos.messaging.domain.Message;
 import org.apache.stratos.messaging.listener.EventListener;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Message processor chain definition.
+ * Message processors declaring the event type they handle are indexed by event type, messages
+ * of those types are dispatched directly to the matching processor. Messages of any other type
+ * are passed through the chain starting from the first processor. Processors added after a
+ * processor which does not declare its event type are not indexed, since that processor may
+ * handle their messages while walking the chain.
  */
 public abstract class MessageProcessorChain {
 
     private LinkedList<MessageProcessor> list;
+    private Map<String, MessageProcessor> eventTypeProcessorMap;
+    private boolean untypedProcessorAdded;
 
     public MessageProcessorChain() {
         list = new LinkedList<MessageProcessor>();
+        eventTypeProcessorMap = new HashMap<String, MessageProcessor>();
         initialize();
     }
 
@@ -46,20 +59,69 @@ public abstract class MessageProcessorChain {
             list.getLast().setNext(messageProcessor);
         }
         list.add(messageProcessor);
+
+        indexEventType(messageProcessor);
     }
 
     public void removeLast() {
-        list.removeLast();
+        MessageProcessor messageProcessor = list.removeLast();
         if (list.size() > 0) {
             list.getLast().setNext(null);
         }
+
+        untypedProcessorAdded = false;
+        eventTypeProcessorMap.clear();
+        for (MessageProcessor processor : list) {
+            indexEventType(processor);
+        }
+    }
+
+    private void indexEventType(MessageProcessor messageProcessor) {
+        if (untypedProcessorAdded) {
+            return;
+        }
+        String eventType = messageProcessor.getEventType();
+        if (eventType == null) {
+            // Messages of any type may be handled by this processor, walk the chain from now on
+            untypedProcessorAdded = true;
+        } else if (!eventTypeProcessorMap.containsKey(eventType)) {
+            // First processor in the chain handles the event, same as walking the chain
+            eventTypeProcessorMap.put(eventType, messageProcessor);
+        }
+    }
+
+    /**
+     * Returns the message processors of the chain in the order messages are passed through them.
+     */
+    List<MessageProcessor> getMessageProcessors() {
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Returns the message processor messages of the given event type are dispatched to directly.
+     */
+    MessageProcessor getEventTypeProcessor(String eventType) {
+        return eventTypeProcessorMap.get(eventType);
     }
 
     public boolean process(String type, String message, Object object) {
+        MessageProcessor messageProcessor = eventTypeProcessorMap.get(type);
+        if (messageProcessor != null) {
+            return messageProcessor.process(type, message, object);
+        }
+
         MessageProcessor root = list.getFirst();
         if (root == null) {
             throw new RuntimeException("Message processor chain is not initialized");
         }
         return root.process(type, message, object);
     }
+
+    public boolean process(String type, Message message, Object object) {
+        MessageProcessor messageProcessor = eventTypeProcessorMap.get(type);
+        if (messageProcessor != null) {
+            return messageProcessor.process(type, message, object);
+        }
+        return process(type, message.getText(), object);
+    }
 }
@@ -37,6 +37,11 @@ public class ApplicationCreatedMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ApplicationCreatedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         Applications applications = (Applications) object;
@@ -37,6 +37,11 @@ public class ApplicationDeletedMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ApplicationDeletedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         Applications applications = (Applications) object;
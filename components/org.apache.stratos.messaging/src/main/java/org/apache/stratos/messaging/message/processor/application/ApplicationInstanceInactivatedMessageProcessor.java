@@ -42,6 +42,11 @@ public class ApplicationInstanceInactivatedMessageProcessor extends MessageProce
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ApplicationInstanceInactivatedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         Applications applications = (Applications) object;
@@ -41,6 +41,11 @@ public class ApplicationInstanceTerminatedMessageProcessor extends MessageProces
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ApplicationInstanceTerminatedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         Applications applications = (Applications) object;
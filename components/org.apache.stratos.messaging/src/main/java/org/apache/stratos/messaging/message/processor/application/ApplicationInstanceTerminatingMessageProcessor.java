@@ -42,6 +42,11 @@ public class ApplicationInstanceTerminatingMessageProcessor extends MessageProce
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ApplicationInstanceTerminatingEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         Applications applications = (Applications) object;
@@ -20,6 +20,7 @@ package org.apache.stratos.messaging.message.processor.application;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.domain.Message;
 import org.apache.stratos.messaging.domain.application.Application;
 import org.apache.stratos.messaging.domain.application.Applications;
 import org.apache.stratos.messaging.event.application.CompleteApplicationsEvent;
@@ -39,28 +40,27 @@ public class CompleteApplicationsMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return CompleteApplicationsEvent.class.getName();
+    }
+
+    @Override
+    public boolean process(String type, Message message, Object object) {
+        if (CompleteApplicationsEvent.class.getName().equals(type) && (message.getPayload() != null) &&
+                !message.isBinary()) {
+            // Decode the event directly from the message payload
+            return processCompleteApplications(null, message.getPayload(), (Applications) object);
+        }
+        return super.process(type, message, object);
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         Applications applications = (Applications) object;
 
         if (CompleteApplicationsEvent.class.getName().equals(type)) {
-            // Parse complete message and build event
-            CompleteApplicationsEvent event = (CompleteApplicationsEvent) MessagingUtil.
-                    jsonToObject(message, CompleteApplicationsEvent.class);
-
-            if (!applications.isInitialized()) {
-                ApplicationsUpdater.acquireWriteLockForApplications();
-                try {
-                    doProcess(event, applications);
-                } finally {
-                    ApplicationsUpdater.releaseWriteLockForApplications();
-                }
-            }
-
-            // Notify event listeners
-            notifyEventListeners(event);
-            return true;
-
+            return processCompleteApplications(message, null, applications);
         } else {
             if (nextProcessor != null) {
                 // ask the next processor to take care of the message.
@@ -70,6 +70,31 @@ public class CompleteApplicationsMessageProcessor extends MessageProcessor {
         }
     }
 
+    private boolean processCompleteApplications(String json, byte[] payload, Applications applications) {
+        if (applications.isInitialized() && (countObservers() == 0)) {
+            // Applications are already initialized and there is no one to notify, skip parsing the message
+            return true;
+        }
+
+        // Parse complete message and build event
+        CompleteApplicationsEvent event = (CompleteApplicationsEvent) ((payload != null) ?
+                MessagingUtil.jsonToObject(payload, CompleteApplicationsEvent.class) :
+                MessagingUtil.jsonToObject(json, CompleteApplicationsEvent.class));
+
+        if (!applications.isInitialized()) {
+            ApplicationsUpdater.acquireWriteLockForApplications();
+            try {
+                doProcess(event, applications);
+            } finally {
+                ApplicationsUpdater.releaseWriteLockForApplications();
+            }
+        }
+
+        // Notify event listeners
+        notifyEventListeners(event);
+        return true;
+    }
+
     private void doProcess(CompleteApplicationsEvent event, Applications applications) {
         // add existing Applications to Topology
         Collection<Application> applicationsList = event.getApplications().getApplications().values();
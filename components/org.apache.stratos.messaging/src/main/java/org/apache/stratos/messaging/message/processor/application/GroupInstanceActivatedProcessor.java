@@ -42,6 +42,11 @@ public class GroupInstanceActivatedProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return GroupInstanceActivatedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         Applications applications = (Applications) object;
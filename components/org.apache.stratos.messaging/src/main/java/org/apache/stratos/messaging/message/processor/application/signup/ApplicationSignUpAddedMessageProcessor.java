@@ -41,6 +41,11 @@ public class ApplicationSignUpAddedMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ApplicationSignUpAddedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
 
@@ -41,6 +41,11 @@ public class ApplicationSignUpRemovedMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ApplicationSignUpRemovedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
 
@@ -44,6 +44,11 @@ public class CompleteApplicationSignUpsMessageProcessor extends MessageProcessor
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return CompleteApplicationSignUpsEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
 
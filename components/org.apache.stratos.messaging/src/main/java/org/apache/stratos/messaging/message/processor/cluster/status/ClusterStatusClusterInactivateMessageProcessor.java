@@ -33,6 +33,11 @@ public class ClusterStatusClusterInactivateMessageProcessor extends MessageProce
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ClusterStatusClusterInactivateEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (ClusterStatusClusterInactivateEvent.class.getName().equals(type)) {
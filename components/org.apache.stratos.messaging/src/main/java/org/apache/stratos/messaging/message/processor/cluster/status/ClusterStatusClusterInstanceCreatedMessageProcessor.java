@@ -33,6 +33,11 @@ public class ClusterStatusClusterInstanceCreatedMessageProcessor extends Message
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ClusterStatusClusterInstanceCreatedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (ClusterStatusClusterInstanceCreatedEvent.class.getName().equals(type)) {
@@ -33,6 +33,11 @@ public class ClusterStatusClusterResetMessageProcessor extends MessageProcessor
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ClusterStatusClusterResetEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (ClusterStatusClusterResetEvent.class.getName().equals(type)) {
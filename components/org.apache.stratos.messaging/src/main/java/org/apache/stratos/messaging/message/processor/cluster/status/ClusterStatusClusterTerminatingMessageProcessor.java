@@ -33,6 +33,11 @@ public class ClusterStatusClusterTerminatingMessageProcessor extends MessageProc
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ClusterStatusClusterTerminatingEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (ClusterStatusClusterTerminatingEvent.class.getName().equals(type)) {
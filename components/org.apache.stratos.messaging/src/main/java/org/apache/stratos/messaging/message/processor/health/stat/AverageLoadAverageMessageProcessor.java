@@ -28,7 +28,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Processes event that is fired by Event processing engine to send average of Load average
  */
-public class AverageLoadAverageMessageProcessor extends MessageProcessor {
+public class AverageLoadAverageMessageProcessor extends HealthStatMessageProcessor {
 
     private static final Log log = LogFactory.getLog(AverageLoadAverageMessageProcessor.class);
 
@@ -39,6 +39,11 @@ public class AverageLoadAverageMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return AverageLoadAverageEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (AverageLoadAverageEvent.class.getName().equals(type)) {
@@ -28,7 +28,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Processes event that is fired by Event processing engine to send average of memory consumption
  */
-public class AverageMemoryConsumptionMessageProcessor extends MessageProcessor {
+public class AverageMemoryConsumptionMessageProcessor extends HealthStatMessageProcessor {
 
     private static final Log log = LogFactory.getLog(AverageMemoryConsumptionMessageProcessor.class);
 
@@ -39,6 +39,11 @@ public class AverageMemoryConsumptionMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return AverageMemoryConsumptionEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (AverageMemoryConsumptionEvent.class.getName().equals(type)) {
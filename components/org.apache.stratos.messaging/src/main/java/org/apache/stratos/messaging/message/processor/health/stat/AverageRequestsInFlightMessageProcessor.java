@@ -28,7 +28,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Processes event that is fired by Event processing engine to send average of requests in flight
  */
-public class AverageRequestsInFlightMessageProcessor extends MessageProcessor {
+public class AverageRequestsInFlightMessageProcessor extends HealthStatMessageProcessor {
 
     private static final Log log = LogFactory.getLog(AverageRequestsInFlightMessageProcessor.class);
 
@@ -39,6 +39,11 @@ public class AverageRequestsInFlightMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return AverageRequestsInFlightEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (AverageRequestsInFlightEvent.class.getName().equals(type)) {
@@ -27,7 +27,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Average Requests Serving Capability Message Processor
  */
-public class AverageRequestsServingCapabilityMessageProcessor extends MessageProcessor {
+public class AverageRequestsServingCapabilityMessageProcessor extends HealthStatMessageProcessor {
     private static final Log log = LogFactory.getLog(AverageRequestsServingCapabilityMessageProcessor.class);
 
     private MessageProcessor nextProcessor;
@@ -37,6 +37,11 @@ public class AverageRequestsServingCapabilityMessageProcessor extends MessagePro
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return AverageRequestsServingCapabilityEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (AverageRequestsServingCapabilityEvent.class.getName().equals(type)) {
@@ -28,7 +28,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Processes event that is fired by Event processing engine to send gradient of Load average
  */
-public class GradientOfLoadAverageMessageProcessor extends MessageProcessor {
+public class GradientOfLoadAverageMessageProcessor extends HealthStatMessageProcessor {
 
     private static final Log log = LogFactory.getLog(GradientOfLoadAverageMessageProcessor.class);
 
@@ -39,6 +39,11 @@ public class GradientOfLoadAverageMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return GradientOfLoadAverageEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (GradientOfLoadAverageEvent.class.getName().equals(type)) {
@@ -28,7 +28,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Processes event that is fired by Event processing engine to send gradient of  memory consumption
  */
-public class GradientOfMemoryConsumptionMessageProcessor extends MessageProcessor {
+public class GradientOfMemoryConsumptionMessageProcessor extends HealthStatMessageProcessor {
     private static final Log log = LogFactory.getLog(GradientOfMemoryConsumptionMessageProcessor.class);
 
     private MessageProcessor nextProcessor;
@@ -38,6 +38,11 @@ public class GradientOfMemoryConsumptionMessageProcessor extends MessageProcesso
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return GradientOfMemoryConsumptionEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (GradientOfMemoryConsumptionEvent.class.getName().equals(type)) {
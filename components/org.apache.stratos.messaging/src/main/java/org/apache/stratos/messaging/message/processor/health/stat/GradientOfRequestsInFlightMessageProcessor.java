@@ -28,7 +28,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Processes event that is fired by Event processing engine to send gradient of requests in flight
  */
-public class GradientOfRequestsInFlightMessageProcessor extends MessageProcessor {
+public class GradientOfRequestsInFlightMessageProcessor extends HealthStatMessageProcessor {
     private static final Log log = LogFactory.getLog(GradientOfRequestsInFlightMessageProcessor.class);
 
     private MessageProcessor nextProcessor;
@@ -38,6 +38,11 @@ public class GradientOfRequestsInFlightMessageProcessor extends MessageProcessor
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return GradientOfRequestsInFlightEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (GradientOfRequestsInFlightEvent.class.getName().equals(type)) {
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.processor.health.stat;
+
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.event.Event;
+import org.apache.stratos.messaging.message.processor.MessageProcessor;
+
+/**
+ * Health stat message processor definition. Binary encoded messages of the event type handled
+ * by the processor are passed to event listeners without converting them to JSON.
+ */
+public abstract class HealthStatMessageProcessor extends MessageProcessor {
+
+    @Override
+    public boolean process(String type, Message message, Object object) {
+        if (message.isBinary() && type.equals(getEventType())) {
+            // Use the event decoded from the binary message
+            notifyEventListeners((Event) message.getEvent());
+            return true;
+        }
+        return super.process(type, message, object);
+    }
+}
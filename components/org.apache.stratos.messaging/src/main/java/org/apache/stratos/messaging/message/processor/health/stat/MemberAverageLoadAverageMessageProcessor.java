@@ -28,7 +28,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Processes event that is fired by Event processing engine to send average of Load average
  */
-public class MemberAverageLoadAverageMessageProcessor extends MessageProcessor {
+public class MemberAverageLoadAverageMessageProcessor extends HealthStatMessageProcessor {
     private static final Log log = LogFactory.getLog(MemberAverageLoadAverageMessageProcessor.class);
 
     private MessageProcessor nextProcessor;
@@ -38,6 +38,11 @@ public class MemberAverageLoadAverageMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return MemberAverageLoadAverageEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (MemberAverageLoadAverageEvent.class.getName().equals(type)) {
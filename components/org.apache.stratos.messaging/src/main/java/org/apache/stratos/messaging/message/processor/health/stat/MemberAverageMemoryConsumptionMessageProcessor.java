@@ -28,7 +28,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Processes event that is fired by Event processing engine to send average of memory consumption
  */
-public class MemberAverageMemoryConsumptionMessageProcessor extends MessageProcessor {
+public class MemberAverageMemoryConsumptionMessageProcessor extends HealthStatMessageProcessor {
     private static final Log log = LogFactory.getLog(MemberAverageMemoryConsumptionMessageProcessor.class);
 
     private MessageProcessor nextProcessor;
@@ -38,6 +38,11 @@ public class MemberAverageMemoryConsumptionMessageProcessor extends MessageProce
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return MemberAverageMemoryConsumptionEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (MemberAverageMemoryConsumptionEvent.class.getName().equals(type)) {
@@ -28,7 +28,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Processes event that is fired by Event processing engine to send member fault event
  */
-public class MemberFaultMessageProcessor extends MessageProcessor {
+public class MemberFaultMessageProcessor extends HealthStatMessageProcessor {
     private static final Log log = LogFactory.getLog(MemberFaultMessageProcessor.class);
 
     private MessageProcessor nextProcessor;
@@ -38,6 +38,11 @@ public class MemberFaultMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return MemberFaultEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (MemberFaultEvent.class.getName().equals(type)) {
@@ -28,7 +28,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Processes event that is fired by Event processing engine to send gradient of Load average
  */
-public class MemberGradientOfLoadAverageMessageProcessor extends MessageProcessor {
+public class MemberGradientOfLoadAverageMessageProcessor extends HealthStatMessageProcessor {
     private static final Log log = LogFactory.getLog(MemberGradientOfLoadAverageMessageProcessor.class);
 
     private MessageProcessor nextProcessor;
@@ -38,6 +38,11 @@ public class MemberGradientOfLoadAverageMessageProcessor extends MessageProcesso
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return MemberGradientOfLoadAverageEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (MemberGradientOfLoadAverageEvent.class.getName().equals(type)) {
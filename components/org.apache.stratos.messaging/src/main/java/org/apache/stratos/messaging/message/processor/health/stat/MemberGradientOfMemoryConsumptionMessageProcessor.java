@@ -28,7 +28,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Processes event that is fired by Event processing engine to send gradient of  memory consumption
  */
-public class MemberGradientOfMemoryConsumptionMessageProcessor extends MessageProcessor {
+public class MemberGradientOfMemoryConsumptionMessageProcessor extends HealthStatMessageProcessor {
 
     private static final Log log = LogFactory.getLog(MemberGradientOfMemoryConsumptionMessageProcessor.class);
 
@@ -39,6 +39,11 @@ public class MemberGradientOfMemoryConsumptionMessageProcessor extends MessagePr
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return MemberGradientOfMemoryConsumptionEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (MemberGradientOfMemoryConsumptionEvent.class.getName().equals(type)) {
@@ -28,7 +28,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Processes event that is fired by Event processing engine to send second derivative of Load average
  */
-public class MemberSecondDerivativeOfLoadAverageMessageProcessor extends MessageProcessor {
+public class MemberSecondDerivativeOfLoadAverageMessageProcessor extends HealthStatMessageProcessor {
     private static final Log log = LogFactory.getLog(MemberSecondDerivativeOfLoadAverageMessageProcessor.class);
 
     private MessageProcessor nextProcessor;
@@ -38,6 +38,11 @@ public class MemberSecondDerivativeOfLoadAverageMessageProcessor extends Message
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return MemberSecondDerivativeOfLoadAverageEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (MemberSecondDerivativeOfLoadAverageEvent.class.getName().equals(type)) {
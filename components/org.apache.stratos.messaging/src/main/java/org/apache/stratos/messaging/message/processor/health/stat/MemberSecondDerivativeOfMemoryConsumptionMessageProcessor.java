@@ -28,7 +28,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Processes event that is fired by Event processing engine to send second derivative of memory consumption
  */
-public class MemberSecondDerivativeOfMemoryConsumptionMessageProcessor extends MessageProcessor {
+public class MemberSecondDerivativeOfMemoryConsumptionMessageProcessor extends HealthStatMessageProcessor {
     private static final Log log = LogFactory.getLog(MemberSecondDerivativeOfMemoryConsumptionMessageProcessor.class);
 
     private MessageProcessor nextProcessor;
@@ -38,6 +38,11 @@ public class MemberSecondDerivativeOfMemoryConsumptionMessageProcessor extends M
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return MemberSecondDerivativeOfMemoryConsumptionEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (MemberSecondDerivativeOfMemoryConsumptionEvent.class.getName().equals(type)) {
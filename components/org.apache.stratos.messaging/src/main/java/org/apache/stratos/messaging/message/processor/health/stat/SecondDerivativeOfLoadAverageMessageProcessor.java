@@ -28,7 +28,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Processes event that is fired by Event processing engine to send second derivative of Load average
  */
-public class SecondDerivativeOfLoadAverageMessageProcessor extends MessageProcessor {
+public class SecondDerivativeOfLoadAverageMessageProcessor extends HealthStatMessageProcessor {
     private static final Log log = LogFactory.getLog(SecondDerivativeOfLoadAverageMessageProcessor.class);
 
     private MessageProcessor nextProcessor;
@@ -38,6 +38,11 @@ public class SecondDerivativeOfLoadAverageMessageProcessor extends MessageProces
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return SecondDerivativeOfLoadAverageEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (SecondDerivativeOfLoadAverageEvent.class.getName().equals(type)) {
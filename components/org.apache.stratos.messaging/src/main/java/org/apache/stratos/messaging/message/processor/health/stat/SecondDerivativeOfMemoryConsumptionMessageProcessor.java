@@ -28,7 +28,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Processes event that is fired by Event processing engine to send second derivative of memory consumption
  */
-public class SecondDerivativeOfMemoryConsumptionMessageProcessor extends MessageProcessor {
+public class SecondDerivativeOfMemoryConsumptionMessageProcessor extends HealthStatMessageProcessor {
     private static final Log log = LogFactory.getLog(SecondDerivativeOfMemoryConsumptionMessageProcessor.class);
 
     private MessageProcessor nextProcessor;
@@ -38,6 +38,11 @@ public class SecondDerivativeOfMemoryConsumptionMessageProcessor extends Message
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return SecondDerivativeOfMemoryConsumptionEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (SecondDerivativeOfMemoryConsumptionEvent.class.getName().equals(type)) {
@@ -28,7 +28,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 /**
  * Processes event that is fired by Event processing engine to send second derivative of requests in flight
  */
-public class SecondDerivativeOfRequestsInFlightMessageProcessor extends MessageProcessor {
+public class SecondDerivativeOfRequestsInFlightMessageProcessor extends HealthStatMessageProcessor {
     private static final Log log = LogFactory.getLog(SecondDerivativeOfRequestsInFlightMessageProcessor.class);
 
     private MessageProcessor nextProcessor;
@@ -38,6 +38,11 @@ public class SecondDerivativeOfRequestsInFlightMessageProcessor extends MessageP
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return SecondDerivativeOfRequestsInFlightEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (SecondDerivativeOfRequestsInFlightEvent.class.getName().equals(type)) {
@@ -30,6 +30,11 @@ public class CompleteApplicationSignUpsRequestMessageProcessor extends MessagePr
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return CompleteApplicationSignUpsRequestEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (CompleteApplicationSignUpsRequestEvent.class.getName().equals(type)) {
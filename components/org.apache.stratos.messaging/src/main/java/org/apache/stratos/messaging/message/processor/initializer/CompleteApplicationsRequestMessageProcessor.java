@@ -30,6 +30,11 @@ public class CompleteApplicationsRequestMessageProcessor extends MessageProcesso
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return CompleteApplicationsRequestEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (CompleteApplicationsRequestEvent.class.getName().equals(type)) {
@@ -30,6 +30,11 @@ public class CompleteTenantRequestMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return CompleteTenantRequestEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (CompleteTenantRequestEvent.class.getName().equals(type)) {
@@ -35,6 +35,11 @@ public class InstanceStatusMemberStartedMessageProcessor extends MessageProcesso
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return InstanceStartedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (InstanceStartedEvent.class.getName().equals(type)) {
@@ -41,6 +41,11 @@ public class CompleteTenantMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return CompleteTenantEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (CompleteTenantEvent.class.getName().equals(type)) {
@@ -41,6 +41,11 @@ public class TenantCreatedMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return TenantCreatedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (TenantCreatedEvent.class.getName().equals(type)) {
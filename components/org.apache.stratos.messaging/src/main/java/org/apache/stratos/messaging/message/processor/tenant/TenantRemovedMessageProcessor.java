@@ -42,6 +42,11 @@ public class TenantRemovedMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return TenantRemovedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (TenantRemovedEvent.class.getName().equals(type)) {
@@ -42,6 +42,11 @@ public class TenantUpdatedMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return TenantUpdatedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (TenantUpdatedEvent.class.getName().equals(type)) {
@@ -29,6 +29,7 @@ import org.apache.stratos.messaging.message.filter.topology.TopologyClusterFilte
 import org.apache.stratos.messaging.message.filter.topology.TopologyServiceFilter;
 import org.apache.stratos.messaging.message.processor.MessageProcessor;
 import org.apache.stratos.messaging.message.processor.topology.updater.TopologyUpdater;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
 import java.util.List;
@@ -45,6 +46,11 @@ public class ApplicationClustersCreatedMessageProcessor extends MessageProcessor
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ApplicationClustersCreatedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         Topology topology = (Topology) object;
@@ -119,6 +125,7 @@ public class ApplicationClustersCreatedMessageProcessor extends MessageProcessor
                         log.info(String.format("Cluster created: %s",
                                 cluster.toString()));
                     }
+                    TopologyManager.updateTopologySnapshot(serviceName, clusterId);
                 }
 
             } finally {
@@ -27,6 +27,7 @@ import org.apache.stratos.messaging.domain.topology.Topology;
 import org.apache.stratos.messaging.event.topology.ApplicationClustersRemovedEvent;
 import org.apache.stratos.messaging.message.processor.MessageProcessor;
 import org.apache.stratos.messaging.message.processor.topology.updater.TopologyUpdater;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
 import java.util.Set;
@@ -41,6 +42,11 @@ public class ApplicationClustersRemovedMessageProcessor extends MessageProcessor
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ApplicationClustersRemovedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
 
@@ -81,6 +87,7 @@ public class ApplicationClustersRemovedMessageProcessor extends MessageProcessor
                         if (aService.clusterExists(aClusterData.getClusterId())) {
                             aService.removeCluster(aClusterData.getClusterId());
                             log.info("Cluster " + aClusterData.getClusterId() + " removed from topology for application " + event.getAppId());
+                            TopologyManager.updateTopologySnapshot(serviceType, aClusterData.getClusterId());
                         } else {
                             if (log.isDebugEnabled()) {
                                 log.debug("Cluster " + aClusterData.getClusterId() + " of application " +
@@ -29,6 +29,7 @@ import org.apache.stratos.messaging.message.filter.topology.TopologyClusterFilte
 import org.apache.stratos.messaging.message.filter.topology.TopologyServiceFilter;
 import org.apache.stratos.messaging.message.processor.MessageProcessor;
 import org.apache.stratos.messaging.message.processor.topology.updater.TopologyUpdater;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
 public class ClusterCreatedMessageProcessor extends MessageProcessor {
@@ -41,6 +42,11 @@ public class ClusterCreatedMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ClusterCreatedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
 
@@ -118,6 +124,9 @@ public class ClusterCreatedMessageProcessor extends MessageProcessor {
             }
         }
 
+        // Update topology snapshot before notifying event listeners
+        TopologyManager.updateTopologySnapshot(serviceName, clusterId);
+
         // Notify event listeners
         notifyEventListeners(event);
         return true;
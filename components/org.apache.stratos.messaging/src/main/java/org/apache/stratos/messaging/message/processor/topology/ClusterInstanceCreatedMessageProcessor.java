@@ -30,6 +30,7 @@ import org.apache.stratos.messaging.message.filter.topology.TopologyClusterFilte
 import org.apache.stratos.messaging.message.filter.topology.TopologyServiceFilter;
 import org.apache.stratos.messaging.message.processor.MessageProcessor;
 import org.apache.stratos.messaging.message.processor.topology.updater.TopologyUpdater;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
 public class ClusterInstanceCreatedMessageProcessor extends MessageProcessor {
@@ -42,6 +43,11 @@ public class ClusterInstanceCreatedMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ClusterInstanceCreatedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
 
@@ -125,6 +131,9 @@ public class ClusterInstanceCreatedMessageProcessor extends MessageProcessor {
                 cluster.addInstanceContext(clusterInstance.getInstanceId(), clusterInstance);
             }
         }
+        // Update topology snapshot before notifying event listeners
+        TopologyManager.updateTopologySnapshot(event.getServiceName(), event.getClusterId());
+
         // Notify event listeners
         notifyEventListeners(event);
         return true;
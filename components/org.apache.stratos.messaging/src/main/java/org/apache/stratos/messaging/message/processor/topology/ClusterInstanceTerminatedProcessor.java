@@ -31,6 +31,7 @@ import org.apache.stratos.messaging.message.filter.topology.TopologyClusterFilte
 import org.apache.stratos.messaging.message.filter.topology.TopologyServiceFilter;
 import org.apache.stratos.messaging.message.processor.MessageProcessor;
 import org.apache.stratos.messaging.message.processor.topology.updater.TopologyUpdater;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
 /**
@@ -45,6 +46,11 @@ public class ClusterInstanceTerminatedProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ClusterInstanceTerminatedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
 
@@ -135,6 +141,9 @@ public class ClusterInstanceTerminatedProcessor extends MessageProcessor {
             }
         }
 
+        // Update topology snapshot before notifying event listeners
+        TopologyManager.updateTopologySnapshot(event.getServiceName(), event.getClusterId());
+
         // Notify event listeners
         notifyEventListeners(event);
         return true;
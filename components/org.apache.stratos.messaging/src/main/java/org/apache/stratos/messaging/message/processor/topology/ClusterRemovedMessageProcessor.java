@@ -29,6 +29,7 @@ import org.apache.stratos.messaging.message.filter.topology.TopologyClusterFilte
 import org.apache.stratos.messaging.message.filter.topology.TopologyServiceFilter;
 import org.apache.stratos.messaging.message.processor.MessageProcessor;
 import org.apache.stratos.messaging.message.processor.topology.updater.TopologyUpdater;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
 public class ClusterRemovedMessageProcessor extends MessageProcessor {
@@ -41,6 +42,11 @@ public class ClusterRemovedMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ClusterRemovedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         Topology topology = (Topology) object;
@@ -129,6 +135,8 @@ public class ClusterRemovedMessageProcessor extends MessageProcessor {
             }
         }
 
+        // Update topology snapshot once the cluster is removed
+        TopologyManager.updateTopologySnapshot(event.getServiceName(), event.getClusterId());
         return true;
     }
 }
@@ -20,6 +20,7 @@ package org.apache.stratos.messaging.message.processor.topology;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.domain.Message;
 import org.apache.stratos.messaging.domain.topology.Cluster;
 import org.apache.stratos.messaging.domain.topology.Member;
 import org.apache.stratos.messaging.domain.topology.Service;
@@ -31,6 +32,7 @@ import org.apache.stratos.messaging.message.filter.topology.TopologyMemberFilter
 import org.apache.stratos.messaging.message.filter.topology.TopologyServiceFilter;
 import org.apache.stratos.messaging.message.processor.MessageProcessor;
 import org.apache.stratos.messaging.message.processor.topology.updater.TopologyUpdater;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
 import java.util.ArrayList;
@@ -46,29 +48,27 @@ public class CompleteTopologyMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return CompleteTopologyEvent.class.getName();
+    }
+
+    @Override
+    public boolean process(String type, Message message, Object object) {
+        if (CompleteTopologyEvent.class.getName().equals(type) && (message.getPayload() != null) &&
+                !message.isBinary()) {
+            // Decode the event directly from the message payload
+            return processCompleteTopology(null, message.getPayload(), (Topology) object);
+        }
+        return super.process(type, message, object);
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         Topology topology = (Topology) object;
 
         if (CompleteTopologyEvent.class.getName().equals(type)) {
-            // Parse complete message and build event
-            CompleteTopologyEvent event = (CompleteTopologyEvent) MessagingUtil.jsonToObject(message, CompleteTopologyEvent.class);
-
-            if (!topology.isInitialized()) {
-                TopologyUpdater.acquireWriteLock();
-
-                try {
-                    doProcess(event, topology);
-
-                } finally {
-                    TopologyUpdater.releaseWriteLock();
-                }
-            }
-
-            // Notify event listeners
-            notifyEventListeners(event);
-            return true;
-
+            return processCompleteTopology(message, null, topology);
         } else {
             if (nextProcessor != null) {
                 // ask the next processor to take care of the message.
@@ -78,6 +78,43 @@ public class CompleteTopologyMessageProcessor extends MessageProcessor {
         }
     }
 
+    private boolean processCompleteTopology(String json, byte[] payload, Topology topology) {
+        boolean updateRequired = !topology.isInitialized() || topology.isOutOfSync();
+        if (!updateRequired && (countObservers() == 0)) {
+            // Topology is up to date and there is no one to notify, skip parsing the message
+            return true;
+        }
+
+        // Parse complete message and build event
+        CompleteTopologyEvent event = (CompleteTopologyEvent) ((payload != null) ?
+                MessagingUtil.jsonToObject(payload, CompleteTopologyEvent.class) :
+                MessagingUtil.jsonToObject(json, CompleteTopologyEvent.class));
+
+        if (updateRequired) {
+            TopologyUpdater.acquireWriteLock();
+
+            try {
+                if (topology.isInitialized()) {
+                    // Topology is out of sync, rebuild it using the complete topology
+                    if (log.isInfoEnabled()) {
+                        log.info(String.format("Re-initializing topology: [local-version] %d [version] %d",
+                                topology.getVersion(), event.getTopology().getVersion()));
+                    }
+                    topology.clear();
+                }
+                doProcess(event, topology);
+                TopologyManager.updateTopologySnapshot();
+
+            } finally {
+                TopologyUpdater.releaseWriteLock();
+            }
+        }
+
+        // Notify event listeners
+        notifyEventListeners(event);
+        return true;
+    }
+
     private void doProcess(CompleteTopologyEvent event, Topology topology) {
 
         for (Service service : event.getTopology().getServices()) {
@@ -141,6 +178,8 @@ public class CompleteTopologyMessageProcessor extends MessageProcessor {
         }
 
         // Set topology initialized
+        topology.setVersion(event.getTopology().getVersion());
+        topology.setOutOfSync(false);
         topology.setInitialized(true);
     }
 }
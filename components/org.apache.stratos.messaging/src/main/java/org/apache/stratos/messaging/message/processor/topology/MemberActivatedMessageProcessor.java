@@ -28,6 +28,7 @@ import org.apache.stratos.messaging.message.filter.topology.TopologyMemberFilter
 import org.apache.stratos.messaging.message.filter.topology.TopologyServiceFilter;
 import org.apache.stratos.messaging.message.processor.MessageProcessor;
 import org.apache.stratos.messaging.message.processor.topology.updater.TopologyUpdater;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
 public class MemberActivatedMessageProcessor extends MessageProcessor {
@@ -40,6 +41,11 @@ public class MemberActivatedMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return MemberActivatedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         Topology topology = (Topology) object;
@@ -163,6 +169,9 @@ public class MemberActivatedMessageProcessor extends MessageProcessor {
             }
         }
 
+        // Update topology snapshot before notifying event listeners
+        TopologyManager.updateTopologySnapshot(event.getServiceName(), event.getClusterId(), event.getMemberId());
+
         // Notify event listeners
         notifyEventListeners(event);
         return true;
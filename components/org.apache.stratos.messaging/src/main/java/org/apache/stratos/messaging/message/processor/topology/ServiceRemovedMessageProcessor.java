@@ -26,6 +26,7 @@ import org.apache.stratos.messaging.event.topology.ServiceRemovedEvent;
 import org.apache.stratos.messaging.message.filter.topology.TopologyServiceFilter;
 import org.apache.stratos.messaging.message.processor.MessageProcessor;
 import org.apache.stratos.messaging.message.processor.topology.updater.TopologyUpdater;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
 public class ServiceRemovedMessageProcessor extends MessageProcessor {
@@ -38,6 +39,11 @@ public class ServiceRemovedMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventType() {
+        return ServiceRemovedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         Topology topology = (Topology) object;
@@ -97,6 +103,8 @@ public class ServiceRemovedMessageProcessor extends MessageProcessor {
             }
         }
 
+        // Update topology snapshot once the service is removed
+        TopologyManager.updateTopologySnapshot(event.getServiceName());
         return true;
     }
 }
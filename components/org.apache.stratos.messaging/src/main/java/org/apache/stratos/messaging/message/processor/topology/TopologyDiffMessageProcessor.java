@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.messaging.message.processor.topology;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.broker.publish.EventPublisher;
+import org.apache.stratos.messaging.broker.publish.EventPublisherPool;
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.Member;
+import org.apache.stratos.messaging.domain.topology.Service;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.event.initializer.CompleteTopologyRequestEvent;
+import org.apache.stratos.messaging.event.topology.TopologyDiffEvent;
+import org.apache.stratos.messaging.message.filter.topology.TopologyApplicationFilter;
+import org.apache.stratos.messaging.message.filter.topology.TopologyClusterFilter;
+import org.apache.stratos.messaging.message.filter.topology.TopologyMemberFilter;
+import org.apache.stratos.messaging.message.filter.topology.TopologyServiceFilter;
+import org.apache.stratos.messaging.message.processor.MessageProcessor;
+import org.apache.stratos.messaging.message.processor.topology.updater.TopologyUpdater;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
+import org.apache.stratos.messaging.util.MessagingUtil;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies topology diffs to the local topology. If the local topology is older than the base
+ * version of a diff, the topology is marked as out of sync and the complete topology is requested.
+ */
+public class TopologyDiffMessageProcessor extends MessageProcessor {
+
+    private static final Log log = LogFactory.getLog(TopologyDiffMessageProcessor.class);
+    // Minimum time between two complete topology requests sent by this subscriber
+    private static final long COMPLETE_TOPOLOGY_REQUEST_INTERVAL = 60000;
+
+    private MessageProcessor nextProcessor;
+    private volatile long lastCompleteTopologyRequestTime;
+
+    @Override
+    public void setNext(MessageProcessor nextProcessor) {
+        this.nextProcessor = nextProcessor;
+    }
+
+    @Override
+    public String getEventType() {
+        return TopologyDiffEvent.class.getName();
+    }
+
+    @Override
+    public boolean process(String type, String message, Object object) {
+        Topology topology = (Topology) object;
+
+        if (TopologyDiffEvent.class.getName().equals(type)) {
+            // Return if topology has not been initialized, it will be initialized by the complete topology event
+            if (!topology.isInitialized()) {
+                return false;
+            }
+
+            // Parse complete message and build event
+            TopologyDiffEvent event = (TopologyDiffEvent) MessagingUtil.jsonToObject(message, TopologyDiffEvent.class);
+
+            boolean applied;
+            TopologyUpdater.acquireWriteLock();
+            try {
+                applied = doProcess(event, topology);
+            } finally {
+                TopologyUpdater.releaseWriteLock();
+            }
+
+            if (applied) {
+                // Notify event listeners
+                notifyEventListeners(event);
+            }
+            return applied;
+        } else {
+            if (nextProcessor != null) {
+                // ask the next processor to take care of the message.
+                return nextProcessor.process(type, message, topology);
+            } else {
+                throw new RuntimeException(String.format("Failed to process message using available message processors: [type] %s [body] %s", type, message));
+            }
+        }
+    }
+
+    private boolean doProcess(TopologyDiffEvent event, Topology topology) {
+        if (topology.getVersion() >= event.getVersion()) {
+            // Topology is already up to date
+            return false;
+        }
+
+        if (topology.isOutOfSync() || (topology.getVersion() < event.getBaseVersion())) {
+            // Previous diffs have been missed, the complete topology is needed to synchronize
+            if (log.isInfoEnabled()) {
+                log.info(String.format("Topology is out of sync: [local-version] %d [diff-base-version] %d",
+                        topology.getVersion(), event.getBaseVersion()));
+            }
+            topology.setOutOfSync(true);
+            requestCompleteTopology();
+            return false;
+        }
+
+        // Services and clusters to be copied to the topology snapshot
+        Set<String> updatedServiceNames = new HashSet<String>(event.getRemovedServices());
+        Set<String> updatedClusterIds = new HashSet<String>();
+
+        for (String serviceName : event.getRemovedServices()) {
+            Service service = topology.getService(serviceName);
+            if (service != null) {
+                for (Cluster cluster : service.getClusters()) {
+                    topology.removeFromClusterMap(cluster.getClusterId());
+                    updatedClusterIds.add(cluster.getClusterId());
+                }
+                topology.removeService(serviceName);
+            }
+        }
+
+        for (Service service : event.getUpdatedServices()) {
+            // Apply service filter
+            if (TopologyServiceFilter.apply(service.getServiceName())) {
+                continue;
+            }
+
+            Service existingService = topology.getService(service.getServiceName());
+            if (existingService != null) {
+                for (Cluster cluster : existingService.getClusters()) {
+                    topology.removeFromClusterMap(cluster.getClusterId());
+                    updatedClusterIds.add(cluster.getClusterId());
+                }
+            }
+
+            List<Cluster> clusters = new ArrayList<Cluster>(service.getClusters());
+            for (Cluster cluster : clusters) {
+                updatedClusterIds.add(cluster.getClusterId());
+                if (isClusterExcluded(cluster)) {
+                    service.removeCluster(cluster);
+                } else {
+                    applyMemberFilter(cluster);
+                    topology.addToCluterMap(cluster);
+                }
+            }
+            topology.addService(service);
+            updatedServiceNames.add(service.getServiceName());
+        }
+
+        for (Map.Entry<String, String> entry : event.getRemovedClusters().entrySet()) {
+            String clusterId = entry.getKey();
+            Service service = topology.getService(entry.getValue());
+            if (service != null) {
+                service.removeCluster(clusterId);
+            }
+            topology.removeFromClusterMap(clusterId);
+            updatedServiceNames.add(entry.getValue());
+            updatedClusterIds.add(clusterId);
+        }
+
+        for (Cluster cluster : event.getUpdatedClusters()) {
+            // Apply service filter
+            if (TopologyServiceFilter.apply(cluster.getServiceName())) {
+                continue;
+            }
+
+            Service service = topology.getService(cluster.getServiceName());
+            if (service == null) {
+                log.warn(String.format("Service not found for cluster in topology diff: [service] %s [cluster] %s",
+                        cluster.getServiceName(), cluster.getClusterId()));
+                topology.setOutOfSync(true);
+                requestCompleteTopology();
+                return false;
+            }
+
+            if (isClusterExcluded(cluster)) {
+                continue;
+            }
+            applyMemberFilter(cluster);
+            service.addCluster(cluster);
+            topology.addToCluterMap(cluster);
+            updatedServiceNames.add(cluster.getServiceName());
+            updatedClusterIds.add(cluster.getClusterId());
+        }
+
+        topology.setVersion(event.getVersion());
+        TopologyManager.updateTopologySnapshot(updatedServiceNames, updatedClusterIds);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Topology diff applied: [base-version] %d [version] %d",
+                    event.getBaseVersion(), event.getVersion()));
+        }
+        return true;
+    }
+
+    private boolean isClusterExcluded(Cluster cluster) {
+        // Apply application & cluster filters
+        return TopologyApplicationFilter.apply(cluster.getAppId()) ||
+                TopologyClusterFilter.apply(cluster.getClusterId());
+    }
+
+    private void applyMemberFilter(Cluster cluster) {
+        List<Member> membersToRemove = new ArrayList<Member>();
+        for (Member member : cluster.getMembers()) {
+            if (TopologyMemberFilter.apply(member.getLbClusterId(), member.getNetworkPartitionId())) {
+                membersToRemove.add(member);
+            }
+        }
+        for (Member member : membersToRemove) {
+            cluster.removeMember(member);
+        }
+    }
+
+    private void requestCompleteTopology() {
+        long currentTime = System.currentTimeMillis();
+        if ((currentTime - lastCompleteTopologyRequestTime) < COMPLETE_TOPOLOGY_REQUEST_INTERVAL) {
+            return;
+        }
+        lastCompleteTopologyRequestTime = currentTime;
+        publishCompleteTopologyRequest();
+    }
+
+    /**
+     * Publish a complete topology request event, the topology is then re-initialized
+     * by the complete topology event received.
+     */
+    void publishCompleteTopologyRequest() {
+        try {
+            CompleteTopologyRequestEvent completeTopologyRequestEvent = new CompleteTopologyRequestEvent();
+            String topic = MessagingUtil.getMessageTopicName(completeTopologyRequestEvent);
+            EventPublisher eventPublisher = EventPublisherPool.getPublisher(topic);
+            eventPublisher.publish(completeTopologyRequestEvent);
+        } catch (Exception e) {
+            log.error("Could not request complete topology", e);
+        }
+    }
+}
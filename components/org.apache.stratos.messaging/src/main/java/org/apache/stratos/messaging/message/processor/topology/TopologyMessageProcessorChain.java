@@ -33,6 +33,7 @@ public class TopologyMessageProcessorChain extends MessageProcessorChain {
     private static final Log log = LogFactory.getLog(TopologyMessageProcessorChain.class);
 
     private CompleteTopologyMessageProcessor completeTopologyMessageProcessor;
+    private TopologyDiffMessageProcessor topologyDiffMessageProcessor;
     private ServiceCreatedMessageProcessor serviceCreatedMessageProcessor;
     private ServiceRemovedMessageProcessor serviceRemovedMessageProcessor;
     private ApplicationClustersCreatedMessageProcessor appClustersCreatedMessageProcessor;
@@ -59,6 +60,9 @@ public class TopologyMessageProcessorChain extends MessageProcessorChain {
         completeTopologyMessageProcessor = new CompleteTopologyMessageProcessor();
         add(completeTopologyMessageProcessor);
 
+        topologyDiffMessageProcessor = new TopologyDiffMessageProcessor();
+        add(topologyDiffMessageProcessor);
+
         serviceCreatedMessageProcessor = new ServiceCreatedMessageProcessor();
         add(serviceCreatedMessageProcessor);
 
@@ -127,6 +131,8 @@ public class TopologyMessageProcessorChain extends MessageProcessorChain {
     public void addEventListener(EventListener eventListener) {
         if (eventListener instanceof CompleteTopologyEventListener) {
             completeTopologyMessageProcessor.addEventListener(eventListener);
+        } else if (eventListener instanceof TopologyDiffEventListener) {
+            topologyDiffMessageProcessor.addEventListener(eventListener);
         } else if (eventListener instanceof ClusterCreatedEventListener) {
             clusterCreatedMessageProcessor.addEventListener(eventListener);
         } else if (eventListener instanceof ApplicationClustersCreatedEventListener) {
@@ -175,6 +181,8 @@ public class TopologyMessageProcessorChain extends MessageProcessorChain {
     public void removeEventListener(EventListener eventListener) {
         if (eventListener instanceof CompleteTopologyEventListener) {
             completeTopologyMessageProcessor.removeEventListener(eventListener);
+        } else if (eventListener instanceof TopologyDiffEventListener) {
+            topologyDiffMessageProcessor.removeEventListener(eventListener);
         } else if (eventListener instanceof ClusterCreatedEventListener) {
             clusterCreatedMessageProcessor.removeEventListener(eventListener);
         } else if (eventListener instanceof ApplicationClustersCreatedEventListener) {
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.receiver;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.domain.Message;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves the shard key of an event message by reading a string field of the event. Only the top
+ * level fields of the event json are scanned, the event is not deserialized. Events of classes which
+ * do not declare the field are not scanned at all and have no shard key. The key of a binary encoded
+ * message is read from the event decoded by the message, which is then reused by message processors.
+ */
+public class ShardKeyResolver {
+
+    private static final Log log = LogFactory.getLog(ShardKeyResolver.class);
+    private static final Field NO_FIELD;
+
+    static {
+        try {
+            NO_FIELD = ShardKeyResolver.class.getDeclaredField("fieldName");
+        } catch (NoSuchFieldException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final String fieldName;
+    private final ConcurrentMap<String, Field> eventTypeFieldMap;
+
+    public ShardKeyResolver(String fieldName) {
+        this.fieldName = fieldName;
+        this.eventTypeFieldMap = new ConcurrentHashMap<String, Field>();
+    }
+
+    /**
+     * Resolve the shard key of the given message.
+     *
+     * @param type    event class name
+     * @param message event message
+     * @return value of the key field or null if the event does not have a key
+     */
+    public String resolve(String type, Message message) {
+        if (!message.isBinary()) {
+            return resolve(type, message.getText());
+        }
+
+        Field field = getField(type);
+        if (field == null) {
+            return null;
+        }
+        try {
+            Object value = field.get(message.getEvent());
+            return (value == null) ? null : value.toString();
+        } catch (Exception e) {
+            log.warn(String.format("Could not resolve shard key of binary event: [event] %s", type), e);
+            return null;
+        }
+    }
+
+    /**
+     * Resolve the shard key of the given event json.
+     *
+     * @param type event class name
+     * @param json event json
+     * @return value of the key field or null if the event does not have a key
+     */
+    public String resolve(String type, String json) {
+        if ((json == null) || (getField(type) == null)) {
+            return null;
+        }
+
+        JsonReader reader = new JsonReader(new StringReader(json));
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (fieldName.equals(reader.nextName()) && (reader.peek() == JsonToken.STRING)) {
+                    return reader.nextString();
+                }
+                reader.skipValue();
+            }
+        } catch (IOException e) {
+            log.warn(String.format("Could not resolve shard key of event: [event] %s", type), e);
+        } catch (IllegalStateException e) {
+            log.warn(String.format("Could not resolve shard key of event: [event] %s", type), e);
+        }
+        return null;
+    }
+
+    private Field getField(String type) {
+        if (type == null) {
+            return null;
+        }
+        Field field = eventTypeFieldMap.get(type);
+        if (field == null) {
+            field = findField(type);
+            eventTypeFieldMap.put(type, field);
+        }
+        return (field == NO_FIELD) ? null : field;
+    }
+
+    private Field findField(String type) {
+        try {
+            Class<?> clazz = Class.forName(type);
+            while (clazz != null) {
+                for (Field field : clazz.getDeclaredFields()) {
+                    if (field.getName().equals(fieldName) && (field.getType() == String.class)) {
+                        field.setAccessible(true);
+                        return field;
+                    }
+                }
+                clazz = clazz.getSuperclass();
+            }
+        } catch (ClassNotFoundException e) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Event class not found, event will not be sharded: [event] %s", type));
+            }
+        }
+        return NO_FIELD;
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.receiver;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executes message processing tasks on a fixed number of shard threads. Tasks with the same shard key
+ * are always executed by the same shard, hence in the order they were submitted. Tasks without a shard
+ * key are executed by the submitting thread once all shards have completed their pending tasks, thus
+ * they are ordered with respect to every other task.
+ * <p/>
+ * Tasks with different shard keys run concurrently, event listeners notified by the tasks should be
+ * thread safe and should not rely on state shared between keys being updated by a single thread.
+ */
+public class ShardedMessageExecutor {
+
+    private static final Log log = LogFactory.getLog(ShardedMessageExecutor.class);
+
+    private final String name;
+    private final Shard[] shards;
+    private final Object idleLock = new Object();
+    private volatile boolean terminated;
+
+    public ShardedMessageExecutor(String name, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count should be greater than zero: " + shardCount);
+        }
+        this.name = name;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+
+    /**
+     * Start shard threads.
+     */
+    public void start() {
+        for (Shard shard : shards) {
+            Thread thread = new Thread(shard, String.format("%s-shard-%d", name, shard.index));
+            thread.setDaemon(true);
+            shard.thread = thread;
+            thread.start();
+        }
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Sharded message executor started: [name] %s [shards] %d", name, shards.length));
+        }
+    }
+
+    /**
+     * Execute the given task on the shard of the given key. If the key is null, the task is executed
+     * on the calling thread after all previously submitted tasks have been completed.
+     *
+     * @param shardKey shard key, usually the cluster id of the event
+     * @param task     message processing task
+     * @throws InterruptedException if interrupted while waiting for shards to become idle
+     */
+    public void execute(String shardKey, Runnable task) throws InterruptedException {
+        if (shardKey == null) {
+            awaitIdle();
+            task.run();
+            return;
+        }
+        shards[getShardIndex(shardKey)].submit(task);
+    }
+
+    public int getShardIndex(String shardKey) {
+        return (shardKey.hashCode() & Integer.MAX_VALUE) % shards.length;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @return number of tasks waiting in the queue of the given shard
+     */
+    public int getQueueDepth(int shardIndex) {
+        return shards[shardIndex].queue.size();
+    }
+
+    /**
+     * @return number of tasks completed by the given shard
+     */
+    public long getProcessedCount(int shardIndex) {
+        return shards[shardIndex].processedCount.get();
+    }
+
+    /**
+     * @return average time in milliseconds from submitting a task to the given shard until it is completed
+     */
+    public double getAverageLatency(int shardIndex) {
+        Shard shard = shards[shardIndex];
+        long processedCount = shard.processedCount.get();
+        if (processedCount == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMicros(shard.totalLatency.get() / processedCount) / 1000.0;
+    }
+
+    /**
+     * @return maximum time in milliseconds from submitting a task to the given shard until it is completed
+     */
+    public double getMaxLatency(int shardIndex) {
+        return TimeUnit.NANOSECONDS.toMicros(shards[shardIndex].maxLatency.get()) / 1000.0;
+    }
+
+    public void terminate() {
+        terminated = true;
+        for (Shard shard : shards) {
+            if (shard.thread != null) {
+                shard.thread.interrupt();
+            }
+        }
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        synchronized (idleLock) {
+            while (!isIdle()) {
+                idleLock.wait(100);
+            }
+        }
+    }
+
+    private boolean isIdle() {
+        for (Shard shard : shards) {
+            if (shard.pendingCount.get() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class ShardTask {
+        private final Runnable task;
+        private final long submittedTime;
+
+        private ShardTask(Runnable task) {
+            this.task = task;
+            this.submittedTime = System.nanoTime();
+        }
+    }
+
+    private class Shard implements Runnable {
+
+        private final int index;
+        private final BlockingQueue<ShardTask> queue = new LinkedBlockingQueue<ShardTask>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicLong processedCount = new AtomicLong();
+        private final AtomicLong totalLatency = new AtomicLong();
+        private final AtomicLong maxLatency = new AtomicLong();
+        private Thread thread;
+
+        private Shard(int index) {
+            this.index = index;
+        }
+
+        private void submit(Runnable task) {
+            pendingCount.incrementAndGet();
+            queue.add(new ShardTask(task));
+        }
+
+        @Override
+        public void run() {
+            while (!terminated) {
+                ShardTask shardTask;
+                try {
+                    shardTask = queue.take();
+                } catch (InterruptedException ignore) {
+                    continue;
+                }
+
+                try {
+                    shardTask.task.run();
+                } catch (Exception e) {
+                    log.error(String.format("Message processing task failed: [executor] %s [shard] %d",
+                            name, index), e);
+                } finally {
+                    recordLatency(System.nanoTime() - shardTask.submittedTime);
+                    if (pendingCount.decrementAndGet() == 0) {
+                        synchronized (idleLock) {
+                            idleLock.notifyAll();
+                        }
+                    }
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Shard terminated: [executor] %s [shard] %d", name, index));
+            }
+        }
+
+        private void recordLatency(long latency) {
+            processedCount.incrementAndGet();
+            totalLatency.addAndGet(latency);
+            long max = maxLatency.get();
+            while (latency > max && !maxLatency.compareAndSet(max, latency)) {
+                max = maxLatency.get();
+            }
+        }
+    }
+}
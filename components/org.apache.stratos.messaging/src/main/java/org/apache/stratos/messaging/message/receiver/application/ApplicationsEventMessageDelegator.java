@@ -60,9 +60,6 @@ public class ApplicationsEventMessageDelegator implements Runnable {
                     // Skip application signup events
                     if (!type.startsWith("org.apache.stratos.messaging.event.application.signup")) {
 
-                        // Retrieve the actual message
-                        String json = message.getText();
-
                         if (log.isDebugEnabled()) {
                             log.debug(String.format("Application status event message received from queue: %s", type));
                         }
@@ -71,7 +68,7 @@ public class ApplicationsEventMessageDelegator implements Runnable {
                         if (log.isDebugEnabled()) {
                             log.debug(String.format("Delegating application status event message: %s", type));
                         }
-                        processorChain.process(type, json, ApplicationManager.getApplications());
+                        processorChain.process(type, message, ApplicationManager.getApplications());
                     }
                 } catch (InterruptedException ignore) {
                     log.info("Shutting down application event message delegator...");
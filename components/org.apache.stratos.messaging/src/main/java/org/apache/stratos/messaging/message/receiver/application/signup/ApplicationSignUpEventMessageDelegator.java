@@ -58,9 +58,6 @@ class ApplicationSignUpEventMessageDelegator implements Runnable {
                     Message message = messageQueue.take();
                     String type = message.getEventClassName();
 
-                    // Retrieve the actual message
-                    String json = message.getText();
-
                     if (log.isDebugEnabled()) {
                         log.debug(String.format("Application signup event message received from queue: [event-class-name] %s " +
                                 "[message-queue] %s", type, messageQueue.getClass()));
@@ -69,7 +66,7 @@ class ApplicationSignUpEventMessageDelegator implements Runnable {
                     if (log.isDebugEnabled()) {
                         log.debug(String.format("Delegating application signup event message: %s", type));
                     }
-                    processorChain.process(type, json, ApplicationSignUpManager.getInstance());
+                    processorChain.process(type, message, ApplicationSignUpManager.getInstance());
                 } catch (InterruptedException e) {
                     log.info("Application signup event message delegator is shutting down...");
                     return;
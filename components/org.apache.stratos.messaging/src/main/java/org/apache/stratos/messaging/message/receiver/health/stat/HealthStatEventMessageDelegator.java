@@ -25,11 +25,18 @@ import org.apache.stratos.messaging.domain.Message;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
 import org.apache.stratos.messaging.message.processor.health.stat.HealthStatMessageProcessorChain;
+import org.apache.stratos.messaging.message.receiver.ShardKeyResolver;
+import org.apache.stratos.messaging.message.receiver.ShardedMessageExecutor;
+import org.apache.stratos.messaging.util.MessagingConstants;
+import org.apache.stratos.messaging.util.MessagingUtil;
 
 
 /**
  * Implements logic for processing health stat event messages based on a given
  * topology process chain.
+ * <p/>
+ * If sharding is enabled, messages are processed by shard threads keyed by cluster instance id and
+ * event listeners are notified concurrently, see {@link ShardedMessageExecutor}.
  */
 class HealthStatEventMessageDelegator implements Runnable {
 
@@ -37,11 +44,20 @@ class HealthStatEventMessageDelegator implements Runnable {
 
     private HealthStatEventMessageQueue messageQueue;
     private MessageProcessorChain processorChain;
+    private ShardedMessageExecutor shardedExecutor;
+    private ShardKeyResolver shardKeyResolver;
     private boolean terminated;
 
     public HealthStatEventMessageDelegator(HealthStatEventMessageQueue messageQueue) {
         this.messageQueue = messageQueue;
         this.processorChain = new HealthStatMessageProcessorChain();
+
+        int shardCount = MessagingUtil.getNumericSystemProperty(1, MessagingConstants.HEALTH_STAT_RECEIVER_SHARDS);
+        if (shardCount > 1) {
+            // Health stat events do not carry the cluster id, they are ordered per cluster instance
+            this.shardedExecutor = new ShardedMessageExecutor("health-stat-event-delegator", shardCount);
+            this.shardKeyResolver = new ShardKeyResolver("clusterInstanceId");
+        }
     }
 
     public void addEventListener(EventListener eventListener) {
@@ -54,11 +70,24 @@ class HealthStatEventMessageDelegator implements Runnable {
             if (log.isInfoEnabled()) {
                 log.info("Health stat event message delegator started");
             }
+            if (shardedExecutor != null) {
+                shardedExecutor.start();
+            }
 
             while (!terminated) {
                 try {
                     Message message = messageQueue.take();
 
+                    if (message.isBinary()) {
+                        // Binary messages are not wrapped, event type is derived from the topic name
+                        if (log.isDebugEnabled()) {
+                            log.debug(String.format("Delegating binary health stat event message: %s",
+                                    message.getEventClassName()));
+                        }
+                        delegate(message.getEventClassName(), message);
+                        continue;
+                    }
+
                     String messageText = message.getText();
                     if (log.isDebugEnabled()) {
                         log.debug("Health event message received: [message] " + messageText);
@@ -79,7 +108,7 @@ class HealthStatEventMessageDelegator implements Runnable {
                     if (log.isDebugEnabled()) {
                         log.debug(String.format("Delegating instance notifier event message: %s", type));
                     }
-                    processorChain.process(type, json, null);
+                    delegate(type, json);
                 } catch (InterruptedException ignore) {
                     log.info("Shutting down health statistics event message delegator...");
                     terminate();
@@ -94,11 +123,49 @@ class HealthStatEventMessageDelegator implements Runnable {
         }
     }
 
+    private void delegate(final String type, final Message message) throws InterruptedException {
+        if (shardedExecutor == null) {
+            processorChain.process(type, message, null);
+            return;
+        }
+
+        shardedExecutor.execute(shardKeyResolver.resolve(type, message), new Runnable() {
+            @Override
+            public void run() {
+                processorChain.process(type, message, null);
+            }
+        });
+    }
+
+    private void delegate(final String type, final String json) throws InterruptedException {
+        if (shardedExecutor == null) {
+            processorChain.process(type, json, null);
+            return;
+        }
+
+        shardedExecutor.execute(shardKeyResolver.resolve(type, json), new Runnable() {
+            @Override
+            public void run() {
+                processorChain.process(type, json, null);
+            }
+        });
+    }
+
     /**
      * Terminate topology event message delegator thread.
      */
     public void terminate() {
         terminated = true;
+        if (shardedExecutor != null) {
+            shardedExecutor.terminate();
+        }
+    }
+
+    /**
+     * @return sharded message executor or null if sharding is not enabled
+     */
+    public ShardedMessageExecutor getShardedExecutor() {
+        return shardedExecutor;
     }
 
 
@@ -23,6 +23,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.messaging.broker.subscribe.EventSubscriber;
 import org.apache.stratos.messaging.listener.EventListener;
+import org.apache.stratos.messaging.message.receiver.ShardedMessageExecutor;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
 import java.util.concurrent.ExecutorService;
@@ -45,6 +46,12 @@ public class HealthStatEventReceiver {
         this.messageListener = new HealthStatEventMessageListener(messageQueue);
     }
 
+    /**
+     * Add an event listener. Listeners need to be thread safe if sharding is enabled for this receiver,
+     * see {@link EventListener}.
+     *
+     * @param eventListener event listener
+     */
     public void addEventListener(EventListener eventListener) {
         messageDelegator.addEventListener(eventListener);
     }
@@ -75,6 +82,15 @@ public class HealthStatEventReceiver {
         terminated = true;
     }
 
+    /**
+     * Returns the sharded message executor for monitoring shard queue depths and processing latencies.
+     *
+     * @return sharded message executor or null if sharding is not enabled
+     */
+    public ShardedMessageExecutor getShardedMessageExecutor() {
+        return messageDelegator.getShardedExecutor();
+    }
+
     public ExecutorService getExecutorService() {
         return executorService;
     }
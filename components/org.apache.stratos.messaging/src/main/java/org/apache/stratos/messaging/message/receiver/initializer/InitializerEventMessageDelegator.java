@@ -53,9 +53,6 @@ public class InitializerEventMessageDelegator implements Runnable {
                     Message message = messageQueue.take();
                     String type = message.getEventClassName();
 
-                    // Retrieve the actual message
-                    String json = message.getText();
-
                     if (log.isDebugEnabled()) {
                         log.debug(String.format("Initializer event message [%s] received from queue: %s", type,
                                 messageQueue.getClass()));
@@ -64,7 +61,7 @@ public class InitializerEventMessageDelegator implements Runnable {
                     if (log.isDebugEnabled()) {
                         log.debug(String.format("Delegating initializer event message: %s", type));
                     }
-                    processorChain.process(type, json, null);
+                    processorChain.process(type, message, null);
                 } catch (InterruptedException ignore) {
                     log.info("Shutting down initializer event message delegator...");
                     terminate();
@@ -57,9 +57,6 @@ class InstanceStatusEventMessageDelegator implements Runnable {
                 try {
                     Message message = messageQueue.take();
                     String type = message.getEventClassName();
-
-                    // Retrieve the actual message
-                    String json = message.getText();
                     if (log.isDebugEnabled()) {
                         log.debug(String.format("Instance notifier event message received from queue: %s", type));
                     }
@@ -68,7 +65,7 @@ class InstanceStatusEventMessageDelegator implements Runnable {
                     if (log.isDebugEnabled()) {
                         log.debug(String.format("Delegating instance notifier event message: %s", type));
                     }
-                    processorChain.process(type, json, null);
+                    processorChain.process(type, message, null);
                 } catch (InterruptedException ignore) {
                     log.info("Shutting down instance status event message delegator...");
                     terminate();
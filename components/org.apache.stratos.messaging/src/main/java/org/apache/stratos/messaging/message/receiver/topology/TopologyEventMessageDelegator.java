@@ -24,11 +24,18 @@ import org.apache.stratos.messaging.domain.Message;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
 import org.apache.stratos.messaging.message.processor.topology.TopologyMessageProcessorChain;
+import org.apache.stratos.messaging.message.receiver.ShardKeyResolver;
+import org.apache.stratos.messaging.message.receiver.ShardedMessageExecutor;
+import org.apache.stratos.messaging.util.MessagingConstants;
+import org.apache.stratos.messaging.util.MessagingUtil;
 
 
 /**
  * Implements logic for processing topology event messages based on a given
  * topology process chain.
+ * <p/>
+ * If sharding is enabled, messages are processed by shard threads keyed by cluster id and event
+ * listeners are notified concurrently, see {@link ShardedMessageExecutor}.
  */
 class TopologyEventMessageDelegator implements Runnable {
 
@@ -36,11 +43,20 @@ class TopologyEventMessageDelegator implements Runnable {
 
     private MessageProcessorChain processorChain;
     private TopologyEventMessageQueue messageQueue;
+    private ShardedMessageExecutor shardedExecutor;
+    private ShardKeyResolver shardKeyResolver;
     private boolean terminated;
 
     public TopologyEventMessageDelegator(TopologyEventMessageQueue messageQueue) {
         this.messageQueue = messageQueue;
         this.processorChain = new TopologyMessageProcessorChain();
+
+        int shardCount = MessagingUtil.getNumericSystemProperty(1, MessagingConstants.TOPOLOGY_RECEIVER_SHARDS);
+        if (shardCount > 1) {
+            // Events of a cluster are processed in order, events without a cluster id act as barriers
+            this.shardedExecutor = new ShardedMessageExecutor("topology-event-delegator", shardCount);
+            this.shardKeyResolver = new ShardKeyResolver("clusterId");
+        }
     }
 
     public void addEventListener(EventListener eventListener) {
@@ -53,15 +69,15 @@ class TopologyEventMessageDelegator implements Runnable {
             if (log.isInfoEnabled()) {
                 log.info("Topology event message delegator started");
             }
+            if (shardedExecutor != null) {
+                shardedExecutor.start();
+            }
 
             while (!terminated) {
                 try {
                     Message message = messageQueue.take();
                     String type = message.getEventClassName();
 
-                    // Retrieve the actual message
-                    String json = message.getText();
-
                     if (log.isDebugEnabled()) {
                         log.debug(String.format("Topology event message [%s] received from queue: %s", type,
                                 messageQueue.getClass()));
@@ -70,7 +86,7 @@ class TopologyEventMessageDelegator implements Runnable {
                     if (log.isDebugEnabled()) {
                         log.debug(String.format("Delegating topology event message: %s", type));
                     }
-                    processorChain.process(type, json, TopologyManager.getTopology());
+                    delegate(type, message);
                 } catch (InterruptedException ignore) {
                     log.info("Shutting down topology event message delegator...");
                     terminate();
@@ -85,10 +101,34 @@ class TopologyEventMessageDelegator implements Runnable {
         }
     }
 
+    private void delegate(final String type, final Message message) throws InterruptedException {
+        if (shardedExecutor == null) {
+            processorChain.process(type, message, TopologyManager.getTopology());
+            return;
+        }
+
+        shardedExecutor.execute(shardKeyResolver.resolve(type, message), new Runnable() {
+            @Override
+            public void run() {
+                processorChain.process(type, message, TopologyManager.getTopology());
+            }
+        });
+    }
+
     /**
      * Terminate topology event message delegator thread.
      */
     public void terminate() {
         terminated = true;
+        if (shardedExecutor != null) {
+            shardedExecutor.terminate();
+        }
+    }
+
+    /**
+     * @return sharded message executor or null if sharding is not enabled
+     */
+    public ShardedMessageExecutor getShardedExecutor() {
+        return shardedExecutor;
     }
 }
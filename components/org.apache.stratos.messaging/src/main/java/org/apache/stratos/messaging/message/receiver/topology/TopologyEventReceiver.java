@@ -26,6 +26,7 @@ import org.apache.stratos.messaging.broker.publish.EventPublisherPool;
 import org.apache.stratos.messaging.broker.subscribe.EventSubscriber;
 import org.apache.stratos.messaging.event.initializer.CompleteTopologyRequestEvent;
 import org.apache.stratos.messaging.listener.EventListener;
+import org.apache.stratos.messaging.message.receiver.ShardedMessageExecutor;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
 import java.util.concurrent.ExecutorService;
@@ -49,6 +50,12 @@ public class TopologyEventReceiver {
         this.messageListener = new TopologyEventMessageListener(messageQueue);
     }
 
+    /**
+     * Add an event listener. Listeners need to be thread safe if sharding is enabled for this receiver,
+     * see {@link EventListener}.
+     *
+     * @param eventListener event listener
+     */
     public void addEventListener(EventListener eventListener) {
         messageDelegator.addEventListener(eventListener);
     }
@@ -101,6 +108,15 @@ public class TopologyEventReceiver {
         });
     }
 
+    /**
+     * Returns the sharded message executor for monitoring shard queue depths and processing latencies.
+     *
+     * @return sharded message executor or null if sharding is not enabled
+     */
+    public ShardedMessageExecutor getShardedMessageExecutor() {
+        return messageDelegator.getShardedExecutor();
+    }
+
     public ExecutorService getExecutorService() {
         return executorService;
     }
@@ -24,6 +24,10 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.messaging.domain.topology.Topology;
 import org.apache.stratos.messaging.domain.topology.locking.TopologyLock;
 import org.apache.stratos.messaging.domain.topology.locking.TopologyLockHierarchy;
+import org.apache.stratos.messaging.util.MessagingConstants;
+
+import java.util.Collections;
+import java.util.Set;
 
 /**
  * A singleton class for managing the topology data structure.
@@ -57,6 +61,13 @@ import org.apache.stratos.messaging.domain.topology.locking.TopologyLockHierarch
  * <p/>
  * releasing:
  * public static void releaseReadLockForService (String serviceName)
+ * <p/>
+ * Topology snapshots:
+ * <p/>
+ * If topology snapshots are enabled using the stratos.messaging.topology.snapshot.enabled system
+ * property, topology message processors publish an immutable copy of the topology before notifying
+ * event listeners. The snapshot returned by getTopologySnapshot() can be read without acquiring any
+ * lock and must not be modified.
  */
 public class TopologyManager {
     private static final Log log = LogFactory.getLog(TopologyManager.class);
@@ -64,6 +75,10 @@ public class TopologyManager {
     private static volatile Topology topology;
     private static volatile TopologyLockHierarchy topologyLockHierarchy =
             TopologyLockHierarchy.getInstance();
+    private static final boolean topologySnapshotEnabled =
+            Boolean.getBoolean(MessagingConstants.TOPOLOGY_SNAPSHOT_ENABLED);
+    private static final Object topologySnapshotLock = new Object();
+    private static volatile Topology topologySnapshot;
 
     /**
      * Acquires read lock for the Complete Topology
@@ -221,4 +236,111 @@ public class TopologyManager {
         }
         return topology;
     }
+
+    public static boolean isTopologySnapshotEnabled() {
+        return topologySnapshotEnabled;
+    }
+
+    /**
+     * Returns the latest topology snapshot if topology snapshots are enabled, otherwise returns the
+     * topology, which needs to be accessed using the relevant read locks.
+     *
+     * @return topology snapshot
+     */
+    public static Topology getTopologySnapshot() {
+        if (!topologySnapshotEnabled) {
+            return getTopology();
+        }
+        Topology snapshot = topologySnapshot;
+        if (snapshot == null) {
+            synchronized (topologySnapshotLock) {
+                if (topologySnapshot == null) {
+                    topologySnapshot = new Topology();
+                }
+                snapshot = topologySnapshot;
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Publish a new topology snapshot by copying the complete topology. Should be invoked by topology
+     * message processors while holding the topology write lock.
+     */
+    public static void updateTopologySnapshot() {
+        if (!topologySnapshotEnabled) {
+            return;
+        }
+        synchronized (topologySnapshotLock) {
+            topologySnapshot = TopologySnapshotBuilder.build(getTopology());
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Topology snapshot updated");
+        }
+    }
+
+    /**
+     * Publish a new topology snapshot by copying the given service, its clusters are shared with the
+     * previous snapshot. Should be invoked by topology message processors while holding the write lock
+     * of the services.
+     *
+     * @param serviceName updated service name
+     */
+    public static void updateTopologySnapshot(String serviceName) {
+        updateTopologySnapshot(Collections.singleton(serviceName), Collections.<String>emptySet());
+    }
+
+    /**
+     * Publish a new topology snapshot by copying the given cluster, the rest of the snapshot is shared
+     * with the previous snapshot. Should be invoked by topology message processors while holding the
+     * write lock of the cluster or the service.
+     *
+     * @param serviceName service name of the updated cluster
+     * @param clusterId   updated cluster id
+     */
+    public static void updateTopologySnapshot(String serviceName, String clusterId) {
+        updateTopologySnapshot(Collections.singleton(serviceName), Collections.singleton(clusterId));
+    }
+
+    /**
+     * Publish a new topology snapshot by copying the given member, the other members of the cluster and
+     * the rest of the snapshot are shared with the previous snapshot. Should be invoked by topology message
+     * processors while holding the write lock of the cluster.
+     *
+     * @param serviceName service name of the updated member
+     * @param clusterId   cluster id of the updated member
+     * @param memberId    updated member id, the member is left out of the snapshot if it has been removed
+     */
+    public static void updateTopologySnapshot(String serviceName, String clusterId, String memberId) {
+        updateTopologySnapshot(Collections.singleton(serviceName), Collections.singleton(clusterId),
+                Collections.singleton(memberId));
+    }
+
+    /**
+     * Publish a new topology snapshot by copying the given clusters, the rest of the snapshot is shared
+     * with the previous snapshot. Should be invoked by topology message processors while holding the
+     * write locks of the relevant services.
+     *
+     * @param serviceNames names of the updated services, including the services of updated clusters
+     * @param clusterIds   updated cluster ids
+     */
+    public static void updateTopologySnapshot(Set<String> serviceNames, Set<String> clusterIds) {
+        updateTopologySnapshot(serviceNames, clusterIds, null);
+    }
+
+    private static void updateTopologySnapshot(Set<String> serviceNames, Set<String> clusterIds,
+                                               Set<String> memberIds) {
+        if (!topologySnapshotEnabled) {
+            return;
+        }
+        synchronized (topologySnapshotLock) {
+            Topology previous = topologySnapshot;
+            topologySnapshot = (previous == null) ? TopologySnapshotBuilder.build(getTopology()) :
+                    TopologySnapshotBuilder.update(previous, getTopology(), serviceNames, clusterIds, memberIds);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Topology snapshot updated: [services] %s [clusters] %s [members] %s",
+                    serviceNames, clusterIds, memberIds));
+        }
+    }
 }
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.receiver.topology;
+
+import org.apache.stratos.messaging.domain.instance.ClusterInstance;
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.KubernetesService;
+import org.apache.stratos.messaging.domain.topology.Member;
+import org.apache.stratos.messaging.domain.topology.Port;
+import org.apache.stratos.messaging.domain.topology.Service;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.util.MessagingUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Builds topology snapshots. A snapshot does not share any mutable object with the topology it was built
+ * from. When a single cluster is updated, the new snapshot shares all services and clusters of the
+ * previous snapshot except the updated cluster and its service, which are copied from the topology.
+ * When only members of a cluster are updated, the copy of the cluster shares the unchanged members of the
+ * previous snapshot.
+ */
+class TopologySnapshotBuilder {
+
+    private TopologySnapshotBuilder() {
+    }
+
+    /**
+     * Build a snapshot by copying the complete topology.
+     *
+     * @param topology topology to be copied
+     * @return topology snapshot
+     */
+    static Topology build(Topology topology) {
+        Topology snapshot = createTopology(topology);
+        Map<String, Cluster> clusterCopies = new HashMap<String, Cluster>();
+        for (Service service : topology.getServices()) {
+            Service serviceCopy = copyService(service);
+            for (Cluster cluster : service.getClusters()) {
+                Cluster clusterCopy = copyCluster(cluster, null, null);
+                clusterCopies.put(clusterCopy.getClusterId(), clusterCopy);
+                serviceCopy.addCluster(clusterCopy);
+            }
+            snapshot.addService(serviceCopy);
+        }
+        for (Cluster cluster : topology.getClusters()) {
+            Cluster clusterCopy = clusterCopies.get(cluster.getClusterId());
+            snapshot.addToCluterMap((clusterCopy != null) ? clusterCopy : copyCluster(cluster, null, null));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Build a snapshot by copying the given services and clusters from the topology and sharing everything
+     * else with the previous snapshot. Services and clusters which no longer exist in the topology are not
+     * included in the new snapshot.
+     *
+     * @param previous     previous snapshot
+     * @param topology     topology to be copied
+     * @param serviceNames names of the updated services, including the services of updated clusters
+     * @param clusterIds   updated cluster ids
+     * @return topology snapshot
+     */
+    static Topology update(Topology previous, Topology topology, Set<String> serviceNames, Set<String> clusterIds) {
+        return update(previous, topology, serviceNames, clusterIds, null);
+    }
+
+    /**
+     * Build a snapshot by copying the given services and clusters from the topology and sharing everything
+     * else with the previous snapshot. If member ids are given, only those members of the updated clusters
+     * are copied, the other members are shared with the previous snapshot.
+     *
+     * @param previous     previous snapshot
+     * @param topology     topology to be copied
+     * @param serviceNames names of the updated services, including the services of updated clusters
+     * @param clusterIds   updated cluster ids
+     * @param memberIds    updated member ids, null if all members of the updated clusters need to be copied
+     * @return topology snapshot
+     */
+    static Topology update(Topology previous, Topology topology, Set<String> serviceNames, Set<String> clusterIds,
+                           Set<String> memberIds) {
+        Topology snapshot = createTopology(topology);
+        Map<String, Cluster> clusterCopies = new HashMap<String, Cluster>();
+        for (Service previousService : previous.getServices()) {
+            if (!serviceNames.contains(previousService.getServiceName())) {
+                snapshot.addService(previousService);
+            }
+        }
+
+        for (String serviceName : serviceNames) {
+            Service service = topology.getService(serviceName);
+            if (service == null) {
+                continue;
+            }
+            Service previousService = previous.getService(serviceName);
+            Service serviceCopy = copyService(service);
+            for (Cluster cluster : service.getClusters()) {
+                Cluster previousCluster = (previousService != null) ?
+                        previousService.getCluster(cluster.getClusterId()) : null;
+                if ((previousCluster != null) && !clusterIds.contains(cluster.getClusterId())) {
+                    serviceCopy.addCluster(previousCluster);
+                } else {
+                    Cluster clusterCopy = copyCluster(cluster, (memberIds != null) ? previousCluster : null,
+                            memberIds);
+                    clusterCopies.put(clusterCopy.getClusterId(), clusterCopy);
+                    serviceCopy.addCluster(clusterCopy);
+                }
+            }
+            snapshot.addService(serviceCopy);
+        }
+
+        for (Cluster previousCluster : previous.getClusters()) {
+            String clusterId = previousCluster.getClusterId();
+            if (!clusterIds.contains(clusterId) && !clusterCopies.containsKey(clusterId)) {
+                snapshot.addToCluterMap(previousCluster);
+            }
+        }
+        for (Cluster clusterCopy : clusterCopies.values()) {
+            if (topology.clusterExist(clusterCopy.getClusterId())) {
+                snapshot.addToCluterMap(clusterCopy);
+            }
+        }
+        return snapshot;
+    }
+
+    private static Topology createTopology(Topology topology) {
+        Topology snapshot = new Topology();
+        snapshot.setInitialized(topology.isInitialized());
+        snapshot.setVersion(topology.getVersion());
+        return snapshot;
+    }
+
+    private static Service copyService(Service service) {
+        Service serviceCopy = new Service(service.getServiceName(), service.getServiceType());
+        for (Port port : service.getPorts()) {
+            serviceCopy.addPort(new Port(port.getProtocol(), port.getValue(), port.getProxy()));
+        }
+        if (service.getProperties() != null) {
+            serviceCopy.setProperties((Properties) service.getProperties().clone());
+        }
+        return serviceCopy;
+    }
+
+    /**
+     * Copy the cluster field by field. Members found in the previous copy of the cluster which are not
+     * listed as updated are shared, the rest of the members are copied.
+     *
+     * @param cluster         cluster to be copied
+     * @param previousCluster previous copy of the cluster, null if all members need to be copied
+     * @param memberIds       updated member ids
+     * @return cluster copy
+     */
+    private static Cluster copyCluster(Cluster cluster, Cluster previousCluster, Set<String> memberIds) {
+        Cluster clusterCopy = new Cluster(cluster.getServiceName(), cluster.getClusterId(),
+                cluster.getDeploymentPolicyName(), cluster.getAutoscalePolicyName(), cluster.getAppId());
+        if (cluster.getHostNames() != null) {
+            clusterCopy.setHostNames(new ArrayList<String>(cluster.getHostNames()));
+        }
+        if (cluster.getTenantRange() != null) {
+            clusterCopy.setTenantRange(cluster.getTenantRange());
+        }
+        clusterCopy.setLbCluster(cluster.isLbCluster());
+        clusterCopy.setLoadBalanceAlgorithmName(cluster.getLoadBalanceAlgorithmName());
+        clusterCopy.setParentId(cluster.getParentId());
+        if (cluster.getProperties() != null) {
+            clusterCopy.setProperties((Properties) cluster.getProperties().clone());
+        }
+        if (cluster.getAccessUrls() != null) {
+            Map<String, List<String>> accessUrls = new HashMap<String, List<String>>();
+            for (Map.Entry<String, List<String>> entry : cluster.getAccessUrls().entrySet()) {
+                accessUrls.put(entry.getKey(),
+                        (entry.getValue() != null) ? new ArrayList<String>(entry.getValue()) : null);
+            }
+            clusterCopy.setAccessUrls(accessUrls);
+        }
+        if (cluster.getKubernetesServices() != null) {
+            List<KubernetesService> kubernetesServices = new ArrayList<KubernetesService>();
+            for (KubernetesService kubernetesService : cluster.getKubernetesServices()) {
+                kubernetesServices.add(copy(kubernetesService, KubernetesService.class));
+            }
+            clusterCopy.setKubernetesServices(kubernetesServices);
+        }
+        clusterCopy.setKubernetesCluster(cluster.isKubernetesCluster());
+        if (cluster.getLoadBalancerIps() != null) {
+            clusterCopy.setLoadBalancerIps(new ArrayList<String>(cluster.getLoadBalancerIps()));
+        }
+        if (cluster.getInstanceIdToInstanceContextMap() != null) {
+            for (Map.Entry<String, ClusterInstance> entry : cluster.getInstanceIdToInstanceContextMap().entrySet()) {
+                clusterCopy.addInstanceContext(entry.getKey(), copy(entry.getValue(), ClusterInstance.class));
+            }
+        }
+        for (Member member : cluster.getMembers()) {
+            Member previousMember = null;
+            if ((previousCluster != null) && !memberIds.contains(member.getMemberId())) {
+                previousMember = previousCluster.getMember(member.getMemberId());
+            }
+            clusterCopy.addMember((previousMember != null) ? previousMember : copy(member, Member.class));
+        }
+        return clusterCopy;
+    }
+
+    private static <T> T copy(T object, Class<T> type) {
+        // Life cycle states of members and cluster instances are copied through their json representation
+        return type.cast(MessagingUtil.jsonToObject(MessagingUtil.ObjectToJson(object), type));
+    }
+}
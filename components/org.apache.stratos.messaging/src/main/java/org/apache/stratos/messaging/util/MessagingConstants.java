@@ -33,6 +33,51 @@ public class MessagingConstants {
     public static final String MQTT = "mqtt";
     public static final String MQTT_URL_DEFAULT = "defaultValue";
 
+    /**
+     * System property for enabling long-lived broker connections in event publishers. When enabled each
+     * publisher connects once and reuses the connection for all messages instead of connecting and
+     * disconnecting for every message.
+     */
+    public static final String PUBLISHER_PERSISTENT_CONNECTION = "stratos.messaging.publisher.persistentConnection";
+
+    /**
+     * System properties for asynchronous event publishing. When enabled, events are added to a bounded
+     * queue per topic and published in batches by a dedicated thread.
+     */
+    public static final String PUBLISHER_ASYNC = "stratos.messaging.publisher.async";
+    public static final String PUBLISHER_ASYNC_QUEUE_SIZE = "stratos.messaging.publisher.async.queueSize";
+    public static final String PUBLISHER_ASYNC_BATCH_SIZE = "stratos.messaging.publisher.async.batchSize";
+    public static final String PUBLISHER_ASYNC_FLUSH_INTERVAL = "stratos.messaging.publisher.async.flushInterval";
+    public static final String PUBLISHER_ASYNC_OVERFLOW_POLICY = "stratos.messaging.publisher.async.overflowPolicy";
+    public static final int PUBLISHER_ASYNC_QUEUE_SIZE_DEFAULT = 10000;
+    public static final int PUBLISHER_ASYNC_BATCH_SIZE_DEFAULT = 100;
+    public static final int PUBLISHER_ASYNC_FLUSH_INTERVAL_DEFAULT = 20;
+
+    /**
+     * System properties for publishing events in the compact binary format. When enabled, events supported
+     * by the binary codec are published in binary format, optionally only on the given comma separated
+     * topic name prefixes. Subscribers detect the format of each message, hence binary publishing should
+     * be enabled only once all subscribers of the topics support it.
+     */
+    public static final String PUBLISHER_BINARY_CODEC = "stratos.messaging.publisher.binaryCodec";
+    public static final String PUBLISHER_BINARY_CODEC_TOPICS = "stratos.messaging.publisher.binaryCodec.topics";
+
+    /**
+     * System properties for processing topology and health stat events in parallel. When set to a value
+     * greater than one, events are distributed to the given number of shards by cluster id (topology) or
+     * cluster instance id (health stats), events of the same key are processed in order by the same shard
+     * and events without a key are processed once all shards are idle. Event listeners registered on these
+     * receivers need to be thread safe when sharding is enabled.
+     */
+    public static final String TOPOLOGY_RECEIVER_SHARDS = "stratos.messaging.topology.receiver.shards";
+    public static final String HEALTH_STAT_RECEIVER_SHARDS = "stratos.messaging.health.stat.receiver.shards";
+
+    /**
+     * System property for enabling topology snapshots. When enabled, topology message processors publish an
+     * immutable copy of the topology after each update, which can be read without acquiring topology locks.
+     */
+    public static final String TOPOLOGY_SNAPSHOT_ENABLED = "stratos.messaging.topology.snapshot.enabled";
+
     /**
      * Quality of Service for message delivery:
      * Setting it to 2 to make sure that message is guaranteed to deliver once
@@ -19,16 +19,20 @@
 package org.apache.stratos.messaging.util;
 
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
 import org.apache.commons.lang.math.NumberUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.messaging.event.Event;
-import org.apache.stratos.messaging.message.JsonMessage;
+import org.apache.stratos.messaging.message.adapter.TopologyTypeAdapterFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.Properties;
 import java.util.UUID;
 
@@ -53,6 +57,11 @@ public class MessagingUtil {
     private static final int DEFAULT_AVERAGE_PING_INTERVAL = 1000;
     private static final int DEFAULT_FAILOVER_PING_INTERVAL = 30000;
 
+    // Gson instances are thread safe, type adapters are resolved once and cached
+    private static final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(new TopologyTypeAdapterFactory())
+            .create();
+
     // Time interval between each ping message sent to topic.
     private static int averagePingInterval;
     // Time interval between each ping message after an error had occurred.
@@ -162,7 +171,27 @@ public class MessagingUtil {
      * @return Object of the json String
      */
     public static Object jsonToObject(String json, Class type) {
-        return (new JsonMessage(json, type)).getObject();
+        return gson.fromJson(json, type);
+    }
+
+    /**
+     * Transform json into an object of given type by reading the json bytes as a stream,
+     * without creating an intermediate json string.
+     *
+     * @param json json message payload
+     * @param type type of the class
+     * @return Object of the json payload
+     */
+    public static Object jsonToObject(byte[] json, Class type) {
+        JsonReader jsonReader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(json)));
+        try {
+            return gson.fromJson(jsonReader, type);
+        } finally {
+            try {
+                jsonReader.close();
+            } catch (IOException ignore) {
+            }
+        }
     }
 
     /**
@@ -172,9 +201,7 @@ public class MessagingUtil {
      * @return JSON string
      */
     public static String ObjectToJson(Object obj) {
-        Gson gson = new Gson();
-        String result = gson.toJson(obj);
-        return result;
+        return gson.toJson(obj);
     }
 
     /**
@@ -210,6 +237,47 @@ public class MessagingUtil {
         return System.getProperty(MessagingConstants.MESSAGING_TRANSPORT, MessagingConstants.AMQP);
     }
 
+    /**
+     * Returns true if event publishers should keep their broker connections open between messages.
+     *
+     * @return true if persistent publisher connections are enabled
+     */
+    public static boolean isPublisherPersistentConnectionEnabled() {
+        return Boolean.getBoolean(MessagingConstants.PUBLISHER_PERSISTENT_CONNECTION);
+    }
+
+    /**
+     * Returns true if events should be published asynchronously.
+     *
+     * @return true if asynchronous event publishing is enabled
+     */
+    public static boolean isPublisherAsyncEnabled() {
+        return Boolean.getBoolean(MessagingConstants.PUBLISHER_ASYNC);
+    }
+
+    /**
+     * Returns true if events supported by the binary codec should be published in binary format
+     * to the given topic.
+     *
+     * @param topicName topic name
+     * @return true if binary publishing is enabled for the topic
+     */
+    public static boolean isPublisherBinaryCodecEnabled(String topicName) {
+        if (!Boolean.getBoolean(MessagingConstants.PUBLISHER_BINARY_CODEC)) {
+            return false;
+        }
+        String topics = System.getProperty(MessagingConstants.PUBLISHER_BINARY_CODEC_TOPICS);
+        if ((topics == null) || (topics.trim().length() == 0)) {
+            return true;
+        }
+        for (String topicPrefix : topics.split(",")) {
+            if (topicName.startsWith(topicPrefix.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Get the Message topic name for event
      *
@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.broker.publish;
+
+import org.apache.stratos.messaging.broker.connect.TopicPublisher;
+import org.apache.stratos.messaging.domain.exception.MessagingException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test batching, ordering and failure handling of the asynchronous event publisher.
+ */
+public class AsyncEventPublisherTest {
+
+    private static final String TOPIC_NAME = "async-publisher-test-topic";
+    private static final long FLUSH_INTERVAL = 200;
+
+    private AsyncEventPublisher eventPublisher;
+
+    @After
+    public void tearDown() {
+        if (eventPublisher != null) {
+            eventPublisher.close();
+        }
+    }
+
+    @Test
+    public void testMessagesArePublishedInOrderInBatches() {
+        RecordingTopicPublisher topicPublisher = new RecordingTopicPublisher();
+        eventPublisher = new AsyncEventPublisher(TOPIC_NAME, topicPublisher, 100, 5, FLUSH_INTERVAL,
+                AsyncEventPublisher.OverflowPolicy.BLOCK);
+
+        for (int i = 0; i < 12; i++) {
+            eventPublisher.publish("message-" + i, true);
+        }
+        eventPublisher.flush();
+
+        assertEquals(expectedMessages(0, 12), topicPublisher.getPublishedMessages());
+        // Messages are published in batches of five, each batch over a single connection
+        assertEquals(3, topicPublisher.getConnectCount());
+    }
+
+    @Test
+    public void testMessagesAreGroupedByRetryFlag() {
+        RecordingTopicPublisher topicPublisher = new RecordingTopicPublisher();
+        eventPublisher = new AsyncEventPublisher(TOPIC_NAME, topicPublisher, 100, 5, FLUSH_INTERVAL,
+                AsyncEventPublisher.OverflowPolicy.BLOCK);
+
+        boolean[] retryFlags = new boolean[]{true, true, false, false, true};
+        for (int i = 0; i < retryFlags.length; i++) {
+            eventPublisher.publish("message-" + i, retryFlags[i]);
+        }
+        eventPublisher.flush();
+
+        assertEquals(expectedMessages(0, 5), topicPublisher.getPublishedMessages());
+        assertEquals(Arrays.asList(true, true, false, false, true), topicPublisher.getRetryFlags());
+        // A single batch published in three groups of consecutive messages having the same retry flag
+        assertEquals(3, topicPublisher.getConnectCount());
+    }
+
+    @Test
+    public void testFlushWaitsForAcceptedMessages() {
+        RecordingTopicPublisher topicPublisher = new RecordingTopicPublisher();
+        eventPublisher = new AsyncEventPublisher(TOPIC_NAME, topicPublisher, 1000, 100, FLUSH_INTERVAL,
+                AsyncEventPublisher.OverflowPolicy.BLOCK);
+
+        for (int i = 0; i < 250; i++) {
+            eventPublisher.publish("message-" + i, i % 3 == 0);
+        }
+        eventPublisher.flush();
+
+        assertEquals(expectedMessages(0, 250), topicPublisher.getPublishedMessages());
+        assertEquals(0, eventPublisher.getQueueDepth());
+    }
+
+    @Test
+    public void testFailureInTheMiddleOfBatchPublishesRemainingMessages() {
+        RecordingTopicPublisher topicPublisher = new RecordingTopicPublisher();
+        topicPublisher.failOnce(json("message-2"));
+        eventPublisher = new AsyncEventPublisher(TOPIC_NAME, topicPublisher, 100, 5, FLUSH_INTERVAL,
+                AsyncEventPublisher.OverflowPolicy.BLOCK);
+
+        for (int i = 0; i < 5; i++) {
+            eventPublisher.publish("message-" + i, false);
+        }
+        eventPublisher.flush();
+
+        // Message which failed is published again individually, no message is lost or duplicated
+        assertEquals(expectedMessages(0, 5), topicPublisher.getPublishedMessages());
+    }
+
+    @Test
+    public void testMessageWhichCannotBePublishedDoesNotDropOthers() {
+        RecordingTopicPublisher topicPublisher = new RecordingTopicPublisher();
+        topicPublisher.failAlways(json("message-2"));
+        eventPublisher = new AsyncEventPublisher(TOPIC_NAME, topicPublisher, 100, 5, FLUSH_INTERVAL,
+                AsyncEventPublisher.OverflowPolicy.BLOCK);
+
+        for (int i = 0; i < 5; i++) {
+            eventPublisher.publish("message-" + i, false);
+        }
+        eventPublisher.flush();
+
+        assertEquals(Arrays.asList(json("message-0"), json("message-1"), json("message-3"), json("message-4")),
+                topicPublisher.getPublishedMessages());
+    }
+
+    @Test
+    public void testMessagesAcceptedWhileClosingArePublished() throws InterruptedException {
+        RecordingTopicPublisher topicPublisher = new RecordingTopicPublisher();
+        eventPublisher = new AsyncEventPublisher(TOPIC_NAME, topicPublisher, 10, 5, FLUSH_INTERVAL,
+                AsyncEventPublisher.OverflowPolicy.BLOCK);
+
+        final AtomicInteger acceptedCount = new AtomicInteger();
+        final CountDownLatch startLatch = new CountDownLatch(4);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            final int threadIndex = i;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    startLatch.countDown();
+                    for (int j = 0; ; j++) {
+                        try {
+                            eventPublisher.publish("message-" + threadIndex + "-" + j, false);
+                            acceptedCount.incrementAndGet();
+                        } catch (MessagingException e) {
+                            return;
+                        }
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        startLatch.await();
+        Thread.sleep(50);
+        eventPublisher.close();
+        for (Thread thread : threads) {
+            thread.join(5000);
+            assertTrue("Publishing thread did not stop", !thread.isAlive());
+        }
+
+        // Every message accepted before the publisher was closed has been published
+        assertEquals(acceptedCount.get(), topicPublisher.getPublishedMessages().size());
+        eventPublisher = null;
+    }
+
+    @Test
+    public void testBlockedPublishFailsOnceThePublisherThreadHasStopped() {
+        RecordingTopicPublisher topicPublisher = new RecordingTopicPublisher();
+        topicPublisher.stopOn(json("message-0"));
+        eventPublisher = new AsyncEventPublisher(TOPIC_NAME, topicPublisher, 1, 1, FLUSH_INTERVAL,
+                AsyncEventPublisher.OverflowPolicy.BLOCK);
+
+        eventPublisher.publish("message-0", false);
+        eventPublisher.publish("message-1", false);
+        try {
+            eventPublisher.publish("message-2", false);
+            fail("Message accepted while the queue is full and the publisher thread has stopped");
+        } catch (MessagingException e) {
+            assertTrue(e.getMessage().contains("not running"));
+        }
+    }
+
+    @Test
+    public void testInvalidConfiguration() {
+        try {
+            new AsyncEventPublisher(TOPIC_NAME, new RecordingTopicPublisher(), 0, 5, FLUSH_INTERVAL,
+                    AsyncEventPublisher.OverflowPolicy.BLOCK);
+            fail("Asynchronous event publisher created with queue size 0");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("queueSize"));
+        }
+        try {
+            new AsyncEventPublisher(TOPIC_NAME, new RecordingTopicPublisher(), 10, 0, FLUSH_INTERVAL,
+                    AsyncEventPublisher.OverflowPolicy.BLOCK);
+            fail("Asynchronous event publisher created with batch size 0");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("batchSize"));
+        }
+    }
+
+    private static List<String> expectedMessages(int from, int to) {
+        List<String> messages = new ArrayList<String>();
+        for (int i = from; i < to; i++) {
+            messages.add(json("message-" + i));
+        }
+        return messages;
+    }
+
+    private static String json(String text) {
+        return "\"" + text + "\"";
+    }
+
+    /**
+     * Topic publisher recording the messages published, publishing the given messages fails.
+     */
+    private static class RecordingTopicPublisher implements TopicPublisher {
+
+        private final List<String> publishedMessages = Collections.synchronizedList(new ArrayList<String>());
+        private final List<Boolean> retryFlags = Collections.synchronizedList(new ArrayList<Boolean>());
+        private final Set<String> failOnceMessages = Collections.synchronizedSet(new HashSet<String>());
+        private final Set<String> failAlwaysMessages = Collections.synchronizedSet(new HashSet<String>());
+        private volatile String stopMessage;
+        private volatile int connectCount;
+        private volatile boolean connected;
+
+        private void failOnce(String message) {
+            failOnceMessages.add(message);
+        }
+
+        private void failAlways(String message) {
+            failAlwaysMessages.add(message);
+        }
+
+        private void stopOn(String message) {
+            stopMessage = message;
+        }
+
+        private List<String> getPublishedMessages() {
+            return new ArrayList<String>(publishedMessages);
+        }
+
+        private List<Boolean> getRetryFlags() {
+            return new ArrayList<Boolean>(retryFlags);
+        }
+
+        private int getConnectCount() {
+            return connectCount;
+        }
+
+        @Override
+        public void publish(String message, boolean retry) {
+            if (message.equals(stopMessage)) {
+                // Stop the publisher thread
+                throw new ThreadDeath();
+            }
+            if (failOnceMessages.remove(message) || failAlwaysMessages.contains(message)) {
+                throw new MessagingException("Could not publish message: " + message);
+            }
+            publishedMessages.add(message);
+            retryFlags.add(retry);
+        }
+
+        @Override
+        public void publish(byte[] message, boolean retry) {
+            publish(new String(message), retry);
+        }
+
+        @Override
+        public void create() {
+        }
+
+        @Override
+        public String getServerURI() {
+            return "stub://localhost";
+        }
+
+        @Override
+        public void connect() {
+            connectCount++;
+            connected = true;
+        }
+
+        @Override
+        public void disconnect() {
+            connected = false;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.processor;
+
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.listener.EventListener;
+import org.apache.stratos.messaging.message.processor.application.ApplicationsMessageProcessorChain;
+import org.apache.stratos.messaging.message.processor.application.signup.ApplicationSignUpMessageProcessorChain;
+import org.apache.stratos.messaging.message.processor.cluster.status.ClusterStatusMessageProcessorChain;
+import org.apache.stratos.messaging.message.processor.domain.mapping.DomainMappingMessageProcessorChain;
+import org.apache.stratos.messaging.message.processor.health.stat.HealthStatMessageProcessorChain;
+import org.apache.stratos.messaging.message.processor.initializer.InitializerMessageProcessorChain;
+import org.apache.stratos.messaging.message.processor.instance.notifier.InstanceNotifierMessageProcessorChain;
+import org.apache.stratos.messaging.message.processor.instance.status.InstanceStatusMessageProcessorChain;
+import org.apache.stratos.messaging.message.processor.tenant.TenantMessageProcessorChain;
+import org.apache.stratos.messaging.message.processor.topology.TopologyMessageProcessorChain;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test dispatching messages of message processor chains by event type.
+ */
+public class MessageProcessorChainTest {
+
+    /**
+     * Every event type declared by a processor of a chain should be dispatched to that processor and the
+     * processor should handle the event itself rather than passing it down the chain.
+     */
+    @Test
+    public void testEventTypesAreDispatchedToHandlingProcessors() {
+        List<MessageProcessorChain> chains = Arrays.asList(
+                new ApplicationsMessageProcessorChain(),
+                new ApplicationSignUpMessageProcessorChain(),
+                new ClusterStatusMessageProcessorChain(),
+                new DomainMappingMessageProcessorChain(),
+                new HealthStatMessageProcessorChain(),
+                new InitializerMessageProcessorChain(),
+                new InstanceNotifierMessageProcessorChain(),
+                new InstanceStatusMessageProcessorChain(),
+                new TenantMessageProcessorChain(),
+                new TopologyMessageProcessorChain());
+
+        for (MessageProcessorChain chain : chains) {
+            String chainName = chain.getClass().getSimpleName();
+            List<MessageProcessor> processors = new ArrayList<MessageProcessor>(chain.getMessageProcessors());
+            assertFalse(chainName + " has no message processors", processors.isEmpty());
+
+            for (int i = 0; i < processors.size(); i++) {
+                MessageProcessor processor = processors.get(i);
+                String processorName = chainName + "/" + processor.getClass().getSimpleName();
+                String eventType = processor.getEventType();
+                assertNotNull(processorName + " does not declare the event type it handles", eventType);
+                assertSame(processorName + " is not the dispatch target of " + eventType, processor,
+                        chain.getEventTypeProcessor(eventType));
+
+                // The processor passes the event to its successor if its own type check disagrees
+                // with the declared event type
+                RecordingMessageProcessor successor = new RecordingMessageProcessor();
+                processor.setNext(successor);
+                try {
+                    processor.process(eventType, "{}", null);
+                } catch (RuntimeException ignore) {
+                    // Processing an empty event without the object to update fails after the type check
+                }
+                try {
+                    processor.process(eventType, new Message("test-topic", "{}"), null);
+                } catch (RuntimeException ignore) {
+                }
+                processor.setNext((i + 1) < processors.size() ? processors.get(i + 1) : null);
+                assertTrue(processorName + " does not handle " + eventType, successor.getTypes().isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void testUnknownEventTypesFallBackToWalkingTheChain() {
+        RecordingMessageProcessor first = new RecordingMessageProcessor("event-a", "event-a");
+        RecordingMessageProcessor second = new RecordingMessageProcessor("event-c", "event-c");
+        RecordingMessageProcessor third = new RecordingMessageProcessor("event-b", null);
+        TestMessageProcessorChain chain = new TestMessageProcessorChain(first, second, third);
+
+        assertNull(chain.getEventTypeProcessor("event-b"));
+        assertSame(second, chain.getEventTypeProcessor("event-c"));
+
+        // Declared event type is dispatched directly
+        assertTrue(chain.process("event-c", "{}", null));
+        assertTrue(first.getTypes().isEmpty());
+        assertEquals(Arrays.asList("event-c"), second.getTypes());
+
+        // Event type not declared by any processor walks the chain from the first processor
+        assertTrue(chain.process("event-b", new Message("test-topic", "{}"), null));
+        assertEquals(Arrays.asList("event-b"), first.getTypes());
+        assertEquals(Arrays.asList("event-c", "event-b"), second.getTypes());
+        assertEquals(Arrays.asList("event-b"), third.getTypes());
+
+        try {
+            chain.process("event-d", "{}", null);
+            fail("Event not handled by any processor was processed");
+        } catch (RuntimeException e) {
+            assertEquals(Arrays.asList("event-b", "event-d"), first.getTypes());
+            assertEquals(Arrays.asList("event-b", "event-d"), third.getTypes());
+        }
+    }
+
+    /**
+     * A processor which does not declare its event type may handle messages of any type, hence messages
+     * of processors added after it should walk the chain.
+     */
+    @Test
+    public void testProcessorsAfterUntypedProcessorWalkTheChain() {
+        RecordingMessageProcessor first = new RecordingMessageProcessor("event-a", "event-a");
+        RecordingMessageProcessor second = new RecordingMessageProcessor("event-c", null);
+        RecordingMessageProcessor third = new RecordingMessageProcessor("event-c", "event-c");
+        TestMessageProcessorChain chain = new TestMessageProcessorChain(first, second, third);
+
+        assertSame(first, chain.getEventTypeProcessor("event-a"));
+        assertNull(chain.getEventTypeProcessor("event-c"));
+
+        // Untyped processor preceding the typed processor handles the event
+        assertTrue(chain.process("event-c", "{}", null));
+        assertEquals(Arrays.asList("event-c"), first.getTypes());
+        assertEquals(Arrays.asList("event-c"), second.getTypes());
+        assertTrue(third.getTypes().isEmpty());
+
+        // Typed processor is dispatched directly once the untyped processor is removed
+        chain.removeLast();
+        chain.removeLast();
+        RecordingMessageProcessor fourth = new RecordingMessageProcessor("event-c", "event-c");
+        chain.add(fourth);
+        assertSame(fourth, chain.getEventTypeProcessor("event-c"));
+        assertTrue(chain.process("event-c", new Message("test-topic", "{}"), null));
+        assertEquals(Arrays.asList("event-c"), first.getTypes());
+        assertEquals(Arrays.asList("event-c"), fourth.getTypes());
+    }
+
+    /**
+     * Message processor chain made of the given processors.
+     */
+    private static class TestMessageProcessorChain extends MessageProcessorChain {
+
+        private TestMessageProcessorChain(MessageProcessor... processors) {
+            for (MessageProcessor processor : processors) {
+                add(processor);
+            }
+        }
+
+        @Override
+        protected void initialize() {
+        }
+
+        @Override
+        public void addEventListener(EventListener eventListener) {
+        }
+
+        @Override
+        public void removeEventListener(EventListener eventListener) {
+        }
+    }
+
+    /**
+     * Message processor recording the types of the messages it receives, handles messages of the given type.
+     */
+    private static class RecordingMessageProcessor extends MessageProcessor {
+
+        private final String handledType;
+        private final String eventType;
+        private final List<String> types = new ArrayList<String>();
+        private MessageProcessor nextProcessor;
+
+        private RecordingMessageProcessor() {
+            this(null, null);
+        }
+
+        private RecordingMessageProcessor(String handledType, String eventType) {
+            this.handledType = handledType;
+            this.eventType = eventType;
+        }
+
+        private List<String> getTypes() {
+            return types;
+        }
+
+        @Override
+        public void setNext(MessageProcessor nextProcessor) {
+            this.nextProcessor = nextProcessor;
+        }
+
+        @Override
+        public String getEventType() {
+            return eventType;
+        }
+
+        @Override
+        public boolean process(String type, String message, Object object) {
+            types.add(type);
+            if (type.equals(handledType)) {
+                return true;
+            }
+            if (nextProcessor != null) {
+                return nextProcessor.process(type, message, object);
+            }
+            if (handledType == null) {
+                // Successor recording messages passed to it
+                return false;
+            }
+            throw new RuntimeException(String.format(
+                    "Failed to process message using available message processors: [type] %s", type));
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.processor.topology;
+
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.Member;
+import org.apache.stratos.messaging.domain.topology.Service;
+import org.apache.stratos.messaging.domain.topology.ServiceType;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.event.topology.CompleteTopologyEvent;
+import org.apache.stratos.messaging.event.topology.TopologyDiffEvent;
+import org.apache.stratos.messaging.util.MessagingUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test applying topology diffs and re-initializing an out of sync topology using the complete topology.
+ */
+public class TopologyDiffMessageProcessorTest {
+
+    private static final long VERSION = 5;
+
+    private Topology topology;
+    private TestTopologyDiffMessageProcessor diffMessageProcessor;
+
+    @Before
+    public void setUp() {
+        topology = new Topology();
+        Service service = createService("service-1", "cluster-1");
+        topology.addService(service);
+        topology.addToCluterMap(service.getCluster("cluster-1"));
+        topology.setVersion(VERSION);
+        topology.setInitialized(true);
+
+        diffMessageProcessor = new TestTopologyDiffMessageProcessor();
+    }
+
+    @Test
+    public void testDiffIsAppliedOnMatchingBaseVersion() {
+        TopologyDiffEvent diffEvent = new TopologyDiffEvent(VERSION, VERSION + 1);
+        Cluster updatedCluster = createCluster("service-1", "cluster-1");
+        updatedCluster.addMember(createMember("service-1", "cluster-1", "member-1"));
+        diffEvent.addUpdatedCluster(updatedCluster);
+        diffEvent.addUpdatedService(createService("service-2", "cluster-2"));
+
+        assertTrue(process(diffEvent));
+
+        assertEquals(VERSION + 1, topology.getVersion());
+        assertFalse(topology.isOutOfSync());
+        assertTrue(topology.getCluster("cluster-1").memberExists("member-1"));
+        assertTrue(topology.getService("service-1").getCluster("cluster-1").memberExists("member-1"));
+        assertNotNull(topology.getService("service-2"));
+        assertNotNull(topology.getCluster("cluster-2"));
+        assertEquals(0, diffMessageProcessor.getRequestCount());
+
+        // Services and clusters removed
+        diffEvent = new TopologyDiffEvent(VERSION + 1, VERSION + 2);
+        diffEvent.addRemovedCluster("service-1", "cluster-1");
+        diffEvent.addRemovedService("service-2");
+
+        assertTrue(process(diffEvent));
+
+        assertEquals(VERSION + 2, topology.getVersion());
+        assertNull(topology.getService("service-1").getCluster("cluster-1"));
+        assertNull(topology.getCluster("cluster-1"));
+        assertNull(topology.getService("service-2"));
+        assertNull(topology.getCluster("cluster-2"));
+    }
+
+    @Test
+    public void testDiffIsRejectedOnVersionMismatch() {
+        // Diff published after a diff which has been missed
+        TopologyDiffEvent diffEvent = new TopologyDiffEvent(VERSION + 1, VERSION + 2);
+        diffEvent.addUpdatedService(createService("service-2", "cluster-2"));
+
+        assertFalse(process(diffEvent));
+
+        assertTrue(topology.isOutOfSync());
+        assertEquals(VERSION, topology.getVersion());
+        assertNull(topology.getService("service-2"));
+        assertEquals(1, diffMessageProcessor.getRequestCount());
+
+        // Diffs received while the topology is out of sync are not applied, complete topology requests are throttled
+        diffEvent = new TopologyDiffEvent(VERSION + 2, VERSION + 3);
+        diffEvent.addUpdatedService(createService("service-3", "cluster-3"));
+
+        assertFalse(process(diffEvent));
+
+        assertTrue(topology.isOutOfSync());
+        assertNull(topology.getService("service-3"));
+        assertEquals(1, diffMessageProcessor.getRequestCount());
+    }
+
+    @Test
+    public void testCompleteTopologyReplacesOutOfSyncTopology() {
+        topology.setOutOfSync(true);
+
+        Topology completeTopology = new Topology();
+        Service service = createService("service-2", "cluster-2");
+        service.getCluster("cluster-2").addMember(createMember("service-2", "cluster-2", "member-1"));
+        completeTopology.addService(service);
+        completeTopology.setVersion(VERSION + 4);
+        CompleteTopologyEvent completeTopologyEvent = new CompleteTopologyEvent(completeTopology);
+
+        CompleteTopologyMessageProcessor completeTopologyMessageProcessor = new CompleteTopologyMessageProcessor();
+        assertTrue(completeTopologyMessageProcessor.process(CompleteTopologyEvent.class.getName(),
+                MessagingUtil.ObjectToJson(completeTopologyEvent), topology));
+
+        assertFalse(topology.isOutOfSync());
+        assertEquals(VERSION + 4, topology.getVersion());
+        assertNull(topology.getService("service-1"));
+        assertNull(topology.getCluster("cluster-1"));
+        assertNotNull(topology.getService("service-2"));
+        assertTrue(topology.getCluster("cluster-2").memberExists("member-1"));
+
+        // Diffs based on the complete topology are applied again
+        TopologyDiffEvent diffEvent = new TopologyDiffEvent(VERSION + 4, VERSION + 5);
+        diffEvent.addUpdatedService(createService("service-3", "cluster-3"));
+
+        assertTrue(process(diffEvent));
+        assertNotNull(topology.getService("service-3"));
+    }
+
+    private boolean process(TopologyDiffEvent diffEvent) {
+        return diffMessageProcessor.process(TopologyDiffEvent.class.getName(),
+                MessagingUtil.ObjectToJson(diffEvent), topology);
+    }
+
+    private static Service createService(String serviceName, String clusterId) {
+        Service service = new Service(serviceName, ServiceType.SingleTenant);
+        service.addCluster(createCluster(serviceName, clusterId));
+        return service;
+    }
+
+    private static Cluster createCluster(String serviceName, String clusterId) {
+        return new Cluster(serviceName, clusterId, "deployment-policy-1", "autoscaling-policy-1", "application-1");
+    }
+
+    private static Member createMember(String serviceName, String clusterId, String memberId) {
+        return new Member(serviceName, clusterId, memberId, "cluster-instance-1", "network-partition-1",
+                "partition-1", null, System.currentTimeMillis());
+    }
+
+    /**
+     * Topology diff message processor counting complete topology requests instead of publishing them.
+     */
+    private static class TestTopologyDiffMessageProcessor extends TopologyDiffMessageProcessor {
+
+        private int requestCount;
+
+        private int getRequestCount() {
+            return requestCount;
+        }
+
+        @Override
+        void publishCompleteTopologyRequest() {
+            requestCount++;
+        }
+    }
+}
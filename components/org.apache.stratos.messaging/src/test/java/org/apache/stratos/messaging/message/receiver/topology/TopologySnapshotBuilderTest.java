@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.receiver.topology;
+
+import org.apache.stratos.messaging.domain.instance.ClusterInstance;
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.Member;
+import org.apache.stratos.messaging.domain.topology.MemberStatus;
+import org.apache.stratos.messaging.domain.topology.Service;
+import org.apache.stratos.messaging.domain.topology.ServiceType;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test building topology snapshots which are isolated from the topology they were built from.
+ */
+public class TopologySnapshotBuilderTest {
+
+    private Topology topology;
+
+    @Before
+    public void setUp() {
+        topology = new Topology();
+        Service service1 = new Service("service-1", ServiceType.SingleTenant);
+        Cluster cluster1 = createCluster("service-1", "cluster-1");
+        cluster1.addHostName("cluster-1.example.com");
+        cluster1.addInstanceContext("cluster-instance-1",
+                new ClusterInstance("alias-1", "cluster-1", "cluster-instance-1"));
+        cluster1.addMember(createMember("service-1", "cluster-1", "member-1"));
+        cluster1.addMember(createMember("service-1", "cluster-1", "member-2"));
+        service1.addCluster(cluster1);
+        topology.addService(service1);
+        topology.addToCluterMap(cluster1);
+
+        Service service2 = new Service("service-2", ServiceType.SingleTenant);
+        Cluster cluster2 = createCluster("service-2", "cluster-2");
+        cluster2.addMember(createMember("service-2", "cluster-2", "member-3"));
+        service2.addCluster(cluster2);
+        topology.addService(service2);
+        topology.addToCluterMap(cluster2);
+        topology.setInitialized(true);
+    }
+
+    @Test
+    public void testSnapshotIsIsolatedFromTopologyMutations() {
+        Topology snapshot = TopologySnapshotBuilder.build(topology);
+
+        Cluster cluster1 = topology.getService("service-1").getCluster("cluster-1");
+        cluster1.getMember("member-1").setStatus(MemberStatus.Initialized);
+        cluster1.getMember("member-1").setDefaultPrivateIP("10.0.0.1");
+        cluster1.addMember(createMember("service-1", "cluster-1", "member-4"));
+        cluster1.addHostName("cluster-1-new.example.com");
+        Properties properties = new Properties();
+        properties.setProperty("key", "value");
+        cluster1.setProperties(properties);
+        cluster1.removeInstanceContext("cluster-instance-1");
+        topology.getService("service-1").setProperties(properties);
+        topology.removeService("service-2");
+        topology.removeFromClusterMap("cluster-2");
+
+        Cluster clusterCopy = snapshot.getService("service-1").getCluster("cluster-1");
+        assertNotSame(cluster1, clusterCopy);
+        assertSame(clusterCopy, snapshot.getCluster("cluster-1"));
+        assertEquals(MemberStatus.Created, clusterCopy.getMember("member-1").getStatus());
+        assertNull(clusterCopy.getMember("member-1").getDefaultPrivateIP());
+        assertFalse(clusterCopy.memberExists("member-4"));
+        assertEquals(Collections.singletonList("cluster-1.example.com"), clusterCopy.getHostNames());
+        assertNull(clusterCopy.getProperties());
+        assertNotNull(clusterCopy.getInstanceContexts("cluster-instance-1"));
+        assertNull(snapshot.getService("service-1").getProperties());
+        assertNotNull(snapshot.getService("service-2"));
+        assertNotNull(snapshot.getCluster("cluster-2"));
+    }
+
+    @Test
+    public void testUpdatedSnapshotReflectsUpdatedMember() {
+        Topology snapshot = TopologySnapshotBuilder.build(topology);
+
+        Cluster cluster1 = topology.getService("service-1").getCluster("cluster-1");
+        cluster1.getMember("member-1").setStatus(MemberStatus.Initialized);
+        Topology updatedSnapshot = TopologySnapshotBuilder.update(snapshot, topology,
+                Collections.singleton("service-1"), Collections.singleton("cluster-1"),
+                Collections.singleton("member-1"));
+
+        Cluster previousCopy = snapshot.getCluster("cluster-1");
+        Cluster clusterCopy = updatedSnapshot.getService("service-1").getCluster("cluster-1");
+        assertSame(clusterCopy, updatedSnapshot.getCluster("cluster-1"));
+        assertEquals(MemberStatus.Initialized, clusterCopy.getMember("member-1").getStatus());
+        // Previous snapshot is not modified, members not updated are shared with it
+        assertEquals(MemberStatus.Created, previousCopy.getMember("member-1").getStatus());
+        assertSame(previousCopy.getMember("member-2"), clusterCopy.getMember("member-2"));
+        assertNotSame(cluster1.getMember("member-2"), clusterCopy.getMember("member-2"));
+        // Clusters of other services are shared with the previous snapshot
+        assertSame(snapshot.getService("service-2"), updatedSnapshot.getService("service-2"));
+        assertSame(snapshot.getCluster("cluster-2"), updatedSnapshot.getCluster("cluster-2"));
+
+        // Removed member is left out of the next snapshot
+        cluster1.removeMember(cluster1.getMember("member-2"));
+        Topology nextSnapshot = TopologySnapshotBuilder.update(updatedSnapshot, topology,
+                Collections.singleton("service-1"), Collections.singleton("cluster-1"),
+                Collections.singleton("member-2"));
+
+        assertFalse(nextSnapshot.getCluster("cluster-1").memberExists("member-2"));
+        assertSame(clusterCopy.getMember("member-1"), nextSnapshot.getCluster("cluster-1").getMember("member-1"));
+        assertTrue(updatedSnapshot.getCluster("cluster-1").memberExists("member-2"));
+    }
+
+    @Test
+    public void testUpdatedSnapshotReflectsUpdatedCluster() {
+        Topology snapshot = TopologySnapshotBuilder.build(topology);
+
+        Cluster cluster2 = topology.getService("service-2").getCluster("cluster-2");
+        cluster2.addMember(createMember("service-2", "cluster-2", "member-5"));
+        cluster2.setLoadBalanceAlgorithmName("round-robin");
+        topology.getService("service-1").removeCluster("cluster-1");
+        topology.removeFromClusterMap("cluster-1");
+        Topology updatedSnapshot = TopologySnapshotBuilder.update(snapshot, topology,
+                new HashSet<String>(Arrays.asList("service-1", "service-2")),
+                new HashSet<String>(Arrays.asList("cluster-1", "cluster-2")));
+
+        Cluster clusterCopy = updatedSnapshot.getCluster("cluster-2");
+        assertTrue(clusterCopy.memberExists("member-5"));
+        assertEquals("round-robin", clusterCopy.getLoadBalanceAlgorithmName());
+        assertNotSame(snapshot.getCluster("cluster-2").getMember("member-3"), clusterCopy.getMember("member-3"));
+        assertNull(updatedSnapshot.getCluster("cluster-1"));
+        assertNull(updatedSnapshot.getService("service-1").getCluster("cluster-1"));
+        assertFalse(snapshot.getCluster("cluster-2").memberExists("member-5"));
+    }
+
+    private static Cluster createCluster(String serviceName, String clusterId) {
+        return new Cluster(serviceName, clusterId, "deployment-policy-1", "autoscaling-policy-1", "application-1");
+    }
+
+    private static Member createMember(String serviceName, String clusterId, String memberId) {
+        return new Member(serviceName, clusterId, memberId, "cluster-instance-1", "network-partition-1",
+                "partition-1", null, System.currentTimeMillis());
+    }
+}
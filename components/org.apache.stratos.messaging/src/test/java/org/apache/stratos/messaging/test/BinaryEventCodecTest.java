@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import com.google.gson.Gson;
+import org.apache.stratos.common.domain.LoadBalancingIPType;
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.event.Event;
+import org.apache.stratos.messaging.event.health.stat.AverageRequestsInFlightEvent;
+import org.apache.stratos.messaging.event.health.stat.MemberAverageLoadAverageEvent;
+import org.apache.stratos.messaging.event.health.stat.MemberFaultEvent;
+import org.apache.stratos.messaging.event.instance.status.InstanceStartedEvent;
+import org.apache.stratos.messaging.event.topology.CompleteTopologyEvent;
+import org.apache.stratos.messaging.event.topology.MemberCreatedEvent;
+import org.apache.stratos.messaging.event.topology.MemberInitializedEvent;
+import org.apache.stratos.messaging.event.topology.MemberTerminatedEvent;
+import org.apache.stratos.messaging.listener.health.stat.MemberAverageLoadAverageEventListener;
+import org.apache.stratos.messaging.message.codec.BinaryEventCodec;
+import org.apache.stratos.messaging.message.processor.health.stat.HealthStatMessageProcessorChain;
+import org.apache.stratos.messaging.util.MessagingUtil;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests encoding and decoding events with the binary event codec.
+ */
+public class BinaryEventCodecTest {
+
+    @Test
+    public void testHealthStatEvent() {
+        MemberAverageLoadAverageEvent event = new MemberAverageLoadAverageEvent("cluster-instance-1",
+                "php.php.domain.member-1", 42.5f);
+        byte[] payload = BinaryEventCodec.encode(event);
+        String json = new Gson().toJson(event);
+
+        assertTrue(BinaryEventCodec.isBinary(payload));
+        assertFalse(BinaryEventCodec.isBinary(json.getBytes()));
+        assertTrue(payload.length < json.getBytes().length);
+
+        MemberAverageLoadAverageEvent decodedEvent = (MemberAverageLoadAverageEvent) BinaryEventCodec.decode(payload);
+        assertEquals(event.getClusterInstanceId(), decodedEvent.getClusterInstanceId());
+        assertEquals(event.getMemberId(), decodedEvent.getMemberId());
+        assertEquals(event.getValue(), decodedEvent.getValue(), 0.0f);
+    }
+
+    @Test
+    public void testTopologyEvent() {
+        MemberInitializedEvent event = new MemberInitializedEvent("php", "php.php.domain", "cluster-instance-1",
+                "php.php.domain.member-1", "network-partition-1", "partition-1", "instance-1");
+        event.setMemberPrivateIPs(Arrays.asList("10.0.0.1", "10.0.0.2"));
+        event.setDefaultPrivateIP("10.0.0.1");
+        Properties properties = new Properties();
+        properties.setProperty("key1", "value1");
+        event.setProperties(properties);
+
+        MemberInitializedEvent decodedEvent = (MemberInitializedEvent) BinaryEventCodec.decode(
+                BinaryEventCodec.encode(event));
+        assertEquals(event.getServiceName(), decodedEvent.getServiceName());
+        assertEquals(event.getMemberId(), decodedEvent.getMemberId());
+        assertEquals(event.getInstanceId(), decodedEvent.getInstanceId());
+        assertEquals(event.getMemberPrivateIPs(), decodedEvent.getMemberPrivateIPs());
+        assertEquals(event.getDefaultPrivateIP(), decodedEvent.getDefaultPrivateIP());
+        assertEquals(event.getProperties(), decodedEvent.getProperties());
+        assertNull(decodedEvent.getMemberPublicIPs());
+        assertNull(decodedEvent.getDefaultPublicIP());
+
+        MemberCreatedEvent memberCreatedEvent = new MemberCreatedEvent("php", "php.php.domain",
+                "cluster-instance-1", "php.php.domain.member-1", "network-partition-1", "partition-1",
+                LoadBalancingIPType.Public, -1L);
+        MemberCreatedEvent decodedMemberCreatedEvent = (MemberCreatedEvent) BinaryEventCodec.decode(
+                BinaryEventCodec.encode(memberCreatedEvent));
+        assertEquals(LoadBalancingIPType.Public, decodedMemberCreatedEvent.getLoadBalancingIPType());
+        assertEquals(-1L, decodedMemberCreatedEvent.getInitTime());
+    }
+
+    @Test
+    public void testUnsupportedEvent() {
+        // Event classes are created through their no-arg constructors
+        assertTrue(BinaryEventCodec.canEncode(MemberAverageLoadAverageEvent.class));
+        assertTrue(BinaryEventCodec.canEncode(AverageRequestsInFlightEvent.class));
+        assertTrue(BinaryEventCodec.canEncode(MemberFaultEvent.class));
+        assertTrue(BinaryEventCodec.canEncode(InstanceStartedEvent.class));
+        assertTrue(BinaryEventCodec.canEncode(MemberTerminatedEvent.class));
+        assertFalse(BinaryEventCodec.canEncode(CompleteTopologyEvent.class));
+    }
+
+    @Test
+    public void testMessageText() {
+        MemberAverageLoadAverageEvent event = new MemberAverageLoadAverageEvent("cluster-instance-1",
+                "php.php.domain.member-1", 42.5f);
+        Message message = new Message("health.stat.MemberAverageLoadAverageEvent", BinaryEventCodec.encode(event));
+        assertTrue(message.isBinary());
+
+        // Text of a binary message is the JSON representation of the event
+        MemberAverageLoadAverageEvent decodedEvent = (MemberAverageLoadAverageEvent) MessagingUtil.jsonToObject(
+                message.getText(), MemberAverageLoadAverageEvent.class);
+        assertEquals(event.getMemberId(), decodedEvent.getMemberId());
+        assertEquals(event.getValue(), decodedEvent.getValue(), 0.0f);
+    }
+
+    @Test
+    public void testDecodedEventIsSharedByMessageReaders() {
+        MemberAverageLoadAverageEvent event = new MemberAverageLoadAverageEvent("cluster-instance-1",
+                "php.php.domain.member-1", 42.5f);
+        Message message = new Message("health.stat.MemberAverageLoadAverageEvent", BinaryEventCodec.encode(event));
+        Object decodedEvent = message.getEvent();
+        assertSame(decodedEvent, message.getEvent());
+
+        // Health stat processors notify listeners with the event decoded by the message
+        final List<Event> receivedEvents = new ArrayList<Event>();
+        HealthStatMessageProcessorChain processorChain = new HealthStatMessageProcessorChain();
+        processorChain.addEventListener(new MemberAverageLoadAverageEventListener() {
+            @Override
+            protected void onEvent(Event event) {
+                receivedEvents.add(event);
+            }
+        });
+        assertTrue(processorChain.process(MemberAverageLoadAverageEvent.class.getName(), message, null));
+        assertEquals(1, receivedEvents.size());
+        assertSame(decodedEvent, receivedEvents.get(0));
+
+        // Messages which are not binary encoded do not have a decoded event
+        assertNull(new Message("health.stat.MemberAverageLoadAverageEvent", "{}").getEvent());
+    }
+}
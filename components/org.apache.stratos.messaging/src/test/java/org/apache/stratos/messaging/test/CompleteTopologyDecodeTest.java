@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import com.google.gson.Gson;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.domain.LoadBalancingIPType;
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.Member;
+import org.apache.stratos.messaging.domain.topology.MemberStatus;
+import org.apache.stratos.messaging.domain.topology.Port;
+import org.apache.stratos.messaging.domain.topology.Service;
+import org.apache.stratos.messaging.domain.topology.ServiceType;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.event.topology.CompleteTopologyEvent;
+import org.apache.stratos.messaging.util.MessagingUtil;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Verifies that complete topology events decoded from the message payload bytes are the same
+ * as the ones decoded from the message text and compares the heap allocated by both for a
+ * topology of 10000 members.
+ */
+public class CompleteTopologyDecodeTest {
+
+    private static final Log log = LogFactory.getLog(CompleteTopologyDecodeTest.class);
+    private static final int SERVICE_COUNT = 10;
+    private static final int CLUSTERS_PER_SERVICE = 10;
+    private static final int MEMBERS_PER_CLUSTER = 100;
+    private static final int ITERATIONS = 5;
+
+    @Test
+    public void testPayloadDecoding() {
+        Topology topology = createTopology();
+        topology.setVersion(42);
+        byte[] payload = new Gson().toJson(new CompleteTopologyEvent(topology)).getBytes();
+
+        CompleteTopologyEvent event = (CompleteTopologyEvent) MessagingUtil.jsonToObject(payload,
+                CompleteTopologyEvent.class);
+        CompleteTopologyEvent expectedEvent = new Gson().fromJson(new String(payload), CompleteTopologyEvent.class);
+
+        Topology decodedTopology = event.getTopology();
+        Topology expectedTopology = expectedEvent.getTopology();
+        assertEquals(42, decodedTopology.getVersion());
+        assertEquals(expectedTopology.getServices().size(), decodedTopology.getServices().size());
+
+        int memberCount = 0;
+        for (Service expectedService : expectedTopology.getServices()) {
+            Service service = decodedTopology.getService(expectedService.getServiceName());
+            assertNotNull(service);
+            assertEquals(expectedService.getServiceType(), service.getServiceType());
+            assertEquals(expectedService.getProperties(), service.getProperties());
+            assertEquals(expectedService.getPorts().size(), service.getPorts().size());
+            assertEquals(expectedService.getPort(8280).getValue(), service.getPort(8280).getValue());
+            assertEquals(expectedService.getClusters().size(), service.getClusters().size());
+
+            for (Cluster expectedCluster : expectedService.getClusters()) {
+                Cluster cluster = service.getCluster(expectedCluster.getClusterId());
+                assertNotNull(cluster);
+                assertEquals(expectedCluster.getMembers().size(), cluster.getMembers().size());
+                for (Member expectedMember : expectedCluster.getMembers()) {
+                    Member member = cluster.getMember(expectedMember.getMemberId());
+                    assertNotNull(member);
+                    assertEquals(expectedMember.getStatus(), member.getStatus());
+                    assertEquals(expectedMember.getDefaultPrivateIP(), member.getDefaultPrivateIP());
+                    assertEquals(expectedMember.getPort(8280).getProxy(), member.getPort(8280).getProxy());
+                    memberCount++;
+                }
+            }
+        }
+        assertEquals(SERVICE_COUNT * CLUSTERS_PER_SERVICE * MEMBERS_PER_CLUSTER, memberCount);
+    }
+
+    @Test
+    public void testPayloadDecodingAllocation() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            log.info("Thread allocation measurement is not supported, skipping decode allocation comparison");
+            return;
+        }
+        com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        long threadId = Thread.currentThread().getId();
+        byte[] payload = new Gson().toJson(new CompleteTopologyEvent(createTopology())).getBytes();
+
+        // Warm up both decoding paths
+        new Gson().fromJson(new String(payload), CompleteTopologyEvent.class);
+        MessagingUtil.jsonToObject(payload, CompleteTopologyEvent.class);
+
+        long textAllocatedBytes = 0;
+        long payloadAllocatedBytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = allocationMXBean.getThreadAllocatedBytes(threadId);
+            // Decoding used by message processors before payload decoding was introduced
+            new Gson().fromJson(new String(payload), CompleteTopologyEvent.class);
+            textAllocatedBytes += allocationMXBean.getThreadAllocatedBytes(threadId) - start;
+
+            start = allocationMXBean.getThreadAllocatedBytes(threadId);
+            MessagingUtil.jsonToObject(payload, CompleteTopologyEvent.class);
+            payloadAllocatedBytes += allocationMXBean.getThreadAllocatedBytes(threadId) - start;
+        }
+
+        log.info(String.format("Complete topology decode allocation: [payload-size] %d [text] %d bytes " +
+                        "[payload] %d bytes", payload.length, textAllocatedBytes / ITERATIONS,
+                payloadAllocatedBytes / ITERATIONS));
+    }
+
+    private static Topology createTopology() {
+        Topology topology = new Topology();
+        for (int s = 0; s < SERVICE_COUNT; s++) {
+            String serviceName = "service" + s;
+            Service service = new Service(serviceName, ServiceType.SingleTenant);
+            service.addPort(new Port("http", 9763, 8280));
+            service.addPort(new Port("https", 9443, 8243));
+            Properties properties = new Properties();
+            properties.setProperty("key", "value" + s);
+            service.setProperties(properties);
+
+            for (int c = 0; c < CLUSTERS_PER_SERVICE; c++) {
+                String clusterId = serviceName + ".cluster" + c + ".domain";
+                Cluster cluster = new Cluster(serviceName, clusterId, "deployment-policy", "autoscale-policy",
+                        "application" + c);
+                cluster.addHostName(clusterId);
+                for (int m = 0; m < MEMBERS_PER_CLUSTER; m++) {
+                    Member member = new Member(serviceName, clusterId, clusterId + ".member" + m,
+                            "cluster-instance-1", "network-partition-1", "partition-1", LoadBalancingIPType.Private,
+                            System.currentTimeMillis());
+                    member.setDefaultPrivateIP("10.0." + c + "." + m);
+                    member.addPort(new Port("http", 9763, 8280));
+                    member.setStatus(MemberStatus.Initialized);
+                    cluster.addMember(member);
+                }
+                service.addCluster(cluster);
+            }
+            topology.addService(service);
+        }
+        return topology;
+    }
+}
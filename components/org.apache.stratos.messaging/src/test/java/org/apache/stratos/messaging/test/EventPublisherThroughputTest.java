@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.messaging.test;
+
+import org.apache.activemq.broker.BrokerService;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.broker.publish.EventPublisher;
+import org.apache.stratos.messaging.broker.publish.EventPublisherPool;
+import org.apache.stratos.messaging.broker.subscribe.EventSubscriber;
+import org.apache.stratos.messaging.broker.subscribe.MessageListener;
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.event.Event;
+import org.apache.stratos.messaging.util.MessagingConstants;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares event publisher throughput with a connection per message and with a
+ * persistent connection against an embedded message broker.
+ */
+public class EventPublisherThroughputTest {
+
+    private static final Log log = LogFactory.getLog(EventPublisherThroughputTest.class);
+    private static final int MESSAGE_COUNT = 500;
+
+    private static BrokerService broker;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        // Set jndi.properties.dir system property for initializing event publishers
+        System.setProperty("jndi.properties.dir", getResourcesFolderPath());
+
+        broker = new BrokerService();
+        broker.setDataDirectory(EventPublisherThroughputTest.class.getResource("/").getPath() +
+                File.separator + ".." + File.separator + "activemq-data");
+        broker.setBrokerName("throughputTestBroker");
+        broker.setPersistent(false);
+        broker.addConnector("tcp://localhost:61617");
+        broker.start();
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        System.clearProperty(MessagingConstants.PUBLISHER_PERSISTENT_CONNECTION);
+        if (broker != null) {
+            broker.stop();
+        }
+    }
+
+    private static String getResourcesFolderPath() {
+        String path = EventPublisherThroughputTest.class.getResource("/").getPath();
+        return StringUtils.removeEnd(path, File.separator);
+    }
+
+    @Test(timeout = 120000)
+    public void testPublisherThroughput() throws Exception {
+        long connectionPerMessageTime = publishMessages("throughput-test-topic-1", false);
+        long persistentConnectionTime = publishMessages("throughput-test-topic-2", true);
+
+        log.info(String.format("Published %d messages: [connection-per-message] %d ms [persistent-connection] %d ms",
+                MESSAGE_COUNT, connectionPerMessageTime, persistentConnectionTime));
+    }
+
+    /**
+     * Publish messages to the given topic and wait until all of them are received.
+     *
+     * @return time taken to publish the messages in milliseconds
+     */
+    private long publishMessages(String topicName, boolean persistentConnection) throws Exception {
+        System.setProperty(MessagingConstants.PUBLISHER_PERSISTENT_CONNECTION,
+                String.valueOf(persistentConnection));
+
+        final AtomicInteger receivedCount = new AtomicInteger();
+        EventSubscriber eventSubscriber = new EventSubscriber(topicName, new MessageListener() {
+            @Override
+            public void messageReceived(Message message) {
+                receivedCount.incrementAndGet();
+            }
+        });
+        Thread subscriberThread = new Thread(eventSubscriber);
+        subscriberThread.start();
+        while (!eventSubscriber.isSubscribed()) {
+            Thread.sleep(100);
+        }
+
+        try {
+            EventPublisher eventPublisher = EventPublisherPool.getPublisher(topicName);
+            long startTime = System.currentTimeMillis();
+            for (int i = 0; i < MESSAGE_COUNT; i++) {
+                eventPublisher.publish(new TextMessageEvent("message" + i), true);
+            }
+            long timeTaken = System.currentTimeMillis() - startTime;
+
+            while (receivedCount.get() < MESSAGE_COUNT) {
+                Thread.sleep(100);
+            }
+            assertEquals("Topic subscriber has not received all messages", MESSAGE_COUNT, receivedCount.get());
+            return timeTaken;
+        } finally {
+            EventPublisherPool.close(topicName);
+            eventSubscriber.terminate();
+        }
+    }
+
+    private static class TextMessageEvent extends Event {
+
+        private String message;
+
+        public TextMessageEvent(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.event.health.stat.MemberAverageLoadAverageEvent;
+import org.apache.stratos.messaging.event.topology.CompleteTopologyEvent;
+import org.apache.stratos.messaging.event.topology.MemberActivatedEvent;
+import org.apache.stratos.messaging.message.codec.BinaryEventCodec;
+import org.apache.stratos.messaging.message.receiver.ShardKeyResolver;
+import org.apache.stratos.messaging.message.receiver.ShardedMessageExecutor;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests ordering guarantees of the sharded message executor and shard key resolution.
+ */
+public class ShardedMessageExecutorTest {
+
+    private static final int CLUSTER_COUNT = 20;
+    private static final int EVENTS_PER_CLUSTER = 500;
+
+    @Test
+    public void testOrderingPerKey() throws InterruptedException {
+        ShardedMessageExecutor executor = new ShardedMessageExecutor("test", 4);
+        executor.start();
+        try {
+            final List<List<Integer>> processed = new ArrayList<List<Integer>>();
+            for (int c = 0; c < CLUSTER_COUNT; c++) {
+                processed.add(Collections.synchronizedList(new ArrayList<Integer>()));
+            }
+            final AtomicInteger processedCount = new AtomicInteger();
+
+            for (int i = 0; i < EVENTS_PER_CLUSTER; i++) {
+                for (int c = 0; c < CLUSTER_COUNT; c++) {
+                    final List<Integer> clusterEvents = processed.get(c);
+                    final int sequence = i;
+                    executor.execute("cluster-" + c, new Runnable() {
+                        @Override
+                        public void run() {
+                            clusterEvents.add(sequence);
+                            processedCount.incrementAndGet();
+                        }
+                    });
+                }
+                if (i == EVENTS_PER_CLUSTER / 2) {
+                    // Tasks without a key run after all previously submitted tasks
+                    final int expectedCount = (i + 1) * CLUSTER_COUNT;
+                    final AtomicInteger countAtBarrier = new AtomicInteger();
+                    executor.execute(null, new Runnable() {
+                        @Override
+                        public void run() {
+                            countAtBarrier.set(processedCount.get());
+                        }
+                    });
+                    assertEquals(expectedCount, countAtBarrier.get());
+                }
+            }
+
+            executor.execute(null, new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            for (List<Integer> clusterEvents : processed) {
+                assertEquals(EVENTS_PER_CLUSTER, clusterEvents.size());
+                for (int i = 0; i < EVENTS_PER_CLUSTER; i++) {
+                    assertEquals(i, clusterEvents.get(i).intValue());
+                }
+            }
+
+            long total = 0;
+            for (int s = 0; s < executor.getShardCount(); s++) {
+                assertEquals(0, executor.getQueueDepth(s));
+                total += executor.getProcessedCount(s);
+            }
+            assertEquals(CLUSTER_COUNT * EVENTS_PER_CLUSTER, total);
+        } finally {
+            executor.terminate();
+        }
+    }
+
+    @Test
+    public void testShardKeyResolution() {
+        ShardKeyResolver clusterIdResolver = new ShardKeyResolver("clusterId");
+        String json = "{\"serviceName\":\"php\",\"properties\":{\"clusterId\":\"other\"},\"clusterId\":\"php.domain\"}";
+        assertEquals("php.domain", clusterIdResolver.resolve(MemberActivatedEvent.class.getName(), json));
+        assertNull(clusterIdResolver.resolve(CompleteTopologyEvent.class.getName(), json));
+
+        ShardKeyResolver clusterInstanceIdResolver = new ShardKeyResolver("clusterInstanceId");
+        MemberAverageLoadAverageEvent event = new MemberAverageLoadAverageEvent("cluster-instance-1",
+                "php.domain.member-1", 1.5f);
+        Message message = new Message("health.stat.MemberAverageLoadAverageEvent", BinaryEventCodec.encode(event));
+        assertEquals("cluster-instance-1", clusterInstanceIdResolver.resolve(
+                MemberAverageLoadAverageEvent.class.getName(), message));
+    }
+}
@@ -50,6 +50,7 @@ import org.apache.stratos.common.beans.policy.deployment.DeploymentPolicyBean;
 import org.apache.stratos.common.beans.topology.ApplicationInfoBean;
 import org.apache.stratos.common.beans.topology.ApplicationInstanceBean;
 import org.apache.stratos.common.beans.topology.ClusterBean;
+import org.apache.stratos.common.beans.topology.ClusterInstanceBean;
 import org.apache.stratos.common.beans.topology.GroupInstanceBean;
 import org.apache.stratos.common.client.AutoscalerServiceClient;
 import org.apache.stratos.common.client.CloudControllerServiceClient;
@@ -2014,19 +2015,8 @@ public class StratosApiV41Utils {
         Map<String, ClusterDataHolder> topLevelClusterDataMap = application.getClusterDataMap();
         if (topLevelClusterDataMap != null) {
             for (Map.Entry<String, ClusterDataHolder> entry : topLevelClusterDataMap.entrySet()) {
-                ClusterDataHolder clusterDataHolder = entry.getValue();
-                String clusterId = clusterDataHolder.getClusterId();
-                String serviceType = clusterDataHolder.getServiceType();
-                try {
-                    TopologyManager.acquireReadLockForCluster(serviceType, clusterId);
-                    Cluster cluster = TopologyManager.getTopology().getService(serviceType).getCluster(clusterId);
-
-                    applicationInstanceBean.getClusterInstances().add(ObjectConverter.
-                            convertClusterToClusterInstanceBean(applicationInstanceBean.getInstanceId(), cluster,
-                                    entry.getKey()));
-                } finally {
-                    TopologyManager.releaseReadLockForCluster(serviceType, clusterId);
-                }
+                applicationInstanceBean.getClusterInstances().add(convertClusterToClusterInstanceBean(
+                        applicationInstanceBean.getInstanceId(), entry.getValue(), entry.getKey()));
             }
         }
     }
@@ -2041,24 +2031,42 @@ public class StratosApiV41Utils {
         Map<String, ClusterDataHolder> topLevelClusterDataMap = group.getClusterDataMap();
         if (topLevelClusterDataMap != null && !topLevelClusterDataMap.isEmpty()) {
             for (Map.Entry<String, ClusterDataHolder> entry : topLevelClusterDataMap.entrySet()) {
-                ClusterDataHolder clusterDataHolder = entry.getValue();
-                String clusterId = clusterDataHolder.getClusterId();
-                String serviceType = clusterDataHolder.getServiceType();
-                try {
-                    TopologyManager.acquireReadLockForCluster(serviceType, clusterId);
-                    Cluster topLevelCluster = TopologyManager.getTopology().getService(serviceType)
-                            .getCluster(clusterId);
-                    groupInstanceBean.getClusterInstances().add(ObjectConverter.
-                            convertClusterToClusterInstanceBean(groupInstanceBean.getInstanceId(), topLevelCluster,
-                                    entry.getKey()));
-                } finally {
-                    TopologyManager.releaseReadLockForCluster(serviceType, clusterId);
-                }
+                groupInstanceBean.getClusterInstances().add(convertClusterToClusterInstanceBean(
+                        groupInstanceBean.getInstanceId(), entry.getValue(), entry.getKey()));
             }
         }
 
     }
 
+    /**
+     * Convert a cluster of an application or group instance to a ClusterInstanceBean. The cluster is read
+     * from the topology snapshot if topology snapshots are enabled, otherwise from the topology while
+     * holding the cluster read lock.
+     *
+     * @param instanceId        application or group instance id
+     * @param clusterDataHolder ClusterDataHolder of the cluster
+     * @param alias             cluster alias
+     * @return ClusterInstanceBean
+     */
+    private static ClusterInstanceBean convertClusterToClusterInstanceBean(String instanceId,
+            ClusterDataHolder clusterDataHolder, String alias) {
+        String clusterId = clusterDataHolder.getClusterId();
+        String serviceType = clusterDataHolder.getServiceType();
+        boolean lockRequired = !TopologyManager.isTopologySnapshotEnabled();
+        if (lockRequired) {
+            TopologyManager.acquireReadLockForCluster(serviceType, clusterId);
+        }
+        try {
+            // Returns the topology itself if topology snapshots are disabled
+            Cluster cluster = TopologyManager.getTopologySnapshot().getService(serviceType).getCluster(clusterId);
+            return ObjectConverter.convertClusterToClusterInstanceBean(instanceId, cluster, alias);
+        } finally {
+            if (lockRequired) {
+                TopologyManager.releaseReadLockForCluster(serviceType, clusterId);
+            }
+        }
+    }
+
     /**
      * Set Sub Group Instances
      *
@@ -3011,7 +3019,7 @@ public class StratosApiV41Utils {
             throw new ClusterIdIsEmptyException("Cluster Id can not be empty");
         }
 
-        Cluster cluster = TopologyManager.getTopology().getCluster(clusterId);
+        Cluster cluster = TopologyManager.getTopologySnapshot().getCluster(clusterId);
         if (cluster == null) {
             return null;
         }
@@ -40,7 +40,11 @@ properties="-Djndi.properties.dir=${script_path}/../conf
             -Dterminate.lbs.on.extension.stop=false
             -Dterminate.lb.on.cluster.removal=false
             -Doperating.in.vpc=true
-            -Denable.cross.zone.load.balancing=true"
+            -Denable.cross.zone.load.balancing=true
+            -Delb.requests.per.second=5
+            -Delb.request.burst.size=10
+            -Delb.request.batch.size=20
+            -Delb.concurrent.load.balancers=4"
 
 
 # Uncomment below line to enable remote debugging
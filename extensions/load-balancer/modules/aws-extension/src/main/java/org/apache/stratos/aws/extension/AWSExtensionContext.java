@@ -40,6 +40,10 @@ public class AWSExtensionContext {
     private boolean terminateLBOnClusterRemoval;
     private boolean operatingInVPC;
     private boolean enableCrossZoneLoadBalancing;
+    private int elbRequestsPerSecond;
+    private int elbRequestBurstSize;
+    private int elbRequestBatchSize;
+    private int elbConcurrentLoadBalancers;
 
     private AWSExtensionContext() {
         this.cepStatsPublisherEnabled = Boolean.getBoolean(Constants.CEP_STATS_PUBLISHER_ENABLED);
@@ -52,6 +56,14 @@ public class AWSExtensionContext {
         this.terminateLBOnClusterRemoval = Boolean.getBoolean(Constants.TERMINATE_LB_ON_CLUSTER_REMOVAL);
         this.operatingInVPC = Boolean.getBoolean(Constants.OPERATIMG_IN_VPC);
         this.enableCrossZoneLoadBalancing = Boolean.getBoolean(Constants.ENABLE_CROSS_ZONE_LOADBALANCING);
+        this.elbRequestsPerSecond = Math.max(1, Integer.getInteger(Constants.ELB_REQUESTS_PER_SECOND,
+                Constants.DEFAULT_ELB_REQUESTS_PER_SECOND));
+        this.elbRequestBurstSize = Math.max(1, Integer.getInteger(Constants.ELB_REQUEST_BURST_SIZE,
+                Constants.DEFAULT_ELB_REQUEST_BURST_SIZE));
+        this.elbRequestBatchSize = Math.max(1, Integer.getInteger(Constants.ELB_REQUEST_BATCH_SIZE,
+                Constants.DEFAULT_ELB_REQUEST_BATCH_SIZE));
+        this.elbConcurrentLoadBalancers = Math.max(1, Integer.getInteger(Constants.ELB_CONCURRENT_LOAD_BALANCERS,
+                Constants.DEFAULT_ELB_CONCURRENT_LOAD_BALANCERS));
 
         if (log.isDebugEnabled()) {
             log.debug(Constants.CEP_STATS_PUBLISHER_ENABLED + " = " + cepStatsPublisherEnabled);
@@ -63,6 +75,10 @@ public class AWSExtensionContext {
             log.debug(Constants.TERMINATE_LB_ON_CLUSTER_REMOVAL + "=" + terminateLBOnClusterRemoval);
             log.debug(Constants.OPERATIMG_IN_VPC + "=" + operatingInVPC);
             log.debug(Constants.ENABLE_CROSS_ZONE_LOADBALANCING + "=" +  enableCrossZoneLoadBalancing);
+            log.debug(Constants.ELB_REQUESTS_PER_SECOND + "=" + elbRequestsPerSecond);
+            log.debug(Constants.ELB_REQUEST_BURST_SIZE + "=" + elbRequestBurstSize);
+            log.debug(Constants.ELB_REQUEST_BATCH_SIZE + "=" + elbRequestBatchSize);
+            log.debug(Constants.ELB_CONCURRENT_LOAD_BALANCERS + "=" + elbConcurrentLoadBalancers);
         }
     }
 
@@ -126,4 +142,20 @@ public class AWSExtensionContext {
     public boolean isCrossZoneLoadBalancingEnabled () {
         return enableCrossZoneLoadBalancing;
     }
+
+    public int getElbRequestsPerSecond() {
+        return elbRequestsPerSecond;
+    }
+
+    public int getElbRequestBurstSize() {
+        return elbRequestBurstSize;
+    }
+
+    public int getElbRequestBatchSize() {
+        return elbRequestBatchSize;
+    }
+
+    public int getElbConcurrentLoadBalancers() {
+        return elbConcurrentLoadBalancers;
+    }
 }
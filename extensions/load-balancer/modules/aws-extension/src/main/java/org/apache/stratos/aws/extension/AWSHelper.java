@@ -48,7 +48,7 @@ import com.amazonaws.services.ec2.AmazonEC2Client;
 import com.amazonaws.services.elasticloadbalancing.AmazonElasticLoadBalancingClient;
 import com.amazonaws.services.elasticloadbalancing.model.*;
 
-public class AWSHelper {
+public class AWSHelper implements ElasticLoadBalancingClient {
     private String awsAccessKey;
     private String awsSecretKey;
     private String lbPrefix;
@@ -73,7 +73,9 @@ public class AWSHelper {
     private BasicAWSCredentials awsCredentials;
     private ClientConfiguration clientConfiguration;
 
-    AmazonElasticLoadBalancingClient elbClient;
+    private ConcurrentHashMap<String, AmazonElasticLoadBalancingClient> regionToElbClientMap =
+            new ConcurrentHashMap<String, AmazonElasticLoadBalancingClient>();
+    private AdaptiveRateLimiter elbRateLimiter;
     AmazonEC2Client ec2Client;
     private AmazonCloudWatchClient cloudWatchClient;
 
@@ -208,8 +210,8 @@ public class AWSHelper {
             awsCredentials = new BasicAWSCredentials(awsAccessKey, awsSecretKey);
             clientConfiguration = new ClientConfiguration();
 
-            elbClient = new AmazonElasticLoadBalancingClient(awsCredentials,
-                    clientConfiguration);
+            elbRateLimiter = new AdaptiveRateLimiter(AWSExtensionContext.getInstance().getElbRequestsPerSecond(),
+                    AWSExtensionContext.getInstance().getElbRequestBurstSize());
 
             ec2Client = new AmazonEC2Client(awsCredentials, clientConfiguration);
 
@@ -233,6 +235,90 @@ public class AWSHelper {
 		this.awsAccessKey=awsAccessKey;
 		this.awsSecretKey=awsSecretKey;
 	}
+
+    @Override
+    public Set<String> getRegisteredInstanceIds(String loadBalancerName, String region) {
+        DescribeLoadBalancersResult result = getElbClient(region).describeLoadBalancers(
+                new DescribeLoadBalancersRequest(Collections.singletonList(loadBalancerName)));
+        if (result.getLoadBalancerDescriptions() == null || result.getLoadBalancerDescriptions().isEmpty()) {
+            return null;
+        }
+
+        Set<String> instanceIds = new HashSet<String>();
+        for (Instance instance : result.getLoadBalancerDescriptions().get(0).getInstances()) {
+            instanceIds.add(instance.getInstanceId());
+        }
+        return instanceIds;
+    }
+
+    @Override
+    public void registerInstances(String loadBalancerName, String region, Collection<String> instanceIds) {
+        RegisterInstancesWithLoadBalancerResult result = getElbClient(region).registerInstancesWithLoadBalancer(
+                new RegisterInstancesWithLoadBalancerRequest(loadBalancerName, toInstances(instanceIds)));
+        if (log.isDebugEnabled()) {
+            log.debug("Total instances attached to the LB " + loadBalancerName + " : " + result.getInstances().size());
+        }
+    }
+
+    @Override
+    public void deregisterInstances(String loadBalancerName, String region, Collection<String> instanceIds) {
+        getElbClient(region).deregisterInstancesFromLoadBalancer(
+                new DeregisterInstancesFromLoadBalancerRequest(loadBalancerName, toInstances(instanceIds)));
+    }
+
+    @Override
+    public boolean isThrottlingException(RuntimeException exception) {
+        if (exception instanceof AmazonServiceException) {
+            AmazonServiceException serviceException = (AmazonServiceException) exception;
+            return Constants.ELB_THROTTLING_ERROR_CODE.equals(serviceException.getErrorCode())
+                    || ((serviceException.getMessage() != null)
+                    && serviceException.getMessage().contains("Rate exceeded"));
+        }
+        return false;
+    }
+
+    private List<Instance> toInstances(Collection<String> instanceIds) {
+        List<Instance> instances = new ArrayList<Instance>(instanceIds.size());
+        for (String instanceId : instanceIds) {
+            instances.add(new Instance(instanceId));
+        }
+        return instances;
+    }
+
+    /**
+     * Returns the ELB client of the given region. A client is kept per region since endpoints of
+     * clients could not be switched safely while requests are being sent concurrently.
+     */
+    private AmazonElasticLoadBalancingClient getElbClient(String region) {
+        AmazonElasticLoadBalancingClient client = regionToElbClientMap.get(region);
+        if (client == null) {
+            client = new AmazonElasticLoadBalancingClient(awsCredentials, clientConfiguration);
+            client.setEndpoint(String.format(Constants.ELB_ENDPOINT_URL_FORMAT, region));
+            AmazonElasticLoadBalancingClient existingClient = regionToElbClientMap.putIfAbsent(region, client);
+            if (existingClient != null) {
+                client.shutdown();
+                client = existingClient;
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Returns the ELB client of the given region once the request is allowed by the ELB rate limiter.
+     */
+    private AmazonElasticLoadBalancingClient getRateLimitedElbClient(String region) {
+        try {
+            elbRateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return getElbClient(region);
+    }
+
+    public AdaptiveRateLimiter getElbRateLimiter() {
+        return elbRateLimiter;
+    }
+
     public int getStatisticsInterval() {
         return statisticsInterval;
     }
@@ -307,10 +393,7 @@ public class AWSHelper {
                 createLoadBalancerRequest.setAvailabilityZones(availabilityZones);
             }
 
-            elbClient.setEndpoint(String.format(
-                    Constants.ELB_ENDPOINT_URL_FORMAT, region));
-
-            CreateLoadBalancerResult clbResult = elbClient
+            CreateLoadBalancerResult clbResult = getRateLimitedElbClient(region)
                     .createLoadBalancer(createLoadBalancerRequest);
 
             return clbResult.getDNSName();
@@ -337,10 +420,7 @@ public class AWSHelper {
         deleteLoadBalancerRequest.setLoadBalancerName(loadBalancerName);
 
         try {
-            elbClient.setEndpoint(String.format(
-                    Constants.ELB_ENDPOINT_URL_FORMAT, region));
-
-            elbClient.deleteLoadBalancer(deleteLoadBalancerRequest);
+            getRateLimitedElbClient(region).deleteLoadBalancer(deleteLoadBalancerRequest);
             log.info("Deleted load balancer " + loadBalancerName);
         } catch (AmazonClientException e) {
             log.error("Could not delete load balancer : " + loadBalancerName, e);
@@ -371,10 +451,7 @@ public class AWSHelper {
         RegisterInstancesWithLoadBalancerResult registerInstancesWithLBRes = null;
 
         try {
-            elbClient.setEndpoint(String.format(
-                    Constants.ELB_ENDPOINT_URL_FORMAT, region));
-
-            registerInstancesWithLBRes = elbClient
+            registerInstancesWithLBRes = getRateLimitedElbClient(region)
                     .registerInstancesWithLoadBalancer(registerInstancesWithLoadBalancerRequest);
 
         } catch (AmazonClientException e) {
@@ -413,10 +490,7 @@ public class AWSHelper {
                 loadBalancerName, instances);
 
         try {
-            elbClient.setEndpoint(String.format(
-                    Constants.ELB_ENDPOINT_URL_FORMAT, region));
-
-            elbClient
+            getRateLimitedElbClient(region)
                     .deregisterInstancesFromLoadBalancer(deregisterInstancesFromLoadBalancerRequest);
 
         } catch (AmazonClientException e) {
@@ -443,10 +517,7 @@ public class AWSHelper {
                 loadBalancers);
 
         try {
-            elbClient.setEndpoint(String.format(
-                    Constants.ELB_ENDPOINT_URL_FORMAT, region));
-
-            DescribeLoadBalancersResult result = elbClient
+            DescribeLoadBalancersResult result = getRateLimitedElbClient(region)
                     .describeLoadBalancers(describeLoadBalancersRequest);
 
             if (result.getLoadBalancerDescriptions() != null
@@ -1059,14 +1130,12 @@ public class AWSHelper {
 
     public CreateAppCookieStickinessPolicyResult createStickySessionPolicy(String lbName, String cookieName, String policyName, String region) {
 
-        elbClient.setEndpoint(String.format(Constants.ELB_ENDPOINT_URL_FORMAT, region));
-
         CreateAppCookieStickinessPolicyRequest stickinessPolicyReq = new CreateAppCookieStickinessPolicyRequest().
                 withLoadBalancerName(lbName).withCookieName(cookieName).withPolicyName(policyName);
 
         CreateAppCookieStickinessPolicyResult stickinessPolicyResult = null;
         try {
-            stickinessPolicyResult = elbClient.createAppCookieStickinessPolicy(stickinessPolicyReq);
+            stickinessPolicyResult = getRateLimitedElbClient(region).createAppCookieStickinessPolicy(stickinessPolicyReq);
 
         } catch (AmazonServiceException e) {
             log.error(e.getMessage(), e);
@@ -1089,11 +1158,6 @@ public class AWSHelper {
         for (Port port : ports) {
             if ("HTTP".equalsIgnoreCase(port.getProtocol()) || "HTTPS".equalsIgnoreCase(port.getProtocol())) {
                 applyPolicyToListener(loadBalancerName, port.getProxy(), policyName, region);
-                // hack to stop too many calls to AWS API :(
-                try {
-                    Thread.sleep(2000);
-                } catch (InterruptedException e) {
-                }
             }
         }
     }
@@ -1103,11 +1167,9 @@ public class AWSHelper {
         SetLoadBalancerPoliciesOfListenerRequest loadBalancerPoliciesOfListenerReq = new SetLoadBalancerPoliciesOfListenerRequest().
                 withLoadBalancerName(loadBalancerName).withLoadBalancerPort(listenerPort).withPolicyNames(policyName);
 
-        elbClient.setEndpoint(String.format(Constants.ELB_ENDPOINT_URL_FORMAT, region));
-
         SetLoadBalancerPoliciesOfListenerResult setLBPoliciesOfListenerRes = null;
         try {
-            setLBPoliciesOfListenerRes = elbClient.setLoadBalancerPoliciesOfListener(loadBalancerPoliciesOfListenerReq);
+            setLBPoliciesOfListenerRes = getRateLimitedElbClient(region).setLoadBalancerPoliciesOfListener(loadBalancerPoliciesOfListenerReq);
 
         } catch (AmazonServiceException e) {
             log.error(e.getMessage(), e);
@@ -1166,12 +1228,10 @@ public class AWSHelper {
         EnableAvailabilityZonesForLoadBalancerRequest enableAvailabilityZonesReq = new EnableAvailabilityZonesForLoadBalancerRequest()
                 .withLoadBalancerName(loadBalancerName).withAvailabilityZones(availabilityZones);
 
-        elbClient.setEndpoint(String.format(Constants.ELB_ENDPOINT_URL_FORMAT, region));
-
         EnableAvailabilityZonesForLoadBalancerResult enableAvailabilityZonesRes = null;
 
         try {
-            enableAvailabilityZonesRes = elbClient.enableAvailabilityZonesForLoadBalancer(enableAvailabilityZonesReq);
+            enableAvailabilityZonesRes = getRateLimitedElbClient(region).enableAvailabilityZonesForLoadBalancer(enableAvailabilityZonesReq);
 
         } catch (AmazonServiceException e) {
             log.error(e.getMessage(), e);
@@ -1208,9 +1268,7 @@ public class AWSHelper {
 
         modifyLBAttributesReq.setLoadBalancerAttributes(modifiedLbAttributes);
 
-        elbClient.setEndpoint(String.format(Constants.ELB_ENDPOINT_URL_FORMAT, region));
-
-        ModifyLoadBalancerAttributesResult modifyLBAttributesRes = elbClient.modifyLoadBalancerAttributes(modifyLBAttributesReq);
+        ModifyLoadBalancerAttributesResult modifyLBAttributesRes = getRateLimitedElbClient(region).modifyLoadBalancerAttributes(modifyLBAttributesReq);
         if (modifyLBAttributesRes != null) {
             log.info("Successfully enabled cross zone load balancing and connection draining for " + loadBalancerName);
         } else {
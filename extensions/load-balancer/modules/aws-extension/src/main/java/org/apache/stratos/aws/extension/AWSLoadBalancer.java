@@ -20,7 +20,6 @@
 package org.apache.stratos.aws.extension;
 
 import com.amazonaws.services.elasticloadbalancing.model.CreateAppCookieStickinessPolicyResult;
-import com.amazonaws.services.elasticloadbalancing.model.Instance;
 import com.amazonaws.services.elasticloadbalancing.model.Listener;
 import com.amazonaws.services.elasticloadbalancing.model.LoadBalancerDescription;
 import org.apache.commons.logging.Log;
@@ -29,8 +28,10 @@ import org.apache.stratos.aws.extension.exception.PersistenceException;
 import org.apache.stratos.aws.extension.persistence.FileBasedPersistenceManager;
 import org.apache.stratos.aws.extension.persistence.PersistenceManager;
 import org.apache.stratos.aws.extension.persistence.dto.LBInfoDTO;
+import org.apache.stratos.common.threading.StratosThreadPool;
 import org.apache.stratos.load.balancer.common.domain.Cluster;
 import org.apache.stratos.load.balancer.common.domain.Member;
+import org.apache.stratos.load.balancer.common.domain.Port;
 import org.apache.stratos.load.balancer.common.domain.Service;
 import org.apache.stratos.load.balancer.common.domain.Topology;
 import org.apache.stratos.load.balancer.extension.api.LoadBalancer;
@@ -53,9 +54,21 @@ public class AWSLoadBalancer implements LoadBalancer {
     // PersistenceManager: used to persist LB Information by tuples of <lb name, cluster id, region>
     PersistenceManager persistenceManager;
 
+    // Used to register and de-register instances of all load balancers in batches
+    private LoadBalancerMembershipPlanner membershipPlanner;
+
+    // A map <load balancer name, availability zones> to avoid enabling the same zones repeatedly
+    private Map<String, Set<String>> loadBalancerToAvailabilityZonesMap = new HashMap<String, Set<String>>();
+
     public AWSLoadBalancer() throws LoadBalancerExtensionException {
         awsHelper = new AWSHelper();
         persistenceManager = new FileBasedPersistenceManager();
+        AWSExtensionContext context = AWSExtensionContext.getInstance();
+        membershipPlanner = new LoadBalancerMembershipPlanner(awsHelper, awsHelper.getElbRateLimiter(),
+                StratosThreadPool.getExecutorService("aws.extension.elb.thread.pool",
+                        context.getElbConcurrentLoadBalancers()),
+                context.getElbRequestBatchSize(), Constants.ELB_REQUEST_MAX_RETRIES,
+                Constants.ELB_REQUEST_INITIAL_BACKOFF);
         initialize();
     }
 
@@ -71,6 +84,9 @@ public class AWSLoadBalancer implements LoadBalancer {
         log.info("AWS load balancer extension is being reconfigured.");
 
         HashSet<String> activeClusters = new HashSet<String>();
+        List<LoadBalancerMembershipPlanner.DesiredMembership> desiredMemberships =
+                new ArrayList<LoadBalancerMembershipPlanner.DesiredMembership>();
+        Map<String, List<String>> loadBalancerToMemberZonesMap = new HashMap<String, List<String>>();
 
         for (Service service : topology.getServices()) {
             for (Cluster cluster : service.getClusters()) {
@@ -83,7 +99,9 @@ public class AWSLoadBalancer implements LoadBalancer {
                         log.debug(String.format("Load balancer for cluster %s is already present.", cluster.getClusterId()));
                     }
 
-	                if(updateExistingLoadBalancer(cluster)){
+	                LoadBalancerInfo loadBalancerInfo = clusterIdToLoadBalancerMap.get(cluster.getClusterId());
+	                if (addClusterMembersInfo(cluster.getMembers(), loadBalancerInfo.getName(),
+			                loadBalancerInfo.getRegion(), desiredMemberships, loadBalancerToMemberZonesMap)) {
 		                activeClusters.add(cluster.getClusterId());
 	                }
 
@@ -125,7 +143,11 @@ public class AWSLoadBalancer implements LoadBalancer {
 
                         log.info(String.format("Load balancer %s  created for cluster %s " , loadBalancerDNSName, cluster.getClusterId()));
 
-	                    if(addClusterMembersInfo(clusterMembers, loadBalancerName, region)){
+	                    // add stickiness policy
+	                    applyStickinessPolicy(loadBalancerName, aMember.getPorts(), region);
+
+	                    if (addClusterMembersInfo(clusterMembers, loadBalancerName, region, desiredMemberships,
+			                    loadBalancerToMemberZonesMap)) {
 		                    activeClusters.add(cluster.getClusterId());
 	                    }
 
@@ -143,12 +165,18 @@ public class AWSLoadBalancer implements LoadBalancer {
                         clusterIdToLoadBalancerMap.put(cluster.getClusterId(),loadBalancerInfo);
 
                     }
-
-                    pause(3000);
                 }
             }
         }
 
+        // Register and de-register instances of all load balancers, independent load balancers are
+        // updated concurrently
+        Set<String> failedLoadBalancers = membershipPlanner.synchronize(desiredMemberships);
+        if (!failedLoadBalancers.isEmpty()) {
+            log.warn("Could not update instances of load balancers: " + failedLoadBalancers);
+        }
+        updateAvailabilityZones(loadBalancerToMemberZonesMap);
+
         // if 'terminate.lb.on.cluster.removal' = true in aws-extension.sh
         if (AWSExtensionContext.getInstance().terminateLBOnClusterRemoval()) {
 
@@ -191,55 +219,67 @@ public class AWSLoadBalancer implements LoadBalancer {
         return true;
     }
 
-	private Boolean addClusterMembersInfo(Collection<Member> clusterMembers, String loadBalancerName, String region) {
-		Boolean isUpdated=false;
-		// Register instances in the cluster to load balancer
-		List<Instance> instances = new ArrayList<Instance>();
-		List<String> availabilityZones = new ArrayList<String>();
+	private Boolean addClusterMembersInfo(Collection<Member> clusterMembers, String loadBalancerName, String region,
+	                                      List<LoadBalancerMembershipPlanner.DesiredMembership> desiredMemberships,
+	                                      Map<String, List<String>> loadBalancerToMemberZonesMap) {
+		if (clusterMembers.isEmpty()) {
+			return false;
+		}
 
+		Set<String> instanceIds = new HashSet<String>();
+		List<String> availabilityZones = new ArrayList<String>();
 		for (Member member : clusterMembers) {
-			isUpdated=true;
-		    String instanceId = member.getInstanceId();
-
-		    if (log.isDebugEnabled()) {
-		        log.debug("Instance " + awsHelper.getAWSInstanceName(instanceId) + " needs to be registered to load balancer "
-		                + loadBalancerName);
-		    }
-
-		    Instance instance = new Instance();
-		    instance.setInstanceId(awsHelper.getAWSInstanceName(instanceId));
-
-		    instances.add(instance);
-		    // LB Common Member has a property 'EC2_AVAILABILITY_ZONE' which points to the ec2 availability
-		    // zone for this member. Use the property value to update the LB about the relevant zone
-		    String availabilityZone = getEC2AvaialbilityZoneOfMember(member);
-		    if (availabilityZone != null) {
-		        availabilityZones.add(availabilityZone);
-		    }
-
-			// add stickiness policy
-			if (awsHelper.getAppStickySessionCookie() != null && !awsHelper.getAppStickySessionCookie().isEmpty()) {
-				CreateAppCookieStickinessPolicyResult result = awsHelper.createStickySessionPolicy(loadBalancerName, awsHelper.getAppStickySessionCookie(),
-				                                                                                   Constants.STICKINESS_POLICY,
-				                                                                                   region);
-
-				if (result != null) {
-					// Take a single port mapping from a member, and apply the policy for
-					// the LB Listener port (Proxy port of the port mapping)
-					awsHelper.applyPolicyToLBListenerPorts(member.getPorts(), loadBalancerName,
-					                                       Constants.STICKINESS_POLICY, region);
-				}
+			instanceIds.add(awsHelper.getAWSInstanceName(member.getInstanceId()));
+			// LB Common Member has a property 'EC2_AVAILABILITY_ZONE' which points to the ec2 availability
+			// zone for this member. Use the property value to update the LB about the relevant zone
+			String availabilityZone = getEC2AvaialbilityZoneOfMember(member);
+			if (availabilityZone != null) {
+				availabilityZones.add(availabilityZone);
 			}
+		}
 
+		desiredMemberships.add(new LoadBalancerMembershipPlanner.DesiredMembership(loadBalancerName, region,
+				instanceIds));
+		if (!availabilityZones.isEmpty()) {
+			loadBalancerToMemberZonesMap.put(loadBalancerName + ":" + region, availabilityZones);
 		}
+		return true;
+	}
 
-		awsHelper.registerInstancesToLoadBalancer(loadBalancerName, instances, region);
+	/**
+	 * Update load balancers with the availability zones of their members. Zones already enabled are not
+	 * enabled again.
+	 */
+	private void updateAvailabilityZones(Map<String, List<String>> loadBalancerToMemberZonesMap) {
+		if (AWSExtensionContext.getInstance().isOperatingInVPC()) {
+			return;
+		}
+		for (Map.Entry<String, List<String>> entry : loadBalancerToMemberZonesMap.entrySet()) {
+			String loadBalancerName = entry.getKey().substring(0, entry.getKey().lastIndexOf(':'));
+			String region = entry.getKey().substring(entry.getKey().lastIndexOf(':') + 1);
+			Set<String> enabledZones = loadBalancerToAvailabilityZonesMap.get(loadBalancerName);
+			if (enabledZones != null && enabledZones.containsAll(entry.getValue())) {
+				continue;
+			}
+			awsHelper.addAvailabilityZonesForLoadBalancer(loadBalancerName, entry.getValue(), region);
+			if (enabledZones == null) {
+				enabledZones = new HashSet<String>();
+				loadBalancerToAvailabilityZonesMap.put(loadBalancerName, enabledZones);
+			}
+			enabledZones.addAll(entry.getValue());
+		}
+	}
 
-		// update LB with the zones
-		if (!availabilityZones.isEmpty() && !AWSExtensionContext.getInstance().isOperatingInVPC()) {
-		    awsHelper.addAvailabilityZonesForLoadBalancer(loadBalancerName, availabilityZones, region);
+	private void applyStickinessPolicy(String loadBalancerName, Collection<Port> ports, String region) {
+		if (awsHelper.getAppStickySessionCookie() == null || awsHelper.getAppStickySessionCookie().isEmpty()) {
+			return;
+		}
+		CreateAppCookieStickinessPolicyResult result = awsHelper.createStickySessionPolicy(loadBalancerName,
+				awsHelper.getAppStickySessionCookie(), Constants.STICKINESS_POLICY, region);
+		if (result != null) {
+			// Apply the policy for the LB Listener ports (Proxy ports of the port mappings)
+			awsHelper.applyPolicyToLBListenerPorts(ports, loadBalancerName, Constants.STICKINESS_POLICY, region);
 		}
-		return isUpdated;
 	}
 
 	private String createAWSLoadBalancer(String loadBalancerName, String region, List<Listener> listenersForThisCluster,
@@ -274,27 +314,6 @@ public class AWSLoadBalancer implements LoadBalancer {
 		return loadBalancerDNSName;
 	}
 
-	private Boolean updateExistingLoadBalancer(Cluster cluster) {
-		Boolean isUpdated=false;
-		LoadBalancerInfo loadBalancerInfo = clusterIdToLoadBalancerMap.get(cluster.getClusterId());
-
-		String loadBalancerName = loadBalancerInfo.getName();
-		String region = loadBalancerInfo.getRegion();
-
-		// Get all the instances attached - Attach newly added instances to load balancer
-
-		// attachedInstances list is useful in finding out what are the new instances which
-		// should be attached to this load balancer.
-		List<Instance> attachedInstances = awsHelper.getAttachedInstances(loadBalancerName, region);
-
-		// clusterMembers stores all the members of a cluster.
-		Collection<Member> clusterMembers = cluster.getMembers();
-
-		isUpdated= addClusterMembersInfo(clusterMembers, loadBalancerName, region);
-
-		return isUpdated;
-	}
-
 	private String getEC2AvaialbilityZoneOfMember(Member member) {
         if (member.getProperties() != null) {
             return member.getProperties().getProperty(Constants.EC2_AVAILABILITY_ZONE_PROPERTY);
@@ -383,15 +402,6 @@ public class AWSLoadBalancer implements LoadBalancer {
         }
     }
 
-    private static void pause(long duration) {
-        // sleep to stop AWS Rate Exceeding: Caused by: com.amazonaws.AmazonServiceException: Rate exceeded
-        // (Service: AmazonElasticLoadBalancing; Status Code: 400; Error Code: Throttling; Request ID: xxx-xxx)
-        try {
-            Thread.sleep(duration);
-        } catch (InterruptedException ignored) {
-        }
-    }
-
     public static ConcurrentHashMap<String, LoadBalancerInfo> getClusterIdToLoadBalancerMap() {
         return clusterIdToLoadBalancerMap;
     }
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.aws.extension;
+
+/**
+ * Token bucket rate limiter for AWS API requests. Tokens are refilled at the current request rate up to
+ * the burst size. The request rate is halved each time a request is throttled and is increased additively
+ * on successful requests until the configured maximum rate is reached again.
+ */
+public class AdaptiveRateLimiter {
+
+    private static final double MIN_RATE_FRACTION = 0.05;
+    private static final double RATE_INCREASE_FRACTION = 0.05;
+
+    private final double maxRate;
+    private final double minRate;
+    private final double burstSize;
+    private double rate;
+    private double tokens;
+    private long lastRefillTime;
+    private long throttledRequestCount;
+
+    /**
+     * @param requestsPerSecond maximum request rate
+     * @param burstSize         maximum number of requests allowed without waiting
+     */
+    public AdaptiveRateLimiter(double requestsPerSecond, int burstSize) {
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Request rate should be greater than zero: " + requestsPerSecond);
+        }
+        this.maxRate = requestsPerSecond;
+        this.minRate = requestsPerSecond * MIN_RATE_FRACTION;
+        this.burstSize = Math.max(1, burstSize);
+        this.rate = requestsPerSecond;
+        this.tokens = this.burstSize;
+        this.lastRefillTime = System.nanoTime();
+    }
+
+    /**
+     * Waits until a request is allowed by the current request rate.
+     */
+    public void acquire() throws InterruptedException {
+        long waitTime;
+        synchronized (this) {
+            refill();
+            // Reserve a token, waiting requests are queued by taking the token count below zero
+            tokens -= 1;
+            waitTime = (tokens >= 0) ? 0 : (long) Math.ceil(-tokens * 1000 / rate);
+        }
+        if (waitTime > 0) {
+            Thread.sleep(waitTime);
+        }
+    }
+
+    /**
+     * Reduces the request rate after a request was throttled and drops any remaining burst.
+     */
+    public synchronized void throttled() {
+        refill();
+        rate = Math.max(minRate, rate / 2);
+        tokens = Math.min(tokens, 0);
+        throttledRequestCount++;
+    }
+
+    /**
+     * Increases the request rate after a successful request.
+     */
+    public synchronized void succeeded() {
+        if (rate < maxRate) {
+            refill();
+            rate = Math.min(maxRate, rate + maxRate * RATE_INCREASE_FRACTION);
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burstSize, tokens + (now - lastRefillTime) * rate / 1000000000d);
+        lastRefillTime = now;
+    }
+
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    public synchronized long getThrottledRequestCount() {
+        return throttledRequestCount;
+    }
+}
@@ -67,4 +67,15 @@ public class Constants {
 	public static final String LB_SCHEME = "load-balancer-scheme";
 	public static final String LB_SCHEME_INTERNAL = "internal";
 	public static final String EC2_AVAILABILITY_ZONE_PROPERTY = "EC2_AVAILABILITY_ZONE";
+	public static final String ELB_REQUESTS_PER_SECOND = "elb.requests.per.second";
+	public static final int DEFAULT_ELB_REQUESTS_PER_SECOND = 5;
+	public static final String ELB_REQUEST_BURST_SIZE = "elb.request.burst.size";
+	public static final int DEFAULT_ELB_REQUEST_BURST_SIZE = 10;
+	public static final String ELB_REQUEST_BATCH_SIZE = "elb.request.batch.size";
+	public static final int DEFAULT_ELB_REQUEST_BATCH_SIZE = 20;
+	public static final String ELB_CONCURRENT_LOAD_BALANCERS = "elb.concurrent.load.balancers";
+	public static final int DEFAULT_ELB_CONCURRENT_LOAD_BALANCERS = 4;
+	public static final int ELB_REQUEST_MAX_RETRIES = 6;
+	public static final long ELB_REQUEST_INITIAL_BACKOFF = 500;
+	public static final String ELB_THROTTLING_ERROR_CODE = "Throttling";
 }
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.aws.extension;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Elastic load balancing operations used for synchronizing load balancer instance membership. Implementations
+ * are expected to throw runtime exceptions on failures so that callers could retry throttled requests.
+ */
+public interface ElasticLoadBalancingClient {
+
+    /**
+     * Returns ids of the instances registered with the load balancer.
+     *
+     * @param loadBalancerName name of the load balancer
+     * @param region           region of the load balancer
+     * @return set of instance ids, null if the load balancer could not be found
+     */
+    Set<String> getRegisteredInstanceIds(String loadBalancerName, String region);
+
+    /**
+     * Registers a batch of instances with the load balancer using a single request.
+     */
+    void registerInstances(String loadBalancerName, String region, Collection<String> instanceIds);
+
+    /**
+     * De-registers a batch of instances from the load balancer using a single request.
+     */
+    void deregisterInstances(String loadBalancerName, String region, Collection<String> instanceIds);
+
+    /**
+     * Returns true if the given exception was thrown due to request rate limits being exceeded.
+     */
+    boolean isThrottlingException(RuntimeException exception);
+}
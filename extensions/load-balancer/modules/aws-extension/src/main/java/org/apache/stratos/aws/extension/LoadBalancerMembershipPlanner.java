@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.aws.extension;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Synchronizes instance membership of AWS load balancers with the topology. The instances registered with each
+ * load balancer are compared with the desired instances and the difference is applied using batched register
+ * and de-register requests. Load balancers are synchronized concurrently, all requests go through a shared
+ * rate limiter and throttled requests are retried with exponential backoff.
+ */
+public class LoadBalancerMembershipPlanner {
+
+    private static final Log log = LogFactory.getLog(LoadBalancerMembershipPlanner.class);
+    private static final long MAX_BACKOFF = 30000;
+
+    private final ElasticLoadBalancingClient client;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final ExecutorService executorService;
+    private final int batchSize;
+    private final int maxRetries;
+    private final long initialBackoff;
+    private final Random random = new Random();
+
+    public LoadBalancerMembershipPlanner(ElasticLoadBalancingClient client, AdaptiveRateLimiter rateLimiter,
+                                         ExecutorService executorService, int batchSize, int maxRetries,
+                                         long initialBackoff) {
+        this.client = client;
+        this.rateLimiter = rateLimiter;
+        this.executorService = executorService;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRetries = maxRetries;
+        this.initialBackoff = Math.max(1, initialBackoff);
+    }
+
+    /**
+     * Creates the requests needed to change the registered instances of a load balancer to the desired
+     * instances. Instances are registered before others are de-registered to avoid reducing capacity.
+     *
+     * @param membership          desired instances of the load balancer
+     * @param registeredInstances instances currently registered with the load balancer
+     * @param batchSize           maximum number of instances in a request
+     * @return list of requests, empty if no changes are needed
+     */
+    public static List<MembershipRequest> plan(DesiredMembership membership, Set<String> registeredInstances,
+                                               int batchSize) {
+        List<String> instancesToRegister = new ArrayList<String>();
+        for (String instanceId : membership.getInstanceIds()) {
+            if (!registeredInstances.contains(instanceId)) {
+                instancesToRegister.add(instanceId);
+            }
+        }
+        List<String> instancesToDeregister = new ArrayList<String>();
+        for (String instanceId : registeredInstances) {
+            if (!membership.getInstanceIds().contains(instanceId)) {
+                instancesToDeregister.add(instanceId);
+            }
+        }
+
+        List<MembershipRequest> requests = new ArrayList<MembershipRequest>();
+        addBatches(requests, membership, true, instancesToRegister, batchSize);
+        addBatches(requests, membership, false, instancesToDeregister, batchSize);
+        return requests;
+    }
+
+    private static void addBatches(List<MembershipRequest> requests, DesiredMembership membership, boolean register,
+                                   List<String> instanceIds, int batchSize) {
+        for (int i = 0; i < instanceIds.size(); i += batchSize) {
+            List<String> batch = new ArrayList<String>(
+                    instanceIds.subList(i, Math.min(instanceIds.size(), i + batchSize)));
+            requests.add(new MembershipRequest(membership.getLoadBalancerName(), membership.getRegion(),
+                    register, batch));
+        }
+    }
+
+    /**
+     * Synchronizes the instances of the given load balancers and waits until all load balancers are updated.
+     *
+     * @param memberships desired instances of each load balancer
+     * @return names of the load balancers which could not be updated
+     */
+    public Set<String> synchronize(Collection<DesiredMembership> memberships) {
+        Map<String, Future<Boolean>> futures = new HashMap<String, Future<Boolean>>();
+        for (final DesiredMembership membership : memberships) {
+            futures.put(membership.getLoadBalancerName(), executorService.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return synchronize(membership);
+                }
+            }));
+        }
+
+        Set<String> failedLoadBalancers = new HashSet<String>();
+        for (Map.Entry<String, Future<Boolean>> entry : futures.entrySet()) {
+            try {
+                if (!entry.getValue().get()) {
+                    failedLoadBalancers.add(entry.getKey());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedLoadBalancers.add(entry.getKey());
+            } catch (ExecutionException e) {
+                log.error(String.format("Could not update load balancer instances: [load-balancer] %s",
+                        entry.getKey()), e.getCause());
+                failedLoadBalancers.add(entry.getKey());
+            }
+        }
+        return failedLoadBalancers;
+    }
+
+    private boolean synchronize(final DesiredMembership membership) {
+        final String loadBalancerName = membership.getLoadBalancerName();
+        try {
+            Set<String> registeredInstances = execute(new Request<Set<String>>() {
+                @Override
+                public Set<String> execute() {
+                    return client.getRegisteredInstanceIds(loadBalancerName, membership.getRegion());
+                }
+            });
+            if (registeredInstances == null) {
+                log.warn(String.format("Could not find instances of load balancer: [load-balancer] %s",
+                        loadBalancerName));
+                return false;
+            }
+
+            List<MembershipRequest> requests = plan(membership, registeredInstances, batchSize);
+            for (final MembershipRequest request : requests) {
+                log.info(String.format("%s instances %s load balancer: [load-balancer] %s [instances] %s",
+                        request.isRegister() ? "Registering" : "De-registering",
+                        request.isRegister() ? "to" : "from", loadBalancerName, request.getInstanceIds()));
+                execute(new Request<Void>() {
+                    @Override
+                    public Void execute() {
+                        if (request.isRegister()) {
+                            client.registerInstances(loadBalancerName, request.getRegion(), request.getInstanceIds());
+                        } else {
+                            client.deregisterInstances(loadBalancerName, request.getRegion(), request.getInstanceIds());
+                        }
+                        return null;
+                    }
+                });
+            }
+            if (requests.isEmpty() && log.isDebugEnabled()) {
+                log.debug(String.format("Load balancer instances are up to date: [load-balancer] %s",
+                        loadBalancerName));
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (RuntimeException e) {
+            log.error(String.format("Could not update load balancer instances: [load-balancer] %s",
+                    loadBalancerName), e);
+            return false;
+        }
+    }
+
+    /**
+     * Executes a request once allowed by the rate limiter, throttled requests are retried with exponential
+     * backoff and jitter until the maximum number of retries is reached.
+     */
+    private <T> T execute(Request<T> request) throws InterruptedException {
+        long backoff = initialBackoff;
+        for (int retry = 0; ; retry++) {
+            rateLimiter.acquire();
+            try {
+                T result = request.execute();
+                rateLimiter.succeeded();
+                return result;
+            } catch (RuntimeException e) {
+                if ((retry >= maxRetries) || !client.isThrottlingException(e)) {
+                    throw e;
+                }
+                rateLimiter.throttled();
+                long delay = backoff / 2 + nextLong(backoff / 2 + 1);
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Request throttled, retrying: [retry] %d [delay] %d ms", retry + 1,
+                            delay));
+                }
+                Thread.sleep(delay);
+                backoff = Math.min(MAX_BACKOFF, backoff * 2);
+            }
+        }
+    }
+
+    private long nextLong(long bound) {
+        synchronized (random) {
+            return (long) (random.nextDouble() * bound);
+        }
+    }
+
+    private interface Request<T> {
+        T execute();
+    }
+
+    /**
+     * Desired instances of a load balancer.
+     */
+    public static class DesiredMembership {
+        private final String loadBalancerName;
+        private final String region;
+        private final Set<String> instanceIds;
+
+        public DesiredMembership(String loadBalancerName, String region, Set<String> instanceIds) {
+            this.loadBalancerName = loadBalancerName;
+            this.region = region;
+            this.instanceIds = instanceIds;
+        }
+
+        public String getLoadBalancerName() {
+            return loadBalancerName;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public Set<String> getInstanceIds() {
+            return instanceIds;
+        }
+    }
+
+    /**
+     * A batched register or de-register request.
+     */
+    public static class MembershipRequest {
+        private final String loadBalancerName;
+        private final String region;
+        private final boolean register;
+        private final List<String> instanceIds;
+
+        public MembershipRequest(String loadBalancerName, String region, boolean register, List<String> instanceIds) {
+            this.loadBalancerName = loadBalancerName;
+            this.region = region;
+            this.register = register;
+            this.instanceIds = instanceIds;
+        }
+
+        public String getLoadBalancerName() {
+            return loadBalancerName;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public boolean isRegister() {
+            return register;
+        }
+
+        public List<String> getInstanceIds() {
+            return instanceIds;
+        }
+    }
+}
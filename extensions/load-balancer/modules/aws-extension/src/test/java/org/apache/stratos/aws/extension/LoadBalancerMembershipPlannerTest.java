@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.aws.extension;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load balancer membership planner tests using a local stub of the elastic load balancing client.
+ */
+public class LoadBalancerMembershipPlannerTest {
+
+    /**
+     * Test instances are registered and de-registered in batches.
+     */
+    @Test
+    public void testPlan() {
+        LoadBalancerMembershipPlanner.DesiredMembership membership = new LoadBalancerMembershipPlanner.DesiredMembership(
+                "lb-1", "us-east-1", new LinkedHashSet<String>(Arrays.asList("i-1", "i-2", "i-3", "i-4", "i-5")));
+        List<LoadBalancerMembershipPlanner.MembershipRequest> requests = LoadBalancerMembershipPlanner.plan(
+                membership, new HashSet<String>(Arrays.asList("i-4", "i-5", "i-6")), 2);
+
+        Assert.assertEquals(3, requests.size());
+        Assert.assertTrue(requests.get(0).isRegister());
+        Assert.assertEquals(Arrays.asList("i-1", "i-2"), requests.get(0).getInstanceIds());
+        Assert.assertTrue(requests.get(1).isRegister());
+        Assert.assertEquals(Collections.singletonList("i-3"), requests.get(1).getInstanceIds());
+        Assert.assertFalse(requests.get(2).isRegister());
+        Assert.assertEquals(Collections.singletonList("i-6"), requests.get(2).getInstanceIds());
+
+        Assert.assertTrue("Requests created for an up to date load balancer", LoadBalancerMembershipPlanner.plan(
+                membership, membership.getInstanceIds(), 2).isEmpty());
+    }
+
+    /**
+     * Test load balancers are synchronized concurrently and throttled requests are retried.
+     */
+    @Test
+    public void testSynchronizeWithThrottling() {
+        StubElasticLoadBalancingClient client = new StubElasticLoadBalancingClient(3);
+        List<LoadBalancerMembershipPlanner.DesiredMembership> memberships =
+                new ArrayList<LoadBalancerMembershipPlanner.DesiredMembership>();
+        for (int i = 0; i < 4; i++) {
+            String loadBalancerName = "lb-" + i;
+            client.addLoadBalancer(loadBalancerName, "i-" + i + "-old");
+            Set<String> instanceIds = new HashSet<String>();
+            for (int j = 0; j < 25; j++) {
+                instanceIds.add("i-" + i + "-" + j);
+            }
+            memberships.add(new LoadBalancerMembershipPlanner.DesiredMembership(loadBalancerName, "us-east-1",
+                    instanceIds));
+        }
+        memberships.add(new LoadBalancerMembershipPlanner.DesiredMembership("lb-unknown", "us-east-1",
+                Collections.singleton("i-unknown")));
+
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(1000, 10);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            LoadBalancerMembershipPlanner planner = new LoadBalancerMembershipPlanner(client, rateLimiter,
+                    executorService, 10, 5, 1);
+            Set<String> failedLoadBalancers = planner.synchronize(memberships);
+
+            Assert.assertEquals(Collections.singleton("lb-unknown"), failedLoadBalancers);
+            for (int i = 0; i < 4; i++) {
+                Assert.assertEquals(memberships.get(i).getInstanceIds(), client.getRegisteredInstanceIds("lb-" + i,
+                        "us-east-1"));
+            }
+            // 25 instances in batches of 10 and a single de-registration per load balancer
+            Assert.assertEquals(12, client.getRegisterRequestCount());
+            Assert.assertEquals(4, client.getDeregisterRequestCount());
+            Assert.assertEquals(3, rateLimiter.getThrottledRequestCount());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Test the request rate is limited once the burst is used and reduced when requests are throttled.
+     */
+    @Test
+    public void testRateLimiter() throws InterruptedException {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(100, 5);
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < 25; i++) {
+            rateLimiter.acquire();
+        }
+        long duration = System.currentTimeMillis() - startTime;
+        Assert.assertTrue("Request rate not limited: " + duration + " ms", duration >= 150);
+
+        rateLimiter.throttled();
+        Assert.assertEquals(50, rateLimiter.getRate(), 0.001);
+        rateLimiter.throttled();
+        Assert.assertEquals(25, rateLimiter.getRate(), 0.001);
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.succeeded();
+        }
+        Assert.assertEquals(100, rateLimiter.getRate(), 0.001);
+    }
+
+    private static class ThrottlingException extends RuntimeException {
+        public ThrottlingException() {
+            super("Rate exceeded");
+        }
+    }
+
+    /**
+     * Elastic load balancing client keeping load balancer instances in memory. The given number of
+     * requests are throttled before any request succeeds.
+     */
+    private static class StubElasticLoadBalancingClient implements ElasticLoadBalancingClient {
+
+        private final Map<String, Set<String>> loadBalancerToInstancesMap = new ConcurrentHashMap<String, Set<String>>();
+        private final AtomicInteger throttledRequests;
+        private final AtomicInteger registerRequestCount = new AtomicInteger();
+        private final AtomicInteger deregisterRequestCount = new AtomicInteger();
+
+        public StubElasticLoadBalancingClient(int throttledRequests) {
+            this.throttledRequests = new AtomicInteger(throttledRequests);
+        }
+
+        public void addLoadBalancer(String loadBalancerName, String... instanceIds) {
+            loadBalancerToInstancesMap.put(loadBalancerName,
+                    Collections.synchronizedSet(new HashSet<String>(Arrays.asList(instanceIds))));
+        }
+
+        private void throttle() {
+            if (throttledRequests.getAndDecrement() > 0) {
+                throw new ThrottlingException();
+            }
+        }
+
+        @Override
+        public Set<String> getRegisteredInstanceIds(String loadBalancerName, String region) {
+            throttle();
+            Set<String> instanceIds = loadBalancerToInstancesMap.get(loadBalancerName);
+            return (instanceIds == null) ? null : new HashSet<String>(instanceIds);
+        }
+
+        @Override
+        public void registerInstances(String loadBalancerName, String region, Collection<String> instanceIds) {
+            throttle();
+            registerRequestCount.incrementAndGet();
+            loadBalancerToInstancesMap.get(loadBalancerName).addAll(instanceIds);
+        }
+
+        @Override
+        public void deregisterInstances(String loadBalancerName, String region, Collection<String> instanceIds) {
+            throttle();
+            deregisterRequestCount.incrementAndGet();
+            loadBalancerToInstancesMap.get(loadBalancerName).removeAll(instanceIds);
+        }
+
+        @Override
+        public boolean isThrottlingException(RuntimeException exception) {
+            return exception instanceof ThrottlingException;
+        }
+
+        public int getRegisterRequestCount() {
+            return registerRequestCount.get();
+        }
+
+        public int getDeregisterRequestCount() {
+            return deregisterRequestCount.get();
+        }
+    }
+}
@@ -32,6 +32,7 @@ properties="-Dhaproxy.private.ip=127.0.0.1
             -Dscripts.path=${script_path}/../scripts
             -Dconf.file.path=/tmp/haproxy.cfg
             -Dstats.socket.file.path=/tmp/haproxy-stats.socket
+            -Dserver.slot.block.size=10
             -Dlog4j.properties.file.path=${script_path}/../conf/log4j.properties
             -Djavax.net.ssl.trustStore=${script_path}/../security/client-truststore.jks
             -Djavax.net.ssl.trustStorePassword=wso2carbon
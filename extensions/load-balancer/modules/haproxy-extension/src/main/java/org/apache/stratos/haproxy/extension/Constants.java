@@ -30,6 +30,8 @@ public class Constants {
     public static final String SCRIPTS_PATH = "scripts.path";
     public static final String CONF_FILE_PATH = "conf.file.path";
     public static final String STATS_SOCKET_FILE_PATH = "stats.socket.file.path";
+    public static final String SERVER_SLOT_BLOCK_SIZE = "server.slot.block.size";
+    public static final int DEFAULT_SERVER_SLOT_BLOCK_SIZE = 10;
     public static final String CEP_STATS_PUBLISHER_ENABLED = "cep.stats.publisher.enabled";
     public static final String THRIFT_RECEIVER_IP = "thrift.receiver.ip";
     public static final String THRIFT_RECEIVER_PORT = "thrift.receiver.port";
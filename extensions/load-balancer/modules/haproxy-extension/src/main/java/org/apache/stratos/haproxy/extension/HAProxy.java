@@ -22,6 +22,7 @@ package org.apache.stratos.haproxy.extension;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.common.util.CommandUtils;
+import org.apache.stratos.load.balancer.extension.api.ConfigurationRenderer;
 import org.apache.stratos.load.balancer.extension.api.LoadBalancer;
 import org.apache.stratos.load.balancer.extension.api.exception.LoadBalancerExtensionException;
 import org.apache.stratos.load.balancer.common.domain.Topology;
@@ -29,12 +30,14 @@ import org.apache.stratos.load.balancer.common.domain.Topology;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Vector;
 
 /**
  * HAProxy load balancer life-cycle implementation.
  */
-public class HAProxy implements LoadBalancer {
+public class HAProxy implements LoadBalancer, ConfigurationRenderer {
 
     private static final Log log = LogFactory.getLog(HAProxy.class);
 
@@ -44,6 +47,13 @@ public class HAProxy implements LoadBalancer {
     private String templateName;
     private String confFilePath;
     private String statsSocketFilePath;
+    private String scriptsPath;
+    private HAProxyConfigWriter configWriter;
+
+    private volatile String renderedConfiguration;
+    // Changes written by configure() and not yet applied to the running haproxy instance
+    private boolean fullReloadRequired;
+    private List<String> pendingRuntimeCommands = new ArrayList<String>();
 
     public HAProxy() {
         this.executableFilePath = HAProxyContext.getInstance().getExecutableFilePath();
@@ -52,6 +62,9 @@ public class HAProxy implements LoadBalancer {
         this.confFilePath = HAProxyContext.getInstance().getConfFilePath();
         this.processIdFilePath = confFilePath.replace(".cfg", ".pid");
         this.statsSocketFilePath = HAProxyContext.getInstance().getStatsSocketFilePath();
+        this.scriptsPath = HAProxyContext.getInstance().getScriptsPath();
+        this.configWriter = new HAProxyConfigWriter(templatePath, templateName, confFilePath, statsSocketFilePath,
+                HAProxyContext.getInstance().getServerSlotBlockSize());
     }
 
     /**
@@ -59,11 +72,15 @@ public class HAProxy implements LoadBalancer {
      * @param topology
      * @throws LoadBalancerExtensionException
      */
-    public boolean configure(Topology topology) throws LoadBalancerExtensionException {
+    public synchronized boolean configure(Topology topology) throws LoadBalancerExtensionException {
         try {
             log.info("Generating haproxy configuration...");
-            HAProxyConfigWriter writer = new HAProxyConfigWriter(templatePath, templateName, confFilePath, statsSocketFilePath);
-            if(writer.write(topology)) {
+            if(configWriter.write(topology)) {
+                renderedConfiguration = configWriter.getConfiguration();
+                if (configWriter.isStructureChanged()) {
+                    fullReloadRequired = true;
+                }
+                pendingRuntimeCommands.addAll(configWriter.getRuntimeCommands());
                 return true;
             }
             return false;
@@ -77,7 +94,7 @@ public class HAProxy implements LoadBalancer {
      * Start haproxy instance
      * @throws LoadBalancerExtensionException
      */
-    public void start() throws LoadBalancerExtensionException {
+    public synchronized void start() throws LoadBalancerExtensionException {
         log.info("Starting haproxy instance...");
         // Check for configuration file
         File conf = new File(confFilePath);
@@ -89,6 +106,8 @@ public class HAProxy implements LoadBalancer {
         try {
             String command = executableFilePath + " -f " + confFilePath + " -p " + processIdFilePath;
             CommandUtils.executeCommand(command);
+            fullReloadRequired = false;
+            pendingRuntimeCommands.clear();
             log.info("haproxy instance started");
         } catch (Exception e) {
             log.error("Could not start haproxy instance");
@@ -96,11 +115,65 @@ public class HAProxy implements LoadBalancer {
         }
     }
 
+    /**
+     * Apply the configuration written in configure() method. Member changes within existing backends
+     * are applied via the haproxy runtime API, haproxy is reloaded if frontends or backends changed
+     * or if the runtime API commands fail.
+     * @throws LoadBalancerExtensionException
+     */
+    public synchronized void reload() throws LoadBalancerExtensionException {
+        if (!fullReloadRequired) {
+            if (pendingRuntimeCommands.isEmpty()) {
+                return;
+            }
+            try {
+                executeRuntimeCommands(pendingRuntimeCommands);
+                pendingRuntimeCommands.clear();
+                return;
+            } catch (Exception e) {
+                log.warn("Could not apply member changes via the haproxy runtime API, reloading haproxy", e);
+            }
+        }
+        reloadProcess();
+        fullReloadRequired = false;
+        pendingRuntimeCommands.clear();
+    }
+
+    /**
+     * Execute haproxy runtime API commands via the stats socket in a single socat invocation.
+     */
+    private void executeRuntimeCommands(List<String> commands) throws Exception {
+        StringBuilder commandLine = new StringBuilder();
+        for (String command : commands) {
+            if (commandLine.length() > 0) {
+                commandLine.append(";");
+            }
+            commandLine.append(command);
+        }
+        // echo "<command>;<command>" | socat stdio <stats-socket>
+        String output = CommandUtils.executeCommand(new String[]{scriptsPath + "/execute-command.sh",
+                commandLine.toString(), statsSocketFilePath});
+        for (String line : output.split("\n")) {
+            if (isRuntimeCommandError(line)) {
+                throw new LoadBalancerExtensionException("haproxy runtime API command failed: " + line.trim());
+            }
+        }
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Member changes applied via the haproxy runtime API: [commands] %d",
+                    commands.size()));
+        }
+    }
+
+    private boolean isRuntimeCommandError(String line) {
+        return line.startsWith("No such") || line.startsWith("Unknown command") || line.startsWith("Permission denied")
+                || line.startsWith("Require") || line.startsWith("Invalid");
+    }
+
     /**
      * Reload haproxy instance according to the configuration written in configure() method.
      * @throws LoadBalancerExtensionException
      */
-    public void reload() throws LoadBalancerExtensionException {
+    private void reloadProcess() throws LoadBalancerExtensionException {
         try {
             log.info("Reloading configuration...");
 
@@ -155,4 +228,9 @@ public class HAProxy implements LoadBalancer {
             }
         }
     }
+
+    @Override
+    public String getRenderedConfiguration() {
+        return renderedConfiguration;
+    }
 }
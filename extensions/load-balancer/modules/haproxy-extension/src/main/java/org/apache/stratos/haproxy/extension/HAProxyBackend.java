@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.haproxy.extension;
+
+import org.apache.stratos.load.balancer.common.domain.Member;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HAProxy backend with a fixed number of server slots. Members are assigned to slots and free slots
+ * are kept in maintenance mode, so that members could be added and removed via the haproxy runtime
+ * API without reloading haproxy.
+ */
+public class HAProxyBackend {
+
+    private static final String SLOT_NAME_PREFIX = "slot-";
+    private static final String FREE_SLOT_ADDRESS = "127.0.0.1";
+    private static final String NEW_LINE = System.getProperty("line.separator");
+
+    private final String backendId;
+    private final String protocol;
+    private final int port;
+    private final String[] slotMemberIds;
+    private final Map<String, String> memberAddresses;
+
+    public HAProxyBackend(String backendId, String protocol, int port, int slotCount) {
+        this.backendId = backendId;
+        this.protocol = protocol;
+        this.port = port;
+        this.slotMemberIds = new String[slotCount];
+        this.memberAddresses = new HashMap<String, String>();
+    }
+
+    /**
+     * Assign members to server slots. Members found in the previous backend keep their slots.
+     *
+     * @param members  members of the backend, should not exceed the slot count
+     * @param previous backend written by the previous configuration, null if there is none
+     * @return runtime API commands for moving the previous backend to this backend
+     */
+    public List<String> assignMembers(Collection<Member> members, HAProxyBackend previous) {
+        Map<String, Member> unassignedMembers = new LinkedHashMap<String, Member>();
+        for (Member member : members) {
+            unassignedMembers.put(member.getMemberId(), member);
+        }
+
+        List<String> commands = new ArrayList<String>();
+        if (previous != null) {
+            int slotCount = Math.min(slotMemberIds.length, previous.slotMemberIds.length);
+            for (int slot = 0; slot < slotCount; slot++) {
+                String memberId = previous.slotMemberIds[slot];
+                if (memberId == null) {
+                    continue;
+                }
+                Member member = unassignedMembers.remove(memberId);
+                if (member == null) {
+                    // Member removed
+                    commands.add(String.format("set server %s/%s state maint", backendId, getSlotName(slot)));
+                    continue;
+                }
+                slotMemberIds[slot] = memberId;
+                memberAddresses.put(memberId, member.getHostName());
+                if (!member.getHostName().equals(previous.memberAddresses.get(memberId))) {
+                    commands.add(String.format("set server %s/%s addr %s port %d", backendId, getSlotName(slot),
+                            member.getHostName(), port));
+                }
+            }
+        }
+
+        int slot = 0;
+        for (Member member : unassignedMembers.values()) {
+            while (slotMemberIds[slot] != null) {
+                slot++;
+            }
+            slotMemberIds[slot] = member.getMemberId();
+            memberAddresses.put(member.getMemberId(), member.getHostName());
+            commands.add(String.format("set server %s/%s addr %s port %d", backendId, getSlotName(slot),
+                    member.getHostName(), port));
+            commands.add(String.format("set server %s/%s state ready", backendId, getSlotName(slot)));
+        }
+        return commands;
+    }
+
+    /**
+     * Append the backend block to the given configuration.
+     */
+    public void appendConfiguration(StringBuilder backendCollection) {
+        backendCollection.append("backend ").append(backendId).append(NEW_LINE);
+        backendCollection.append("\tmode ").append(protocol).append(NEW_LINE);
+        for (int slot = 0; slot < slotMemberIds.length; slot++) {
+            backendCollection.append("\tserver ").append(getSlotName(slot)).append(" ");
+            if (slotMemberIds[slot] != null) {
+                backendCollection.append(memberAddresses.get(slotMemberIds[slot])).append(":").append(port);
+            } else {
+                backendCollection.append(FREE_SLOT_ADDRESS).append(":").append(port).append(" disabled");
+            }
+            backendCollection.append(NEW_LINE);
+        }
+        backendCollection.append(NEW_LINE);
+    }
+
+    /**
+     * Get the name of the server slot assigned to the given member.
+     *
+     * @return server name, null if the member is not found in the backend
+     */
+    public String getServerName(String memberId) {
+        for (int slot = 0; slot < slotMemberIds.length; slot++) {
+            if (memberId.equals(slotMemberIds[slot])) {
+                return getSlotName(slot);
+            }
+        }
+        return null;
+    }
+
+    private String getSlotName(int slot) {
+        return SLOT_NAME_PREFIX + (slot + 1);
+    }
+
+    public String getBackendId() {
+        return backendId;
+    }
+
+    public String getProtocol() {
+        return protocol;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getSlotCount() {
+        return slotMemberIds.length;
+    }
+}
@@ -31,10 +31,17 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
- * HAProxy load balancer configuration writer.
+ * HAProxy load balancer configuration writer. Backends are written with a fixed number of server slots,
+ * member changes within existing backends are returned as runtime API commands and a reload is only
+ * required if the structure of the configuration changes.
  */
 public class HAProxyConfigWriter {
 
@@ -45,14 +52,23 @@ public class HAProxyConfigWriter {
     private String templateName;
     private String confFilePath;
     private String statsSocketFilePath;
+    private int serverSlotBlockSize;
+
+    private Template template;
+    private Map<String, HAProxyBackend> backends = Collections.emptyMap();
+    private String structure;
+    private String configuration;
+    private boolean structureChanged;
+    private List<String> runtimeCommands = Collections.emptyList();
 
     public HAProxyConfigWriter(String templatePath, String templateName, String confFilePath,
-                               String statsSocketFilePath) {
+                               String statsSocketFilePath, int serverSlotBlockSize) {
 
         this.templatePath = templatePath;
         this.templateName = templateName;
         this.confFilePath = confFilePath;
         this.statsSocketFilePath = statsSocketFilePath;
+        this.serverSlotBlockSize = serverSlotBlockSize;
     }
 
     public boolean write(Topology topology) {
@@ -60,23 +76,32 @@ public class HAProxyConfigWriter {
         StringBuilder globalParameters = new StringBuilder();
         globalParameters.append("stats socket ");
         globalParameters.append(statsSocketFilePath);
+        // Admin level is required for updating servers via the runtime API
+        globalParameters.append(" level admin");
 
         StringBuilder frontendCollection = new StringBuilder();
-        StringBuilder backendCollection = new StringBuilder();
+        Map<String, HAProxyBackend> newBackends = new LinkedHashMap<String, HAProxyBackend>();
+        Map<String, Collection<Member>> backendMembers = new LinkedHashMap<String, Collection<Member>>();
 
         for (Service service : topology.getServices()) {
             for (Cluster cluster : service.getClusters()) {
-                createConfig(cluster, frontendCollection, backendCollection);
+                createConfig(cluster, frontendCollection, newBackends, backendMembers);
             }
         }
 
-        // Start velocity engine
-        VelocityEngine ve = new VelocityEngine();
-        ve.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, templatePath);
-        ve.init();
+        StringBuilder newStructure = new StringBuilder(frontendCollection);
+        for (HAProxyBackend backend : newBackends.values()) {
+            newStructure.append(backend.getBackendId()).append(" ").append(backend.getProtocol()).append(" ")
+                    .append(backend.getSlotCount()).append(NEW_LINE);
+        }
 
-        // Open the template
-        Template t = ve.getTemplate(templateName);
+        List<String> newRuntimeCommands = new ArrayList<String>();
+        StringBuilder backendCollection = new StringBuilder();
+        for (HAProxyBackend backend : newBackends.values()) {
+            newRuntimeCommands.addAll(backend.assignMembers(backendMembers.get(backend.getBackendId()),
+                    backends.get(backend.getBackendId())));
+            backend.appendConfiguration(backendCollection);
+        }
 
         // Insert strings into the template
         VelocityContext context = new VelocityContext();
@@ -86,29 +111,53 @@ public class HAProxyConfigWriter {
 
         // Create a new string from the template
         StringWriter stringWriter = new StringWriter();
-        t.merge(context, stringWriter);
-        String configuration = stringWriter.toString();
+        getTemplate().merge(context, stringWriter);
+        String newConfiguration = stringWriter.toString();
 
         // Write configuration file
         try {
             BufferedWriter writer = new BufferedWriter(new FileWriter(confFilePath));
-            writer.write(configuration);
+            writer.write(newConfiguration);
             writer.close();
 
             if (log.isInfoEnabled()) {
                 log.info(String.format("Configuration written to file: %s", confFilePath));
             }
-            return true;
         } catch (IOException e) {
             if (log.isErrorEnabled()) {
                 log.error(String.format("Could not write configuration file: %s", confFilePath));
             }
             throw new RuntimeException(e);
         }
+
+        String newStructureString = newStructure.toString();
+        structureChanged = !newStructureString.equals(structure);
+        structure = newStructureString;
+        runtimeCommands = newRuntimeCommands;
+        backends = newBackends;
+        configuration = newConfiguration;
+        return true;
+    }
+
+    /**
+     * Parse the template once and reuse it for subsequent writes.
+     */
+    private Template getTemplate() {
+        if (template == null) {
+            // Start velocity engine
+            VelocityEngine ve = new VelocityEngine();
+            ve.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, templatePath);
+            ve.init();
+
+            // Open the template
+            template = ve.getTemplate(templateName);
+        }
+        return template;
     }
 
     private void createConfig(Cluster cluster, StringBuilder frontendCollection,
-                              StringBuilder backendCollection) {
+                              Map<String, HAProxyBackend> newBackends,
+                              Map<String, Collection<Member>> backendMembers) {
 
         if((cluster.getMembers() == null) || (cluster.getMembers().size() == 0)) {
             return;
@@ -129,7 +178,7 @@ public class HAProxyConfigWriter {
             frontendCollection.append("\tmode ").append(protocol).append(NEW_LINE);
 
             for (String hostname : cluster.getHostNames()) {
-                String backendId = hostname + "_" + protocol + "_" + port.getValue() + "_backend";
+                String backendId = getBackendId(hostname, port);
 
                 frontendCollection.append("\tacl ").append("is_").append(hostname).append(" hdr_beg(host) -i ")
                         .append(hostname).append(NEW_LINE);
@@ -137,16 +186,60 @@ public class HAProxyConfigWriter {
                         .append(hostname).append(NEW_LINE);
                 // Front end block end
 
-                // Backend block start
-                backendCollection.append("backend ").append(backendId).append(NEW_LINE);
-                backendCollection.append("\tmode ").append(protocol).append(NEW_LINE);
-                for (Member member : cluster.getMembers()) {
-                    backendCollection.append("\tserver ").append(member.getMemberId()).append(" ")
-                            .append(member.getHostName()).append(":").append(port.getValue()).append(NEW_LINE);
-                }
-                backendCollection.append(NEW_LINE);
-                // Backend block end
+                // Backend blocks are written once all backends are known
+                Collection<Member> members = cluster.getMembers();
+                newBackends.put(backendId, new HAProxyBackend(backendId, protocol, port.getValue(),
+                        getSlotCount(backendId, members.size())));
+                backendMembers.put(backendId, members);
             }
         }
     }
+
+    /**
+     * Get the id of the backend written for the given hostname and port.
+     */
+    public static String getBackendId(String hostname, Port port) {
+        return hostname + "_" + port.getProtocol() + "_" + port.getValue() + "_backend";
+    }
+
+    /**
+     * Keep the slot count of an existing backend while the members fit, else provision slots in blocks
+     * leaving at least one free slot.
+     */
+    private int getSlotCount(String backendId, int memberCount) {
+        HAProxyBackend backend = backends.get(backendId);
+        if ((backend != null) && (memberCount <= backend.getSlotCount())) {
+            return backend.getSlotCount();
+        }
+        return (memberCount / serverSlotBlockSize + 1) * serverSlotBlockSize;
+    }
+
+    /**
+     * Get the configuration rendered by the last write() invocation.
+     */
+    public String getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Returns true if frontends, backends or server slot counts changed in the last write() invocation,
+     * these changes could only be applied by reloading haproxy.
+     */
+    public boolean isStructureChanged() {
+        return structureChanged;
+    }
+
+    /**
+     * Get runtime API commands for applying the member changes of the last write() invocation.
+     */
+    public List<String> getRuntimeCommands() {
+        return runtimeCommands;
+    }
+
+    /**
+     * Get the backends written by the last write() invocation.
+     */
+    public Collection<HAProxyBackend> getBackends() {
+        return backends.values();
+    }
 }
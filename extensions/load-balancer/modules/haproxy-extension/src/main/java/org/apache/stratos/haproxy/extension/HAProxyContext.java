@@ -37,6 +37,7 @@ public class HAProxyContext {
     private String scriptsPath;
     private String confFilePath;
     private String statsSocketFilePath;
+    private int serverSlotBlockSize;
     private boolean cepStatsPublisherEnabled;
     private String thriftReceiverIp;
     private String thriftReceiverPort;
@@ -52,6 +53,8 @@ public class HAProxyContext {
         this.scriptsPath = System.getProperty(Constants.SCRIPTS_PATH);
         this.confFilePath = System.getProperty(Constants.CONF_FILE_PATH);
         this.statsSocketFilePath = System.getProperty(Constants.STATS_SOCKET_FILE_PATH);
+        this.serverSlotBlockSize = Math.max(1, Integer.getInteger(Constants.SERVER_SLOT_BLOCK_SIZE,
+                Constants.DEFAULT_SERVER_SLOT_BLOCK_SIZE));
         this.cepStatsPublisherEnabled = Boolean.getBoolean(Constants.CEP_STATS_PUBLISHER_ENABLED);
         this.thriftReceiverIp = System.getProperty(Constants.THRIFT_RECEIVER_IP);
         this.thriftReceiverPort = System.getProperty(Constants.THRIFT_RECEIVER_PORT);
@@ -67,6 +70,7 @@ public class HAProxyContext {
             log.debug(Constants.SCRIPTS_PATH + " = " + scriptsPath);
             log.debug(Constants.CONF_FILE_PATH + " = " + confFilePath);
             log.debug(Constants.STATS_SOCKET_FILE_PATH + " = " + statsSocketFilePath);
+            log.debug(Constants.SERVER_SLOT_BLOCK_SIZE + " = " + serverSlotBlockSize);
             log.debug(Constants.CEP_STATS_PUBLISHER_ENABLED + " = " + cepStatsPublisherEnabled);
             log.debug(Constants.THRIFT_RECEIVER_IP + " = " + thriftReceiverIp);
             log.debug(Constants.THRIFT_RECEIVER_PORT + " = " + thriftReceiverPort);
@@ -139,6 +143,10 @@ public class HAProxyContext {
         return statsSocketFilePath;
     }
 
+    public int getServerSlotBlockSize() {
+        return serverSlotBlockSize;
+    }
+
     public boolean isCEPStatsPublisherEnabled() {
         return cepStatsPublisherEnabled;
     }
@@ -26,23 +26,32 @@ import org.apache.stratos.common.util.CommandUtils;
 import org.apache.stratos.load.balancer.common.domain.Cluster;
 import org.apache.stratos.load.balancer.common.domain.Member;
 import org.apache.stratos.load.balancer.common.domain.Port;
-import org.apache.stratos.load.balancer.common.domain.Service;
 import org.apache.stratos.load.balancer.common.statistics.LoadBalancerStatisticsReader;
 import org.apache.stratos.load.balancer.common.topology.TopologyProvider;
 
-import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 
 /**
- * HAProxy statistics reader.
+ * HAProxy statistics reader. Statistics of all backends are read with a single "show stat" command
+ * and in-flight request counts of all clusters are served from the same statistics table.
  */
 public class HAProxyStatisticsReader implements LoadBalancerStatisticsReader {
 
     private static final Log log = LogFactory.getLog(HAProxyStatisticsReader.class);
+    // Statistics read within this period are reused, clusters are read one after the other by the notifier
+    private static final long STATISTICS_MAX_AGE = 1000;
+    private static final String BACKEND_SERVER_NAME = "BACKEND";
 
     private String scriptsPath;
     private String statsSocketFilePath;
     private TopologyProvider topologyProvider;
     private String clusterInstanceId;
+    private Map<String, Integer> backendSessionCounts = Collections.emptyMap();
+    private long statisticsReadTime;
 
     public HAProxyStatisticsReader(TopologyProvider topologyProvider) {
         this.scriptsPath = HAProxyContext.getInstance().getScriptsPath();
@@ -56,53 +65,94 @@ public class HAProxyStatisticsReader implements LoadBalancerStatisticsReader {
         return clusterInstanceId;
     }
 
+    /**
+     * Returns the number of current sessions of the backends of the given cluster.
+     */
     @Override
     public int getInFlightRequestCount(String clusterId) {
-        String frontendId, backendId, command, output;
-        String[] array;
-        int totalWeight, weight;
+        Cluster cluster = topologyProvider.getClusterByClusterId(clusterId);
+        if ((cluster == null) || (cluster.getMembers().size() == 0)) {
+            return 0;
+        }
 
-        for (Service service : topologyProvider.getTopology().getServices()) {
-            for (Cluster cluster : service.getClusters()) {
-                if (cluster.getClusterId().equals(clusterId)) {
-                    totalWeight = 0;
-                    if ((service.getPorts() == null) || (service.getPorts().size() == 0)) {
-                        throw new RuntimeException(String.format("No ports found in service: %s", service.getServiceName()));
-                    }
+        Map<String, Integer> sessionCounts = getBackendSessionCounts();
+        // Backends are written for the ports of the first member, see HAProxyConfigWriter
+        Iterator<Member> members = cluster.getMembers().iterator();
+        Collection<Port> ports = members.next().getPorts();
+        int sessionCount = 0;
+        for (Port port : ports) {
+            for (String hostname : cluster.getHostNames()) {
+                Integer count = sessionCounts.get(HAProxyConfigWriter.getBackendId(hostname, port));
+                if (count != null) {
+                    sessionCount += count;
+                }
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Cluster current sessions found: [cluster] %s [sessions] %d",
+                    cluster.getClusterId(), sessionCount));
+        }
+        return sessionCount;
+    }
+
+    private synchronized Map<String, Integer> getBackendSessionCounts() {
+        long currentTime = System.currentTimeMillis();
+        if (currentTime - statisticsReadTime > STATISTICS_MAX_AGE) {
+            try {
+                // echo "show stat" | socat stdio <stats-socket>
+                String output = CommandUtils.executeCommand(new String[]{scriptsPath + "/execute-command.sh",
+                        "show stat", statsSocketFilePath});
+                backendSessionCounts = parseBackendSessionCounts(output);
+            } catch (Exception e) {
+                if (log.isErrorEnabled()) {
+                    log.error("Could not read haproxy statistics", e);
+                }
+                backendSessionCounts = Collections.emptyMap();
+            }
+            statisticsReadTime = currentTime;
+        }
+        return backendSessionCounts;
+    }
 
-                    for (Port port : service.getPorts()) {
-                        for(String hostname : cluster.getHostNames()) {
-                            backendId = hostname+"-http-members";
-                            for (Member member : cluster.getMembers()) {
-                                // echo "get weight <backend>/<server>" | socat stdio <stats-socket>
-                                command = String.format("%s/get-weight.sh %s %s %s", scriptsPath, backendId, member.getMemberId(), statsSocketFilePath);
-                                try {
-                                    output = CommandUtils.executeCommand(command);
-                                    if ((output != null) && (output.length() > 0)) {
-                                        array = output.split(" ");
-                                        if ((array != null) && (array.length > 0)) {
-                                            weight = Integer.parseInt(array[0]);
-                                            if (log.isDebugEnabled()) {
-                                                log.debug(String.format("Member weight found: [cluster] %s [member] %s [weight] %d", member.getClusterId(), member.getMemberId(), weight));
-                                            }
-                                            totalWeight += weight;
-                                        }
-                                    }
-                                } catch (IOException e) {
-                                    if (log.isErrorEnabled()) {
-                                        log.error(e);
-                                    }
-                                }
-                            }
-                        }
+    /**
+     * Parse the current sessions (scur) of backends from "show stat" CSV output.
+     *
+     * @param output "show stat" output, the first line is the header: # pxname,svname,qcur,qmax,scur,...
+     * @return backend id to current session count
+     */
+    static Map<String, Integer> parseBackendSessionCounts(String output) {
+        Map<String, Integer> sessionCounts = new HashMap<String, Integer>();
+        int proxyNameIndex = -1, serverNameIndex = -1, currentSessionsIndex = -1;
+        for (String line : output.split("\\r?\\n")) {
+            if (line.startsWith("#")) {
+                String[] columns = line.substring(1).trim().split(",");
+                for (int i = 0; i < columns.length; i++) {
+                    if ("pxname".equals(columns[i])) {
+                        proxyNameIndex = i;
+                    } else if ("svname".equals(columns[i])) {
+                        serverNameIndex = i;
+                    } else if ("scur".equals(columns[i])) {
+                        currentSessionsIndex = i;
                     }
-                    if (log.isInfoEnabled()) {
-                        log.info(String.format("Cluster weight found: [cluster] %s [weight] %d", cluster.getClusterId(), totalWeight));
+                }
+                continue;
+            }
+            if ((currentSessionsIndex < 0) || (proxyNameIndex < 0) || (serverNameIndex < 0)) {
+                continue;
+            }
+
+            String[] values = line.split(",", -1);
+            if ((values.length > currentSessionsIndex) && BACKEND_SERVER_NAME.equals(values[serverNameIndex])) {
+                try {
+                    sessionCounts.put(values[proxyNameIndex], Integer.parseInt(values[currentSessionsIndex]));
+                } catch (NumberFormatException e) {
+                    if (log.isWarnEnabled()) {
+                        log.warn(String.format("Invalid current sessions value: [backend] %s [value] %s",
+                                values[proxyNameIndex], values[currentSessionsIndex]));
                     }
-                    return totalWeight;
                 }
             }
         }
-        return 0;
+        return sessionCounts;
     }
 }
@@ -20,4 +20,4 @@
 #
 # --------------------------------------------------------------
 
-echo "get weight $1/$2" | socat stdio $3
\ No newline at end of file
+echo "$1" | socat stdio $2
\ No newline at end of file
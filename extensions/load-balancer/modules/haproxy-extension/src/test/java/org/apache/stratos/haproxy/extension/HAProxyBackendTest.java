@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.haproxy.extension;
+
+import org.apache.stratos.load.balancer.common.domain.Member;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * HAProxy backend server slot tests.
+ */
+public class HAProxyBackendTest {
+
+    private static final String BACKEND_ID = "app.foo.org_http_8080_backend";
+
+    @Test
+    public void testMemberChangesAppliedToSlots() {
+        Member member1 = createMember("member-1", "10.0.0.1");
+        Member member2 = createMember("member-2", "10.0.0.2");
+        Member member3 = createMember("member-3", "10.0.0.3");
+
+        HAProxyBackend backend = new HAProxyBackend(BACKEND_ID, "http", 8080, 4);
+        backend.assignMembers(Arrays.asList(member1, member2), null);
+        Assert.assertEquals("slot-1", backend.getServerName("member-1"));
+        Assert.assertEquals("slot-2", backend.getServerName("member-2"));
+
+        // Remove member-1 and add member-3, member-2 keeps its slot
+        HAProxyBackend updatedBackend = new HAProxyBackend(BACKEND_ID, "http", 8080, 4);
+        List<String> commands = updatedBackend.assignMembers(Arrays.asList(member2, member3), backend);
+        Assert.assertEquals("slot-2", updatedBackend.getServerName("member-2"));
+        Assert.assertEquals("slot-1", updatedBackend.getServerName("member-3"));
+        Assert.assertNull(updatedBackend.getServerName("member-1"));
+        Assert.assertEquals(Arrays.asList(
+                "set server " + BACKEND_ID + "/slot-1 state maint",
+                "set server " + BACKEND_ID + "/slot-1 addr 10.0.0.3 port 8080",
+                "set server " + BACKEND_ID + "/slot-1 state ready"), commands);
+
+        StringBuilder configuration = new StringBuilder();
+        updatedBackend.appendConfiguration(configuration);
+        String[] lines = configuration.toString().split(System.getProperty("line.separator"));
+        Assert.assertEquals("\tserver slot-1 10.0.0.3:8080", lines[2]);
+        Assert.assertEquals("\tserver slot-2 10.0.0.2:8080", lines[3]);
+        Assert.assertEquals("\tserver slot-3 127.0.0.1:8080 disabled", lines[4]);
+    }
+
+    private Member createMember(String memberId, String hostName) {
+        return new Member("service1", "cluster1", memberId, hostName);
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.haproxy.extension;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+/**
+ * HAProxy statistics reader tests.
+ */
+public class HAProxyStatisticsReaderTest {
+
+    private static final String SHOW_STAT_OUTPUT =
+            "# pxname,svname,qcur,qmax,scur,smax,slim,stot,bin,bout,\n" +
+            "http_8080_frontend,FRONTEND,,,12,40,256,1200,0,0,\n" +
+            "app.foo.org_http_8080_backend,slot-1,0,0,4,10,,600,0,0,\n" +
+            "app.foo.org_http_8080_backend,slot-2,0,0,3,9,,580,0,0,\n" +
+            "app.foo.org_http_8080_backend,BACKEND,0,0,7,19,26,1180,0,0,\n" +
+            "bar.foo.org_http_8080_backend,BACKEND,0,0,5,8,26,20,0,0,\n" +
+            "\n";
+
+    @Test
+    public void testBackendSessionCountsParsed() {
+        Map<String, Integer> sessionCounts = HAProxyStatisticsReader.parseBackendSessionCounts(SHOW_STAT_OUTPUT);
+        Assert.assertEquals(2, sessionCounts.size());
+        Assert.assertEquals(Integer.valueOf(7), sessionCounts.get("app.foo.org_http_8080_backend"));
+        Assert.assertEquals(Integer.valueOf(5), sessionCounts.get("bar.foo.org_http_8080_backend"));
+    }
+}
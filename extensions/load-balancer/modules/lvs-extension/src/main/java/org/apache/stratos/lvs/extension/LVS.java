@@ -22,6 +22,7 @@ package org.apache.stratos.lvs.extension;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.common.util.CommandUtils;
+import org.apache.stratos.load.balancer.extension.api.ConfigurationRenderer;
 import org.apache.stratos.load.balancer.extension.api.LoadBalancer;
 import org.apache.stratos.load.balancer.extension.api.exception.LoadBalancerExtensionException;
 import org.apache.stratos.load.balancer.common.domain.Topology;
@@ -31,7 +32,7 @@ import java.io.File;
 /**
  * Lvs load balancer life-cycle implementation.
  */
-public class LVS implements LoadBalancer {
+public class LVS implements LoadBalancer, ConfigurationRenderer {
 
     private static final Log log = LogFactory.getLog(LVS.class);
 
@@ -47,6 +48,10 @@ public class LVS implements LoadBalancer {
 	private String scheduleAlgo;
 	private boolean isKeepAlivedUsed;
 
+    private LVSConfigWriter configWriter;
+
+    private volatile String renderedConfiguration;
+
     public LVS() {
         this.executableFilePath = LVSContext.getInstance().getExecutableFilePath();
         this.templatePath = LVSContext.getInstance().getTemplatePath();
@@ -67,12 +72,15 @@ public class LVS implements LoadBalancer {
      * @param topology
      * @throws LoadBalancerExtensionException
      */
-    public boolean configure(Topology topology) throws LoadBalancerExtensionException {
+    public synchronized boolean configure(Topology topology) throws LoadBalancerExtensionException {
         try {
             log.info("Generating lvs configuration...");
-            LVSConfigWriter writer = new LVSConfigWriter(templatePath, templateName, confFilePath, statsSocketFilePath,
-                                                         virtualIPsForServices,serverState,scheduleAlgo);
-            if(writer.write(topology)) {
+            if(configWriter == null) {
+                configWriter = new LVSConfigWriter(templatePath, templateName, confFilePath, statsSocketFilePath,
+                                                   virtualIPsForServices,serverState,scheduleAlgo);
+            }
+            if(configWriter.write(topology)) {
+                renderedConfiguration = configWriter.getConfiguration();
                 return true;
             }
             return false;
@@ -155,4 +163,9 @@ public class LVS implements LoadBalancer {
             throw new LoadBalancerExtensionException(e);
         }
     }
+
+    @Override
+    public String getRenderedConfiguration() {
+        return renderedConfiguration;
+    }
 }
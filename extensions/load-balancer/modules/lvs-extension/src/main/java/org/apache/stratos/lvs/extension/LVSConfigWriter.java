@@ -23,19 +23,30 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.common.util.CommandUtils;
 import org.apache.stratos.load.balancer.common.domain.*;
+import org.apache.stratos.load.balancer.extension.api.ClusterFragmentCache;
+import org.apache.stratos.load.balancer.extension.api.ConfigurationFileWriter;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.runtime.RuntimeConstants;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * LVS load balancer configuration writer.
+ * LVS load balancer configuration writer. Real servers are found per cluster and cached until the
+ * cluster changes. Clusters of a service share the virtual services of the service's virtual ip, hence
+ * real servers of all clusters are merged per virtual service (virtual-ip:proxy-port). ipvsadm virtual
+ * services are created once and only the real servers added or removed since the previous write are
+ * updated, the configuration file is only written if the configuration changed.
  */
 public class LVSConfigWriter {
 
@@ -52,6 +63,15 @@ public class LVSConfigWriter {
 	private String scheduleAlgo;
 	private boolean isKeepAlived=false;
 
+	private String configuration;
+	private Template template;
+	private boolean virtualServicesCleared;
+	private final List<String[]> virtualIPForServiceList;
+	private final ConfigurationFileWriter fileWriter;
+	private final ClusterFragmentCache<ClusterFragment> clusterFragmentCache;
+	// Real servers added to ipvsadm against virtual service (virtual-ip:proxy-port)
+	private final Map<String, Set<String>> ipvsVirtualServices = new LinkedHashMap<String, Set<String>>();
+
 	public LVSConfigWriter(String templatePath, String templateName, String confFilePath,
 	                       String statsSocketFilePath, String virtualIPsForServices, String serverState,
 	                       String scheduleAlgo) {
@@ -63,27 +83,58 @@ public class LVSConfigWriter {
 		this.virtualIPsForServices = virtualIPsForServices;
 		this.serverState = serverState;
 		this.scheduleAlgo = scheduleAlgo;
+		this.fileWriter = new ConfigurationFileWriter(confFilePath);
+
+		// Virtual ips are defined as service-name|virtual-ip,service-name|virtual-ip
+		this.virtualIPForServiceList = new ArrayList<String[]>();
+		for (String virtualIPForService : virtualIPsForServices.split(",")) {
+			virtualIPForServiceList.add(virtualIPForService.split("\\|"));
+		}
+
+		this.clusterFragmentCache = new ClusterFragmentCache<ClusterFragment>() {
+			@Override
+			protected ClusterFragment render(Cluster cluster, ClusterFragment previous) {
+				return findRealServers(cluster);
+			}
+		};
 	}
 
 	public boolean write(Topology topology) {
 
-		StringBuilder configurationBuilder = new StringBuilder();
-		StringBuilder virtualIPBuilder = new StringBuilder();
-		String state;
-		for (Service service : topology.getServices()) {
-			for (Cluster cluster : service.getClusters()) {
-				generateConfigurationForCluster(cluster, configurationBuilder, virtualIPBuilder,
-				                                virtualIPsForServices, scheduleAlgo,isKeepAlived);
-			}
+		if (!virtualServicesCleared) {
+			// Remove virtual services left by a previous run, virtual services are updated incrementally afterwards
+			executeCommand("ipvsadm --clear");
+			virtualServicesCleared = true;
 		}
 
-		// Start velocity engine
-		VelocityEngine ve = new VelocityEngine();
-		ve.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, templatePath);
-		ve.init();
+		// Merge real servers of all clusters per virtual service, only the changed clusters are searched again
+		Map<String, Set<String>> virtualServices = new LinkedHashMap<String, Set<String>>();
+		Set<String> virtualIPs = new LinkedHashSet<String>();
+		for (ClusterFragment fragment : clusterFragmentCache.update(topology)) {
+			for (Map.Entry<String, Set<String>> entry : fragment.virtualServices.entrySet()) {
+				Set<String> realServers = virtualServices.get(entry.getKey());
+				if (realServers == null) {
+					realServers = new LinkedHashSet<String>();
+					virtualServices.put(entry.getKey(), realServers);
+				}
+				realServers.addAll(entry.getValue());
+			}
+			virtualIPs.addAll(fragment.virtualIPs);
+		}
+		if (log.isDebugEnabled()) {
+			log.debug(String.format("Cluster real servers found: [changed clusters] %d",
+			                        clusterFragmentCache.getRenderedFragmentCount()));
+		}
+		updateIpvsVirtualServices(virtualServices);
 
-		// Open the template
-		Template t = ve.getTemplate(templateName);
+		StringBuilder configurationBuilder = new StringBuilder();
+		for (Map.Entry<String, Set<String>> entry : virtualServices.entrySet()) {
+			generateConfigurationForVirtualService(entry.getKey(), entry.getValue(), configurationBuilder);
+		}
+		StringBuilder virtualIPBuilder = new StringBuilder();
+		for (String virtualIP : virtualIPs) {
+			virtualIPBuilder.append(TAB).append(TAB).append(virtualIP).append(NEW_LINE);
+		}
 
 		// Insert strings into the template
 		VelocityContext context = new VelocityContext();
@@ -93,16 +144,12 @@ public class LVSConfigWriter {
 
 		// Create a new string from the template
 		StringWriter stringWriter = new StringWriter();
-		t.merge(context, stringWriter);
-		String configuration = stringWriter.toString();
+		getTemplate().merge(context, stringWriter);
+		configuration = stringWriter.toString();
 
 		// Write configuration file
 		try {
-			BufferedWriter writer = new BufferedWriter(new FileWriter(confFilePath));
-			writer.write(configuration);
-			writer.close();
-
-			if (log.isInfoEnabled()) {
+			if (fileWriter.write(configuration) && log.isInfoEnabled()) {
 				log.info(String.format("Configuration written to file: %s", confFilePath));
 			}
 			return true;
@@ -115,7 +162,56 @@ public class LVSConfigWriter {
 	}
 
 	/**
-	 * Generate configuration for a cluster with the following format:
+	 * Parse the template once and reuse it for subsequent writes.
+	 */
+	private Template getTemplate() {
+		if (template == null) {
+			// Start velocity engine
+			VelocityEngine ve = new VelocityEngine();
+			ve.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, templatePath);
+			ve.init();
+
+			// Open the template
+			template = ve.getTemplate(templateName);
+		}
+		return template;
+	}
+
+	/**
+	 * Find the virtual services of the cluster's service and the real servers of the cluster in each of them.
+	 *
+	 * @param cluster cluster to be searched
+	 * @return real servers of the cluster, null if the cluster has no members
+	 */
+	private ClusterFragment findRealServers(Cluster cluster) {
+
+		if((cluster.getMembers() == null) || (cluster.getMembers().size() == 0)) {
+			return null;
+		}
+
+		// Find port mappings
+		Member firstMember = (Member) cluster.getMembers().toArray()[0];
+		Collection<Port> ports = firstMember.getPorts();
+
+		ClusterFragment fragment = new ClusterFragment();
+		for (String[] virtualIpForService : virtualIPForServiceList) {
+			if (!virtualIpForService[0].equals(cluster.getServiceName())) {
+				continue;
+			}
+			for (Port port : ports) {
+				Set<String> realServers = new LinkedHashSet<String>();
+				for (Member member : cluster.getMembers()) {
+					realServers.add(member.getHostName() + ":" + port.getValue());
+				}
+				fragment.virtualServices.put(virtualIpForService[1] + ":" + port.getProxy(), realServers);
+			}
+			fragment.virtualIPs.add(virtualIpForService[1]);
+		}
+		return fragment;
+	}
+
+	/**
+	 * Generate configuration for a virtual service with the following format:
 	 * <p/>
 	 * virtual_server 10.10.10.10 80 {
 	 * delay_loop 10
@@ -139,103 +235,130 @@ public class LVSConfigWriter {
 	 * }
 	 * }
 	 *
-	 * @param cluster
-	 * @param text
+	 * @param virtualService virtual service as virtual-ip:proxy-port
+	 * @param realServers    real servers of all clusters as hostname:port
+	 * @param text           configuration builder
 	 */
-	private void generateConfigurationForCluster(Cluster cluster, StringBuilder text,
-	                                             StringBuilder virtualIPs, String virtualIPsForServices,
-	                                             String scheduleAlgo,boolean isKeepAlived) {
+	private void generateConfigurationForVirtualService(String virtualService, Set<String> realServers,
+	                                                    StringBuilder text) {
+		text.append("virtual_server ").append(toConfigurationAddress(virtualService)).append(" {")
+		    .append(NEW_LINE);
+		text.append(TAB).append("delay_loop 10").append(NEW_LINE);
+		text.append(TAB).append("lvs_sched ").append(scheduleAlgo).append(NEW_LINE);
+		text.append(TAB).append("lvs_method DR").append(NEW_LINE);
+		text.append(TAB).append("persistence_timeout 5").append(NEW_LINE);
+		text.append(TAB).append("protocol TCP").append(NEW_LINE).append(NEW_LINE);
 
-		if((cluster.getMembers() == null) || (cluster.getMembers().size() == 0)) {
-			return;
+		//Start real servers block
+		for (String realServer : realServers) {
+			text.append(TAB).append("real_server ").append(toConfigurationAddress(realServer)).append(" {")
+			    .append(NEW_LINE);
+			text.append(TAB).append(TAB).append("weight 50").append(NEW_LINE);
+			text.append(TAB).append(TAB).append("TCP_CHECK {").append(NEW_LINE);
+			text.append(TAB).append(TAB).append(TAB).append("connect_timeout 3").append(NEW_LINE);
+			text.append(TAB).append(TAB).append("}").append(NEW_LINE);
+			text.append(TAB).append("}").append(NEW_LINE);
 		}
+		text.append("}").append(NEW_LINE);
+	}
 
-		// Find port mappings
-		Member firstMember = (Member) cluster.getMembers().toArray()[0];
-		Collection<Port> ports = firstMember.getPorts();
+	private static String toConfigurationAddress(String address) {
+		int index = address.lastIndexOf(':');
+		return address.substring(0, index) + " " + address.substring(index + 1);
+	}
+
+	/**
+	 * Bring the ipvsadm virtual services in line with the given virtual services. Virtual services are
+	 * created once, real servers are added and removed individually so that the real servers of other
+	 * clusters sharing a virtual service are not interrupted.
+	 *
+	 * @param virtualServices real servers of all clusters against virtual service
+	 */
+	private void updateIpvsVirtualServices(Map<String, Set<String>> virtualServices) {
+		for (Iterator<Map.Entry<String, Set<String>>> iterator = ipvsVirtualServices.entrySet().iterator();
+		     iterator.hasNext(); ) {
+			Map.Entry<String, Set<String>> entry = iterator.next();
+			if (!virtualServices.containsKey(entry.getKey())) {
+				executeCommandIgnoringErrors("ipvsadm -D -t " + entry.getKey());
+				iterator.remove();
+			}
+		}
+
+		for (Map.Entry<String, Set<String>> entry : virtualServices.entrySet()) {
+			String virtualService = entry.getKey();
+			Set<String> addedRealServers = ipvsVirtualServices.get(virtualService);
+			if (addedRealServers == null) {
+				addVirtualService(virtualService);
+				addedRealServers = new LinkedHashSet<String>();
+				ipvsVirtualServices.put(virtualService, addedRealServers);
+			}
+			for (Iterator<String> iterator = addedRealServers.iterator(); iterator.hasNext(); ) {
+				String realServer = iterator.next();
+				if (!entry.getValue().contains(realServer)) {
+					executeCommandIgnoringErrors("ipvsadm -d -t " + virtualService + " -r " + realServer);
+					iterator.remove();
+				}
+			}
+			for (String realServer : entry.getValue()) {
+				if (!addedRealServers.contains(realServer)) {
+					executeCommand("ipvsadm -a -t " + virtualService + " -r " + realServer + " -m");
+					addedRealServers.add(realServer);
+				}
+			}
+		}
+	}
+
+	private void addVirtualService(String virtualService) {
+		try {
+			executeCommand("ipvsadm -A -t " + virtualService + " -s " + scheduleAlgo);
+		} catch (RuntimeException e) {
+			// Virtual service already exists, update its scheduling algorithm
+			if (log.isDebugEnabled()) {
+				log.debug(String.format("Could not add virtual service, editing it: [virtual-service] %s",
+				                        virtualService));
+			}
+			executeCommand("ipvsadm -E -t " + virtualService + " -s " + scheduleAlgo);
+		}
+	}
 
-		String commandClear = "ipvsadm --clear";
+	private void executeCommandIgnoringErrors(String command) {
 		try {
-			CommandUtils.executeCommand(commandClear);
+			executeCommand(command);
+		} catch (RuntimeException e) {
+			if (log.isWarnEnabled()) {
+				log.warn(String.format("Could not run the command: %s", command), e);
+			}
+		}
+	}
+
+	/**
+	 * Run the given ipvsadm command.
+	 *
+	 * @throws RuntimeException if the command could not be run or it reported an error
+	 */
+	void executeCommand(String command) {
+		try {
+			CommandUtils.executeCommand(command);
 		} catch (IOException e) {
 			if (log.isErrorEnabled()) {
-				log.error(String.format("Could not run the command: %s", commandClear));
+				log.error(String.format("Could not run the command: %s", command));
 			}
 			throw new RuntimeException(e);
 		}
+	}
 
-		String[] virtualIPForServiceArray;
-		if (virtualIPsForServices.contains(",")) {
-			virtualIPForServiceArray = virtualIPsForServices.split(",");
-		} else {
-			virtualIPForServiceArray = new String[1];
-			virtualIPForServiceArray[0] = virtualIPsForServices;
-		}
-		boolean isServiceAvailable = false;
-		for (int i = 0; i < virtualIPForServiceArray.length; i++) {
-			String[] virtualIpForService = virtualIPForServiceArray[i].split("\\|");
-		    for (Port port : ports) {
-			    String command = "ipvsadm -A -t " + virtualIpForService[1]+":" + port.getProxy()+ " -s " + scheduleAlgo;
-
-			    try {
-				    CommandUtils.executeCommand(command);
-			    } catch (IOException e) {
-				    if (log.isErrorEnabled()) {
-					    log.error(String.format("Could not run the command: %s", command));
-				    }
-				    throw new RuntimeException(e);
-			    }
-
-			    for (String hostname : cluster.getHostNames()) {
-				    if (virtualIpForService[0].equals(cluster.getServiceName())) {
-
-					    text.append("virtual_server ").append(virtualIpForService[1]).append(" ")
-					        .append(port.getProxy()).append(
-							    " {").append(
-							    NEW_LINE);
-					    text.append(TAB).append("delay_loop 10").append(NEW_LINE);
-					    text.append(TAB).append("lvs_sched ").append(scheduleAlgo).append(NEW_LINE);
-					    text.append(TAB).append("lvs_method DR").append(NEW_LINE);
-					    text.append(TAB).append("persistence_timeout 5").append(NEW_LINE);
-					    text.append(TAB).append("protocol TCP").append(NEW_LINE).append(NEW_LINE);
-
-					    //Start real servers block
-
-					    for (Member member : cluster.getMembers()) {
-						    // Start upstream server block
-						    text.append(TAB).append("real_server ").append(member.getHostName()).append(" ")
-						        .append(port.getValue()).append(" {")
-						        .append(NEW_LINE);
-						    text.append(TAB).append(TAB).append("weight 50").append(NEW_LINE);
-						    text.append(TAB).append(TAB).append("TCP_CHECK {").append(NEW_LINE);
-						    text.append(TAB).append(TAB).append(TAB).append("connect_timeout 3").append(NEW_LINE);
-						    text.append(TAB).append(TAB).append("}").append(NEW_LINE);
-						    text.append(TAB).append("}").append(NEW_LINE);
-						    String commandMember =
-								    "ipvsadm -a -t " + virtualIpForService[1] + ":" + port.getProxy() + " -r " +
-								    member.getHostName() + ":" + port.getValue() + " -m";
-
-						    try {
-							    CommandUtils.executeCommand(commandMember);
-						    } catch (IOException e) {
-							    if (log.isErrorEnabled()) {
-								    log.error(String.format("Could not run the command: %s", commandMember));
-							    }
-							    throw new RuntimeException(e);
-						    }
-					    }
-					    text.append("}").append(NEW_LINE);
-					    isServiceAvailable = true;
-					    virtualIPs.append(TAB).append(TAB).append(virtualIpForService[1]).append(NEW_LINE);
-
-				    }
-
-			    }
-		    }
-			if (!isServiceAvailable) {
-				log.warn(String.format("Given service is not available in the topology %s", virtualIpForService[0]));
-			}
-		}
+	/**
+	 * Get the configuration rendered by the last write() invocation.
+	 */
+	public String getConfiguration() {
+		return configuration;
+	}
 
+	/**
+	 * Real servers of a cluster against virtual service and the virtual ips of the cluster's service.
+	 */
+	private static class ClusterFragment {
+		private final Map<String, Set<String>> virtualServices = new LinkedHashMap<String, Set<String>>();
+		private final List<String> virtualIPs = new ArrayList<String>();
 	}
 }
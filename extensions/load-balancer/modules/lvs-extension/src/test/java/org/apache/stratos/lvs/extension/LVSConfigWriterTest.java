@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.lvs.extension;
+
+import org.apache.stratos.load.balancer.common.domain.Cluster;
+import org.apache.stratos.load.balancer.common.domain.Member;
+import org.apache.stratos.load.balancer.common.domain.Port;
+import org.apache.stratos.load.balancer.common.domain.Service;
+import org.apache.stratos.load.balancer.common.domain.Topology;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * LVS configuration writer tests, ipvsadm commands are run against an in-memory virtual service table.
+ */
+public class LVSConfigWriterTest {
+
+    private static final String TEMPLATE_PATH = "src/main/templates";
+    private static final String TEMPLATE_NAME = "keepalived.conf.template";
+    private static final String VIRTUAL_SERVICE = "10.0.0.100:80";
+
+    private File confFile;
+    private TestLVSConfigWriter writer;
+
+    @Before
+    public void setUp() throws Exception {
+        confFile = File.createTempFile("keepalived", ".conf");
+        confFile.delete();
+        writer = new TestLVSConfigWriter(confFile.getAbsolutePath());
+    }
+
+    @After
+    public void tearDown() {
+        confFile.delete();
+    }
+
+    /**
+     * Test clusters of a service share the virtual service of the service's virtual ip, changing or removing a
+     * cluster only adds or removes its own real servers.
+     */
+    @Test
+    public void testClustersOfServiceShareVirtualService() {
+        Topology topology = new Topology();
+        Service service = new Service("service1");
+        service.addPort(new Port("http", 8080, 80));
+        topology.addService(service);
+        service.addCluster(createCluster("cluster-1", "10.0.1.1", "10.0.1.2"));
+        service.addCluster(createCluster("cluster-2", "10.0.2.1"));
+
+        Assert.assertTrue(writer.write(topology));
+        Assert.assertEquals(realServers("10.0.1.1:8080", "10.0.1.2:8080", "10.0.2.1:8080"),
+                writer.virtualServices.get(VIRTUAL_SERVICE));
+        Assert.assertEquals("Virtual service rendered more than once", 1,
+                countOccurrences(writer.getConfiguration(), "virtual_server 10.0.0.100 80"));
+
+        // Member added to a cluster is added to the virtual service, other real servers are not touched
+        writer.commands.clear();
+        addMember(service.getCluster("cluster-2"), "10.0.2.2");
+        writer.write(topology);
+        Assert.assertEquals(Arrays.asList("ipvsadm -a -t " + VIRTUAL_SERVICE + " -r 10.0.2.2:8080 -m"),
+                writer.commands);
+
+        // Removed cluster only removes its own real servers
+        writer.commands.clear();
+        service.removeCluster("cluster-1");
+        writer.write(topology);
+        Assert.assertEquals(new HashSet<String>(Arrays.asList(
+                "ipvsadm -d -t " + VIRTUAL_SERVICE + " -r 10.0.1.1:8080",
+                "ipvsadm -d -t " + VIRTUAL_SERVICE + " -r 10.0.1.2:8080")), new HashSet<String>(writer.commands));
+        Assert.assertEquals(2, writer.commands.size());
+        Assert.assertEquals(realServers("10.0.2.1:8080", "10.0.2.2:8080"),
+                writer.virtualServices.get(VIRTUAL_SERVICE));
+
+        // Virtual service is deleted once no cluster uses it
+        writer.commands.clear();
+        service.removeCluster("cluster-2");
+        writer.write(topology);
+        Assert.assertEquals(Arrays.asList("ipvsadm -D -t " + VIRTUAL_SERVICE), writer.commands);
+        Assert.assertTrue(writer.virtualServices.isEmpty());
+    }
+
+    /**
+     * Test an existing virtual service is edited instead of failing the write.
+     */
+    @Test
+    public void testExistingVirtualServiceEdited() {
+        Topology topology = new Topology();
+        Service service = new Service("service1");
+        service.addPort(new Port("http", 8080, 80));
+        topology.addService(service);
+        service.addCluster(createCluster("cluster-1", "10.0.1.1"));
+
+        writer.clearedVirtualServices.add(VIRTUAL_SERVICE);
+        Assert.assertTrue(writer.write(topology));
+        Assert.assertTrue(writer.commands.contains("ipvsadm -E -t " + VIRTUAL_SERVICE + " -s wlc"));
+        Assert.assertEquals(realServers("10.0.1.1:8080"), writer.virtualServices.get(VIRTUAL_SERVICE));
+    }
+
+    private static Cluster createCluster(String clusterId, String... memberHostNames) {
+        Cluster cluster = new Cluster("service1", clusterId);
+        cluster.addHostName(clusterId + ".foo.org");
+        for (String memberHostName : memberHostNames) {
+            addMember(cluster, memberHostName);
+        }
+        return cluster;
+    }
+
+    private static void addMember(Cluster cluster, String hostName) {
+        Member member = new Member(cluster.getServiceName(), cluster.getClusterId(), "member-" + hostName,
+                hostName);
+        member.addPort(new Port("http", 8080, 80));
+        cluster.addMember(member);
+    }
+
+    private static Set<String> realServers(String... realServers) {
+        return new HashSet<String>(Arrays.asList(realServers));
+    }
+
+    private static int countOccurrences(String text, String value) {
+        int count = 0;
+        for (int index = text.indexOf(value); index >= 0; index = text.indexOf(value, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * LVS configuration writer running ipvsadm commands against an in-memory virtual service table, commands
+     * fail the way ipvsadm reports errors.
+     */
+    private static class TestLVSConfigWriter extends LVSConfigWriter {
+
+        private final List<String> commands = new ArrayList<String>();
+        private final Map<String, Set<String>> virtualServices = new HashMap<String, Set<String>>();
+        // Virtual services which survive ipvsadm --clear, e.g. created by another process afterwards
+        private final Set<String> clearedVirtualServices = new HashSet<String>();
+
+        private TestLVSConfigWriter(String confFilePath) {
+            super(TEMPLATE_PATH, TEMPLATE_NAME, confFilePath, null, "service1|10.0.0.100", "MASTER", "wlc");
+        }
+
+        @Override
+        void executeCommand(String command) {
+            commands.add(command);
+            String[] args = command.split(" ");
+            if (command.equals("ipvsadm --clear")) {
+                virtualServices.clear();
+                for (String virtualService : clearedVirtualServices) {
+                    virtualServices.put(virtualService, new HashSet<String>());
+                }
+            } else if (args[1].equals("-A")) {
+                if (virtualServices.containsKey(args[3])) {
+                    throw new RuntimeException("Service already exists");
+                }
+                virtualServices.put(args[3], new HashSet<String>());
+            } else if (args[1].equals("-E") || args[1].equals("-D")) {
+                if (!virtualServices.containsKey(args[3])) {
+                    throw new RuntimeException("No such service");
+                }
+                if (args[1].equals("-D")) {
+                    virtualServices.remove(args[3]);
+                }
+            } else if (args[1].equals("-a")) {
+                if (!virtualServices.containsKey(args[3]) || !virtualServices.get(args[3]).add(args[5])) {
+                    throw new RuntimeException("Destination already exists");
+                }
+            } else if (args[1].equals("-d")) {
+                if (!virtualServices.containsKey(args[3]) || !virtualServices.get(args[3]).remove(args[5])) {
+                    throw new RuntimeException("No such destination");
+                }
+            } else {
+                throw new RuntimeException("Unknown command: " + command);
+            }
+        }
+    }
+}
@@ -22,6 +22,7 @@ package org.apache.stratos.nginx.extension;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.common.util.CommandUtils;
+import org.apache.stratos.load.balancer.extension.api.ConfigurationRenderer;
 import org.apache.stratos.load.balancer.extension.api.LoadBalancer;
 import org.apache.stratos.load.balancer.extension.api.exception.LoadBalancerExtensionException;
 import org.apache.stratos.load.balancer.common.domain.Topology;
@@ -31,7 +32,7 @@ import java.io.File;
 /**
  * Nginx load balancer life-cycle implementation.
  */
-public class Nginx implements LoadBalancer {
+public class Nginx implements LoadBalancer, ConfigurationRenderer {
 
     private static final Log log = LogFactory.getLog(Nginx.class);
 
@@ -42,6 +43,10 @@ public class Nginx implements LoadBalancer {
     private String confFilePath;
     private String statsSocketFilePath;
 
+    private NginxConfigWriter configWriter;
+
+    private volatile String renderedConfiguration;
+
     public Nginx() {
         this.executableFilePath = NginxContext.getInstance().getExecutableFilePath();
         this.templatePath = NginxContext.getInstance().getTemplatePath();
@@ -49,6 +54,7 @@ public class Nginx implements LoadBalancer {
         this.confFilePath = NginxContext.getInstance().getConfFilePath();
         this.processIdFilePath = confFilePath.replace(".cfg", ".pid");
         this.statsSocketFilePath = NginxContext.getInstance().getStatsSocketFilePath();
+        this.configWriter = new NginxConfigWriter(templatePath, templateName, confFilePath, statsSocketFilePath);
     }
 
     /**
@@ -56,11 +62,11 @@ public class Nginx implements LoadBalancer {
      * @param topology
      * @throws LoadBalancerExtensionException
      */
-    public boolean configure(Topology topology) throws LoadBalancerExtensionException {
+    public synchronized boolean configure(Topology topology) throws LoadBalancerExtensionException {
         try {
             log.info("Generating nginx configuration...");
-            NginxConfigWriter writer = new NginxConfigWriter(templatePath, templateName, confFilePath, statsSocketFilePath);
-            if(writer.write(topology)) {
+            if(configWriter.write(topology)) {
+                renderedConfiguration = configWriter.getConfiguration();
                 return true;
             }
             return false;
@@ -137,4 +143,9 @@ public class Nginx implements LoadBalancer {
             throw new LoadBalancerExtensionException(e);
         }
     }
+
+    @Override
+    public String getRenderedConfiguration() {
+        return renderedConfiguration;
+    }
 }
@@ -22,19 +22,20 @@ package org.apache.stratos.nginx.extension;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.load.balancer.common.domain.*;
+import org.apache.stratos.load.balancer.extension.api.ClusterFragmentCache;
+import org.apache.stratos.load.balancer.extension.api.ConfigurationFileWriter;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.runtime.RuntimeConstants;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.*;
 
 /**
- * Nginx load balancer configuration writer.
+ * Nginx load balancer configuration writer. Upstream servers are found per cluster and cached until
+ * the cluster changes, the configuration file is only written if the configuration changed.
  */
 public class NginxConfigWriter {
 
@@ -47,6 +48,11 @@ public class NginxConfigWriter {
     private String confFilePath;
     private String statsSocketFilePath;
 
+    private String configuration;
+    private Template template;
+    private final ConfigurationFileWriter fileWriter;
+    private final ClusterFragmentCache<ClusterServers> clusterServersCache;
+
     public NginxConfigWriter(String templatePath, String templateName, String confFilePath,
                              String statsSocketFilePath) {
 
@@ -54,96 +60,71 @@ public class NginxConfigWriter {
         this.templateName = templateName;
         this.confFilePath = confFilePath;
         this.statsSocketFilePath = statsSocketFilePath;
+        this.fileWriter = new ConfigurationFileWriter(confFilePath);
+        this.clusterServersCache = new ClusterFragmentCache<ClusterServers>() {
+            @Override
+            protected ClusterServers render(Cluster cluster, ClusterServers previous) {
+                return findClusterServers(cluster);
+            }
+        };
     }
 
     public boolean write(Topology topology) {
-        List<Port> availablePorts = new ArrayList<Port>();
         for (Service service : topology.getServices()) {
-            for (Cluster cluster : service.getClusters()) {
-                if ((service.getPorts() == null) || (service.getPorts().size() == 0)) {
-                    throw new RuntimeException(String.format("No ports found in service: %s", service.getServiceName()));
+            if ((service.getClusters().size() > 0) && ((service.getPorts() == null) || (service.getPorts().size() == 0))) {
+                throw new RuntimeException(String.format("No ports found in service: %s", service.getServiceName()));
+            }
+        }
+
+        // Merge servers of all clusters, only the changed clusters are searched again
+        List<Port> availablePorts = new ArrayList<Port>();
+        Map<String, Map<String, List>> hostnameToPortMap = new HashMap<String, Map<String, List>>();
+        for (ClusterServers clusterServers : clusterServersCache.update(topology)) {
+            for (Port port : clusterServers.ports) {
+                if (!containsPort(availablePorts, port)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Available protocols : " + port.getProtocol() + " proxy val: " +
+                                port.getProxy() + "\n");
+                    }
+                    availablePorts.add(port);
                 }
-                for (Member member : cluster.getMembers()) {
-                    Collection<Port> ports = member.getPorts();
-                    for(Port port : ports) {
-                        boolean protocolFound = false;
-                        for(Port availablePort : availablePorts) {
-                            if ((availablePort.getProtocol().equals(port.getProtocol()))) {
-                                protocolFound = true;
-                                break;
-                            }
-                        }
-                        if(!protocolFound) {
-                            if (log.isDebugEnabled()) {
-                                log.debug("Available protocols : " + port.getProtocol() + " proxy val: " +
-                                        port.getProxy() + "\n");
-                            }
-                            availablePorts.add(port);
-                        } else {
-                            boolean proxyFound = false;
-                            for(Port availablePort : availablePorts) {
-                                if (availablePort.getProtocol().equals(port.getProtocol()) &&
-                                        availablePort.getProxy() == port.getProxy()) {
-                                    proxyFound = true;
-                                    break;
-                                }
-                            }
-
-                            if(!proxyFound) {
-                                if (log.isDebugEnabled()) {
-                                    log.debug("Available protocols : " + port.getProtocol() + " proxy val: " +
-                                            port.getProxy() + "\n");
-                                }
-                                availablePorts.add(port);
-                            }
+            }
+            for (Map.Entry<String, Map<String, List>> entry : clusterServers.hostnameToPortMap.entrySet()) {
+                Map<String, List> existingHostNameToServerMap = hostnameToPortMap.get(entry.getKey());
+                if (existingHostNameToServerMap == null) {
+                    existingHostNameToServerMap = new TreeMap<String, List>();
+                    hostnameToPortMap.put(entry.getKey(), existingHostNameToServerMap);
+                }
+                for (Map.Entry<String, List> hostnameEntry : entry.getValue().entrySet()) {
+                    List<String> serverList = existingHostNameToServerMap.get(hostnameEntry.getKey());
+                    if (serverList == null) {
+                        serverList = new ArrayList<String>();
+                        existingHostNameToServerMap.put(hostnameEntry.getKey(), serverList);
+                    }
+                    for (Object server : hostnameEntry.getValue()) {
+                        if (!serverList.contains(server)) {
+                            serverList.add((String) server);
                         }
                     }
                 }
-
             }
         }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Cluster servers found: [changed clusters] %d",
+                    clusterServersCache.getRenderedFragmentCount()));
+        }
 
         //Constructing the port list
         List<Map<String, String>> portList = new ArrayList<Map<String, String>>();
         Map<String, String> portMap;
-
-        Map<String, Map<String, List>> hostnameToPortMap = new HashMap<String, Map<String, List>>();
-
         for (Port availPort : availablePorts) {
             portMap = new HashMap<String, String>();
             portMap.put("proxy", String.valueOf(availPort.getProxy()));
             portMap.put("protocol", availPort.getProtocol());
             portMap.put("value", String.valueOf(availPort.getValue()));
             portList.add(portMap);
-
-
-            for (Service service : topology.getServices()) {
-                for (Cluster cluster : service.getClusters()) {
-                    Map<String, List> existingHostNameToServerMap = hostnameToPortMap.
-                            get(String.valueOf(availPort.getProxy()));
-                    if(existingHostNameToServerMap == null) {
-                        existingHostNameToServerMap = new HashMap<String, List>();
-                    }
-                    if ((service.getPorts() == null) || (service.getPorts().size() == 0)) {
-                        throw new RuntimeException(String.format("No ports found in service: %s",
-                                service.getServiceName()));
-                    }
-                    generateConfigurationForCluster(cluster, availPort, existingHostNameToServerMap);
-                    hostnameToPortMap.put(String.valueOf(availPort.getProxy()), existingHostNameToServerMap);
-
-                }
-            }
         }
 
-
-        // Start velocity engine
-        VelocityEngine ve = new VelocityEngine();
-        ve.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, templatePath);
-        ve.init();
-
-        // Open the template
-        Template t = ve.getTemplate(templateName);
-
         // Insert strings into the template
         VelocityContext context = new VelocityContext();
         context.put("portlist", portList);
@@ -151,16 +132,12 @@ public class NginxConfigWriter {
 
         // Create a new string from the template
         StringWriter stringWriter = new StringWriter();
-        t.merge(context, stringWriter);
-        String configuration = stringWriter.toString();
+        getTemplate().merge(context, stringWriter);
+        configuration = stringWriter.toString();
 
         // Write configuration file
         try {
-            BufferedWriter writer = new BufferedWriter(new FileWriter(confFilePath));
-            writer.write(configuration);
-            writer.close();
-
-            if (log.isInfoEnabled()) {
+            if (fileWriter.write(configuration) && log.isInfoEnabled()) {
                 log.info(String.format("Configuration written to file: %s", confFilePath));
             }
             return true;
@@ -172,6 +149,56 @@ public class NginxConfigWriter {
         }
     }
 
+    /**
+     * Parse the template once and reuse it for subsequent writes.
+     */
+    private Template getTemplate() {
+        if (template == null) {
+            // Start velocity engine
+            VelocityEngine ve = new VelocityEngine();
+            ve.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, templatePath);
+            ve.init();
+
+            // Open the template
+            template = ve.getTemplate(templateName);
+        }
+        return template;
+    }
+
+    /**
+     * Find the proxy ports of the cluster members and the upstream servers of each proxy port and hostname.
+     */
+    private ClusterServers findClusterServers(Cluster cluster) {
+        ClusterServers clusterServers = new ClusterServers();
+        for (Member member : cluster.getMembers()) {
+            Collection<Port> ports = member.getPorts();
+            for (Port port : ports) {
+                if (!containsPort(clusterServers.ports, port)) {
+                    clusterServers.ports.add(port);
+                }
+            }
+        }
+        for (Port port : clusterServers.ports) {
+            String proxy = String.valueOf(port.getProxy());
+            Map<String, List> existingHostNameToServerMap = clusterServers.hostnameToPortMap.get(proxy);
+            if (existingHostNameToServerMap == null) {
+                existingHostNameToServerMap = new TreeMap<String, List>();
+                clusterServers.hostnameToPortMap.put(proxy, existingHostNameToServerMap);
+            }
+            generateConfigurationForCluster(cluster, port, existingHostNameToServerMap);
+        }
+        return clusterServers;
+    }
+
+    private boolean containsPort(List<Port> ports, Port port) {
+        for (Port existingPort : ports) {
+            if (existingPort.getProtocol().equals(port.getProtocol()) && (existingPort.getProxy() == port.getProxy())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void generateConfigurationForCluster(Cluster cluster, Port availPort, Map<String, List> existingHostNameToServerMap) {
         for (String hostname : cluster.getHostNames()) {
             boolean memberFound = false;
@@ -227,4 +254,25 @@ public class NginxConfigWriter {
         }
     }
 
+    /**
+     * Get the configuration rendered by the last write() invocation.
+     */
+    public String getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Get the number of clusters searched for upstream servers by the last write() invocation.
+     */
+    int getChangedClusterCount() {
+        return clusterServersCache.getRenderedFragmentCount();
+    }
+
+    /**
+     * Proxy ports and upstream servers of a cluster.
+     */
+    private static class ClusterServers {
+        private final List<Port> ports = new ArrayList<Port>();
+        private final Map<String, Map<String, List>> hostnameToPortMap = new HashMap<String, Map<String, List>>();
+    }
 }
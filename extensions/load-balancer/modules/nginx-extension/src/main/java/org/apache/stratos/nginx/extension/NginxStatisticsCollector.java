@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.nginx.extension;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.HttpHostConnectException;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Nginx statistics collector. Scrapes http://127.0.0.1:<proxy-port>/nginx_status using a keep-alive
+ * http client and keeps the writing counts in a snapshot which is shared by all clusters. Nginx status
+ * counters are server wide, every proxy port reports the same writing count, hence a single port is
+ * scraped and its count is used for all proxy ports.
+ */
+public class NginxStatisticsCollector {
+
+    private static final Log log = LogFactory.getLog(NginxStatisticsCollector.class);
+    private static final int TIMEOUT = 5000;
+    private static final Pattern WRITING_PATTERN = Pattern.compile("Writing: (\\d+)");
+
+    private final CloseableHttpClient httpClient;
+    private final long snapshotMaxAge;
+    private Map<Integer, Integer> writingCounts = Collections.emptyMap();
+    private Set<Integer> snapshotPorts = Collections.emptySet();
+    private long snapshotTime;
+
+    /**
+     * @param snapshotMaxAge time in milliseconds a snapshot is reused before scraping again
+     */
+    public NginxStatisticsCollector(long snapshotMaxAge) {
+        RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(TIMEOUT)
+                .setSocketTimeout(TIMEOUT).setConnectionRequestTimeout(TIMEOUT).build();
+        this.httpClient = HttpClients.custom().setDefaultRequestConfig(requestConfig).build();
+        this.snapshotMaxAge = snapshotMaxAge;
+    }
+
+    /**
+     * Get writing counts of the given proxy ports, nginx status is scraped again if the snapshot has expired.
+     *
+     * @param proxyPorts proxy ports of all services
+     * @return proxy port to writing count, empty if none of the ports could be scraped
+     */
+    public synchronized Map<Integer, Integer> getWritingCounts(Collection<Integer> proxyPorts) {
+        long currentTime = System.currentTimeMillis();
+        if ((currentTime - snapshotTime > snapshotMaxAge) || !snapshotPorts.containsAll(proxyPorts)) {
+            writingCounts = scrape(proxyPorts);
+            snapshotPorts = new HashSet<Integer>(proxyPorts);
+            snapshotTime = currentTime;
+        }
+        return writingCounts;
+    }
+
+    private Map<Integer, Integer> scrape(Collection<Integer> proxyPorts) {
+        // Ports are tried one after the other until nginx status is found, hence only one status request
+        // is in progress while the writing count is read
+        for (Integer proxyPort : proxyPorts) {
+            Integer writingCount = findWritingCount(proxyPort);
+            if (writingCount != null) {
+                Map<Integer, Integer> counts = new HashMap<Integer, Integer>();
+                for (Integer port : proxyPorts) {
+                    counts.put(port, writingCount);
+                }
+                return counts;
+            }
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Make a http request to http://127.0.0.1:<proxy-port>/nginx_status and find writing count.
+     *
+     * @return writing count, null if it could not be found
+     */
+    private Integer findWritingCount(int proxyPort) {
+        String url = "http://127.0.0.1:" + proxyPort + "/nginx_status";
+        try {
+            CloseableHttpResponse response = httpClient.execute(new HttpGet(url));
+            try {
+                HttpEntity entity = response.getEntity();
+                // Read the entity completely to release the connection to the pool
+                String result = (entity != null) ? EntityUtils.toString(entity) : "";
+                if (response.getStatusLine().getStatusCode() != 200) {
+                    throw new RuntimeException(url + " was not found");
+                }
+                Matcher matcher = WRITING_PATTERN.matcher(result);
+                if (matcher.find()) {
+                    // Deduct one to remove the above request
+                    int writingCount = Math.max(0, Integer.parseInt(matcher.group(1)) - 1);
+                    if (log.isDebugEnabled()) {
+                        log.debug(String.format("Writing count: [proxy] %d [value] %d", proxyPort, writingCount));
+                    }
+                    return writingCount;
+                }
+                throw new RuntimeException("Writing block was not found in nginx_status response");
+            } finally {
+                response.close();
+            }
+        } catch (HttpHostConnectException ignore) {
+            if ((ignore.getMessage() != null) && ignore.getMessage().contains("Connection refused")) {
+                log.warn("Could not find in-flight request count, connection refused: " + url);
+            }
+        } catch (Exception e) {
+            log.error("Could not find in-flight request count: " + url, e);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.nginx.extension;
+
+import org.apache.stratos.load.balancer.common.domain.Cluster;
+import org.apache.stratos.load.balancer.common.domain.Member;
+import org.apache.stratos.load.balancer.common.domain.Port;
+import org.apache.stratos.load.balancer.common.domain.Service;
+import org.apache.stratos.load.balancer.common.domain.Topology;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Nginx configuration writer tests, the configuration is rendered using the nginx configuration template.
+ */
+public class NginxConfigWriterTest {
+
+    private static final String TEMPLATE_PATH = "src/main/templates";
+    private static final String TEMPLATE_NAME = "nginx.cfg.template";
+
+    private File confFile;
+
+    @Before
+    public void setUp() throws Exception {
+        confFile = File.createTempFile("nginx", ".conf");
+        confFile.delete();
+    }
+
+    @After
+    public void tearDown() {
+        confFile.delete();
+    }
+
+    /**
+     * Test only the changed clusters are searched for upstream servers again and the configuration file is
+     * not written again if the configuration did not change.
+     */
+    @Test
+    public void testUnchangedClustersNotRendered() throws Exception {
+        Topology topology = new Topology();
+        Service service = new Service("service1");
+        service.addPort(new Port("http", 8080, 80));
+        topology.addService(service);
+        for (int i = 0; i < 10; i++) {
+            Cluster cluster = new Cluster("service1", "cluster-" + i);
+            cluster.addHostName("cluster-" + i + ".foo.org");
+            addMember(cluster, "member-" + i, "10.0.0." + i);
+            service.addCluster(cluster);
+        }
+
+        NginxConfigWriter writer = new NginxConfigWriter(TEMPLATE_PATH, TEMPLATE_NAME,
+                confFile.getAbsolutePath(), null);
+        Assert.assertTrue(writer.write(topology));
+        Assert.assertEquals(10, writer.getChangedClusterCount());
+        Assert.assertTrue(confFile.exists());
+        String configuration = writer.getConfiguration();
+
+        // Move the modification time back so that a rewrite of the file can be detected
+        FileTime modifiedTime = FileTime.fromMillis(confFile.lastModified() - 60000);
+        Files.setLastModifiedTime(confFile.toPath(), modifiedTime);
+        Assert.assertTrue(writer.write(topology));
+        Assert.assertEquals("Unchanged clusters rendered", 0, writer.getChangedClusterCount());
+        Assert.assertEquals(configuration, writer.getConfiguration());
+        Assert.assertEquals("Unchanged configuration written", modifiedTime,
+                Files.getLastModifiedTime(confFile.toPath()));
+
+        addMember(service.getCluster("cluster-3"), "member-10", "10.0.1.1");
+        Assert.assertTrue(writer.write(topology));
+        Assert.assertEquals(1, writer.getChangedClusterCount());
+        Assert.assertNotEquals(modifiedTime, Files.getLastModifiedTime(confFile.toPath()));
+    }
+
+    private void addMember(Cluster cluster, String memberId, String hostName) {
+        Member member = new Member(cluster.getServiceName(), cluster.getClusterId(), memberId, hostName);
+        member.addPort(new Port("http", 8080, 80));
+        cluster.addMember(member);
+    }
+}
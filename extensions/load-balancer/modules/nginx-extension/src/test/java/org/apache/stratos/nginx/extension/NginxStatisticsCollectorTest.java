@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.nginx.extension;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Nginx statistics collector tests, nginx_status is served by local http stubs.
+ */
+public class NginxStatisticsCollectorTest {
+
+    private static final long SNAPSHOT_MAX_AGE = 200;
+
+    private final List<HttpServer> servers = new ArrayList<HttpServer>();
+
+    @After
+    public void tearDown() {
+        for (HttpServer server : servers) {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Test the writing count is parsed from nginx_status excluding the status request itself and is used
+     * for all proxy ports.
+     */
+    @Test
+    public void testWritingCountParsed() throws IOException {
+        StatusHandler handler = new StatusHandler(200, status(5));
+        int port = startServer(handler);
+        int otherPort = startServer(new StatusHandler(200, status(9)));
+
+        NginxStatisticsCollector collector = new NginxStatisticsCollector(SNAPSHOT_MAX_AGE);
+        Map<Integer, Integer> writingCounts = collector.getWritingCounts(Arrays.asList(port, otherPort));
+
+        // Nginx status counters are server wide, a single port is scraped
+        Assert.assertEquals(2, writingCounts.size());
+        Assert.assertEquals(Integer.valueOf(4), writingCounts.get(port));
+        Assert.assertEquals(Integer.valueOf(4), writingCounts.get(otherPort));
+        Assert.assertEquals(1, handler.getRequestCount());
+    }
+
+    /**
+     * Test a port responding with an error status is skipped and the next port is scraped.
+     */
+    @Test
+    public void testErrorResponseSkipped() throws IOException {
+        StatusHandler notFoundHandler = new StatusHandler(404, "Not Found");
+        int notFoundPort = startServer(notFoundHandler);
+        StatusHandler handler = new StatusHandler(200, status(3));
+        int port = startServer(handler);
+
+        NginxStatisticsCollector collector = new NginxStatisticsCollector(SNAPSHOT_MAX_AGE);
+        Map<Integer, Integer> writingCounts = collector.getWritingCounts(Arrays.asList(notFoundPort, port));
+
+        Assert.assertEquals(1, notFoundHandler.getRequestCount());
+        Assert.assertEquals(1, handler.getRequestCount());
+        Assert.assertEquals(Integer.valueOf(2), writingCounts.get(notFoundPort));
+        Assert.assertEquals(Integer.valueOf(2), writingCounts.get(port));
+
+        // No writing count is reported if none of the ports respond with nginx status
+        collector = new NginxStatisticsCollector(SNAPSHOT_MAX_AGE);
+        Assert.assertTrue(collector.getWritingCounts(Arrays.asList(notFoundPort)).isEmpty());
+    }
+
+    /**
+     * Test the snapshot is reused until it expires or until a new proxy port is requested.
+     */
+    @Test
+    public void testSnapshotReused() throws IOException, InterruptedException {
+        StatusHandler handler = new StatusHandler(200, status(5));
+        int port = startServer(handler);
+
+        NginxStatisticsCollector collector = new NginxStatisticsCollector(SNAPSHOT_MAX_AGE);
+        Assert.assertEquals(Integer.valueOf(4), collector.getWritingCounts(Arrays.asList(port)).get(port));
+
+        handler.setResponse(status(8));
+        Assert.assertEquals(Integer.valueOf(4), collector.getWritingCounts(Arrays.asList(port)).get(port));
+        Assert.assertEquals(1, handler.getRequestCount());
+
+        // A port which is not in the snapshot requires scraping again
+        int otherPort = startServer(new StatusHandler(200, status(1)));
+        Map<Integer, Integer> writingCounts = collector.getWritingCounts(Arrays.asList(port, otherPort));
+        Assert.assertEquals(Integer.valueOf(7), writingCounts.get(otherPort));
+        Assert.assertEquals(2, handler.getRequestCount());
+
+        handler.setResponse(status(2));
+        Thread.sleep(SNAPSHOT_MAX_AGE * 2);
+        Assert.assertEquals(Integer.valueOf(1), collector.getWritingCounts(Arrays.asList(port)).get(port));
+        Assert.assertEquals(3, handler.getRequestCount());
+    }
+
+    private int startServer(StatusHandler handler) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0), 0);
+        server.createContext("/nginx_status", handler);
+        server.start();
+        servers.add(server);
+        return server.getAddress().getPort();
+    }
+
+    private static String status(int writingCount) {
+        return "Active connections: 3 \nserver accepts handled requests\n 10 10 20 \n" +
+                "Reading: 0 Writing: " + writingCount + " Waiting: 2 \n";
+    }
+
+    /**
+     * Http handler responding with the given status code and body, counts the requests received.
+     */
+    private static class StatusHandler implements HttpHandler {
+
+        private final int statusCode;
+        private final AtomicInteger requestCount = new AtomicInteger();
+        private volatile String response;
+
+        private StatusHandler(int statusCode, String response) {
+            this.statusCode = statusCode;
+            this.response = response;
+        }
+
+        private void setResponse(String response) {
+            this.response = response;
+        }
+
+        private int getRequestCount() {
+            return requestCount.get();
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            requestCount.incrementAndGet();
+            byte[] body = response.getBytes(Charset.forName("UTF-8"));
+            exchange.sendResponseHeaders(statusCode, body.length);
+            OutputStream outputStream = exchange.getResponseBody();
+            try {
+                outputStream.write(body);
+            } finally {
+                outputStream.close();
+            }
+        }
+    }
+}